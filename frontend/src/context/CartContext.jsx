@@ -1,6 +1,7 @@
 import { createContext, useState, useEffect } from "react";
 import { toast, ToastContainer } from "react-toastify";
 import 'react-toastify/dist/ReactToastify.css';
+import { imageSrc } from "../services/imageUrl";
 
 // Create Cart Context
 export const CartContext = createContext();
@@ -56,7 +57,7 @@ export function CartProvider({ children }) {
                 <div className="flex-shrink-0 mr-3">
                     {record.imageUrl ? (
                         <img
-                            src={record.imageUrl}
+                            src={imageSrc(record.imageUrl)}
                             alt={record.title}
                             className="w-12 h-12 object-cover rounded-md"
                         />
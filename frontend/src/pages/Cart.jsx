@@ -4,6 +4,7 @@ import { Link, useNavigate } from "react-router-dom";
 import { motion } from "framer-motion";
 import Header from "../components/Header";
 import Footer from "../components/Footer";
+import { imageSrc } from "../services/imageUrl";
 
 export default function Cart() {
     const { cart, removeFromCart, updateQuantity, clearCart, totalItems, totalPrice } = useContext(CartContext);
@@ -101,7 +102,7 @@ export default function Cart() {
                                             <div className="w-28 h-28 bg-gray-100 rounded-lg overflow-hidden flex-shrink-0">
                                                 {item.imageUrl ? (
                                                     <img
-                                                        src={item.imageUrl}
+                                                        src={imageSrc(item.imageUrl)}
                                                         alt={item.title}
                                                         className="w-full h-full object-cover"
                                                     />
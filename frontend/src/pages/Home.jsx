@@ -1,5 +1,6 @@
 import {useState, useEffect, useContext} from "react";
 import axios from "axios";
+import { imageSrc } from "../services/imageUrl";
 import { motion, AnimatePresence } from "framer-motion";
 import { Link } from "react-router-dom";
 import { CartContext } from "../context/CartContext";
@@ -142,7 +143,7 @@ export default function Home() {
                                                 <div className="h-64 bg-gray-100 relative">
                                                     {record.imageUrl ? (
                                                         <img
-                                                            src={record.imageUrl}
+                                                            src={imageSrc(record.imageUrl)}
                                                             alt={record.title}
                                                             className="w-full h-full object-cover"
                                                         />
@@ -2,6 +2,7 @@ import {useState, useEffect, useContext} from "react";
 import { CartContext } from "../context/CartContext";
 import { Link } from "react-router-dom";
 import axios from "axios";
+import { imageSrc } from "../services/imageUrl";
 import { motion } from "framer-motion";
 import { useLocation, useNavigate } from "react-router-dom";
 import Header from "../components/Header";
@@ -287,7 +288,7 @@ export default function Records() {
                                             <Link to={`/records/${record.id}`} className="block h-64 bg-gray-100 relative overflow-hidden">
                                                 {record.imageUrl ? (
                                                     <img
-                                                        src={record.imageUrl}
+                                                        src={imageSrc(record.imageUrl)}
                                                         alt={record.title}
                                                         className="w-full h-full object-cover group-hover:scale-105 transition-transform duration-300"
                                                     />
@@ -1,6 +1,7 @@
 import {useState, useEffect, useContext} from "react";
 import { motion } from "framer-motion";
 import axios from "axios";
+import { imageSrc } from "../services/imageUrl";
 import Header from "../components/Header";
 import Footer from "../components/Footer";
 import { Link } from "react-router-dom";
@@ -67,7 +68,7 @@ export default function Sale() {
                                     <Link to={`/records/${record.id}`} className="block h-64 bg-gray-100 relative overflow-hidden">
                                         {record.imageUrl ? (
                                             <img
-                                                src={record.imageUrl}
+                                                src={imageSrc(record.imageUrl)}
                                                 alt={record.title}
                                                 className="w-full h-full object-cover group-hover:scale-105 transition-transform duration-300"
                                             />
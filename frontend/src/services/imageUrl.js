@@ -0,0 +1,4 @@
+const API_ORIGIN = "http://localhost:8080";
+
+// Proxied covers are stored as API-relative paths ("/api/covers/..."), uploaded ones as absolute URLs
+export const imageSrc = (url) => (url && url.startsWith("/") ? `${API_ORIGIN}${url}` : url);
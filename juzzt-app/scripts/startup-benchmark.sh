@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+# Startup benchmark: time from launch to the first successful request, and resident memory at that point.
+#
+#   mvn -Paot-cds -DskipTests package      # builds the jar, AOT code and target/cds/application.jsa
+#   mvn -Pnative -DskipTests native:compile # optional, builds target/juzzt
+#   scripts/startup-benchmark.sh [runs]
+#
+# Needs Postgres and Redis reachable with the usual application.properties. Modes whose
+# artifacts are missing are skipped. Linux only (reads RSS from /proc).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+URL="http://localhost:${PORT}/actuator/health"
+JAR="target/juzzt-0.0.1-SNAPSHOT.jar"
+CDS_JAR="target/cds/juzzt-0.0.1-SNAPSHOT.jar"
+CDS_ARCHIVE="target/cds/application.jsa"
+NATIVE="target/juzzt"
+COMMON_ARGS=(--juzzt.enrichment.on-startup=false "--server.port=${PORT}")
+
+now_ms() {
+  date +%s%3N
+}
+
+# Runs the given command, prints "<ms to first request> <rss in MB>" and stops the process
+measure() {
+  local start pid rss
+  start=$(now_ms)
+  "$@" >/dev/null 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "$URL"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "process exited before serving" >&2
+      return 1
+    fi
+    sleep 0.02
+  done
+  local elapsed=$(( $(now_ms) - start ))
+  rss=$(awk '/VmRSS/ { printf "%.0f", $2 / 1024 }' "/proc/${pid}/status")
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "${elapsed} ${rss}"
+}
+
+run_mode() {
+  local mode=$1
+  shift
+  local total_ms=0 total_rss=0 best_ms=
+  for ((i = 1; i <= RUNS; i++)); do
+    read -r ms rss < <(measure "$@")
+    total_ms=$((total_ms + ms))
+    total_rss=$((total_rss + rss))
+    if [[ -z "$best_ms" || "$ms" -lt "$best_ms" ]]; then best_ms=$ms; fi
+  done
+  printf "%-8s %10d %10d %10d\n" "$mode" $((total_ms / RUNS)) "$best_ms" $((total_rss / RUNS))
+}
+
+printf "%-8s %10s %10s %10s\n" "mode" "avg ms" "best ms" "rss MB"
+
+if [[ -f "$JAR" ]]; then
+  run_mode jar java -jar "$JAR" "${COMMON_ARGS[@]}"
+fi
+if [[ -f "$CDS_JAR" ]]; then
+  run_mode aot java -Dspring.aot.enabled=true -jar "$CDS_JAR" "${COMMON_ARGS[@]}"
+fi
+if [[ -f "$CDS_ARCHIVE" ]]; then
+  run_mode aot+cds java -XX:SharedArchiveFile="$CDS_ARCHIVE" -Dspring.aot.enabled=true -jar "$CDS_JAR" "${COMMON_ARGS[@]}"
+fi
+if [[ -x "$NATIVE" ]]; then
+  run_mode native "$NATIVE" "${COMMON_ARGS[@]}"
+fi
@@ -1,23 +1,42 @@
 package com.juzzt;
 
+import com.juzzt.config.JuzztRuntimeHints;
 import com.juzzt.service.RecordUpdaterService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-public class JuzztApplication implements CommandLineRunner {
+@EnableScheduling
+@ImportRuntimeHints(JuzztRuntimeHints.class)
+public class JuzztApplication {
 
 	@Autowired
 	private RecordUpdaterService updaterService;
 
+	@Autowired
+	@Qualifier("enrichmentExecutor")
+	private TaskExecutor enrichmentExecutor;
+
+	@Value("${juzzt.enrichment.on-startup:true}")
+	private boolean enrichOnStartup;
+
 	public static void main(String[] args) {
 		SpringApplication.run(JuzztApplication.class, args);
 	}
 
-	@Override
-	public void run(String... args) throws Exception {
-		updaterService.updateMissingImagesAndIds();
+	// Enrichment calls MusicBrainz per record, so it runs after the node is serving instead of holding up startup
+	@EventListener(ApplicationReadyEvent.class)
+	public void enrichRecordsInBackground() {
+		if (enrichOnStartup) {
+			enrichmentExecutor.execute(updaterService::updateMissingImagesAndIds);
+		}
 	}
 }
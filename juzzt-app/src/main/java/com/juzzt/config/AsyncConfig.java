@@ -0,0 +1,58 @@
+package com.juzzt.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    // Image decoding and resizing is CPU and memory heavy, keep it to a few threads off the request path
+    @Bean
+    public ThreadPoolTaskExecutor imageIngestionExecutor(@Value("${juzzt.images.ingestion.threads:2}") int threads,
+                                                         @Value("${juzzt.images.ingestion.queue:100}") int queue) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queue);
+        executor.setThreadNamePrefix("image-ingest-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Startup enrichment, a single background thread so it never competes with itself
+    @Bean
+    public ThreadPoolTaskExecutor enrichmentExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("record-enrichment-");
+        return executor;
+    }
+
+    // Stale-while-revalidate refreshes for cached recommendations; when the queue is full the stale list is simply served again
+    @Bean
+    public ThreadPoolTaskExecutor recommendationRefreshExecutor(@Value("${juzzt.recommendations.cache.refresh-threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("recommendation-refresh-");
+        return executor;
+    }
+
+    // Admin-triggered and nightly model training; the trainer parallelizes internally, one run at a time is enough
+    @Bean
+    public ThreadPoolTaskExecutor modelTrainingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("model-training-");
+        return executor;
+    }
+}
@@ -1,6 +1,7 @@
 package com.juzzt.config;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,11 +10,12 @@ import java.util.Map;
 @Configuration
 public class CloudinaryConfig {
     @Bean
-    public Cloudinary cloudinary() {
+    public Cloudinary cloudinary(@Value("${juzzt.cloudinary.upload-prefix:https://api.cloudinary.com}") String uploadPrefix) {
         return new Cloudinary(ObjectUtils.asMap(
                 "cloud_name", "dnlllxziw",
                 "api_key", "554754152922542",
-                "api_secret", "9VZq7cp3129dhLGi-0szfzPYSO8"
+                "api_secret", "9VZq7cp3129dhLGi-0szfzPYSO8",
+                "upload_prefix", uploadPrefix
         ));
     }
 }
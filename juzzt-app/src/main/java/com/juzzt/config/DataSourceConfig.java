@@ -0,0 +1,61 @@
+package com.juzzt.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Primary pool for writes, optional replica pool for read-only transactions.
+ * With the replica disabled everything goes to the primary, as before.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @FlywayDataSource // Migrations always run against the primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("juzzt-primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "juzzt.datasource.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("juzzt.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${juzzt.datasource.replica.url}") String url,
+                                              @Value("${juzzt.datasource.replica.username}") String username,
+                                              @Value("${juzzt.datasource.replica.password}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("juzzt-replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                primary, replica.getIfAvailable(() -> primary), replicaLagMonitor::isReplicaUsable);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
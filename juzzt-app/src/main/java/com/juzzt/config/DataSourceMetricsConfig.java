@@ -0,0 +1,33 @@
+package com.juzzt.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pool saturation on top of the standard hikaricp.connections.* meters that actuator
+ * already registers for each pool. A value above 1 means threads are queueing for a connection.
+ */
+@Configuration
+public class DataSourceMetricsConfig {
+
+    @Bean
+    public MeterBinder hikariSaturationMetrics(ObjectProvider<HikariDataSource> pools) {
+        return registry -> pools.orderedStream().forEach(pool ->
+                Gauge.builder("juzzt.db.pool.saturation", pool, DataSourceMetricsConfig::saturation)
+                        .tag("pool", pool.getPoolName())
+                        .description("(active + pending) / maximum pool size")
+                        .register(registry));
+    }
+
+    public static double saturation(HikariDataSource pool) {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean == null || pool.getMaximumPoolSize() == 0) return 0;
+        return (double) (mxBean.getActiveConnections() + mxBean.getThreadsAwaitingConnection())
+                / pool.getMaximumPoolSize();
+    }
+}
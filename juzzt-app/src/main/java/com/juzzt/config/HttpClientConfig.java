@@ -0,0 +1,38 @@
+package com.juzzt.config;
+
+import com.juzzt.util.RequestTiming;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * One RestTemplate for the outbound calls (MusicBrainz, Cover Art Archive), so they share a
+ * connection setup and show up as "http" in the request's Server-Timing. Timeouts keep a hanging
+ * upstream from holding request and worker threads indefinitely.
+ */
+@Configuration
+public class HttpClientConfig {
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${juzzt.http.connect-timeout:2s}") Duration connectTimeout,
+                                     @Value("${juzzt.http.read-timeout:10s}") Duration readTimeout) {
+        ClientHttpRequestInterceptor timing = (request, body, execution) -> {
+            long begin = RequestTiming.begin();
+            try {
+                return execution.execute(request, body);
+            } finally {
+                RequestTiming.end("http", begin);
+            }
+        };
+        return builder
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .additionalInterceptors(timing)
+                .build();
+    }
+}
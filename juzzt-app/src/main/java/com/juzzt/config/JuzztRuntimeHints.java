@@ -0,0 +1,74 @@
+package com.juzzt.config;
+
+import com.juzzt.dto.*;
+import com.juzzt.model.*;
+import com.juzzt.model.Record;
+import com.juzzt.service.RecommendationCache;
+import com.juzzt.util.FacetIndex;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.cache.support.NullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reflection, serialization and resource hints for the AOT/native build. Spring infers most
+ * of what it needs; these cover what it can't see: DTOs inside generic wrappers, jjwt's
+ * reflective lookups and the JDK-serialized cache values.
+ */
+public class JuzztRuntimeHints implements RuntimeHintsRegistrar {
+    private static final List<Class<?>> JSON_TYPES = List.of(
+            Record.class, User.class, Order.class, OrderItem.class, Playlist.class, PlaylistEntry.class,
+            Recommendation.class, RecordChange.class,
+            RecordChangeDTO.class, RecordChangeFeedDTO.class, UserProfileDTO.class, PlaylistEntryDTO.class,
+            PlaylistEntryPageDTO.class, RankedRecordDTO.class, GenreSalesDTO.class, UserSummaryDTO.class,
+            OrderSummaryDTO.class, KeysetPageDTO.class, FacetSearchDTO.class, FacetIndex.Count.class);
+
+    // Jwts.builder()/parserBuilder() instantiate these by name, the Jackson (de)serializer comes from ServiceLoader
+    private static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        for (Class<?> type : JSON_TYPES) {
+            bindings.registerReflectionHints(hints.reflection(), type);
+        }
+
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        // "records" cache entries: a single Record, the full list, or NullValue for a cached miss; "recommendations" wraps a list
+        hints.serialization()
+                .registerType(RecommendationCache.CachedRecommendations.class)
+                .registerType(Record.class)
+                .registerType(Record.ImageStatus.class)
+                .registerType(ArrayList.class)
+                .registerType(NullValue.class)
+                .registerType(Long.class)
+                .registerType(Double.class)
+                .registerType(Boolean.class)
+                .registerType(Number.class)
+                .registerType(Enum.class)
+                .registerType(TypeReference.of("java.time.Ser"))
+                .registerType(TypeReference.of("java.util.ImmutableCollections$ListN"))
+                .registerType(TypeReference.of("java.util.CollSer"));
+
+        hints.resources().registerPattern("records.json");
+    }
+}
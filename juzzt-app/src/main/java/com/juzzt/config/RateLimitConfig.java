@@ -0,0 +1,72 @@
+package com.juzzt.config;
+
+import com.juzzt.security.LocalRateLimitStore;
+import com.juzzt.security.RateLimitStore;
+import com.juzzt.security.RedisRateLimitStore;
+import com.juzzt.security.RoutePolicy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Budgets per client, first match wins. Capacity is the burst size, refill the sustained rate.
+     */
+    @Bean
+    public List<RoutePolicy> rateLimitPolicies(
+            @Value("${juzzt.rate-limit.auth.capacity:10}") int authCapacity,
+            @Value("${juzzt.rate-limit.auth.per-minute:10}") double authPerMinute,
+            @Value("${juzzt.rate-limit.recommendations.capacity:20}") int recommendationsCapacity,
+            @Value("${juzzt.rate-limit.recommendations.per-minute:30}") double recommendationsPerMinute,
+            @Value("${juzzt.rate-limit.recommendations.max-concurrent:16}") int recommendationsConcurrent,
+            @Value("${juzzt.rate-limit.update-all.per-hour:6}") double updateAllPerHour,
+            @Value("${juzzt.rate-limit.export.max-concurrent:2}") int exportConcurrent,
+            @Value("${juzzt.rate-limit.default.capacity:100}") int defaultCapacity,
+            @Value("${juzzt.rate-limit.default.per-minute:600}") double defaultPerMinute) {
+        return List.of(
+                new RoutePolicy("auth", HttpMethod.POST, List.of("/api/auth/login", "/api/auth/register"),
+                        authCapacity, authPerMinute / 60, 0, false),
+                new RoutePolicy("recommendations", HttpMethod.GET,
+                        List.of("/api/recommendations/**", "/api/reactive/recommendations/**"),
+                        recommendationsCapacity, recommendationsPerMinute / 60, recommendationsConcurrent, true),
+                // Kicks off a full external enrichment synchronously, one at a time is plenty
+                new RoutePolicy("update-all", HttpMethod.GET, List.of("/api/records/update-all"),
+                        1, updateAllPerHour / 3600, 1, true),
+                new RoutePolicy("export", HttpMethod.GET, List.of("/api/admin/records/export"),
+                        exportConcurrent, exportConcurrent / 60d, exportConcurrent, true),
+                new RoutePolicy("default", null, List.of("/api/**"),
+                        defaultCapacity, defaultPerMinute / 60, 0, false)
+        );
+    }
+
+    @Bean
+    public LocalRateLimitStore localRateLimitStore() {
+        return new LocalRateLimitStore();
+    }
+
+    /**
+     * Local buckets by default; juzzt.rate-limit.store=redis shares them across nodes. The Redis store
+     * trips its own breaker on the same settings as the cache's.
+     */
+    @Bean
+    @Primary
+    public RateLimitStore rateLimitStore(@Value("${juzzt.rate-limit.store:local}") String store,
+                                         LocalRateLimitStore localRateLimitStore,
+                                         ObjectProvider<StringRedisTemplate> redisTemplate,
+                                         @Value("${juzzt.cache.circuit.failure-threshold:5}") int failureThreshold,
+                                         @Value("${juzzt.cache.circuit.open-duration:10s}") Duration openDuration) {
+        if ("redis".equalsIgnoreCase(store)) {
+            return new RedisRateLimitStore(redisTemplate.getObject(), localRateLimitStore, failureThreshold, openDuration);
+        }
+        return localRateLimitStore;
+    }
+}
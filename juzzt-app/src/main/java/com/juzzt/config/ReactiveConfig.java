@@ -0,0 +1,37 @@
+package com.juzzt.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Beans for the opt-in non-blocking read path (juzzt.reactive.enabled=true).
+ */
+@Configuration
+@ConditionalOnProperty(name = "juzzt.reactive.enabled", havingValue = "true")
+public class ReactiveConfig {
+
+    // Same serialization as the RedisCacheManager behind @Cacheable, so both paths read the same entries
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveCacheTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+        RedisSerializationContext<String, Object> context = RedisSerializationContext
+                .<String, Object>newSerializationContext(RedisSerializer.java())
+                .key(RedisSerializer.string())
+                .hashKey(RedisSerializer.string())
+                .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+
+    @Bean
+    public WebClient metadataWebClient(WebClient.Builder builder,
+                                       @Value("${juzzt.reactive.metadata.user-agent:Juzzt/0.0.1 ( admin@juzzt.com )}") String userAgent) {
+        // MusicBrainz rejects anonymous clients
+        return builder.defaultHeader("User-Agent", userAgent).build();
+    }
+}
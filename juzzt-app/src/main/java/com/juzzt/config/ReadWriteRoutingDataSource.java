@@ -0,0 +1,53 @@
+package com.juzzt.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy: the read-only flag is only known
+ * once the transaction has started, after the transaction manager asked for a connection.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    private final BooleanSupplier replicaUsable;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, BooleanSupplier replicaUsable) {
+        this.replicaUsable = replicaUsable;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Run the action against the primary even inside a read-only transaction.
+     * Only effective if the transaction has not touched the database yet.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(true);
+        try {
+            return action.get();
+        } finally {
+            FORCE_PRIMARY.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !FORCE_PRIMARY.get()
+                && replicaUsable.getAsBoolean()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
@@ -0,0 +1,20 @@
+package com.juzzt.config;
+
+import org.springframework.cache.interceptor.SimpleKey;
+
+/**
+ * Redis keys written by the "records" cache in RecordService (RedisCacheManager defaults:
+ * "cacheName::key" prefix and JDK-serialized values). Code that reads the cache directly
+ * from Redis, bypassing @Cacheable, must use these so both paths share the same entries.
+ */
+public final class RecordCacheKeys {
+    public static final String CACHE_NAME = "records";
+    public static final String ALL_RECORDS = CACHE_NAME + "::" + SimpleKey.EMPTY;
+
+    private RecordCacheKeys() {
+    }
+
+    public static String recordKey(Long id) {
+        return CACHE_NAME + "::" + id;
+    }
+}
@@ -1,16 +1,31 @@
 package com.juzzt.config;
 
+import com.juzzt.service.ListingCountService;
+import com.juzzt.service.RecommendationCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 @Configuration
 @EnableCaching
-public class RedisConfig {
+public class RedisConfig implements CachingConfigurer {
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -22,4 +37,65 @@ public class RedisConfig {
 
         return template;
     }
+
+    /**
+     * The RedisCacheManager Boot would create (same defaults, per-cache customizers), wrapped so that
+     * a failing Redis falls back to local caches instead of failing the request.
+     */
+    @Bean
+    public ResilientCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                              ObjectProvider<RedisCacheManagerBuilderCustomizer> customizers,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${spring.cache.redis.time-to-live:0}") Duration ttl,
+                                              @Value("${juzzt.cache.circuit.failure-threshold:5}") int failureThreshold,
+                                              @Value("${juzzt.cache.circuit.open-duration:10s}") Duration openDuration,
+                                              @Value("${juzzt.cache.local.max-size:10000}") long localMaxSize,
+                                              @Value("${juzzt.cache.local.ttl:60s}") Duration localTtl) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig();
+        if (!ttl.isZero()) defaults = defaults.entryTtl(ttl);
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory).cacheDefaults(defaults);
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet(); // Not a bean itself, so create the configured caches here
+        return new ResilientCacheManager(redisCacheManager, meterRegistry, failureThreshold, openDuration,
+                localMaxSize, localTtl);
+    }
+
+    // Last resort for anything the resilient caches don't absorb: log it and run the method uncached
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new LoggingCacheErrorHandler();
+    }
+
+    // Direct access to cache entries (multi-get, pipelined back-fill) with the cache manager's JDK serialization
+    @Bean
+    public RedisTemplate<String, Object> recordCacheTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.java());
+        return template;
+    }
+
+    @Bean
+    public RedisCacheManagerBuilderCustomizer adminCountsCacheTtl(@Value("${juzzt.admin.count-cache-ttl:60s}") Duration ttl) {
+        // Listing totals only need to be roughly right, recount each filter at most once per TTL
+        return builder -> builder.withCacheConfiguration(ListingCountService.CACHE_NAME,
+                RedisCacheConfiguration.defaultCacheConfig().entryTtl(ttl));
+    }
+
+    @Bean
+    public RedisCacheManagerBuilderCustomizer recommendationsCacheTtl(@Value("${juzzt.recommendations.cache.hard-ttl:1h}") Duration ttl) {
+        // Entries older than the fresh TTL are still served while they refresh, Redis drops them after the hard TTL
+        return builder -> builder.withCacheConfiguration(RecommendationCache.CACHE_NAME,
+                RedisCacheConfiguration.defaultCacheConfig().entryTtl(ttl));
+    }
+
+    // Cross-node cache invalidation messages
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
 }
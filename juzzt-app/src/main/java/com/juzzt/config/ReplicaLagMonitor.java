@@ -0,0 +1,134 @@
+package com.juzzt.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of how far the replica is behind and which users wrote recently,
+ * so their next reads can go to the primary and see their own changes.
+ */
+@Component
+public class ReplicaLagMonitor {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // 0 when caught up (or not a standby at all), otherwise ms since the last replayed transaction
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0)
+                   END
+            """;
+
+    private final JdbcTemplate replicaJdbc;
+    private final boolean replicaEnabled;
+    private final long maxLagMs;
+    private final long readYourWritesMs;
+
+    private final Map<Long, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private final Map<String, PendingRefresh> refreshes = new ConcurrentHashMap<>();
+    private volatile long observedLagMs = 0;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(@Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                             @Value("${juzzt.datasource.replica.enabled:false}") boolean replicaEnabled,
+                             @Value("${juzzt.datasource.replica.max-lag-ms:10000}") long maxLagMs,
+                             @Value("${juzzt.datasource.replica.read-your-writes-ms:2000}") long readYourWritesMs) {
+        DataSource replica = replicaDataSource.getIfAvailable();
+        this.replicaEnabled = replicaEnabled && replica != null;
+        this.replicaJdbc = this.replicaEnabled ? new JdbcTemplate(replica) : null;
+        this.maxLagMs = maxLagMs;
+        this.readYourWritesMs = readYourWritesMs;
+        this.replicaUsable = this.replicaEnabled;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getObservedLagMs() {
+        return observedLagMs;
+    }
+
+    /**
+     * Remember that the user just wrote something they will expect to read back.
+     */
+    public void recordWrite(Long userId) {
+        if (replicaEnabled && userId != null) {
+            lastWriteByUser.put(userId, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * True while the replica may not have caught up with the user's last write yet.
+     */
+    public boolean mustReadFromPrimary(Long userId) {
+        if (!replicaUsable || userId == null) return false;
+        Long lastWrite = lastWriteByUser.get(userId);
+        return lastWrite != null && System.currentTimeMillis() - lastWrite < readYourWritesWindowMs();
+    }
+
+    /**
+     * Run the task once the replica has replayed everything written so far, e.g. to drop cache entries
+     * filled from the replica before it had the write. Calls under the same key share one run.
+     */
+    public void afterReplicaCatchesUp(String key, Runnable task) {
+        if (!replicaEnabled) return;
+        long now = System.nanoTime();
+        refreshes.merge(key, new PendingRefresh(task, now, now),
+                (pending, write) -> new PendingRefresh(pending.task(), pending.since(), now));
+    }
+
+    @Scheduled(fixedDelayString = "${juzzt.datasource.replica.lag-probe-ms:1000}")
+    public void probeLag() {
+        if (!replicaEnabled) return;
+
+        long probedAt = System.nanoTime();
+        boolean caughtUp = false;
+        try {
+            Double lag = replicaJdbc.queryForObject(LAG_QUERY, Double.class);
+            observedLagMs = lag == null ? 0 : lag.longValue();
+            replicaUsable = observedLagMs <= maxLagMs;
+            caughtUp = observedLagMs == 0;
+        } catch (Exception e) {
+            // Replica unreachable: keep serving reads from the primary until it comes back
+            replicaUsable = false;
+        }
+
+        long cutoff = System.currentTimeMillis() - readYourWritesWindowMs();
+        lastWriteByUser.values().removeIf(writtenAt -> writtenAt < cutoff);
+        // With no lag everything written before the probe is on the replica, otherwise allow the same window
+        runRefreshes(caughtUp ? probedAt : System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(readYourWritesWindowMs()));
+    }
+
+    private void runRefreshes(long replayedUpTo) {
+        refreshes.forEach((key, pending) -> {
+            if (pending.since() - replayedUpTo >= 0) return;
+            // Writes after replayedUpTo may still be missing on the replica, those need another run
+            refreshes.computeIfPresent(key, (k, current) -> current.latest() - replayedUpTo < 0
+                    ? null : new PendingRefresh(current.task(), replayedUpTo, current.latest()));
+            try {
+                pending.task().run();
+            } catch (RuntimeException e) {
+                log.warn("Refresh {} after replica catch-up failed: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    private long readYourWritesWindowMs() {
+        return readYourWritesMs + observedLagMs;
+    }
+
+    // nanoTime of the oldest write not yet covered by a run, and of the newest
+    private record PendingRefresh(Runnable task, long since, long latest) {}
+}
@@ -0,0 +1,68 @@
+package com.juzzt.config;
+
+import com.juzzt.util.RequestTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request timing: the filter opens a {@link RequestTiming} context, repository calls add
+ * "db" spans, the JWT filter "auth", caches "cache", the shared RestTemplate "http", and the time
+ * until the controller is reached is "filters". With juzzt.timing.enabled=false none of this is
+ * registered and the remaining hooks see no context.
+ */
+@Configuration
+@ConditionalOnProperty(name = "juzzt.timing.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTimingConfig implements WebMvcConfigurer {
+
+    @Bean
+    public FilterRegistrationBean<RequestTimingFilter> requestTimingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${juzzt.timing.server-timing-header:true}") boolean header) {
+        FilterRegistrationBean<RequestTimingFilter> registration =
+                new FilterRegistrationBean<>(new RequestTimingFilter(meterRegistry, header));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE); // Around the security filter chain too
+        return registration;
+    }
+
+    // Same hook Boot's repository metrics use, so no proxying of our own
+    @Bean
+    public static BeanPostProcessor repositoryTimingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(
+                            invocation -> RequestTiming.record("db", invocation.getDuration(TimeUnit.NANOSECONDS))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                RequestTiming timing = RequestTiming.current();
+                if (timing != null) timing.add("filters", timing.elapsedNanos());
+                return true;
+            }
+        });
+    }
+}
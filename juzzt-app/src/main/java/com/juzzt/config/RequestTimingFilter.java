@@ -0,0 +1,67 @@
+package com.juzzt.config;
+
+import com.juzzt.util.RequestTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outermost filter: opens the request's timing context, adds the Server-Timing header if the
+ * body advice hasn't already, and records every span into a per-endpoint histogram
+ * (juzzt.request.span{uri, method, span}).
+ */
+public class RequestTimingFilter extends OncePerRequestFilter {
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean header;
+
+    public RequestTimingFilter(MeterRegistry meterRegistry, boolean header) {
+        this.meterRegistry = meterRegistry;
+        this.header = header;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestTiming.close();
+            // Responses without a body never pass the advice; this only works if nothing has been written yet
+            if (header && !response.isCommitted() && !response.containsHeader(SERVER_TIMING)) {
+                response.setHeader(SERVER_TIMING, timing.toServerTiming());
+            }
+            record(request, timing);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestTiming timing) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNMATCHED" : pattern.toString();
+        timing.spans().forEach((span, total) -> timer(uri, request.getMethod(), span).record(total.nanos(), TimeUnit.NANOSECONDS));
+        timer(uri, request.getMethod(), "total").record(timing.elapsedNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String uri, String method, String span) {
+        return Timer.builder("juzzt.request.span")
+                .description("Time per request spent in each kind of work")
+                .tag("uri", uri)
+                .tag("method", method)
+                .tag("span", span)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,379 @@
+package com.juzzt.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.juzzt.util.CircuitBreaker;
+import com.juzzt.util.CircuitBreaker.State;
+import com.juzzt.util.RequestTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Wraps the Redis cache manager so a slow or unavailable Redis degrades caching instead of the
+ * endpoints behind it. Every cache keeps a small local copy of what passes through it; when Redis
+ * calls fail repeatedly a shared circuit breaker opens and all caches serve and store locally until
+ * a probe succeeds. Evictions Redis missed are replayed before the next call that reaches Redis
+ * (the probe, or any later call if one was missed since), so entries changed during an outage are
+ * not served stale from Redis afterwards.
+ */
+public class ResilientCacheManager implements CacheManager {
+    private static final Logger log = LoggerFactory.getLogger(ResilientCacheManager.class);
+
+    // Caffeine doesn't store nulls, cached "not found" results are kept as a marker
+    private static final Object NULL = new Object();
+
+    private final CacheManager delegate;
+    private final MeterRegistry meterRegistry;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final CircuitBreaker breaker;
+    private final Timer fallbackTime;
+    private final ConcurrentMap<String, ResilientCache> caches = new ConcurrentHashMap<>();
+    private final Object replayLock = new Object();
+    private volatile long fallbackStartedAt;
+
+    public ResilientCacheManager(CacheManager delegate, MeterRegistry meterRegistry, int failureThreshold,
+                                 Duration openDuration, long localMaxSize, Duration localTtl) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.breaker = new CircuitBreaker(failureThreshold, openDuration, this::onStateChange);
+        this.fallbackTime = Timer.builder("juzzt.cache.fallback.time")
+                .description("Time spent serving caches locally while Redis was unavailable")
+                .register(meterRegistry);
+        meterRegistry.gauge("juzzt.cache.circuit.open", breaker, b -> b.state() == State.CLOSED ? 0 : 1);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = delegate.getCache(cacheName);
+            return remote == null ? null : new ResilientCache(remote);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * Bulk read for code that talks to Redis itself (e.g. one MGET), behind the same breaker and
+     * local copies as single gets. remoteGet returns the stored values in key order: null for a miss,
+     * {@link NullValue} for a cached null. Keys absent from the result are not cached anywhere.
+     */
+    public <K> Map<K, Cache.ValueWrapper> getAll(String cacheName, List<K> keys, Function<List<K>, List<?>> remoteGet) {
+        return resilientCache(cacheName).getAll(keys, remoteGet);
+    }
+
+    /**
+     * Bulk write counterpart of {@link #getAll}: entries are kept locally and handed to remotePut
+     * in one call (e.g. a pipeline) while Redis is available.
+     */
+    public <K> void putAll(String cacheName, Map<K, ?> entries, Consumer<Map<K, ?>> remotePut) {
+        resilientCache(cacheName).putAll(entries, remotePut);
+    }
+
+    public State circuitState() {
+        return breaker.state();
+    }
+
+    private ResilientCache resilientCache(String name) {
+        Cache cache = getCache(name);
+        if (cache == null) throw new IllegalArgumentException("Unknown cache " + name);
+        return (ResilientCache) cache;
+    }
+
+    private void onStateChange(State from, State to) {
+        if (from == State.CLOSED && to == State.OPEN) {
+            fallbackStartedAt = System.nanoTime();
+            log.warn("Redis cache unavailable, serving caches from local memory");
+        } else if (to == State.CLOSED) {
+            fallbackTime.record(Duration.ofNanos(System.nanoTime() - fallbackStartedAt));
+            log.info("Redis cache available again after {} ms",
+                    Duration.ofNanos(System.nanoTime() - fallbackStartedAt).toMillis());
+        }
+    }
+
+    private boolean redisAvailable() {
+        if (!breaker.allowRequest()) return false;
+        if (!evictionsMissed()) return true;
+        // Bring Redis up to date before anything is read from it again; callers arriving meanwhile wait
+        synchronized (replayLock) {
+            try {
+                caches.values().forEach(ResilientCache::replayEvictions);
+                return true;
+            } catch (RuntimeException e) {
+                breaker.recordFailure();
+                return false;
+            }
+        }
+    }
+
+    private boolean evictionsMissed() {
+        for (ResilientCache cache : caches.values()) {
+            if (cache.hasMissedEvictions()) return true;
+        }
+        return false;
+    }
+
+    class ResilientCache implements Cache {
+        private final Cache remote;
+        private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+        private final Counter fallbacks;
+        // Evictions Redis missed, each with the sequence of its latest miss; entries are only removed
+        // once Redis has accepted them and no newer miss of the same key came in meanwhile
+        private final ConcurrentMap<Object, Long> missedEvictions = new ConcurrentHashMap<>();
+        private final AtomicLong missedClear = new AtomicLong(); // Sequence of the latest missed clear, 0 if none
+        private final AtomicLong missSequence = new AtomicLong();
+
+        ResilientCache(Cache remote) {
+            this.remote = remote;
+            this.local = Caffeine.newBuilder()
+                    .maximumSize(localMaxSize)
+                    .expireAfterWrite(localTtl) // Bounds staleness from other nodes' writes during an outage
+                    .build();
+            this.fallbacks = Counter.builder("juzzt.cache.fallback.requests")
+                    .tag("cache", remote.getName())
+                    .description("Cache operations served locally because Redis was unavailable or failing")
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public String getName() {
+            return remote.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return remote.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            long begin = RequestTiming.begin();
+            try {
+                return doGet(key);
+            } finally {
+                RequestTiming.end("cache", begin);
+            }
+        }
+
+        private ValueWrapper doGet(Object key) {
+            if (redisAvailable()) {
+                try {
+                    ValueWrapper value = remote.get(key);
+                    breaker.recordSuccess();
+                    if (value != null) local.put(key, wrap(value.get()));
+                    return value;
+                } catch (RuntimeException e) {
+                    failed("get", e);
+                }
+            }
+            fallbacks.increment();
+            Object value = local.getIfPresent(key);
+            return value == null ? null : new SimpleValueWrapper(unwrap(value));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            ValueWrapper value = get(key);
+            if (value == null) return null;
+            Object stored = value.get();
+            if (stored != null && type != null && !type.isInstance(stored)) {
+                throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+            }
+            return (T) stored;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper value = get(key);
+            if (value != null) return (T) value.get();
+            try {
+                T loaded = valueLoader.call();
+                put(key, loaded);
+                return loaded;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+
+        <K> Map<K, ValueWrapper> getAll(List<K> keys, Function<List<K>, List<?>> remoteGet) {
+            long begin = RequestTiming.begin();
+            try {
+                return doGetAll(keys, remoteGet);
+            } finally {
+                RequestTiming.end("cache", begin);
+            }
+        }
+
+        private <K> Map<K, ValueWrapper> doGetAll(List<K> keys, Function<List<K>, List<?>> remoteGet) {
+            Map<K, ValueWrapper> found = new HashMap<>();
+            if (redisAvailable()) {
+                try {
+                    List<?> values = remoteGet.apply(keys);
+                    breaker.recordSuccess();
+                    // Redis answered, but not key for key: all misses rather than values under the wrong keys
+                    if (values == null || values.size() != keys.size()) return found;
+                    for (int i = 0; i < keys.size(); i++) {
+                        Object value = values.get(i);
+                        if (value == null) continue;
+                        Object stored = value instanceof NullValue ? null : value;
+                        local.put(keys.get(i), wrap(stored));
+                        found.put(keys.get(i), new SimpleValueWrapper(stored));
+                    }
+                    return found;
+                } catch (RuntimeException e) {
+                    failed("getAll", e);
+                }
+            }
+            fallbacks.increment();
+            for (K key : keys) {
+                Object value = local.getIfPresent(key);
+                if (value != null) found.put(key, new SimpleValueWrapper(unwrap(value)));
+            }
+            return found;
+        }
+
+        <K> void putAll(Map<K, ?> entries, Consumer<Map<K, ?>> remotePut) {
+            long begin = RequestTiming.begin();
+            try {
+                doPutAll(entries, remotePut);
+            } finally {
+                RequestTiming.end("cache", begin);
+            }
+        }
+
+        private <K> void doPutAll(Map<K, ?> entries, Consumer<Map<K, ?>> remotePut) {
+            entries.forEach((key, value) -> local.put(key, wrap(value)));
+            if (redisAvailable()) {
+                try {
+                    remotePut.accept(entries);
+                    breaker.recordSuccess();
+                    return;
+                } catch (RuntimeException e) {
+                    failed("putAll", e);
+                }
+            }
+            fallbacks.increment();
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            long begin = RequestTiming.begin();
+            try {
+                doPut(key, value);
+            } finally {
+                RequestTiming.end("cache", begin);
+            }
+        }
+
+        private void doPut(Object key, Object value) {
+            local.put(key, wrap(value));
+            if (redisAvailable()) {
+                try {
+                    remote.put(key, value);
+                    breaker.recordSuccess();
+                    return;
+                } catch (RuntimeException e) {
+                    failed("put", e);
+                }
+            }
+            fallbacks.increment();
+        }
+
+        @Override
+        public void evict(Object key) {
+            long begin = RequestTiming.begin();
+            try {
+                doEvict(key);
+            } finally {
+                RequestTiming.end("cache", begin);
+            }
+        }
+
+        private void doEvict(Object key) {
+            local.invalidate(key);
+            if (redisAvailable()) {
+                try {
+                    remote.evict(key);
+                    breaker.recordSuccess();
+                    return;
+                } catch (RuntimeException e) {
+                    failed("evict", e);
+                }
+            }
+            fallbacks.increment();
+            missedEvictions.put(key, missSequence.incrementAndGet());
+        }
+
+        @Override
+        public void clear() {
+            local.invalidateAll();
+            if (redisAvailable()) {
+                try {
+                    remote.clear();
+                    breaker.recordSuccess();
+                    return;
+                } catch (RuntimeException e) {
+                    failed("clear", e);
+                }
+            }
+            fallbacks.increment();
+            missedClear.set(missSequence.incrementAndGet());
+        }
+
+        boolean hasMissedEvictions() {
+            return missedClear.get() != 0 || !missedEvictions.isEmpty();
+        }
+
+        void replayEvictions() {
+            long clear = missedClear.get();
+            if (clear != 0) {
+                remote.clear();
+                missedClear.compareAndSet(clear, 0);
+                // Keys missed before the clear are covered by it
+                missedEvictions.entrySet().removeIf(entry -> entry.getValue() < clear);
+            }
+            for (Map.Entry<Object, Long> missed : missedEvictions.entrySet()) {
+                remote.evict(missed.getKey());
+                missedEvictions.remove(missed.getKey(), missed.getValue());
+            }
+        }
+
+        private void failed(String operation, RuntimeException e) {
+            breaker.recordFailure();
+            log.debug("Redis cache {} on {} failed: {}", operation, getName(), e.getMessage());
+        }
+    }
+
+    private static Object wrap(Object value) {
+        return value == null ? NULL : value;
+    }
+
+    private static Object unwrap(Object value) {
+        return value == NULL ? null : value;
+    }
+}
@@ -1,6 +1,8 @@
 package com.juzzt.config;
 
 import com.juzzt.security.JwtAuthFilter;
+import com.juzzt.security.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -24,10 +26,12 @@ import java.util.List;
 @Configuration
 public class SecurityConfig {
     private final JwtAuthFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserService userService;
 
-    public SecurityConfig(@Lazy JwtAuthFilter jwtAuthFilter, UserService userService) {
+    public SecurityConfig(@Lazy JwtAuthFilter jwtAuthFilter, @Lazy RateLimitFilter rateLimitFilter, UserService userService) {
         this.jwtAuthFilter = jwtAuthFilter;
+        this.rateLimitFilter = rateLimitFilter;
         this.userService = userService;
     }
 
@@ -44,15 +48,24 @@ public class SecurityConfig {
                 }))
                 .csrf(csrf -> csrf.disable()) // Disable CSRF for simplicity (enable if needed)
                 .authorizeHttpRequests(auth -> auth
+                        // Async results (streamed exports, Mono responses) were already authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Authentication Endpoints (Public)
                         .requestMatchers(HttpMethod.POST, "/api/auth/login", "/api/auth/register").permitAll()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
 
+                        // Monitoring (health and Prometheus scrape are public, everything else is admin only)
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         // Records (Public for viewing, restricted for changes)
                         .requestMatchers(HttpMethod.GET, "/api/records/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/records/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/records/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/records/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/reactive/records/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/covers/**").permitAll()
 
                         // Users (Admins can see all, users can edit themselves)
                         .requestMatchers(HttpMethod.GET, "/api/users").hasRole("ADMIN")
@@ -69,7 +82,10 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Anchored on a registered filter class: the injected filters are lazy proxies, so JwtAuthFilter.class
+                // is never registered as such. Right after the JWT filter, which needs to have set the user to key budgets.
+                .addFilterAfter(rateLimitFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,35 @@
+package com.juzzt.config;
+
+import com.juzzt.util.RequestTiming;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds Server-Timing just before the body is written, while headers can still be set;
+ * at that point the handler (queries, cache and HTTP calls) has finished.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "juzzt.timing.server-timing-header", havingValue = "true", matchIfMissing = true)
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            response.getHeaders().set(RequestTimingFilter.SERVER_TIMING, timing.toServerTiming());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,26 @@
+package com.juzzt.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Serves images written by LocalImageStore when the local store is in use.
+ */
+@Configuration
+@ConditionalOnProperty(name = "juzzt.images.store", havingValue = "local")
+public class WebConfig implements WebMvcConfigurer {
+    private final String localImageDir;
+
+    public WebConfig(@Value("${juzzt.images.local.dir:${java.io.tmpdir}/juzzt-media}") String localImageDir) {
+        this.localImageDir = localImageDir;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/media/**")
+                .addResourceLocations("file:" + (localImageDir.endsWith("/") ? localImageDir : localImageDir + "/"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.juzzt.controller;
+
+import com.juzzt.dto.KeysetPageDTO;
+import com.juzzt.dto.OrderSummaryDTO;
+import com.juzzt.service.AdminListingService;
+import com.juzzt.service.AdminListingService.OrderFilter;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/admin/orders")
+public class AdminOrderController {
+    private final AdminListingService adminListingService;
+
+    public AdminOrderController(AdminListingService adminListingService) {
+        this.adminListingService = adminListingService;
+    }
+
+    @GetMapping
+    public KeysetPageDTO<OrderSummaryDTO> listOrders(
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "placedFrom", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime placedFrom,
+            @RequestParam(value = "placedTo", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime placedTo,
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return adminListingService.listOrders(new OrderFilter(userId, placedFrom, placedTo), cursor, limit);
+    }
+}
@@ -0,0 +1,81 @@
+package com.juzzt.controller;
+
+import com.juzzt.service.CoverImageCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/covers")
+public class CoverImageController {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Tomcat opens the file by name after the servlet returns, keep it from being evicted until then
+    private static final Duration SENDFILE_HOLD = Duration.ofSeconds(30);
+
+    private final CoverImageCache coverImageCache;
+
+    public CoverImageController(CoverImageCache coverImageCache) {
+        this.coverImageCache = coverImageCache;
+    }
+
+    @GetMapping("/{mbid}")
+    public void getCover(@PathVariable String mbid,
+                         @RequestParam(value = "size", defaultValue = "500") int size,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        if (!CoverImageCache.isValidMbid(mbid) || !CoverImageCache.SIZES.contains(size)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        Optional<CoverImageCache.Lease> cover = coverImageCache.openCover(mbid, size);
+        if (cover.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // Variants never change for a given MBID and size, so browsers and CDNs can keep them forever
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+
+        CoverImageCache.Lease lease = cover.get();
+        Duration hold = Duration.ZERO;
+        try (FileChannel file = FileChannel.open(lease.path(), StandardOpenOption.READ)) {
+            long length = file.size();
+            response.setContentLengthLong(length);
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat hands the file to the kernel once the servlet returns, bytes never enter the JVM
+                request.setAttribute(SENDFILE_FILENAME, lease.path().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, length);
+                hold = SENDFILE_HOLD;
+                return;
+            }
+
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = 0;
+            while (position < length) {
+                position += file.transferTo(position, length - position, target);
+            }
+            out.flush();
+        } finally {
+            lease.closeAfter(hold);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.juzzt.controller;
 
-import com.juzzt.util.CloudinaryService;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.juzzt.service.ImageUploadService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -11,14 +10,16 @@ import java.io.IOException;
 @RestController
 @RequestMapping("/api/images")
 public class ImageUploadController {
+    private final ImageUploadService imageUploadService;
 
-    @Autowired
-    private CloudinaryService cloudinaryService;
+    public ImageUploadController(ImageUploadService imageUploadService) {
+        this.imageUploadService = imageUploadService;
+    }
 
     @PostMapping("/upload")
     public ResponseEntity<String> uploadImage(@RequestParam("file") MultipartFile file) {
         try {
-            String imageUrl = cloudinaryService.uploadImage(file);
+            String imageUrl = imageUploadService.uploadImage(file);
             return ResponseEntity.ok(imageUrl);
         } catch (IOException e) {
             return ResponseEntity.status(500).body("Error uploading image");
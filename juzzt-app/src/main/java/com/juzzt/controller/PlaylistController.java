@@ -0,0 +1,47 @@
+package com.juzzt.controller;
+
+import com.juzzt.dto.PlaylistEntryPageDTO;
+import com.juzzt.service.PlaylistService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/playlists")
+public class PlaylistController {
+    private final PlaylistService playlistService;
+
+    public PlaylistController(PlaylistService playlistService) {
+        this.playlistService = playlistService;
+    }
+
+    @GetMapping("/{playlistId}/entries")
+    public PlaylistEntryPageDTO getEntries(@PathVariable Long playlistId,
+                                           @RequestParam(value = "after", required = false) Long after,
+                                           @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return playlistService.getEntries(playlistId, after, limit);
+    }
+
+    @PostMapping("/{playlistId}/entries")
+    public ResponseEntity<Map<String, Integer>> addRecords(@PathVariable Long playlistId,
+                                                           @RequestParam(value = "afterEntryId", required = false) Long afterEntryId,
+                                                           @RequestBody List<Long> recordIds) {
+        int added = playlistService.addRecords(playlistId, recordIds, afterEntryId);
+        return ResponseEntity.ok(Map.of("added", added));
+    }
+
+    @PutMapping("/{playlistId}/entries/{entryId}/position")
+    public ResponseEntity<Void> moveEntry(@PathVariable Long playlistId, @PathVariable Long entryId,
+                                          @RequestParam(value = "afterEntryId", required = false) Long afterEntryId) {
+        playlistService.moveEntry(playlistId, entryId, afterEntryId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{playlistId}/entries/{entryId}")
+    public ResponseEntity<Void> removeEntry(@PathVariable Long playlistId, @PathVariable Long entryId) {
+        playlistService.removeEntry(playlistId, entryId);
+        return ResponseEntity.noContent().build();
+    }
+}
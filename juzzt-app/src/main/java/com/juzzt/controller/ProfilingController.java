@@ -0,0 +1,70 @@
+package com.juzzt.controller;
+
+import com.juzzt.dto.ProfilingSummaryDTO;
+import com.juzzt.dto.RecordingDTO;
+import com.juzzt.service.ProfilingService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/profiling")
+public class ProfilingController {
+    private final ProfilingService profilingService;
+
+    public ProfilingController(ProfilingService profilingService) {
+        this.profilingService = profilingService;
+    }
+
+    @PostMapping("/recordings")
+    public ResponseEntity<RecordingDTO> startRecording(
+            @RequestParam(value = "settings", defaultValue = "profile") String settings,
+            @RequestParam(value = "duration", defaultValue = "60s") Duration duration,
+            @RequestBody(required = false) Map<String, String> overrides) {
+        return profilingService.start(settings, duration, overrides)
+                .map(recording -> ResponseEntity.status(HttpStatus.ACCEPTED).body(recording))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @PostMapping("/recordings/stop")
+    public ResponseEntity<RecordingDTO> stopRecording() {
+        return profilingService.stop()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/recordings")
+    public List<RecordingDTO> listRecordings() {
+        return profilingService.listRecordings();
+    }
+
+    @GetMapping("/recordings/{name}")
+    public ResponseEntity<Resource> downloadRecording(@PathVariable String name) {
+        return profilingService.getRecordingFile(name)
+                .<ResponseEntity<Resource>>map(file -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"")
+                        .body(new FileSystemResource(file)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/recordings/{name}")
+    public ResponseEntity<Void> deleteRecording(@PathVariable String name) {
+        return profilingService.deleteRecording(name)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/summary")
+    public ProfilingSummaryDTO getSummary() {
+        return profilingService.getSummary();
+    }
+}
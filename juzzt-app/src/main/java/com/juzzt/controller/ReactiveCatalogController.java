@@ -0,0 +1,42 @@
+package com.juzzt.controller;
+
+import com.juzzt.model.Record;
+import com.juzzt.service.ReactiveCatalogService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Opt-in non-blocking variants of the catalog and recommendation reads.
+ * Enable with juzzt.reactive.enabled=true.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+@ConditionalOnProperty(name = "juzzt.reactive.enabled", havingValue = "true")
+public class ReactiveCatalogController {
+    private final ReactiveCatalogService reactiveCatalogService;
+
+    public ReactiveCatalogController(ReactiveCatalogService reactiveCatalogService) {
+        this.reactiveCatalogService = reactiveCatalogService;
+    }
+
+    @GetMapping("/records")
+    public Mono<List<Record>> getAllRecords() {
+        return reactiveCatalogService.getAllRecords();
+    }
+
+    @GetMapping("/records/{id}")
+    public Mono<ResponseEntity<Record>> getRecordById(@PathVariable Long id) {
+        return reactiveCatalogService.getRecordById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/recommendations/{userId}")
+    public Mono<ResponseEntity<List<Record>>> getRecommendations(@PathVariable Long userId) {
+        return reactiveCatalogService.getRecommendationsForUser(userId).map(ResponseEntity::ok);
+    }
+}
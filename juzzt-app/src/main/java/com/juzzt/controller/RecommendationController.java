@@ -1,7 +1,7 @@
 package com.juzzt.controller;
 
 import com.juzzt.model.Record;
-import com.juzzt.service.RecommendationService;
+import com.juzzt.service.RecommendationCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -10,15 +10,15 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/recommendations")
 public class RecommendationController {
-    private final RecommendationService recommendationService;
+    private final RecommendationCache recommendationCache;
 
-    public RecommendationController(RecommendationService recommendationService) {
-        this.recommendationService = recommendationService;
+    public RecommendationController(RecommendationCache recommendationCache) {
+        this.recommendationCache = recommendationCache;
     }
 
     @GetMapping("/{userId}")
     public ResponseEntity<List<Record>> getRecommendations(@PathVariable Long userId) {
-        List<Record> recommendations = recommendationService.getRecommendationsForUser(userId);
+        List<Record> recommendations = recommendationCache.getRecommendationsForUser(userId);
         return ResponseEntity.ok(recommendations);
     }
 }
@@ -0,0 +1,33 @@
+package com.juzzt.controller;
+
+import com.juzzt.service.RecommendationModelService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/recommendations")
+public class RecommendationModelController {
+    private final RecommendationModelService recommendationModelService;
+
+    public RecommendationModelController(RecommendationModelService recommendationModelService) {
+        this.recommendationModelService = recommendationModelService;
+    }
+
+    @GetMapping("/model")
+    public Map<String, Boolean> getModelStatus() {
+        return Map.of("loaded", recommendationModelService.isModelLoaded(),
+                "training", recommendationModelService.isTraining());
+    }
+
+    @PostMapping("/train")
+    public ResponseEntity<Void> train() {
+        if (recommendationModelService.isTraining()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        recommendationModelService.trainInBackground();
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -1,35 +1,117 @@
 package com.juzzt.controller;
 
+import com.juzzt.dto.FacetSearchDTO;
+import com.juzzt.dto.RecordChangeFeedDTO;
 import com.juzzt.model.Record;
+import com.juzzt.service.CatalogSnapshotService;
+import com.juzzt.service.CatalogVersionService;
+import com.juzzt.service.RecordBatchService;
 import com.juzzt.service.RecordService;
+import com.juzzt.util.CatalogSnapshot;
+import com.juzzt.util.FacetIndex.Dimension;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import java.io.IOException;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/records")
 public class RecordController {
 
+    // Public catalog data: browsers and the CDN may keep it briefly, then revalidate with the ETag
+    private static final CacheControl CATALOG_CACHE_CONTROL = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+
     private final RecordService recordService;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final RecordBatchService recordBatchService;
 
-    public RecordController(RecordService recordService) {
+    public RecordController(RecordService recordService,
+                            CatalogVersionService catalogVersionService,
+                            CatalogSnapshotService catalogSnapshotService,
+                            RecordBatchService recordBatchService) {
         this.recordService = recordService;
+        this.catalogVersionService = catalogVersionService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.recordBatchService = recordBatchService;
     }
 
     @GetMapping
-    public List<Record> getAllRecords() {
-        return recordService.getAllRecords();
+    public ResponseEntity<List<Record>> getAllRecords(@RequestParam(value = "genre", required = false) String genre,
+                                                      WebRequest request, HttpServletResponse response) {
+        // Tag and body from the same snapshot; a 304 never builds the list
+        CatalogSnapshot snapshot = catalogSnapshotService.getServingSnapshot();
+        String etag = genre == null
+                ? catalogVersionService.getCatalogEtag(snapshot)
+                : catalogVersionService.getGenreEtag(snapshot, genre);
+        if (isNotModified(etag, request, response)) {
+            return null; // 304 already written
+        }
+        return catalogResponse(etag, genre == null ? snapshot.list() : snapshot.listByGenre(genre));
+    }
+
+    /**
+     * Filtered records plus counts per genre, artist and price band, e.g.
+     * /api/records/facets?genre=Rock&genre=Jazz&price=10-20. Page with after=nextCursor.
+     */
+    @GetMapping("/facets")
+    public FacetSearchDTO getFacets(@RequestParam(value = "genre", required = false) Set<String> genres,
+                                    @RequestParam(value = "artist", required = false) Set<String> artists,
+                                    @RequestParam(value = "price", required = false) Set<String> priceBands,
+                                    @RequestParam(value = "after", required = false) Long after,
+                                    @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                    @RequestParam(value = "facetLimit", defaultValue = "20") int facetLimit) {
+        Map<Dimension, Set<String>> filters = new EnumMap<>(Dimension.class);
+        filters.put(Dimension.GENRE, genres == null ? Set.of() : genres);
+        filters.put(Dimension.ARTIST, artists == null ? Set.of() : artists);
+        filters.put(Dimension.PRICE, priceBands == null ? Set.of() : priceBands);
+        return catalogSnapshotService.getFacets(filters, after, limit, facetLimit);
+    }
+
+    /**
+     * Several records in one call, e.g. /api/records/batch?ids=3,1,7, in the order given.
+     * Ids that don't exist are left out.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<List<Record>> getRecordsByIds(@RequestParam("ids") List<Long> ids) {
+        if (ids.size() > RecordBatchService.MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(recordBatchService.getRecordsByIds(ids));
+    }
+
+    @GetMapping("/changes")
+    public RecordChangeFeedDTO getChanges(@RequestParam(value = "since", defaultValue = "0") Long since,
+                                          @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        return recordService.getChangesSince(since, limit);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Record> getRecordById(@PathVariable Long id) {
-        Optional<Record> record = recordService.getRecordById(id);
-        return record.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Record> getRecordById(@PathVariable Long id, WebRequest request, HttpServletResponse response) {
+        Optional<Record> record = catalogSnapshotService.getServingSnapshot().find(id);
+        if (record.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = catalogVersionService.getRecordEtag(record.get());
+        if (isNotModified(etag, request, response)) {
+            return null; // 304 already written
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CATALOG_CACHE_CONTROL)
+                .body(record.get());
     }
 
     @PostMapping
@@ -59,7 +141,7 @@ public class RecordController {
             @RequestParam("price") Double price,
             @RequestParam(value = "file", required = false) MultipartFile file) {
         try {
-            Record recordDetails = new Record(id, title, artist, genre, price, null, null);
+            Record recordDetails = new Record(title, artist, genre, price, null, null);
             Record updatedRecord = recordService.updateRecord(id, recordDetails, file);
             return ResponseEntity.ok(updatedRecord);
         } catch (IOException e) {
@@ -73,4 +155,16 @@ public class RecordController {
         return ResponseEntity.ok("All records updated with MusicBrainz IDs and album covers.");
     }
 
+    private static ResponseEntity<List<Record>> catalogResponse(String etag, List<Record> records) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CATALOG_CACHE_CONTROL)
+                .body(records);
+    }
+
+    // Cache-Control has to be on the 304 as well, otherwise Spring Security's no-cache default applies
+    private static boolean isNotModified(String etag, WebRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CATALOG_CACHE_CONTROL.getHeaderValue());
+        return request.checkNotModified(etag);
+    }
 }
@@ -0,0 +1,44 @@
+package com.juzzt.controller;
+
+import com.juzzt.service.RecordExportService;
+import com.juzzt.service.RecordExportService.ExportFormat;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/admin/records")
+public class RecordExportController {
+    private final RecordExportService recordExportService;
+
+    public RecordExportController(RecordExportService recordExportService) {
+        this.recordExportService = recordExportService;
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRecords(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "updatedSince", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Rows are written as they come off the cursor, nothing is buffered per request
+        StreamingResponseBody body = out -> recordExportService.export(exportFormat, updatedSince, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"records." + exportFormat.getExtension() + ".gz\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,50 @@
+package com.juzzt.controller;
+
+import com.juzzt.dto.GenreSalesDTO;
+import com.juzzt.dto.RankedRecordDTO;
+import com.juzzt.service.SalesAggregator;
+import com.juzzt.service.SalesAggregator.Window;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/records")
+public class RecordRankingController {
+    private final SalesAggregator salesAggregator;
+
+    public RecordRankingController(SalesAggregator salesAggregator) {
+        this.salesAggregator = salesAggregator;
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<RankedRecordDTO>> getTrending(@RequestParam(value = "window", defaultValue = "24h") String window,
+                                                             @RequestParam(value = "genre", required = false) String genre,
+                                                             @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        Optional<Window> parsed = Window.fromParam(window);
+        // Over the full week there is no baseline to trend against
+        if (parsed.isEmpty() || parsed.get() == Window.WEEK) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesAggregator.toRecords(salesAggregator.getTrending(parsed.get(), genre, limit)));
+    }
+
+    @GetMapping("/bestsellers")
+    public ResponseEntity<List<RankedRecordDTO>> getBestsellers(@RequestParam(value = "window", defaultValue = "7d") String window,
+                                                                @RequestParam(value = "genre", required = false) String genre,
+                                                                @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return Window.fromParam(window)
+                .map(parsed -> ResponseEntity.ok(salesAggregator.toRecords(salesAggregator.getBestsellers(parsed, genre, limit))))
+                .orElseGet(() -> ResponseEntity.badRequest().build());
+    }
+
+    @GetMapping("/bestsellers/genres")
+    public ResponseEntity<List<GenreSalesDTO>> getTopGenres(@RequestParam(value = "window", defaultValue = "7d") String window,
+                                                            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return Window.fromParam(window)
+                .map(parsed -> ResponseEntity.ok(salesAggregator.getTopGenres(parsed, limit)))
+                .orElseGet(() -> ResponseEntity.badRequest().build());
+    }
+}
@@ -1,25 +1,40 @@
 package com.juzzt.controller;
 
+import com.juzzt.dto.KeysetPageDTO;
+import com.juzzt.dto.UserSummaryDTO;
 import com.juzzt.model.User;
+import com.juzzt.service.AdminListingService;
+import com.juzzt.service.AdminListingService.UserFilter;
 import com.juzzt.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
     private final UserService userService;
+    private final AdminListingService adminListingService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, AdminListingService adminListingService) {
         this.userService = userService;
+        this.adminListingService = adminListingService;
     }
 
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public KeysetPageDTO<UserSummaryDTO> listUsers(
+            @RequestParam(value = "emailPrefix", required = false) String emailPrefix,
+            @RequestParam(value = "role", required = false) String role,
+            @RequestParam(value = "createdFrom", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(value = "createdTo", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return adminListingService.listUsers(new UserFilter(emailPrefix, role, createdFrom, createdTo), cursor, limit);
     }
 
     @GetMapping("/{id}")
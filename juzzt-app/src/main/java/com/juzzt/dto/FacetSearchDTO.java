@@ -0,0 +1,13 @@
+package com.juzzt.dto;
+
+import com.juzzt.model.Record;
+import com.juzzt.util.FacetIndex;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facet search result: one page of matching records (estimatedTotal is exact here) and
+ * counts keyed by dimension ("genre", "artist", "price").
+ */
+public record FacetSearchDTO(KeysetPageDTO<Record> results, Map<String, List<FacetIndex.Count>> facets) {}
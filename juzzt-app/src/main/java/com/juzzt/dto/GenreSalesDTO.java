@@ -0,0 +1,3 @@
+package com.juzzt.dto;
+
+public record GenreSalesDTO(String genre, long sales) {}
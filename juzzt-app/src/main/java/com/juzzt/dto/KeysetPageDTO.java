@@ -0,0 +1,9 @@
+package com.juzzt.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset listing. Pass nextCursor back to get the following page;
+ * estimatedTotal is approximate and may lag behind recent writes.
+ */
+public record KeysetPageDTO<T>(List<T> items, Long nextCursor, boolean hasMore, long estimatedTotal) {}
@@ -0,0 +1,6 @@
+package com.juzzt.dto;
+
+import java.time.LocalDateTime;
+
+public record OrderSummaryDTO(Long id, Long userId, String userEmail, LocalDateTime orderDate, Double totalPrice,
+                              int itemCount) {}
@@ -0,0 +1,6 @@
+package com.juzzt.dto;
+
+import java.time.LocalDateTime;
+
+public record PlaylistEntryDTO(Long entryId, long position, Long recordId, String title, String artist,
+                               String imageUrl, LocalDateTime addedAt) {}
@@ -0,0 +1,5 @@
+package com.juzzt.dto;
+
+import java.util.List;
+
+public record PlaylistEntryPageDTO(List<PlaylistEntryDTO> entries, Long nextCursor, boolean hasMore) {}
@@ -0,0 +1,14 @@
+package com.juzzt.dto;
+
+import java.util.List;
+
+/**
+ * Allocation and GC activity over the last windowSeconds, from the always-on JFR event stream.
+ * Allocation figures are estimates from JFR's sampled allocation events.
+ */
+public record ProfilingSummaryDTO(int windowSeconds, long allocatedBytesPerSecond, List<Allocation> topAllocations,
+                                  GcPauses gcPauses, long heapUsedBytes, long heapMaxBytes) {
+    public record Allocation(String className, long bytesPerSecond) {}
+
+    public record GcPauses(int count, double totalMs, double maxMs, double p99Ms) {}
+}
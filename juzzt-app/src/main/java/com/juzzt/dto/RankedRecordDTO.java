@@ -0,0 +1,5 @@
+package com.juzzt.dto;
+
+import com.juzzt.model.Record;
+
+public record RankedRecordDTO(Record record, long sales, double score) {}
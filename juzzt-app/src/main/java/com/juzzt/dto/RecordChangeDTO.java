@@ -0,0 +1,8 @@
+package com.juzzt.dto;
+
+import com.juzzt.model.Record;
+
+import java.time.LocalDateTime;
+
+public record RecordChangeDTO(Long cursor, Long recordId, String changeType, long version,
+                              LocalDateTime changedAt, Record record) {}
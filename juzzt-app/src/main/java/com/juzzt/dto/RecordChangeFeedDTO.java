@@ -0,0 +1,5 @@
+package com.juzzt.dto;
+
+import java.util.List;
+
+public record RecordChangeFeedDTO(List<RecordChangeDTO> changes, Long nextCursor, boolean hasMore) {}
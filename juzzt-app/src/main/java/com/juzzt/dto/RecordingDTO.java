@@ -0,0 +1,8 @@
+package com.juzzt.dto;
+
+import java.time.Instant;
+
+/**
+ * A JFR recording: the active one (state RUNNING) or a finished file that can be downloaded by name.
+ */
+public record RecordingDTO(String name, String state, String settings, Instant startedAt, long sizeBytes) {}
@@ -0,0 +1,5 @@
+package com.juzzt.dto;
+
+import java.time.LocalDateTime;
+
+public record UserSummaryDTO(Long id, String email, String name, String role, LocalDateTime createdAt) {}
@@ -0,0 +1,8 @@
+package com.juzzt.event;
+
+/**
+ * An event that is written to the outbox with the change that caused it and delivered
+ * to every {@link DomainEventConsumer} at least once, also across restarts.
+ */
+public interface DomainEvent {
+}
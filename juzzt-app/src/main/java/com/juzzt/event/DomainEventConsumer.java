@@ -0,0 +1,18 @@
+package com.juzzt.event;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * Side effect of domain events, run off the request path by the outbox relay. Batches hold every
+ * event type in outbox order, so implementations pick out what they handle. Delivery is at least
+ * once: the same event can arrive again after a restart and handlers must tolerate that.
+ */
+public interface DomainEventConsumer {
+    void onEvents(List<DomainEvent> events);
+
+    default String consumerName() {
+        return ClassUtils.getUserClass(this).getSimpleName();
+    }
+}
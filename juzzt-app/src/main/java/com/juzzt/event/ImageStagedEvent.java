@@ -0,0 +1,8 @@
+package com.juzzt.event;
+
+import java.nio.file.Path;
+
+/**
+ * An uploaded cover was saved to the staging directory and is waiting to be processed.
+ */
+public record ImageStagedEvent(Long recordId, Path stagedFile, String contentType) {}
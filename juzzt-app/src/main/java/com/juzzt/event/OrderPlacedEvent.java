@@ -0,0 +1,11 @@
+package com.juzzt.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An order was saved. Carries what the sales aggregates need so listeners don't reload the order.
+ */
+public record OrderPlacedEvent(Long orderId, Long userId, LocalDateTime placedAt, List<Line> lines) implements DomainEvent {
+    public record Line(Long recordId, String genre, int quantity) {}
+}
@@ -0,0 +1,8 @@
+package com.juzzt.event;
+
+import com.juzzt.model.RecordChange.ChangeType;
+
+/**
+ * A record was created or updated, written to the outbox alongside its change-log row.
+ */
+public record RecordChangedEvent(Long recordId, ChangeType changeType, long version) implements DomainEvent {}
@@ -2,7 +2,6 @@ package com.juzzt.model;
 
 import jakarta.persistence.*;
 import lombok.*;
-import java.util.List;
 
 @Entity
 @Table(name = "playlists")
@@ -20,12 +19,4 @@ public class Playlist {
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
-
-    @ManyToMany
-    @JoinTable(
-            name = "playlist_records",
-            joinColumns = @JoinColumn(name = "playlist_id"),
-            inverseJoinColumns = @JoinColumn(name = "record_id")
-    )
-    private List<Record> records;
 }
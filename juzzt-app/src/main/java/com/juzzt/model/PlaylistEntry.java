@@ -0,0 +1,36 @@
+package com.juzzt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One record in a playlist. Entries are ordered by position, which is sparse so
+ * records can be inserted between neighbours without renumbering the rest.
+ */
+@Entity
+@Table(name = "playlist_entries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaylistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "playlist_id", nullable = false)
+    private Playlist playlist;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "record_id", nullable = false)
+    private Record record;
+
+    @Column(nullable = false)
+    private long position;
+
+    @Column(nullable = false)
+    private LocalDateTime addedAt;
+}
@@ -2,7 +2,11 @@ package com.juzzt.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
@@ -14,6 +18,8 @@ import java.util.List;
 public class Record implements Serializable { // Make Record serializable
     private static final long serialVersionUID = 1L;
 
+    public enum ImageStatus { NONE, PENDING, READY, FAILED }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -25,6 +31,26 @@ public class Record implements Serializable { // Make Record serializable
     private String imageUrl;
     private String musicbrainzId;
 
+    private String thumbnailUrl;
+
+    // State of an uploaded cover: PENDING while it is being resized and stored in the background
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImageStatus imageStatus = ImageStatus.NONE;
+
+    @Generated(event = {EventType.INSERT, EventType.UPDATE}) // Re-read after updates that change imageUrl
+    @Column(insertable = false, updatable = false)
+    private Boolean hasImage; // Stored column computed by Postgres from imageUrl, see V2 migration
+
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt; // Lets exports pick up only rows changed since the last run
+
+    @Version
+    @Column(nullable = false)
+    private long version; // Bumped by Hibernate on every update, also recorded in the change log
+
     public Record(String title, String artist, String genre, Double price, String imageUrl, String musicbrainzId) {
         this.title = title;
         this.artist = artist;
@@ -34,4 +60,15 @@ public class Record implements Serializable { // Make Record serializable
         this.musicbrainzId = musicbrainzId;
     }
 
+    @PrePersist
+    void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
 }
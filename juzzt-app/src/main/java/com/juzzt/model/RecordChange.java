@@ -0,0 +1,41 @@
+package com.juzzt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only change log entry for a record. The id doubles as the cursor
+ * that downstream consumers pass back to fetch the next batch of changes;
+ * a trigger (V8) draws it under a commit-order lock so ids become visible in order.
+ */
+@Entity
+@Table(name = "record_changes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordChange {
+    public enum ChangeType { CREATED, UPDATED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long recordId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChangeType changeType;
+
+    private long recordVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+
+    public static RecordChange of(Record record, ChangeType changeType) {
+        return new RecordChange(null, record.getId(), changeType, record.getVersion(), LocalDateTime.now());
+    }
+}
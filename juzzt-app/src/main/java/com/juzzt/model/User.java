@@ -2,8 +2,10 @@ package com.juzzt.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import java.time.LocalDateTime;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
 @Entity
@@ -23,11 +25,20 @@ public class User {
 
     private String name;
 
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY) // Accepted on register, never serialized back
     private String password;
 
     @Column(nullable = false)
     private String role;
 
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     private List<Order> orders;
+
+    @PrePersist
+    void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
 }
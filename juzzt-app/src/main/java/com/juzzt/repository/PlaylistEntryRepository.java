@@ -0,0 +1,39 @@
+package com.juzzt.repository;
+
+import com.juzzt.model.PlaylistEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PlaylistEntryRepository extends JpaRepository<PlaylistEntry, Long> {
+    // Keyset page: walks the (playlist_id, position) unique index, no OFFSET scan
+    @Query("SELECT e FROM PlaylistEntry e JOIN FETCH e.record " +
+            "WHERE e.playlist.id = :playlistId AND e.position > :after ORDER BY e.position ASC")
+    List<PlaylistEntry> findPage(@Param("playlistId") Long playlistId, @Param("after") long after, Pageable pageable);
+
+    Optional<PlaylistEntry> findByIdAndPlaylistId(Long id, Long playlistId);
+
+    @Query("SELECT MAX(e.position) FROM PlaylistEntry e WHERE e.playlist.id = :playlistId")
+    Long findMaxPosition(@Param("playlistId") Long playlistId);
+
+    @Query("SELECT MIN(e.position) FROM PlaylistEntry e WHERE e.playlist.id = :playlistId")
+    Long findMinPosition(@Param("playlistId") Long playlistId);
+
+    @Query("SELECT e.position FROM PlaylistEntry e WHERE e.id = :id")
+    long findPositionById(@Param("id") Long id);
+
+    @Query("SELECT MIN(e.position) FROM PlaylistEntry e WHERE e.playlist.id = :playlistId AND e.position > :position")
+    Long findNextPosition(@Param("playlistId") Long playlistId, @Param("position") long position);
+
+    // Restores even gaps in one statement once an insert point has run out of room
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE playlist_entries e SET position = r.rn * :gap " +
+            "FROM (SELECT id, row_number() OVER (ORDER BY position) AS rn FROM playlist_entries WHERE playlist_id = :playlistId) r " +
+            "WHERE e.id = r.id", nativeQuery = true)
+    int renumber(@Param("playlistId") Long playlistId, @Param("gap") long gap);
+}
@@ -1,9 +1,20 @@
 package com.juzzt.repository;
 
 import com.juzzt.model.Playlist;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
+import java.util.Optional;
 
 public interface PlaylistRepository extends JpaRepository<Playlist, Long> {
     List<Playlist> findByUserId(Long userId);
+
+    // Serializes membership changes per playlist so concurrent inserts can't pick the same position
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Playlist p WHERE p.id = :id")
+    Optional<Playlist> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,16 @@
+package com.juzzt.repository;
+
+import com.juzzt.model.RecordChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface RecordChangeRepository extends JpaRepository<RecordChange, Long> {
+    List<RecordChange> findByIdGreaterThanOrderByIdAsc(Long cursor, Pageable pageable);
+
+    // Every record write appends here, so the newest id identifies the current catalog state
+    @Query("SELECT MAX(c.id) FROM RecordChange c")
+    Long findLatestChangeId();
+}
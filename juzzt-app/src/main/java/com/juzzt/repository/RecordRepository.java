@@ -1,15 +1,41 @@
 package com.juzzt.repository;
 
 import com.juzzt.model.Record;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface RecordRepository extends JpaRepository<Record, Long> {
-    @Query("SELECT r FROM Record r ORDER BY (CASE WHEN r.imageUrl IS NULL OR r.imageUrl = '' THEN 1 ELSE 0 END) ASC, r.id ASC")
+    // Served by idx_records_has_image_id
+    @Query("SELECT r FROM Record r ORDER BY r.hasImage DESC, r.id ASC")
     List<Record> findAllByImageUrlFirst();
     List<Record> findByGenre(String genre);
 
     List<Record> findByMusicbrainzIdIsNull();
+
+    @Query("SELECT r.id FROM Record r WHERE r.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Server-side cursor for exports: rows are pulled from Postgres in batches instead of all at once
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM Record r ORDER BY r.id ASC")
+    Stream<Record> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM Record r WHERE r.updatedAt >= :since ORDER BY r.id ASC")
+    Stream<Record> streamUpdatedSince(@Param("since") LocalDateTime since);
 }
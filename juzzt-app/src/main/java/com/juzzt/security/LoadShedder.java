@@ -0,0 +1,65 @@
+package com.juzzt.security;
+
+import com.juzzt.config.DataSourceMetricsConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adaptive shedding for expensive routes. Tracks a moving average of latency per route and
+ * the connection pool saturation; once either crosses its threshold, a growing share of
+ * sheddable requests is turned away. A slice always gets through so the averages can recover.
+ */
+@Component
+public class LoadShedder {
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final double MAX_SHED_RATIO = 0.9;
+
+    private final ObjectProvider<HikariDataSource> pools;
+    private final boolean enabled;
+    private final double maxLatencyMs;
+    private final double maxPoolSaturation;
+    private final Map<String, Double> latencyEwmaMs = new ConcurrentHashMap<>();
+
+    public LoadShedder(ObjectProvider<HikariDataSource> pools,
+                       @Value("${juzzt.load-shedding.enabled:true}") boolean enabled,
+                       @Value("${juzzt.load-shedding.max-latency-ms:2000}") double maxLatencyMs,
+                       @Value("${juzzt.load-shedding.max-pool-saturation:1.0}") double maxPoolSaturation) {
+        this.pools = pools;
+        this.enabled = enabled;
+        this.maxLatencyMs = maxLatencyMs;
+        this.maxPoolSaturation = maxPoolSaturation;
+    }
+
+    public boolean shouldShed(RoutePolicy policy) {
+        if (!enabled || !policy.sheddable()) return false;
+
+        double overload = Math.max(latencyOverload(policy), saturationOverload());
+        if (overload <= 0) return false;
+        return ThreadLocalRandom.current().nextDouble() < Math.min(MAX_SHED_RATIO, overload);
+    }
+
+    public void recordLatency(RoutePolicy policy, long latencyMs) {
+        latencyEwmaMs.merge(policy.name(), (double) latencyMs,
+                (previous, sample) -> previous + EWMA_WEIGHT * (sample - previous));
+    }
+
+    // 0 when under the threshold, 1 when at twice the threshold
+    private double latencyOverload(RoutePolicy policy) {
+        Double ewma = latencyEwmaMs.get(policy.name());
+        return ewma == null ? 0 : (ewma - maxLatencyMs) / maxLatencyMs;
+    }
+
+    private double saturationOverload() {
+        double saturation = pools.orderedStream()
+                .mapToDouble(DataSourceMetricsConfig::saturation)
+                .max()
+                .orElse(0);
+        return (saturation - maxPoolSaturation) / maxPoolSaturation;
+    }
+}
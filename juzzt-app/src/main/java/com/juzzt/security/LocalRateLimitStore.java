@@ -0,0 +1,28 @@
+package com.juzzt.security;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class LocalRateLimitStore implements RateLimitStore {
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryAcquire(RoutePolicy policy, String clientKey) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(policy.name() + ":" + clientKey,
+                key -> new TokenBucket(policy.capacity(), policy.refillPerSecond(), now));
+        return TimeUnit.NANOSECONDS.toMillis(bucket.tryConsume(now));
+    }
+
+    // One bucket per client IP/user adds up, drop the ones that have refilled and gone quiet
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, IDLE_NANOS));
+    }
+}
@@ -0,0 +1,143 @@
+package com.juzzt.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Runs right after JwtAuthFilter so authenticated clients are limited per user and
+ * anonymous ones per IP. Rejections are 429 (client over budget) or 503 (node too busy).
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final List<RoutePolicy> policies;
+    private final RateLimitStore rateLimitStore;
+    private final LoadShedder loadShedder;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<String, Semaphore> inFlight;
+
+    public RateLimitFilter(List<RoutePolicy> rateLimitPolicies,
+                           RateLimitStore rateLimitStore,
+                           LoadShedder loadShedder,
+                           MeterRegistry meterRegistry,
+                           @Value("${juzzt.rate-limit.enabled:true}") boolean enabled) {
+        this.policies = rateLimitPolicies;
+        this.rateLimitStore = rateLimitStore;
+        this.loadShedder = loadShedder;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.inFlight = rateLimitPolicies.stream()
+                .filter(policy -> policy.maxConcurrent() > 0)
+                .collect(Collectors.toMap(RoutePolicy::name, policy -> new Semaphore(policy.maxConcurrent())));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RoutePolicy policy = enabled ? findPolicy(request) : null;
+        if (policy == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterMs = rateLimitStore.tryAcquire(policy, clientKey(request));
+        if (retryAfterMs > 0) {
+            reject(response, policy, 429, "rate_limited", retryAfterMs);
+            return;
+        }
+
+        if (loadShedder.shouldShed(policy)) {
+            reject(response, policy, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "shed", 1000);
+            return;
+        }
+
+        Semaphore permits = inFlight.get(policy.name());
+        if (permits != null && !permits.tryAcquire()) {
+            reject(response, policy, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "concurrency", 1000);
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean done = new AtomicBoolean();
+        Runnable complete = () -> {
+            if (done.compareAndSet(false, true)) {
+                if (permits != null) permits.release();
+                loadShedder.recordLatency(policy, (System.nanoTime() - start) / 1_000_000);
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Streamed and Mono responses keep running after the filter returns
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(complete));
+            } else {
+                complete.run();
+            }
+        }
+    }
+
+    private RoutePolicy findPolicy(HttpServletRequest request) {
+        for (RoutePolicy policy : policies) {
+            if (policy.matches(request)) return policy;
+        }
+        return null;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, RoutePolicy policy, int status, String reason, long retryAfterMs)
+            throws IOException {
+        meterRegistry.counter("juzzt.ratelimit.rejected", "route", policy.name(), "reason", reason).increment();
+        response.setStatus(status);
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (retryAfterMs + 999) / 1000)));
+        response.setContentType("text/plain");
+        response.getWriter().write(status == 429 ? "Too many requests" : "Service busy, try again shortly");
+    }
+
+    private record CompletionListener(Runnable onDone) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            onDone.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            onDone.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            onDone.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
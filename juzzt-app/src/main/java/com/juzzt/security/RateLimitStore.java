@@ -0,0 +1,12 @@
+package com.juzzt.security;
+
+/**
+ * Where token buckets live: in this JVM, or in Redis so all nodes share one budget per client.
+ */
+public interface RateLimitStore {
+    /**
+     * Take one token from the client's bucket for the policy.
+     * Returns 0 if allowed, otherwise milliseconds until a token becomes available.
+     */
+    long tryAcquire(RoutePolicy policy, String clientKey);
+}
@@ -0,0 +1,84 @@
+package com.juzzt.security;
+
+import com.juzzt.util.CircuitBreaker;
+import com.juzzt.util.CircuitBreaker.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Token buckets shared by all nodes, updated atomically by a Lua script.
+ * If Redis is unavailable the local store takes over rather than failing requests; after a run of
+ * failures a circuit breaker sends requests straight to it instead of waiting out each command timeout.
+ */
+public class RedisRateLimitStore implements RateLimitStore {
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimitStore.class);
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    // Returns 0 when a token was taken, otherwise ms until the next one
+    private static final RedisScript<Long> TOKEN_BUCKET = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local refill_per_ms = tonumber(ARGV[2])
+            local now = tonumber(ARGV[3])
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1]) or capacity
+            local ts = tonumber(state[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * refill_per_ms)
+            local wait = 0
+            if tokens >= 1 then
+                tokens = tokens - 1
+            else
+                wait = math.ceil((1 - tokens) / refill_per_ms)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / refill_per_ms) + 1000)
+            return wait
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final LocalRateLimitStore fallback;
+    private final CircuitBreaker breaker;
+
+    public RedisRateLimitStore(StringRedisTemplate redisTemplate, LocalRateLimitStore fallback,
+                               int failureThreshold, Duration openDuration) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+        this.breaker = new CircuitBreaker(failureThreshold, openDuration, this::onStateChange);
+    }
+
+    @Override
+    public long tryAcquire(RoutePolicy policy, String clientKey) {
+        if (!breaker.allowRequest()) {
+            return fallback.tryAcquire(policy, clientKey);
+        }
+        try {
+            Long wait = redisTemplate.execute(TOKEN_BUCKET,
+                    List.of(KEY_PREFIX + policy.name() + ":" + clientKey),
+                    String.valueOf(policy.capacity()),
+                    String.valueOf(policy.refillPerSecond() / 1000d),
+                    String.valueOf(System.currentTimeMillis()));
+            breaker.recordSuccess();
+            return wait == null ? 0 : wait;
+        } catch (Exception e) {
+            breaker.recordFailure();
+            return fallback.tryAcquire(policy, clientKey);
+        }
+    }
+
+    public State circuitState() {
+        return breaker.state();
+    }
+
+    private void onStateChange(State from, State to) {
+        if (from == State.CLOSED && to == State.OPEN) {
+            log.warn("Redis unavailable, rate limiting with local buckets");
+        } else if (to == State.CLOSED) {
+            log.info("Redis available again, rate limiting with shared buckets");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.juzzt.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+
+/**
+ * Rate limit budget for a group of routes: a token bucket per client (capacity, refill rate),
+ * an optional cap on requests in flight on this node, and whether the route may be shed under load.
+ */
+public record RoutePolicy(String name, HttpMethod method, List<String> patterns,
+                          int capacity, double refillPerSecond, int maxConcurrent, boolean sheddable) {
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    public boolean matches(HttpServletRequest request) {
+        if (method != null && !method.matches(request.getMethod())) return false;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return patterns.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+}
@@ -0,0 +1,49 @@
+package com.juzzt.security;
+
+/**
+ * Classic token bucket, refilled lazily on access.
+ */
+public class TokenBucket {
+    private final int capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+    private long lastAccess;
+
+    public TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = now;
+        this.lastAccess = now;
+    }
+
+    /**
+     * Take a token if one is available. Returns 0 on success, otherwise nanos until the next token.
+     */
+    public synchronized long tryConsume(long now) {
+        refill(now);
+        lastAccess = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerNano);
+    }
+
+    /**
+     * A bucket that is full again and untouched for a while carries no state worth keeping.
+     */
+    public synchronized boolean isIdle(long now, long idleNanos) {
+        refill(now);
+        return tokens >= capacity && now - lastAccess >= idleNanos;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.juzzt.service;
+
+import com.juzzt.dto.KeysetPageDTO;
+import com.juzzt.dto.OrderSummaryDTO;
+import com.juzzt.dto.UserSummaryDTO;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admin listings of users and orders. Pages are keyset-paginated on id (newest first) and
+ * return slim rows straight from SQL, so no entities or lazy collections are loaded.
+ */
+@Service
+public class AdminListingService {
+    private static final int MAX_PAGE_SIZE = 200;
+
+    public record UserFilter(String emailPrefix, String role, LocalDateTime createdFrom,
+                             LocalDateTime createdTo) implements Serializable {
+        boolean isEmpty() {
+            return isBlank(emailPrefix) && isBlank(role) && createdFrom == null && createdTo == null;
+        }
+
+        List<String> conditions(MapSqlParameterSource params) {
+            List<String> conditions = new ArrayList<>();
+            if (!isBlank(emailPrefix)) {
+                // Matches idx_users_email_prefix
+                conditions.add("lower(u.email) LIKE :emailPrefix");
+                params.addValue("emailPrefix", escapeLike(emailPrefix.trim().toLowerCase()) + "%");
+            }
+            if (!isBlank(role)) {
+                conditions.add("u.role = :role");
+                params.addValue("role", role.trim().toUpperCase());
+            }
+            if (createdFrom != null) {
+                conditions.add("u.created_at >= :createdFrom");
+                params.addValue("createdFrom", Timestamp.valueOf(createdFrom));
+            }
+            if (createdTo != null) {
+                conditions.add("u.created_at < :createdTo");
+                params.addValue("createdTo", Timestamp.valueOf(createdTo));
+            }
+            return conditions;
+        }
+    }
+
+    public record OrderFilter(Long userId, LocalDateTime placedFrom, LocalDateTime placedTo) implements Serializable {
+        boolean isEmpty() {
+            return userId == null && placedFrom == null && placedTo == null;
+        }
+
+        List<String> conditions(MapSqlParameterSource params) {
+            List<String> conditions = new ArrayList<>();
+            if (userId != null) {
+                conditions.add("o.user_id = :userId");
+                params.addValue("userId", userId);
+            }
+            if (placedFrom != null) {
+                conditions.add("o.order_date >= :placedFrom");
+                params.addValue("placedFrom", Timestamp.valueOf(placedFrom));
+            }
+            if (placedTo != null) {
+                conditions.add("o.order_date < :placedTo");
+                params.addValue("placedTo", Timestamp.valueOf(placedTo));
+            }
+            return conditions;
+        }
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ListingCountService listingCountService;
+
+    public AdminListingService(NamedParameterJdbcTemplate jdbcTemplate, ListingCountService listingCountService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.listingCountService = listingCountService;
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<UserSummaryDTO> listUsers(UserFilter filter, Long cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", pageSize + 1);
+        List<String> conditions = filter.conditions(params);
+        if (cursor != null) {
+            conditions.add("u.id < :cursor");
+            params.addValue("cursor", cursor);
+        }
+
+        List<UserSummaryDTO> users = jdbcTemplate.query(
+                "SELECT u.id, u.email, u.name, u.role, u.created_at FROM users u" + where(conditions) +
+                        " ORDER BY u.id DESC LIMIT :limit",
+                params,
+                (rs, row) -> new UserSummaryDTO(rs.getLong("id"), rs.getString("email"), rs.getString("name"),
+                        rs.getString("role"), rs.getTimestamp("created_at").toLocalDateTime()));
+
+        boolean hasMore = users.size() > pageSize;
+        List<UserSummaryDTO> page = hasMore ? users.subList(0, pageSize) : users;
+        Long nextCursor = page.isEmpty() ? cursor : page.get(page.size() - 1).id();
+        return new KeysetPageDTO<>(page, nextCursor, hasMore, listingCountService.countUsers(filter));
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<OrderSummaryDTO> listOrders(OrderFilter filter, Long cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", pageSize + 1);
+        List<String> conditions = filter.conditions(params);
+        if (cursor != null) {
+            conditions.add("o.id < :cursor");
+            params.addValue("cursor", cursor);
+        }
+
+        // Item counts come from idx_order_items_order_id, only for the rows on this page
+        List<OrderSummaryDTO> orders = jdbcTemplate.query(
+                "SELECT o.id, o.user_id, u.email, o.order_date, o.total_price, " +
+                        "(SELECT count(*) FROM order_items oi WHERE oi.order_id = o.id) AS item_count " +
+                        "FROM orders o JOIN users u ON u.id = o.user_id" + where(conditions) +
+                        " ORDER BY o.id DESC LIMIT :limit",
+                params,
+                (rs, row) -> {
+                    Timestamp orderDate = rs.getTimestamp("order_date");
+                    return new OrderSummaryDTO(rs.getLong("id"), rs.getLong("user_id"), rs.getString("email"),
+                            orderDate == null ? null : orderDate.toLocalDateTime(),
+                            rs.getObject("total_price", Double.class), rs.getInt("item_count"));
+                });
+
+        boolean hasMore = orders.size() > pageSize;
+        List<OrderSummaryDTO> page = hasMore ? orders.subList(0, pageSize) : orders;
+        Long nextCursor = page.isEmpty() ? cursor : page.get(page.size() - 1).id();
+        return new KeysetPageDTO<>(page, nextCursor, hasMore, listingCountService.countOrders(filter));
+    }
+
+    static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
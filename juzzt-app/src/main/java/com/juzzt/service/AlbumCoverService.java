@@ -1,20 +1,32 @@
 package com.juzzt.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 @Service
 public class AlbumCoverService {
-    private final String COVER_ART_API = "https://coverartarchive.org/release-group/";
+    private final String coverArtBaseUrl;
+    private final RestTemplate restTemplate;
 
+    public AlbumCoverService(@Value("${juzzt.coverart.base-url:https://coverartarchive.org}") String coverArtBaseUrl,
+                             RestTemplate restTemplate) {
+        this.coverArtBaseUrl = coverArtBaseUrl;
+        this.restTemplate = restTemplate;
+    }
+
+    /**
+     * Path of the locally cached cover, served by CoverImageController. Kept relative so the
+     * stored URL doesn't pin rows to the host they were written from.
+     * Returns null when the Cover Art Archive has no front image.
+     */
     public String getAlbumCover(String musicbrainzId) {
-        if (musicbrainzId == null) return null;
+        if (!CoverImageCache.isValidMbid(musicbrainzId)) return null;
 
-        String coverUrl = COVER_ART_API + musicbrainzId + "/front";
+        String coverUrl = coverArtBaseUrl + "/release-group/" + musicbrainzId + "/front";
         try {
-            RestTemplate restTemplate = new RestTemplate();
             restTemplate.headForHeaders(coverUrl); // Check if the image exists
-            return coverUrl;
+            return "/api/covers/" + musicbrainzId;
         } catch (Exception e) {
             return null; // No image found
         }
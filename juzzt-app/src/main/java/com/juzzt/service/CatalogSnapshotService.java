@@ -0,0 +1,224 @@
+package com.juzzt.service;
+
+import com.juzzt.config.ReadWriteRoutingDataSource;
+import com.juzzt.dto.FacetSearchDTO;
+import com.juzzt.dto.KeysetPageDTO;
+import com.juzzt.event.DomainEvent;
+import com.juzzt.event.DomainEventConsumer;
+import com.juzzt.event.RecordChangedEvent;
+import com.juzzt.model.Record;
+import com.juzzt.model.RecordChange;
+import com.juzzt.repository.RecordChangeRepository;
+import com.juzzt.repository.RecordRepository;
+import com.juzzt.util.CatalogSnapshot;
+import com.juzzt.util.FacetIndex;
+import com.juzzt.util.FacetIndex.Dimension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves catalog listings, lookups by id and genre filters from an in-memory {@link CatalogSnapshot}.
+ * Readers take whatever snapshot is current without locking; writers build a new one and swap it in.
+ * Writes relayed from the outbox are applied as they arrive, anything else (e.g. rows relayed by
+ * another node) is picked up by polling the change log. Facet bitmaps are kept next to the snapshot and swapped with it.
+ * Until the first load completes, reads are served from a snapshot of RecordService's catalog instead.
+ */
+@Service
+public class CatalogSnapshotService implements DomainEventConsumer {
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private static final int CHANGE_PAGE_SIZE = 1000;
+    private static final int MAX_FACET_PAGE_SIZE = 500;
+
+    // Swapped as one so a facet query never sees bitmaps from a different version than the rows
+    private record Catalog(CatalogSnapshot snapshot, FacetIndex facets) {}
+
+    private final RecordRepository recordRepository;
+    private final RecordChangeRepository recordChangeRepository;
+    private final RecordService recordService;
+    private final boolean enabled;
+    private final double[] priceBands;
+    private final AtomicReference<Catalog> current = new AtomicReference<>();
+    // RecordService's catalog and its facet index while there is no snapshot, kept until the change log moves
+    private final AtomicReference<Catalog> fallback = new AtomicReference<>();
+
+    public CatalogSnapshotService(RecordRepository recordRepository,
+                                  RecordChangeRepository recordChangeRepository,
+                                  RecordService recordService,
+                                  @Value("${juzzt.catalog.snapshot.enabled:true}") boolean enabled,
+                                  @Value("${juzzt.catalog.facets.price-bands:10,20,30,50}") double[] priceBands) {
+        this.recordRepository = recordRepository;
+        this.recordChangeRepository = recordChangeRepository;
+        this.recordService = recordService;
+        this.enabled = enabled;
+        this.priceBands = priceBands;
+    }
+
+    /**
+     * The snapshot to serve from: the current one or, until the first load completes (or when snapshots
+     * are disabled), one built from RecordService's catalog. That one is rebuilt only once the change log
+     * has moved, so reads that find it current cost one indexed lookup and never reach RecordService.
+     */
+    public CatalogSnapshot getServingSnapshot() {
+        Catalog catalog = current.get();
+        return (catalog == null ? fallbackCatalog() : catalog).snapshot();
+    }
+
+    /**
+     * The requested records that are in the snapshot; empty until it has been loaded.
+     */
+    public Map<Long, Record> findLoaded(Collection<Long> ids) {
+        Catalog catalog = current.get();
+        if (catalog == null) return Map.of();
+        Map<Long, Record> found = new HashMap<>();
+        for (Long id : ids) {
+            catalog.snapshot().find(id).ifPresent(record -> found.put(id, record));
+        }
+        return found;
+    }
+
+    /**
+     * Records matching the filters (any of the values within a dimension, all dimensions together),
+     * by id after the cursor, plus per-value counts for each dimension.
+     */
+    public FacetSearchDTO getFacets(Map<Dimension, Set<String>> filters, Long after, int limit, int facetLimit) {
+        Catalog catalog = current.get();
+        if (catalog == null) {
+            catalog = fallbackCatalog();
+        }
+        FacetIndex facets = catalog.facets();
+        int pageSize = Math.max(1, Math.min(limit, MAX_FACET_PAGE_SIZE));
+
+        RoaringBitmap matches = facets.select(filters);
+        List<Long> ids = FacetIndex.page(matches, after == null ? 0L : after, pageSize + 1);
+        boolean hasMore = ids.size() > pageSize;
+        List<Long> pageIds = hasMore ? ids.subList(0, pageSize) : ids;
+        CatalogSnapshot snapshot = catalog.snapshot();
+        List<Record> records = pageIds.stream()
+                .map(snapshot::find)
+                .flatMap(Optional::stream)
+                .toList();
+        Long nextCursor = pageIds.isEmpty() ? after : pageIds.get(pageIds.size() - 1);
+
+        Map<String, List<FacetIndex.Count>> counts = new LinkedHashMap<>();
+        for (Dimension dimension : Dimension.values()) {
+            counts.put(dimension.name().toLowerCase(), facets.counts(dimension, filters, facetLimit));
+        }
+        return new FacetSearchDTO(new KeysetPageDTO<>(records, nextCursor, hasMore, matches.getLongCardinality()), counts);
+    }
+
+    // Snapshot disabled or not loaded yet: one indexed max(id) lookup per request instead of a rebuild
+    private Catalog fallbackCatalog() {
+        // Cursor first, as in reload: a change landing in between only causes one more rebuild
+        Long latest = recordChangeRepository.findLatestChangeId();
+        long cursor = latest == null ? 0L : latest;
+        Catalog cached = fallback.get();
+        if (cached != null && cached.snapshot().changeCursor() == cursor) {
+            return cached;
+        }
+        List<Record> records = recordService.getAllRecords();
+        Catalog catalog = new Catalog(CatalogSnapshot.of(records, cursor), FacetIndex.of(records, priceBands));
+        fallback.set(catalog);
+        return catalog;
+    }
+
+    public boolean isLoaded() {
+        return current.get() != null;
+    }
+
+    /**
+     * Full rebuild from the database. Also drops dictionary entries no record uses any more.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        if (!enabled) return;
+        // Read the cursor first: anything written during the load is replayed by the next poll
+        Long cursor = recordChangeRepository.findLatestChangeId();
+        List<Record> records = recordRepository.findAll();
+        CatalogSnapshot snapshot = CatalogSnapshot.of(records, cursor == null ? 0L : cursor);
+        current.set(new Catalog(snapshot, FacetIndex.of(records, priceBands)));
+        fallback.set(null);
+        log.info("Catalog snapshot loaded: {} records, {} artists, {} genres, change cursor {}",
+                snapshot.size(), snapshot.artistCount(), snapshot.genreCount(), snapshot.changeCursor());
+    }
+
+    // Changed records of a whole batch are loaded with one query
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Catalog catalog = current.get();
+        if (catalog == null) return;
+        List<Long> stale = events.stream()
+                .filter(event -> event instanceof RecordChangedEvent)
+                .map(event -> (RecordChangedEvent) event)
+                .filter(change -> catalog.snapshot().version(change.recordId()) < change.version())
+                .map(RecordChangedEvent::recordId)
+                .distinct()
+                .toList();
+        if (stale.isEmpty()) return;
+        try {
+            // The replica may not have the commit yet
+            apply(ReadWriteRoutingDataSource.onPrimary(() -> recordRepository.findAllById(stale)), 0L);
+        } catch (RuntimeException e) {
+            log.warn("Could not apply changes to {} records, the change log poll will pick them up", stale.size(), e);
+        }
+    }
+
+    // Changes made by other instances
+    @Scheduled(fixedDelayString = "${juzzt.catalog.snapshot.poll-interval:5s}")
+    public void pollChanges() {
+        Catalog catalog = current.get();
+        if (catalog == null) return;
+        CatalogSnapshot snapshot = catalog.snapshot();
+
+        List<RecordChange> changes;
+        do {
+            changes = recordChangeRepository.findByIdGreaterThanOrderByIdAsc(
+                    snapshot.changeCursor(), PageRequest.of(0, CHANGE_PAGE_SIZE));
+            if (changes.isEmpty()) return;
+
+            List<Long> stale = changes.stream()
+                    .filter(change -> current.get().snapshot().version(change.getRecordId()) < change.getRecordVersion())
+                    .map(RecordChange::getRecordId)
+                    .distinct()
+                    .toList();
+            snapshot = apply(stale.isEmpty() ? List.of() : recordRepository.findAllById(stale),
+                    changes.get(changes.size() - 1).getId());
+        } while (changes.size() == CHANGE_PAGE_SIZE);
+    }
+
+    // Single writer at a time, readers keep using the previous snapshot until the swap
+    private synchronized CatalogSnapshot apply(List<Record> records, long changeCursor) {
+        Catalog catalog = current.get();
+        CatalogSnapshot snapshot = catalog.snapshot();
+        // Newest version per record, skipping what is already applied
+        Map<Long, Record> newer = new HashMap<>();
+        for (Record record : records) {
+            if (snapshot.version(record.getId()) >= record.getVersion()) continue;
+            newer.merge(record.getId(), record, (a, b) -> a.getVersion() >= b.getVersion() ? a : b);
+        }
+        // One copy of the columns and facets for the whole batch, not one per record
+        List<FacetIndex.Change> changes = newer.values().stream()
+                .map(record -> new FacetIndex.Change(snapshot.find(record.getId()).orElse(null), record))
+                .toList();
+        FacetIndex facets = changes.isEmpty() ? catalog.facets() : catalog.facets().with(changes);
+        CatalogSnapshot next = snapshot.with(newer.values(), changeCursor);
+        current.set(new Catalog(next, facets));
+        return next;
+    }
+}
@@ -0,0 +1,49 @@
+package com.juzzt.service;
+
+import com.juzzt.model.Record;
+import com.juzzt.util.CatalogSnapshot;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+
+/**
+ * ETags for the catalog endpoints, derived from the records that go out in the body. Reading a
+ * version from anywhere else (the change log, possibly on a lagging replica) could label an older
+ * or newer body and turn later requests into 304s for content the client never got.
+ */
+@Service
+public class CatalogVersionService {
+
+    /**
+     * Order-independent fingerprint of the ids and versions; every update bumps the version.
+     */
+    public String getCatalogEtag(Collection<Record> records) {
+        long fingerprint = 0;
+        for (Record record : records) {
+            fingerprint += CatalogSnapshot.fingerprint(record.getId(), record.getVersion());
+        }
+        return catalogEtag(records.size(), fingerprint);
+    }
+
+    /**
+     * Same tag as for the snapshot's listed records, without materializing them.
+     */
+    public String getCatalogEtag(CatalogSnapshot snapshot) {
+        return catalogEtag(snapshot.size(), snapshot.fingerprint());
+    }
+
+    /**
+     * A genre listing only changes with the catalog, so it carries the catalog's tag, marked with the genre.
+     */
+    public String getGenreEtag(CatalogSnapshot snapshot, String genre) {
+        return getCatalogEtag(snapshot) + "-g" + Integer.toHexString(genre.hashCode());
+    }
+
+    public String getRecordEtag(Record record) {
+        return "record-" + record.getId() + "-v" + record.getVersion();
+    }
+
+    private static String catalogEtag(int size, long fingerprint) {
+        return "catalog-" + size + "-" + Long.toHexString(fingerprint);
+    }
+}
@@ -0,0 +1,35 @@
+package com.juzzt.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+@Service
+@ConditionalOnProperty(name = "juzzt.images.store", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImageStore implements ImageStore {
+    private final Cloudinary cloudinary;
+
+    public CloudinaryImageStore(Cloudinary cloudinary) {
+        this.cloudinary = cloudinary;
+    }
+
+    @Override
+    public String store(String key, Path file, String contentType) throws IOException {
+        // Passing a File lets the SDK stream it from disk
+        Map uploadResult = cloudinary.uploader().upload(file.toFile(), ObjectUtils.asMap(
+                "public_id", stripExtension(key),
+                "overwrite", true
+        ));
+        return uploadResult.get("secure_url").toString(); // Get the Cloudinary URL
+    }
+
+    private static String stripExtension(String key) {
+        int dot = key.lastIndexOf('.');
+        return dot > key.lastIndexOf('/') ? key.substring(0, dot) : key;
+    }
+}
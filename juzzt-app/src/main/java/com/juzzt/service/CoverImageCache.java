@@ -0,0 +1,288 @@
+package com.juzzt.service;
+
+import com.juzzt.util.ImageResizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Local disk cache of Cover Art Archive images. Each cover is fetched once, resized into
+ * a few fixed sizes and kept on disk; least recently served files go first once the quota is hit.
+ * Files handed out through {@link #openCover} are pinned and skipped by eviction until released.
+ */
+@Service
+public class CoverImageCache {
+    public static final Set<Integer> SIZES = Set.of(250, 500, 1200);
+
+    private static final Pattern MBID = Pattern.compile("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$");
+    private static final long MISSING_TTL_MS = 60 * 60 * 1000; // Don't ask again for an hour about covers that don't exist
+
+    private final RestTemplate restTemplate;
+    private final String coverArtBaseUrl;
+    private final Path root;
+    private final long maxDiskBytes;
+
+    // Access-ordered: iteration starts at the least recently served file
+    private final LinkedHashMap<Path, Long> lru = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes;
+
+    // Files being served: open leases per file, and nanoTime deadlines for files read by name after release
+    private final Map<Path, Integer> readers = new HashMap<>();
+    private final Map<Path, Long> heldUntil = new HashMap<>();
+
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> missingUntil = new ConcurrentHashMap<>();
+
+    public CoverImageCache(@Value("${juzzt.covers.dir:${java.io.tmpdir}/juzzt-covers}") Path root,
+                           @Value("${juzzt.covers.max-disk-bytes:2147483648}") long maxDiskBytes,
+                           @Value("${juzzt.coverart.base-url:https://coverartarchive.org}") String coverArtBaseUrl,
+                           RestTemplate restTemplate) throws IOException {
+        this.restTemplate = restTemplate;
+        this.coverArtBaseUrl = coverArtBaseUrl;
+        this.root = Files.createDirectories(root);
+        this.maxDiskBytes = maxDiskBytes;
+        loadExistingFiles();
+    }
+
+    public static boolean isValidMbid(String musicbrainzId) {
+        return musicbrainzId != null && MBID.matcher(musicbrainzId).matches();
+    }
+
+    /**
+     * Cached variant, fetching and resizing the cover on first use. The file is not evicted
+     * until the lease is closed. Empty if the Cover Art Archive has no front image for the release group.
+     */
+    public Optional<Lease> openCover(String musicbrainzId, int size) {
+        if (!isValidMbid(musicbrainzId) || !SIZES.contains(size)) return Optional.empty();
+
+        Path variant = variantPath(musicbrainzId, size);
+        if (acquire(variant)) return Optional.of(new Lease(variant));
+
+        Long missing = missingUntil.get(musicbrainzId);
+        if (missing != null && missing > System.currentTimeMillis()) return Optional.empty();
+
+        // Concurrent misses for the same cover share a single download
+        CompletableFuture<Boolean> fetch = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = inFlight.putIfAbsent(musicbrainzId, fetch);
+        if (existing == null) {
+            try {
+                fetch.complete(fetchAndStore(musicbrainzId, variant));
+            } catch (RuntimeException e) {
+                fetch.completeExceptionally(e);
+            } finally {
+                inFlight.remove(musicbrainzId);
+            }
+            // Stored already pinned, so eviction for the new files can't take the one asked for
+            return fetch.join() ? Optional.of(new Lease(variant)) : Optional.empty();
+        }
+        return existing.join() && acquire(variant) ? Optional.of(new Lease(variant)) : Optional.empty();
+    }
+
+    /**
+     * A cached file pinned against eviction. Close it once the response no longer needs the file.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Path path;
+        private boolean released;
+
+        private Lease(Path path) {
+            this.path = path;
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        /**
+         * Releases the lease but keeps the file for a while, for readers that open it by name
+         * after the request handler returns (Tomcat sendfile).
+         */
+        public void closeAfter(Duration hold) {
+            if (released) return;
+            released = true;
+            release(path, hold);
+        }
+
+        @Override
+        public void close() {
+            closeAfter(Duration.ZERO);
+        }
+    }
+
+    // True with the requested variant stored and pinned, false if the archive has no usable image
+    private boolean fetchAndStore(String musicbrainzId, Path requested) {
+        Path original = null;
+        try {
+            original = Files.createTempFile(root, "fetch-", ".tmp");
+            Path download = original;
+            // Stream straight to disk, the redirect to archive.org is followed by the request factory
+            restTemplate.execute(coverArtBaseUrl + "/release-group/" + musicbrainzId + "/front", HttpMethod.GET, null, response -> {
+                Files.copy(response.getBody(), download, StandardCopyOption.REPLACE_EXISTING);
+                return null;
+            });
+
+            BufferedImage image = ImageResizer.read(original, SIZES.stream().max(Integer::compare).orElseThrow());
+            if (image == null) {
+                missingUntil.put(musicbrainzId, System.currentTimeMillis() + MISSING_TTL_MS);
+                return false;
+            }
+            Map<Path, Long> variants = new LinkedHashMap<>();
+            for (int size : SIZES) {
+                Path target = variantPath(musicbrainzId, size);
+                Files.createDirectories(target.getParent());
+                Path tmp = Files.createTempFile(root, "variant-", ".tmp");
+                ImageResizer.writeJpeg(ImageResizer.scaleToFit(image, size), tmp);
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                variants.put(target, Files.size(target));
+            }
+            store(variants, requested);
+            return true;
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                missingUntil.put(musicbrainzId, System.currentTimeMillis() + MISSING_TTL_MS);
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (original != null) {
+                try {
+                    Files.deleteIfExists(original);
+                } catch (IOException ignored) {
+                    // Left in the cache dir, replaced on next startup scan
+                }
+            }
+        }
+    }
+
+    private Path variantPath(String musicbrainzId, int size) {
+        // Two-level fan-out keeps directories small
+        return root.resolve(musicbrainzId.substring(0, 2)).resolve(musicbrainzId + "-" + size + ".jpg");
+    }
+
+    // Marks the file as served and pins it; false if it isn't cached
+    private synchronized boolean acquire(Path file) {
+        if (lru.get(file) == null) return false;
+        readers.merge(file, 1, Integer::sum);
+        return true;
+    }
+
+    private synchronized void release(Path file, Duration hold) {
+        readers.computeIfPresent(file, (path, count) -> count > 1 ? count - 1 : null);
+        if (!hold.isZero()) {
+            heldUntil.merge(file, System.nanoTime() + hold.toNanos(), Math::max);
+        }
+        try {
+            evictOverQuota();
+        } catch (IOException ignored) {
+            // Tried again on the next add or release
+        }
+    }
+
+    private synchronized boolean inUse(Path file) {
+        if (readers.containsKey(file)) return true;
+        Long deadline = heldUntil.get(file);
+        if (deadline == null) return false;
+        if (deadline - System.nanoTime() > 0) return true;
+        heldUntil.remove(file);
+        return false;
+    }
+
+    private synchronized void add(Path file, long bytes) throws IOException {
+        Long previous = lru.put(file, bytes);
+        totalBytes += bytes - (previous == null ? 0 : previous);
+        evictOverQuota();
+    }
+
+    // Adds a fresh download with the requested variant pinned; room is made from older files only
+    private synchronized void store(Map<Path, Long> variants, Path requested) {
+        variants.forEach((file, bytes) -> {
+            Long previous = lru.put(file, bytes);
+            totalBytes += bytes - (previous == null ? 0 : previous);
+        });
+        readers.merge(requested, 1, Integer::sum);
+        try {
+            evictOverQuota(variants.keySet());
+        } catch (IOException ignored) {
+            // Tried again on the next add or release
+        }
+    }
+
+    private synchronized void evictOverQuota() throws IOException {
+        evictOverQuota(Set.of());
+    }
+
+    // Pinned files don't count against the quota until released, so they don't push newer files out;
+    // once released they are evicted in LRU order like the rest
+    private synchronized void evictOverQuota(Set<Path> keep) throws IOException {
+        if (totalBytes <= maxDiskBytes) return;
+        long pinnedBytes = 0;
+        for (Map.Entry<Path, Long> entry : lru.entrySet()) {
+            if (inUse(entry.getKey())) pinnedBytes += entry.getValue();
+        }
+        Iterator<Map.Entry<Path, Long>> eldest = lru.entrySet().iterator();
+        while (totalBytes - pinnedBytes > maxDiskBytes && eldest.hasNext()) {
+            Map.Entry<Path, Long> entry = eldest.next();
+            if (keep.contains(entry.getKey()) || inUse(entry.getKey())) continue;
+            Files.deleteIfExists(entry.getKey());
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    synchronized long diskBytes() {
+        return totalBytes;
+    }
+
+    // Rebuild the LRU from disk on startup, oldest modification first
+    private void loadExistingFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            List<Path> cached = files.filter(Files::isRegularFile).toList();
+            for (Path file : cached) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            List<Map.Entry<Path, BasicFileAttributes>> byAge = cached.stream()
+                    .filter(file -> file.getFileName().toString().endsWith(".jpg"))
+                    .map(file -> Map.entry(file, attributes(file)))
+                    .sorted(Comparator.comparing(entry -> entry.getValue().lastModifiedTime()))
+                    .toList();
+            for (Map.Entry<Path, BasicFileAttributes> entry : byAge) {
+                add(entry.getKey(), entry.getValue().size());
+            }
+        }
+    }
+
+    private static BasicFileAttributes attributes(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.juzzt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juzzt.event.DomainEvent;
+import com.juzzt.event.OrderPlacedEvent;
+import com.juzzt.event.RecordChangedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Writes domain events to the event_outbox table in the caller's transaction, so an event exists
+ * exactly when the change it describes was committed. {@link OutboxRelay} delivers them.
+ */
+@Service
+public class EventOutbox {
+    // Stored type names; renaming an event class must keep its entry so pending rows still decode
+    private static final Map<String, Class<? extends DomainEvent>> TYPES = Map.of(
+            "OrderPlaced", OrderPlacedEvent.class,
+            "RecordChanged", RecordChangedEvent.class);
+
+    private static final String INSERT = "INSERT INTO event_outbox (event_type, payload) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxRelay relay;
+
+    public EventOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, OutboxRelay relay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.relay = relay;
+    }
+
+    @Transactional
+    public void append(DomainEvent event) {
+        String type = typeName(event.getClass());
+        try {
+            jdbcTemplate.update(INSERT, type, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize " + type + " event", e);
+        }
+        // Relay this node's events right away instead of waiting for the next poll
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    relay.wakeUp();
+                }
+            });
+        }
+    }
+
+    static Optional<Class<? extends DomainEvent>> eventClass(String type) {
+        return Optional.ofNullable(TYPES.get(type));
+    }
+
+    private static String typeName(Class<?> eventClass) {
+        return TYPES.entrySet().stream()
+                .filter(entry -> entry.getValue() == eventClass)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Unregistered domain event " + eventClass.getSimpleName()));
+    }
+}
@@ -0,0 +1,99 @@
+package com.juzzt.service;
+
+import com.juzzt.event.ImageStagedEvent;
+import com.juzzt.util.ImageResizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Background half of a cover upload: resizes the staged file into a full-size image and
+ * a thumbnail, pushes both to the image store and marks the record ready.
+ */
+@Service
+public class ImageIngestionService {
+    private static final Logger log = LoggerFactory.getLogger(ImageIngestionService.class);
+
+    private static final int FULL_SIZE = 1200;
+    private static final int THUMBNAIL_SIZE = 300;
+
+    private final ImageStore imageStore;
+    private final RecordService recordService;
+    private final TaskExecutor executor;
+
+    public ImageIngestionService(ImageStore imageStore, RecordService recordService,
+                                 @Qualifier("imageIngestionExecutor") TaskExecutor executor) {
+        this.imageStore = imageStore;
+        this.recordService = recordService;
+        this.executor = executor;
+    }
+
+    // Only once the record is committed, so the job never races the insert it belongs to
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onImageStaged(ImageStagedEvent event) {
+        try {
+            executor.execute(() -> ingest(event));
+        } catch (TaskRejectedException e) {
+            // Queue full: the record would otherwise stay PENDING with its staged file left behind
+            log.warn("Image ingestion queue is full, upload for record {} dropped", event.recordId());
+            recordService.failImageIngestion(event.recordId());
+            deleteQuietly(event.stagedFile());
+        }
+    }
+
+    private void ingest(ImageStagedEvent event) {
+        Path staged = event.stagedFile();
+        String keyPrefix = "records/" + event.recordId() + "/" + staged.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+        try {
+            BufferedImage image = ImageResizer.read(staged, FULL_SIZE);
+            if (image == null) {
+                // Format ImageIO can't decode: publish the original untouched
+                String url = imageStore.store(keyPrefix + "-original", staged, event.contentType());
+                recordService.completeImageIngestion(event.recordId(), url, url);
+                return;
+            }
+
+            String fullUrl = storeVariant(image, FULL_SIZE, keyPrefix + "-" + FULL_SIZE + ".jpg");
+            String thumbnailUrl = storeVariant(image, THUMBNAIL_SIZE, keyPrefix + "-" + THUMBNAIL_SIZE + ".jpg");
+            recordService.completeImageIngestion(event.recordId(), fullUrl, thumbnailUrl);
+        } catch (Exception e) {
+            log.warn("Image ingestion failed for record {}", event.recordId(), e);
+            recordService.failImageIngestion(event.recordId());
+        } finally {
+            deleteQuietly(staged);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onRecordRolledBack(ImageStagedEvent event) {
+        deleteQuietly(event.stagedFile());
+    }
+
+    private String storeVariant(BufferedImage image, int size, String key) throws IOException {
+        Path variant = Files.createTempFile("juzzt-variant-", ".jpg");
+        try {
+            ImageResizer.writeJpeg(ImageResizer.scaleToFit(image, size), variant);
+            return imageStore.store(key, variant, "image/jpeg");
+        } finally {
+            deleteQuietly(variant);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Staging dir is temp space, a leftover file is harmless
+        }
+    }
+}
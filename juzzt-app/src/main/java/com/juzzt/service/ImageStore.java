@@ -0,0 +1,15 @@
+package com.juzzt.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Where processed images end up. Implementations read from the given file
+ * rather than a byte array so uploads never sit fully in the heap.
+ */
+public interface ImageStore {
+    /**
+     * Store the file under the key and return its public URL.
+     */
+    String store(String key, Path file, String contentType) throws IOException;
+}
@@ -1,22 +1,50 @@
 package com.juzzt.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.Map;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
 
 @Service
 public class ImageUploadService {
+    private final ImageStore imageStore;
+    private final Path stagingDir;
 
-    @Autowired
-    private Cloudinary cloudinary;
+    public ImageUploadService(ImageStore imageStore,
+                              @Value("${juzzt.images.staging-dir:${java.io.tmpdir}/juzzt-staging}") Path stagingDir) throws IOException {
+        this.imageStore = imageStore;
+        this.stagingDir = Files.createDirectories(stagingDir);
+    }
+
+    /**
+     * Move the multipart upload into the staging directory. For uploads already spooled to
+     * disk by the container this is a file move, so the image is never copied into the heap.
+     */
+    public Path stage(MultipartFile file) throws IOException {
+        Path staged = stagingDir.resolve(UUID.randomUUID() + extension(file.getOriginalFilename()));
+        file.transferTo(staged);
+        return staged;
+    }
 
+    /**
+     * Upload the file as-is and return its URL, streaming it from the staged copy.
+     */
     public String uploadImage(MultipartFile file) throws IOException {
-        Map uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
-        return uploadResult.get("secure_url").toString(); // Get the Cloudinary URL
+        Path staged = stage(file);
+        try {
+            return imageStore.store("uploads/" + staged.getFileName(), staged, file.getContentType());
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    private static String extension(String filename) {
+        if (filename == null) return "";
+        int dot = filename.lastIndexOf('.');
+        return dot >= 0 && filename.length() - dot <= 6 ? filename.substring(dot).toLowerCase() : "";
     }
 }
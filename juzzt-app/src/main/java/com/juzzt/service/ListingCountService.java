@@ -0,0 +1,60 @@
+package com.juzzt.service;
+
+import com.juzzt.service.AdminListingService.OrderFilter;
+import com.juzzt.service.AdminListingService.UserFilter;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Totals for the admin listings. Unfiltered totals come from the planner's row estimate;
+ * filtered ones are counted once and cached for a short TTL instead of on every page.
+ */
+@Service
+public class ListingCountService {
+    public static final String CACHE_NAME = "adminCounts";
+
+    private static final String ROW_ESTIMATE = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(:table)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ListingCountService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(value = CACHE_NAME, key = "'users:' + #filter")
+    public long countUsers(UserFilter filter) {
+        if (filter.isEmpty()) {
+            Long estimate = estimateRows("users");
+            if (estimate != null) return estimate;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> conditions = filter.conditions(params);
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users u" + AdminListingService.where(conditions), params, Long.class);
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(value = CACHE_NAME, key = "'orders:' + #filter")
+    public long countOrders(OrderFilter filter) {
+        if (filter.isEmpty()) {
+            Long estimate = estimateRows("orders");
+            if (estimate != null) return estimate;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> conditions = filter.conditions(params);
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM orders o" + AdminListingService.where(conditions), params, Long.class);
+    }
+
+    // reltuples is -1 until the table has been analyzed, fall back to an exact count then
+    private Long estimateRows(String table) {
+        Long estimate = jdbcTemplate.queryForObject(ROW_ESTIMATE, new MapSqlParameterSource("table", table), Long.class);
+        return estimate != null && estimate >= 0 ? estimate : null;
+    }
+}
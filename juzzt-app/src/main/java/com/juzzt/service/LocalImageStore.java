@@ -0,0 +1,37 @@
+package com.juzzt.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Filesystem store for tests and local runs, files are served under /media/** (see WebConfig).
+ */
+@Service
+@ConditionalOnProperty(name = "juzzt.images.store", havingValue = "local")
+public class LocalImageStore implements ImageStore {
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalImageStore(@Value("${juzzt.images.local.dir:${java.io.tmpdir}/juzzt-media}") Path root,
+                           @Value("${juzzt.images.local.base-url:/media}") String baseUrl) throws IOException {
+        this.root = Files.createDirectories(root);
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public String store(String key, Path file, String contentType) throws IOException {
+        Path target = root.resolve(key).normalize();
+        if (!target.startsWith(root)) {
+            throw new IOException("Invalid image key: " + key);
+        }
+        Files.createDirectories(target.getParent());
+        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+        return baseUrl + "/" + key;
+    }
+}
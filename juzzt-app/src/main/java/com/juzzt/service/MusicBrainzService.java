@@ -1,5 +1,8 @@
 package com.juzzt.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import java.util.List;
@@ -7,11 +10,21 @@ import java.util.Map;
 
 @Service
 public class MusicBrainzService {
-    private final String MUSICBRAINZ_API = "https://musicbrainz.org/ws/2/release-group?query=artist:\"%s\" AND release:\"%s\"&fmt=json";
+    private static final Logger log = LoggerFactory.getLogger(MusicBrainzService.class);
+
+    private static final String RELEASE_GROUP_SEARCH = "/ws/2/release-group?query=artist:\"%s\" AND release:\"%s\"&fmt=json";
+
+    private final String baseUrl;
+    private final RestTemplate restTemplate;
+
+    public MusicBrainzService(@Value("${juzzt.musicbrainz.base-url:https://musicbrainz.org}") String baseUrl,
+                              RestTemplate restTemplate) {
+        this.baseUrl = baseUrl;
+        this.restTemplate = restTemplate;
+    }
 
     public String getMusicBrainzId(String artist, String album) {
-        String url = String.format(MUSICBRAINZ_API, artist, album);
-        RestTemplate restTemplate = new RestTemplate();
+        String url = baseUrl + String.format(RELEASE_GROUP_SEARCH, artist, album);
 
         try {
             Map response = restTemplate.getForObject(url, Map.class);
@@ -22,7 +35,8 @@ public class MusicBrainzService {
                 }
             }
         } catch (Exception e) {
-            System.out.println("Error fetching MusicBrainz ID: " + e.getMessage());
+            // Called once per record during batch jobs, which count misses in their summary
+            log.debug("Error fetching MusicBrainz ID for {} - {}: {}", artist, album, e.getMessage());
         }
         return null; // Return null if no match found
     }
@@ -1,5 +1,8 @@
 package com.juzzt.service;
 
+import com.juzzt.config.ReadWriteRoutingDataSource;
+import com.juzzt.config.ReplicaLagMonitor;
+import com.juzzt.event.OrderPlacedEvent;
 import com.juzzt.model.Order;
 import com.juzzt.model.OrderItem;
 import com.juzzt.model.Record;
@@ -8,6 +11,7 @@ import com.juzzt.repository.OrderRepository;
 import com.juzzt.repository.RecordRepository;
 import com.juzzt.repository.UserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,17 +22,28 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final RecordRepository recordRepository;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final EventOutbox eventOutbox;
 
-    public OrderService(OrderRepository orderRepository, UserRepository userRepository, RecordRepository recordRepository) {
+    public OrderService(OrderRepository orderRepository, UserRepository userRepository, RecordRepository recordRepository,
+                        ReplicaLagMonitor replicaLagMonitor, EventOutbox eventOutbox) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.recordRepository = recordRepository;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.eventOutbox = eventOutbox;
     }
 
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByUserId(Long userId) {
+        // Right after placing an order the replica may not have it yet, read it back from the primary
+        if (replicaLagMonitor.mustReadFromPrimary(userId)) {
+            return ReadWriteRoutingDataSource.onPrimary(() -> orderRepository.findByUserId(userId));
+        }
         return orderRepository.findByUserId(userId);
     }
 
+    @Transactional
     public Order placeOrder(Long userId, List<Long> recordIds) {
         Optional<User> user = userRepository.findById(userId);
         if (user.isEmpty()) throw new RuntimeException("User not found");
@@ -46,6 +61,15 @@ public class OrderService {
         ).toList();
 
         order.setOrderItems(orderItems);
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        replicaLagMonitor.recordWrite(userId);
+
+        // Committed together with the order; sales rankings and recommendation caches pick it up from the outbox
+        eventOutbox.append(new OrderPlacedEvent(saved.getId(), userId, saved.getOrderDate(),
+                orderItems.stream()
+                        .map(item -> new OrderPlacedEvent.Line(item.getRecord().getId(), item.getRecord().getGenre(),
+                                item.getQuantity()))
+                        .toList()));
+        return saved;
     }
 }
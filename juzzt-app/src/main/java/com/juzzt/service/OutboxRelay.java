@@ -0,0 +1,250 @@
+package com.juzzt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juzzt.event.DomainEvent;
+import com.juzzt.event.DomainEventConsumer;
+import com.juzzt.util.EventRingBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves events from event_outbox onto an in-process {@link EventRingBuffer} feeding every
+ * {@link DomainEventConsumer}. Rows are claimed with a lease so several nodes can relay at once
+ * without handling the same row, and only marked published once every consumer has handled them;
+ * a consumer that keeps failing holds its rows back instead of skipping them. Rows of a node that
+ * dies mid-way are claimed again when the lease runs out.
+ */
+@Service
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String CLAIM =
+            "UPDATE event_outbox SET claimed_by = ?, claimed_until = ? WHERE id IN (" +
+            "SELECT id FROM event_outbox WHERE published_at IS NULL AND (claimed_until IS NULL OR claimed_until < ?) " +
+            "AND NOT (id = ANY (?)) ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id, event_type, payload";
+    private static final String MARK_PUBLISHED = "UPDATE event_outbox SET published_at = now() WHERE id = ANY (?)";
+    private static final String DELETE_PUBLISHED = "DELETE FROM event_outbox WHERE published_at < ?";
+    private static final String COUNT_PENDING = "SELECT count(*) FROM event_outbox WHERE published_at IS NULL";
+
+    private record Envelope(long outboxId, DomainEvent event) {}
+
+    private record Claimed(long outboxId, String type, String payload) {}
+
+    private record Pending(long sequence, long outboxId) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<DomainEventConsumer> consumers;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final Duration retention;
+    private final EventRingBuffer<Envelope> ring;
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    // Relay thread only: what has been handed to the ring but not yet marked published
+    private final ArrayDeque<Pending> unacked = new ArrayDeque<>();
+    private final Set<Long> inFlight = new HashSet<>();
+    private volatile Thread relayThread;
+    private volatile boolean running;
+
+    // Consumers are looked up on start: they depend on services that write to the outbox
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       ObjectMapper objectMapper,
+                       ObjectProvider<DomainEventConsumer> consumers,
+                       MeterRegistry meterRegistry,
+                       @Value("${juzzt.events.outbox.batch-size:500}") int batchSize,
+                       @Value("${juzzt.events.outbox.poll-interval:500ms}") Duration pollInterval,
+                       @Value("${juzzt.events.outbox.lease:60s}") Duration lease,
+                       @Value("${juzzt.events.outbox.retention:7d}") Duration retention,
+                       @Value("${juzzt.events.bus.capacity:4096}") int capacity,
+                       @Value("${juzzt.events.bus.max-batch:256}") int maxBatch,
+                       @Value("${juzzt.events.bus.max-attempts:5}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.consumers = consumers;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.retention = retention;
+        this.ring = new EventRingBuffer<>("event-bus", capacity, maxBatch, maxAttempts, Duration.ofMillis(200));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE) // After consumers have restored their state
+    public void start() {
+        consumers.orderedStream().forEach(consumer -> {
+            ring.addConsumer(consumer.consumerName(), batch ->
+                    consumer.onEvents(batch.stream().map(Envelope::event).toList()));
+            log.info("Domain event consumer registered: {}", consumer.consumerName());
+        });
+        ring.start();
+        meterRegistry.gauge("juzzt.events.outbox.unacked", unacked, ArrayDeque::size);
+        meterRegistry.gauge("juzzt.events.bus.lag", ring, r -> r.publishedSequence() - r.processedSequence());
+        meterRegistry.gauge("juzzt.events.bus.parked", ring, EventRingBuffer::parkedConsumers);
+
+        running = true;
+        relayThread = Thread.ofPlatform().name("outbox-relay").daemon().start(this::run);
+    }
+
+    /**
+     * Poll now instead of at the end of the current interval.
+     */
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    @Scheduled(cron = "${juzzt.events.outbox.cleanup-cron:0 30 * * * *}")
+    public void deletePublished() {
+        int deleted = jdbcTemplate.update(DELETE_PUBLISHED, Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (deleted > 0) log.info("Deleted {} published outbox events", deleted);
+    }
+
+    public long countPending() {
+        Long pending = jdbcTemplate.queryForObject(COUNT_PENDING, Long.class);
+        return pending == null ? 0 : pending;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = relayThread;
+        if (thread == null) return;
+        wakeUp();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Let consumers finish what they have, then record it; anything left is relayed after the restart
+        ring.close(Duration.ofSeconds(5));
+        acknowledge();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                int claimed = relayBatch();
+                acknowledge();
+                if (claimed < batchSize) {
+                    // Drain extra permits so a burst of commits causes one poll, not one per commit
+                    if (wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS)) wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay failed, retrying after {}: {}", pollInterval, e.getMessage());
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private int relayBatch() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        // Rows still queued here are not claimed again: once their lease runs out (e.g. behind a parked
+        // consumer) another node can take them over
+        Object[] queued = inFlight.toArray();
+        List<Claimed> claimed = new ArrayList<>(jdbcTemplate.query(connection -> {
+                    var statement = connection.prepareStatement(CLAIM);
+                    statement.setString(1, nodeId);
+                    statement.setTimestamp(2, Timestamp.valueOf(now.plus(lease)));
+                    statement.setTimestamp(3, Timestamp.valueOf(now));
+                    statement.setArray(4, connection.createArrayOf("bigint", queued));
+                    statement.setInt(5, batchSize);
+                    return statement;
+                },
+                (rs, rowNum) -> new Claimed(rs.getLong("id"), rs.getString("event_type"), rs.getString("payload"))));
+        claimed.sort(Comparator.comparingLong(Claimed::outboxId)); // RETURNING order is not guaranteed
+
+        List<Envelope> envelopes = new ArrayList<>(claimed.size());
+        List<Long> undecodable = new ArrayList<>();
+        for (Claimed row : claimed) {
+            inFlight.add(row.outboxId());
+            Optional<DomainEvent> event = decode(row);
+            if (event.isPresent()) {
+                envelopes.add(new Envelope(row.outboxId(), event.get()));
+            } else {
+                undecodable.add(row.outboxId());
+                inFlight.remove(row.outboxId());
+            }
+        }
+        if (!undecodable.isEmpty()) markPublished(undecodable); // Retrying can't fix these, don't block the table
+
+        if (!envelopes.isEmpty()) {
+            long last = ring.publishAll(envelopes);
+            long first = last - envelopes.size() + 1;
+            for (int i = 0; i < envelopes.size(); i++) {
+                unacked.add(new Pending(first + i, envelopes.get(i).outboxId()));
+            }
+        }
+        return claimed.size();
+    }
+
+    private void acknowledge() {
+        long processed = ring.processedSequence();
+        List<Long> done = new ArrayList<>();
+        while (!unacked.isEmpty() && unacked.peekFirst().sequence() <= processed) {
+            Pending pending = unacked.pollFirst();
+            done.add(pending.outboxId());
+            inFlight.remove(pending.outboxId());
+        }
+        if (!done.isEmpty()) markPublished(done);
+    }
+
+    private void markPublished(List<Long> ids) {
+        jdbcTemplate.update(connection -> {
+            var statement = connection.prepareStatement(MARK_PUBLISHED);
+            Array array = connection.createArrayOf("bigint", ids.toArray());
+            statement.setArray(1, array);
+            return statement;
+        });
+    }
+
+    private Optional<DomainEvent> decode(Claimed row) {
+        try {
+            Optional<Class<? extends DomainEvent>> type = EventOutbox.eventClass(row.type());
+            if (type.isEmpty()) {
+                log.error("Skipping outbox event {} of unknown type {}", row.outboxId(), row.type());
+                return Optional.empty();
+            }
+            return Optional.of(objectMapper.readValue(row.payload(), type.get()));
+        } catch (Exception e) {
+            log.error("Skipping outbox event {} that could not be read", row.outboxId(), e);
+            return Optional.empty();
+        }
+    }
+}
@@ -1,22 +1,54 @@
 package com.juzzt.service;
 
+import com.juzzt.dto.PlaylistEntryDTO;
+import com.juzzt.dto.PlaylistEntryPageDTO;
 import com.juzzt.model.Playlist;
+import com.juzzt.model.PlaylistEntry;
 import com.juzzt.model.User;
+import com.juzzt.repository.PlaylistEntryRepository;
 import com.juzzt.repository.PlaylistRepository;
+import com.juzzt.repository.RecordRepository;
 import com.juzzt.repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PlaylistService {
+    static final long POSITION_GAP = 1024;
+    private static final int MAX_ENTRIES_PER_PAGE = 500;
+    private static final int MAX_BULK_ADD = 10_000;
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final String INSERT_ENTRY =
+            "INSERT INTO playlist_entries (playlist_id, record_id, position, added_at) VALUES (?, ?, ?, ?)";
+
     private final PlaylistRepository playlistRepository;
+    private final PlaylistEntryRepository playlistEntryRepository;
+    private final RecordRepository recordRepository;
     private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
 
-    public PlaylistService(PlaylistRepository playlistRepository, UserRepository userRepository) {
+    public PlaylistService(PlaylistRepository playlistRepository, PlaylistEntryRepository playlistEntryRepository,
+                           RecordRepository recordRepository, UserRepository userRepository, JdbcTemplate jdbcTemplate) {
         this.playlistRepository = playlistRepository;
+        this.playlistEntryRepository = playlistEntryRepository;
+        this.recordRepository = recordRepository;
         this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     public List<Playlist> getPlaylistsByUserId(Long userId) {
@@ -34,4 +66,133 @@ public class PlaylistService {
             throw new RuntimeException("User not found");
         }
     }
+
+    @Transactional(readOnly = true)
+    public PlaylistEntryPageDTO getEntries(Long playlistId, Long cursor, int limit) {
+        requireOwner(playlistRepository.findById(playlistId)
+                .orElseThrow(() -> new RuntimeException("Playlist not found")));
+        int pageSize = Math.max(1, Math.min(limit, MAX_ENTRIES_PER_PAGE));
+        List<PlaylistEntry> entries = playlistEntryRepository.findPage(
+                playlistId, cursor == null ? Long.MIN_VALUE : cursor, PageRequest.of(0, pageSize));
+
+        List<PlaylistEntryDTO> dtos = entries.stream()
+                .map(entry -> new PlaylistEntryDTO(entry.getId(), entry.getPosition(), entry.getRecord().getId(),
+                        entry.getRecord().getTitle(), entry.getRecord().getArtist(),
+                        entry.getRecord().getImageUrl(), entry.getAddedAt()))
+                .toList();
+
+        Long nextCursor = entries.isEmpty() ? cursor : entries.get(entries.size() - 1).getPosition();
+        return new PlaylistEntryPageDTO(dtos, nextCursor, entries.size() == pageSize);
+    }
+
+    /**
+     * Add records after the given entry, or at the end when afterEntryId is null.
+     * Rows go in as one JDBC batch; only the new rows are written.
+     */
+    @Transactional
+    public int addRecords(Long playlistId, List<Long> recordIds, Long afterEntryId) {
+        if (recordIds == null || recordIds.isEmpty()) {
+            throw new RuntimeException("No records to add");
+        }
+        if (recordIds.size() > MAX_BULK_ADD) {
+            throw new RuntimeException("Cannot add more than " + MAX_BULK_ADD + " records at once");
+        }
+        lockPlaylist(playlistId);
+
+        Set<Long> existing = new HashSet<>(recordRepository.findExistingIds(new HashSet<>(recordIds)));
+        for (Long recordId : recordIds) {
+            if (!existing.contains(recordId)) {
+                throw new RuntimeException("Record not found: " + recordId);
+            }
+        }
+
+        long[] positions;
+        if (afterEntryId == null) {
+            Long max = playlistEntryRepository.findMaxPosition(playlistId);
+            positions = spread(max == null ? 0 : max, null, recordIds.size());
+        } else {
+            positions = allocateAfter(playlistId, requireEntry(playlistId, afterEntryId).getId(), recordIds.size());
+        }
+
+        Timestamp addedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(recordIds.size());
+        for (int i = 0; i < recordIds.size(); i++) {
+            rows.add(new Object[]{playlistId, recordIds.get(i), positions[i], addedAt});
+        }
+        for (int from = 0; from < rows.size(); from += INSERT_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_ENTRY, rows.subList(from, Math.min(rows.size(), from + INSERT_BATCH_SIZE)));
+        }
+        return rows.size();
+    }
+
+    @Transactional
+    public void removeEntry(Long playlistId, Long entryId) {
+        lockPlaylist(playlistId);
+        playlistEntryRepository.delete(requireEntry(playlistId, entryId));
+    }
+
+    /**
+     * Move an entry after another one, or to the front when afterEntryId is null.
+     * Only the moved row is updated unless its new neighbours have no gap left.
+     */
+    @Transactional
+    public void moveEntry(Long playlistId, Long entryId, Long afterEntryId) {
+        if (entryId.equals(afterEntryId)) return;
+        lockPlaylist(playlistId);
+        requireEntry(playlistId, entryId);
+
+        long position;
+        if (afterEntryId == null) {
+            Long min = playlistEntryRepository.findMinPosition(playlistId);
+            position = min - POSITION_GAP;
+        } else {
+            position = allocateAfter(playlistId, requireEntry(playlistId, afterEntryId).getId(), 1)[0];
+        }
+        // Reload, allocation may have renumbered the playlist and cleared the persistence context
+        PlaylistEntry entry = requireEntry(playlistId, entryId);
+        entry.setPosition(position);
+    }
+
+    private long[] allocateAfter(Long playlistId, Long afterEntryId, int count) {
+        long lower = playlistEntryRepository.findPositionById(afterEntryId);
+        Long upper = playlistEntryRepository.findNextPosition(playlistId, lower);
+        if (upper != null && (upper - lower) / (count + 1) < 1) {
+            // Gap exhausted: spread the whole playlist out again in one statement, then retry
+            playlistEntryRepository.renumber(playlistId, Math.max(POSITION_GAP, count + 1L));
+            lower = playlistEntryRepository.findPositionById(afterEntryId);
+            upper = playlistEntryRepository.findNextPosition(playlistId, lower);
+        }
+        return spread(lower, upper, count);
+    }
+
+    private static long[] spread(long lower, Long upper, int count) {
+        long step = upper == null ? POSITION_GAP : (upper - lower) / (count + 1);
+        long[] positions = new long[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = lower + step * (i + 1);
+        }
+        return positions;
+    }
+
+    private void lockPlaylist(Long playlistId) {
+        requireOwner(playlistRepository.findByIdForUpdate(playlistId)
+                .orElseThrow(() -> new RuntimeException("Playlist not found")));
+    }
+
+    // Entries are only for the playlist's owner, and admins
+    private void requireOwner(Playlist playlist) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        boolean owner = playlist.getUser() != null && authentication.getName().equals(playlist.getUser().getEmail());
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (!owner && !admin) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not your playlist");
+        }
+    }
+
+    private PlaylistEntry requireEntry(Long playlistId, Long entryId) {
+        return playlistEntryRepository.findByIdAndPlaylistId(entryId, playlistId)
+                .orElseThrow(() -> new RuntimeException("Playlist entry not found"));
+    }
 }
@@ -0,0 +1,337 @@
+package com.juzzt.service;
+
+import com.juzzt.dto.ProfilingSummaryDTO;
+import com.juzzt.dto.RecordingDTO;
+import com.juzzt.util.SlidingWindowCounter;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * On-demand Java Flight Recorder recordings written to a local directory, one at a time, plus a
+ * lightweight always-on event stream (sampled allocations and GC pauses) summarised over a short
+ * sliding window for the admin endpoints. Only the newest juzzt.profiling.max-files recordings are kept.
+ */
+@Service
+public class ProfilingService {
+    private static final Logger log = LoggerFactory.getLogger(ProfilingService.class);
+
+    // Start time plus the JFR recording id, so two recordings within one second don't share a file;
+    // names without the id are from older versions
+    private static final Pattern RECORDING_NAME = Pattern.compile("^juzzt-\\d{8}-\\d{6}(-\\d+)?\\.jfr$");
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String TOTAL = "*";
+    private static final int TOP_ALLOCATIONS = 15;
+
+    private final Path directory;
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+    private final int maxFiles;
+    private final boolean liveEnabled;
+    private final int windowSeconds;
+
+    private final SlidingWindowCounter<String> allocations;
+    private final ArrayDeque<long[]> gcPauses = new ArrayDeque<>(); // {timestamp millis, pause nanos}
+
+    private Recording active;
+    private String activeName;
+    private String activeSettings;
+    private RecordingStream liveStream;
+    // JFR calls this on its own threads, possibly holding its locks: only hand off, never take ours here
+    private final FlightRecorderListener autoStopListener = new FlightRecorderListener() {
+        @Override
+        public void recordingStateChanged(Recording recording) {
+            if (recording.getState() == RecordingState.STOPPED) {
+                Thread.ofVirtual().name("jfr-recording-close").start(ProfilingService.this::closeFinished);
+            }
+        }
+    };
+
+    public ProfilingService(@Value("${juzzt.profiling.dir:${java.io.tmpdir}/juzzt-jfr}") Path directory,
+                            @Value("${juzzt.profiling.max-duration:10m}") Duration maxDuration,
+                            @Value("${juzzt.profiling.max-size-bytes:268435456}") long maxSizeBytes,
+                            @Value("${juzzt.profiling.max-files:20}") int maxFiles,
+                            @Value("${juzzt.profiling.live.enabled:true}") boolean liveEnabled,
+                            @Value("${juzzt.profiling.live.window-seconds:60}") int windowSeconds) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxDuration = maxDuration;
+        this.maxSizeBytes = maxSizeBytes;
+        this.maxFiles = maxFiles;
+        this.liveEnabled = liveEnabled;
+        this.windowSeconds = windowSeconds;
+        this.allocations = new SlidingWindowCounter<>(Duration.ofSeconds(1), windowSeconds);
+        FlightRecorder.addListener(autoStopListener);
+    }
+
+    /**
+     * Start a recording with a predefined JFR configuration ("default" or "profile") and optional
+     * per-event overrides such as {"jdk.ObjectAllocationSample#throttle": "1000/s"}. Stops by
+     * itself after the duration (capped by juzzt.profiling.max-duration). Empty if one is running;
+     * unknown settings or a duration that isn't positive are rejected with 400.
+     */
+    public synchronized Optional<RecordingDTO> start(String settings, Duration duration, Map<String, String> overrides) {
+        closeFinished();
+        if (active != null) return Optional.empty();
+        if (duration != null && (duration.isNegative() || duration.isZero())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Duration must be positive: " + duration);
+        }
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown JFR settings: " + settings);
+        }
+        Recording recording = new Recording(configuration);
+        if (overrides != null && !overrides.isEmpty()) {
+            Map<String, String> merged = new HashMap<>(recording.getSettings());
+            merged.putAll(overrides);
+            recording.setSettings(merged);
+        }
+
+        String name = "juzzt-" + LocalDateTime.now().format(FILE_TIME) + "-" + recording.getId() + ".jfr";
+        recording.setName(name);
+        recording.setToDisk(true);
+        recording.setMaxSize(maxSizeBytes);
+        recording.setDuration(duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration);
+        try {
+            recording.setDestination(directory.resolve(name)); // Written there when the recording stops
+        } catch (IOException e) {
+            recording.close();
+            throw new RuntimeException("Cannot write recordings to " + directory, e);
+        }
+        recording.start();
+
+        active = recording;
+        activeName = name;
+        activeSettings = settings;
+        log.info("JFR recording {} started with {} settings for at most {}", name, settings, recording.getDuration());
+        return Optional.of(toDto(recording));
+    }
+
+    /**
+     * Stop the running recording and write its file. Empty if nothing is running.
+     */
+    public synchronized Optional<RecordingDTO> stop() {
+        closeFinished();
+        if (active == null) return Optional.empty();
+        Recording recording = active;
+        recording.stop();
+        RecordingDTO stopped = new RecordingDTO(activeName, RecordingState.STOPPED.name(), activeSettings,
+                recording.getStartTime(), size(directory.resolve(activeName)));
+        recording.close();
+        active = null;
+        log.info("JFR recording {} stopped", activeName);
+        enforceRetention();
+        return Optional.of(stopped);
+    }
+
+    public synchronized List<RecordingDTO> listRecordings() {
+        closeFinished();
+        List<RecordingDTO> recordings = new ArrayList<>();
+        if (active != null) {
+            recordings.add(toDto(active));
+        }
+        finishedFiles().forEach(file -> recordings.add(new RecordingDTO(file.getFileName().toString(),
+                RecordingState.STOPPED.name(), null, lastModified(file), size(file))));
+        return recordings;
+    }
+
+    /**
+     * Finished recording file by name; empty for unknown names and the one still being recorded.
+     */
+    public Optional<Path> getRecordingFile(String name) {
+        if (!RECORDING_NAME.matcher(name).matches() || name.equals(runningName())) return Optional.empty();
+        Path file = directory.resolve(name);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    public boolean deleteRecording(String name) {
+        Optional<Path> file = getRecordingFile(name);
+        if (file.isEmpty()) return false;
+        try {
+            return Files.deleteIfExists(file.get());
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot delete recording " + name, e);
+        }
+    }
+
+    public ProfilingSummaryDTO getSummary() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> allocated = allocations.totals(now);
+        long total = allocated.getOrDefault(TOTAL, 0L);
+        List<ProfilingSummaryDTO.Allocation> top = allocated.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(TOTAL))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_ALLOCATIONS)
+                .map(entry -> new ProfilingSummaryDTO.Allocation(entry.getKey(), entry.getValue() / windowSeconds))
+                .toList();
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        return new ProfilingSummaryDTO(windowSeconds, total / windowSeconds, top, gcPauseSummary(now),
+                heap.getUsed(), heap.getMax());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLiveStream() {
+        if (!liveEnabled) return;
+        RecordingStream stream = new RecordingStream();
+        // Sampled, so the cost stays bounded whatever the allocation rate
+        stream.enable("jdk.ObjectAllocationSample").with("throttle", "100/s");
+        stream.enable("jdk.GarbageCollection");
+        stream.setMaxAge(Duration.ofSeconds(windowSeconds));
+        stream.onEvent("jdk.ObjectAllocationSample", this::onAllocation);
+        stream.onEvent("jdk.GarbageCollection", this::onGarbageCollection);
+        stream.startAsync();
+        liveStream = stream;
+        log.info("JFR live allocation/GC stream started");
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        FlightRecorder.removeListener(autoStopListener);
+        if (liveStream != null) liveStream.close();
+        if (active != null) {
+            active.close();
+            active = null;
+        }
+    }
+
+    private void onAllocation(RecordedEvent event) {
+        long weight = event.getLong("weight"); // Bytes this sample stands for
+        long timestamp = event.getStartTime().toEpochMilli();
+        String className = event.getClass("objectClass").getName();
+        allocations.add(className, weight, timestamp);
+        allocations.add(TOTAL, weight, timestamp);
+    }
+
+    private void onGarbageCollection(RecordedEvent event) {
+        recordGcPause(event.getStartTime().toEpochMilli(), event.getDuration("sumOfPauses").toNanos());
+    }
+
+    void recordGcPause(long timestamp, long pauseNanos) {
+        synchronized (gcPauses) {
+            gcPauses.addLast(new long[]{timestamp, pauseNanos});
+            prune(System.currentTimeMillis());
+        }
+    }
+
+    ProfilingSummaryDTO.GcPauses gcPauseSummary(long now) {
+        long[] pauses;
+        synchronized (gcPauses) {
+            prune(now);
+            pauses = gcPauses.stream().mapToLong(pause -> pause[1]).sorted().toArray();
+        }
+        if (pauses.length == 0) return new ProfilingSummaryDTO.GcPauses(0, 0, 0, 0);
+        long total = 0;
+        for (long pause : pauses) total += pause;
+        int p99 = (int) Math.ceil(pauses.length * 0.99) - 1;
+        return new ProfilingSummaryDTO.GcPauses(pauses.length, total / 1e6, pauses[pauses.length - 1] / 1e6,
+                pauses[Math.max(0, p99)] / 1e6);
+    }
+
+    private void prune(long now) {
+        long oldest = now - Duration.ofSeconds(windowSeconds).toMillis();
+        for (Iterator<long[]> it = gcPauses.iterator(); it.hasNext(); ) {
+            if (it.next()[0] >= oldest) break;
+            it.remove();
+        }
+    }
+
+    // A recording that reached its duration stopped by itself and wrote its file; release it
+    private synchronized void closeFinished() {
+        if (active == null) return;
+        RecordingState state = active.getState();
+        if (state != RecordingState.STOPPED && state != RecordingState.CLOSED) return;
+        active.close();
+        active = null;
+        log.info("JFR recording {} finished", activeName);
+        enforceRetention();
+    }
+
+    // Oldest finished files beyond juzzt.profiling.max-files are deleted
+    private void enforceRetention() {
+        List<Path> files = finishedFiles();
+        for (Path file : files.subList(Math.min(maxFiles, files.size()), files.size())) {
+            try {
+                Files.deleteIfExists(file);
+                log.info("Deleted old JFR recording {}", file.getFileName());
+            } catch (IOException e) {
+                log.warn("Cannot delete old JFR recording {}: {}", file.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    // Newest first
+    private List<Path> finishedFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> RECORDING_NAME.matcher(file.getFileName().toString()).matches())
+                    .filter(file -> !file.getFileName().toString().equals(runningName()))
+                    .sorted(Comparator.comparing((Path file) -> lastModified(file), Comparator.nullsFirst(Comparator.<Instant>naturalOrder()))
+                            .thenComparing(Comparator.<Path>naturalOrder())
+                            .reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot list recordings in " + directory, e);
+        }
+    }
+
+    private String runningName() {
+        return active != null ? activeName : null;
+    }
+
+    private RecordingDTO toDto(Recording recording) {
+        return new RecordingDTO(activeName, recording.getState().name(), activeSettings, recording.getStartTime(),
+                recording.getSize());
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
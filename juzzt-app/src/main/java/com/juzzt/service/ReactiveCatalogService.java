@@ -0,0 +1,94 @@
+package com.juzzt.service;
+
+import com.juzzt.config.RecordCacheKeys;
+import com.juzzt.model.Record;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Catalog and recommendation reads for the reactive endpoints. Cache hits are served
+ * from Redis without tying up a thread; misses fall back to the blocking services on
+ * the bounded elastic scheduler, which also fills the shared "records" cache.
+ */
+@Service
+@ConditionalOnProperty(name = "juzzt.reactive.enabled", havingValue = "true")
+public class ReactiveCatalogService {
+    private static final Duration CACHE_TIMEOUT = Duration.ofMillis(250); // Same budget as spring.data.redis.timeout
+
+    private final ReactiveRedisTemplate<String, Object> cacheTemplate;
+    private final RecordService recordService;
+    private final RecommendationCache recommendationCache;
+    private final ReactiveMetadataClient metadataClient;
+
+    public ReactiveCatalogService(ReactiveRedisTemplate<String, Object> reactiveCacheTemplate,
+                                  RecordService recordService,
+                                  RecommendationCache recommendationCache,
+                                  ReactiveMetadataClient metadataClient) {
+        this.cacheTemplate = reactiveCacheTemplate;
+        this.recordService = recordService;
+        this.recommendationCache = recommendationCache;
+        this.metadataClient = metadataClient;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Mono<List<Record>> getAllRecords() {
+        return cacheTemplate.opsForValue().get(RecordCacheKeys.ALL_RECORDS)
+                .map(cached -> (List<Record>) cached)
+                .timeout(CACHE_TIMEOUT)
+                .onErrorResume(e -> Mono.empty()) // Redis trouble shouldn't fail the read
+                .switchIfEmpty(blocking(recordService::getAllRecords));
+    }
+
+    /**
+     * Records that have a MusicBrainz id but no cover yet get one looked up on the fly;
+     * the stored record is left for the enrichment job to update.
+     */
+    public Mono<Record> getRecordById(Long id) {
+        return cacheTemplate.opsForValue().get(RecordCacheKeys.recordKey(id))
+                .timeout(CACHE_TIMEOUT)
+                .onErrorResume(e -> Mono.empty())
+                .switchIfEmpty(blocking(() -> recordService.getRecordById(id).orElse(null)))
+                .filter(cached -> !(cached instanceof NullValue)) // Cached "not found"
+                .cast(Record.class)
+                .flatMap(this::withCover);
+    }
+
+    public Mono<List<Record>> getRecommendationsForUser(Long userId) {
+        return blocking(() -> recommendationCache.getRecommendationsForUser(userId));
+    }
+
+    private Mono<Record> withCover(Record record) {
+        if (record.getImageUrl() != null && !record.getImageUrl().isEmpty()) {
+            return Mono.just(record);
+        }
+        return metadataClient.getAlbumCover(record.getMusicbrainzId())
+                .map(coverUrl -> copyWithImage(record, coverUrl))
+                .defaultIfEmpty(record);
+    }
+
+    // Never touch the instance itself, it may still be attached to a JPA session
+    private static Record copyWithImage(Record record, String imageUrl) {
+        Record copy = new Record(record.getTitle(), record.getArtist(), record.getGenre(), record.getPrice(),
+                imageUrl, record.getMusicbrainzId());
+        copy.setId(record.getId());
+        copy.setThumbnailUrl(record.getThumbnailUrl());
+        copy.setImageStatus(record.getImageStatus());
+        copy.setHasImage(true);
+        copy.setCreatedAt(record.getCreatedAt());
+        copy.setUpdatedAt(record.getUpdatedAt());
+        copy.setVersion(record.getVersion());
+        return copy;
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,64 @@
+package com.juzzt.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of MusicBrainzService and AlbumCoverService for the reactive read path.
+ */
+@Service
+@ConditionalOnProperty(name = "juzzt.reactive.enabled", havingValue = "true")
+public class ReactiveMetadataClient {
+    private static final String RELEASE_GROUP_SEARCH = "/ws/2/release-group?query=artist:\"{artist}\" AND release:\"{album}\"&fmt=json";
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+
+    private final WebClient webClient;
+    private final String musicBrainzBaseUrl;
+    private final String coverArtBaseUrl;
+
+    public ReactiveMetadataClient(WebClient metadataWebClient,
+                                  @Value("${juzzt.musicbrainz.base-url:https://musicbrainz.org}") String musicBrainzBaseUrl,
+                                  @Value("${juzzt.coverart.base-url:https://coverartarchive.org}") String coverArtBaseUrl) {
+        this.musicBrainzBaseUrl = musicBrainzBaseUrl;
+        this.coverArtBaseUrl = coverArtBaseUrl;
+        this.webClient = metadataWebClient;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Mono<String> getMusicBrainzId(String artist, String album) {
+        return webClient.get()
+                .uri(musicBrainzBaseUrl + RELEASE_GROUP_SEARCH, artist, album)
+                .retrieve()
+                .bodyToMono(Map.class)
+                .timeout(TIMEOUT)
+                .flatMap(response -> {
+                    List<Map<String, Object>> releases = (List<Map<String, Object>>) response.get("release-groups");
+                    if (releases == null || releases.isEmpty()) return Mono.empty();
+                    return Mono.justOrEmpty((String) releases.get(0).get("id"));
+                })
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    /**
+     * Emits the cover URL if the Cover Art Archive has a front image for the release group.
+     */
+    public Mono<String> getAlbumCover(String musicbrainzId) {
+        if (musicbrainzId == null) return Mono.empty();
+
+        String coverUrl = coverArtBaseUrl + "/release-group/" + musicbrainzId + "/front";
+        return webClient.head()
+                .uri(coverUrl)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(TIMEOUT)
+                .map(response -> coverUrl)
+                .onErrorResume(e -> Mono.empty()); // No image found
+    }
+}
@@ -0,0 +1,238 @@
+package com.juzzt.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.juzzt.event.DomainEvent;
+import com.juzzt.event.DomainEventConsumer;
+import com.juzzt.event.OrderPlacedEvent;
+import com.juzzt.event.RecordChangedEvent;
+import com.juzzt.model.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user recommendation results in two tiers: a small local Caffeine cache in front of the
+ * shared "recommendations" Redis cache. Entries past the fresh TTL are still served while one
+ * background refresh recomputes them. A user's entry is dropped when they place an order or when
+ * any record in it changes; Redis keeps the record -> users reverse index, and pub/sub tells the
+ * other nodes to drop their local copies. Every eviction bumps a per-user generation, and a list
+ * computed under an older generation is returned to its caller but never stored.
+ */
+@Service
+public class RecommendationCache implements MessageListener, DomainEventConsumer {
+    private static final Logger log = LoggerFactory.getLogger(RecommendationCache.class);
+
+    public static final String CACHE_NAME = "recommendations";
+    private static final String INVALIDATION_CHANNEL = "juzzt:recommendations:invalidate";
+    private static final String USERS_BY_RECORD = "juzzt:recommendations:users-by-record:";
+
+    public record CachedRecommendations(List<Record> records, long computedAt) implements Serializable {}
+
+    private final RecommendationService recommendationService;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final TaskExecutor refreshExecutor;
+    private final Duration freshTtl;
+    private final Duration hardTtl;
+    private final Cache<Long, CachedRecommendations> local;
+    // Bumped on every eviction; idle users age out, no computation runs anywhere near the hard TTL
+    private final Cache<Long, AtomicLong> generations;
+    // One computation per user at a time, shared by concurrent misses and the background refresh
+    private final Map<Long, CompletableFuture<CachedRecommendations>> loading = new ConcurrentHashMap<>();
+
+    public RecommendationCache(RecommendationService recommendationService,
+                               CacheManager cacheManager,
+                               StringRedisTemplate redisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               @Qualifier("recommendationRefreshExecutor") TaskExecutor refreshExecutor,
+                               @Value("${juzzt.recommendations.cache.fresh-ttl:5m}") Duration freshTtl,
+                               @Value("${juzzt.recommendations.cache.hard-ttl:1h}") Duration hardTtl,
+                               @Value("${juzzt.recommendations.cache.local-max-size:10000}") long localMaxSize) {
+        this.recommendationService = recommendationService;
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.refreshExecutor = refreshExecutor;
+        this.freshTtl = freshTtl;
+        this.hardTtl = hardTtl;
+        // Local copies only live for the fresh TTL, which bounds how stale a node can be if it misses an invalidation
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(freshTtl)
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .expireAfterAccess(hardTtl)
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public List<Record> getRecommendationsForUser(Long userId) {
+        CachedRecommendations cached = local.getIfPresent(userId);
+        if (cached == null) {
+            long generation = generation(userId).get();
+            cached = getShared(userId);
+            if (cached != null) putLocal(userId, cached, generation);
+        }
+        if (cached == null) {
+            try {
+                return load(userId).join().records();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        if (System.currentTimeMillis() - cached.computedAt() > freshTtl.toMillis()) {
+            refreshInBackground(userId); // Serve the stale list now, the next call gets the new one
+        }
+        return cached.records();
+    }
+
+    /**
+     * Drops the user's list here, in Redis and (via pub/sub) on the other nodes. Redis errors are
+     * thrown so an event consumer retries instead of losing the eviction.
+     */
+    public void evict(Long userId) {
+        invalidateLocal(userId);
+        cache().evict(userId);
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, userId.toString());
+    }
+
+    // Buyers and users whose lists hold a changed record, each evicted once per batch. Index keys
+    // are only deleted after the evictions, so a batch that fails part-way finds them on retry.
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Set<Long> users = new HashSet<>();
+        List<String> indexKeys = new ArrayList<>();
+        for (DomainEvent event : events) {
+            if (event instanceof OrderPlacedEvent order) {
+                users.add(order.userId());
+            } else if (event instanceof RecordChangedEvent change) {
+                String key = USERS_BY_RECORD + change.recordId();
+                Set<String> recommended = redisTemplate.opsForSet().members(key);
+                if (recommended != null) recommended.forEach(user -> users.add(Long.valueOf(user)));
+                indexKeys.add(key);
+            }
+        }
+        users.forEach(this::evict);
+        if (!indexKeys.isEmpty()) redisTemplate.delete(indexKeys);
+    }
+
+    // Another node evicted a user
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        invalidateLocal(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+    }
+
+    // Generation first: a computation finishing after this point sees the bump and doesn't store its list.
+    // New misses start their own computation instead of joining one that began before the eviction.
+    private void invalidateLocal(Long userId) {
+        generation(userId).incrementAndGet();
+        loading.remove(userId);
+        local.invalidate(userId);
+    }
+
+    private AtomicLong generation(Long userId) {
+        return generations.get(userId, id -> new AtomicLong());
+    }
+
+    private CompletableFuture<CachedRecommendations> load(Long userId) {
+        CompletableFuture<CachedRecommendations> computation = new CompletableFuture<>();
+        CompletableFuture<CachedRecommendations> existing = loading.putIfAbsent(userId, computation);
+        if (existing != null) return existing;
+        try {
+            computation.complete(compute(userId));
+        } catch (RuntimeException e) {
+            computation.completeExceptionally(e);
+        } finally {
+            loading.remove(userId, computation);
+        }
+        return computation;
+    }
+
+    private CachedRecommendations compute(Long userId) {
+        AtomicLong generation = generation(userId);
+        long startedAt = generation.get();
+        CachedRecommendations computed = new CachedRecommendations(
+                List.copyOf(recommendationService.getRecommendationsForUser(userId)), System.currentTimeMillis());
+        if (generation.get() != startedAt) return computed; // Evicted meanwhile, possibly built from pre-order data
+
+        putLocal(userId, computed, startedAt);
+        try {
+            cache().put(userId, computed);
+            // Reverse index so a record update can find the users whose lists contain it
+            for (Record record : computed.records()) {
+                String key = USERS_BY_RECORD + record.getId();
+                redisTemplate.opsForSet().add(key, userId.toString());
+                redisTemplate.expire(key, hardTtl);
+            }
+            if (generation.get() != startedAt) {
+                // Evicted while storing; the eviction may have run before our put landed
+                local.invalidate(userId);
+                cache().evict(userId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not store shared recommendations for user {}: {}", userId, e.getMessage());
+        }
+        return computed;
+    }
+
+    // Put, then undo if an eviction slipped in between reading the value and storing it
+    private void putLocal(Long userId, CachedRecommendations value, long readAtGeneration) {
+        local.put(userId, value);
+        if (generation(userId).get() != readAtGeneration) local.invalidate(userId);
+    }
+
+    private void refreshInBackground(Long userId) {
+        CompletableFuture<CachedRecommendations> refresh = new CompletableFuture<>();
+        if (loading.putIfAbsent(userId, refresh) != null) return; // Already being computed
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh.complete(compute(userId));
+                } catch (RuntimeException e) {
+                    refresh.completeExceptionally(e);
+                    log.warn("Background recommendation refresh failed for user {}", userId, e);
+                } finally {
+                    loading.remove(userId, refresh);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            loading.remove(userId, refresh); // Queue full, a later request will try again
+        }
+    }
+
+    private CachedRecommendations getShared(Long userId) {
+        try {
+            return cache().get(userId, CachedRecommendations.class);
+        } catch (RuntimeException e) {
+            log.warn("Could not read shared recommendations for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    private org.springframework.cache.Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+}
@@ -0,0 +1,217 @@
+package com.juzzt.service;
+
+import com.juzzt.util.AlsTrainer;
+import com.juzzt.util.HnswIndex;
+import com.juzzt.util.RecommendationModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Trains the matrix factorization model from order history and serves it from a memory-mapped file.
+ * Online recommendation is a user-vector lookup plus an approximate top-K search over record vectors.
+ */
+@Service
+public class RecommendationModelService {
+    private static final Logger log = LoggerFactory.getLogger(RecommendationModelService.class);
+
+    // Purchase strength per user and record; the same record bought twice counts twice
+    private static final String INTERACTIONS =
+            "SELECT o.user_id, oi.record_id, SUM(COALESCE(oi.quantity, 1)) AS quantity " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id GROUP BY o.user_id, oi.record_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TaskExecutor trainingExecutor;
+    private final Path modelFile;
+    private final int factors;
+    private final int iterations;
+    private final float regularization;
+    private final float alpha;
+    private final int threads;
+    private final int maxNeighbours;
+    private final int efConstruction;
+    private final int efSearch;
+
+    private final AtomicBoolean training = new AtomicBoolean();
+    private volatile RecommendationModel model;
+
+    public RecommendationModelService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      @Qualifier("modelTrainingExecutor") TaskExecutor trainingExecutor,
+                                      @Value("${juzzt.recommendations.model-file:${java.io.tmpdir}/juzzt-recommendations.model}") Path modelFile,
+                                      @Value("${juzzt.recommendations.factors:32}") int factors,
+                                      @Value("${juzzt.recommendations.iterations:15}") int iterations,
+                                      @Value("${juzzt.recommendations.regularization:0.1}") float regularization,
+                                      @Value("${juzzt.recommendations.alpha:40}") float alpha,
+                                      @Value("${juzzt.recommendations.threads:0}") int threads,
+                                      @Value("${juzzt.recommendations.hnsw.max-neighbours:16}") int maxNeighbours,
+                                      @Value("${juzzt.recommendations.hnsw.ef-construction:200}") int efConstruction,
+                                      @Value("${juzzt.recommendations.hnsw.ef-search:100}") int efSearch) {
+        this.jdbcTemplate = jdbcTemplate;
+        // The full order scan runs on the replica when one is configured
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.trainingExecutor = trainingExecutor;
+        this.modelFile = modelFile;
+        this.factors = factors;
+        this.iterations = iterations;
+        this.regularization = regularization;
+        this.alpha = alpha;
+        this.threads = threads;
+        this.maxNeighbours = maxNeighbours;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+    }
+
+    public boolean isModelLoaded() {
+        return model != null;
+    }
+
+    /**
+     * Record ids ranked for the user, or empty when there is no model or the user wasn't in it.
+     */
+    public Optional<List<Long>> recommend(Long userId, int limit, Set<Long> exclude) {
+        RecommendationModel current = model;
+        if (current == null) return Optional.empty();
+        return current.recommend(userId, limit, exclude, efSearch);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadModel() {
+        if (!Files.exists(modelFile)) {
+            log.info("No recommendation model at {}, using heuristic recommendations until one is trained", modelFile);
+            return;
+        }
+        try {
+            model = RecommendationModel.map(modelFile);
+            log.info("Mapped recommendation model: {} users, {} records", model.userCount(), model.recordCount());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load recommendation model from {}", modelFile, e);
+        }
+    }
+
+    public void trainInBackground() {
+        trainingExecutor.execute(this::train);
+    }
+
+    // The scheduler's single thread also runs the replica probe, sales rankings and change polling,
+    // so the nightly run only hands training off to its own executor
+    @Scheduled(cron = "${juzzt.recommendations.train-cron:0 0 3 * * *}")
+    public void scheduledTraining() {
+        try {
+            trainInBackground();
+        } catch (TaskRejectedException e) {
+            log.info("Recommendation training already queued, skipping the scheduled run");
+        }
+    }
+
+    public boolean isTraining() {
+        return training.get();
+    }
+
+    /**
+     * Train from all orders, write the model file and switch to it. Skipped if a run is already in progress.
+     */
+    public void train() {
+        if (!training.compareAndSet(false, true)) {
+            log.info("Recommendation training already running");
+            return;
+        }
+        try {
+            long startedAt = System.nanoTime();
+            Interactions interactions = readOnlyTransaction.execute(status -> loadInteractions());
+            if (interactions == null || interactions.size == 0) {
+                log.info("No orders to train recommendations on");
+                return;
+            }
+
+            long[] userIds = distinctSorted(interactions.users, interactions.size);
+            long[] recordIds = distinctSorted(interactions.records, interactions.size);
+            AlsTrainer.SparseMatrix matrix = toMatrix(interactions, userIds, recordIds);
+
+            AlsTrainer.Factors trained = new AlsTrainer(factors, iterations, regularization, alpha, threads, 42L).train(matrix);
+            HnswIndex index = HnswIndex.build(trained.itemFactors(), factors, maxNeighbours, efConstruction, 42L);
+
+            Files.createDirectories(modelFile.toAbsolutePath().getParent());
+            RecommendationModel.write(modelFile, userIds, recordIds, trained, index);
+            model = RecommendationModel.map(modelFile);
+
+            log.info("Trained recommendation model on {} interactions ({} users, {} records) in {} ms",
+                    interactions.size, userIds.length, recordIds.length, (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write recommendation model", e);
+        } finally {
+            training.set(false);
+        }
+    }
+
+    private static final class Interactions {
+        long[] users = new long[1024];
+        long[] records = new long[1024];
+        float[] quantities = new float[1024];
+        int size;
+
+        void add(long user, long record, float quantity) {
+            if (size == users.length) {
+                users = Arrays.copyOf(users, size * 2);
+                records = Arrays.copyOf(records, size * 2);
+                quantities = Arrays.copyOf(quantities, size * 2);
+            }
+            users[size] = user;
+            records[size] = record;
+            quantities[size] = quantity;
+            size++;
+        }
+    }
+
+    private Interactions loadInteractions() {
+        Interactions interactions = new Interactions();
+        jdbcTemplate.query(INTERACTIONS, rs -> {
+            interactions.add(rs.getLong("user_id"), rs.getLong("record_id"), rs.getFloat("quantity"));
+        });
+        return interactions;
+    }
+
+    private static long[] distinctSorted(long[] values, int size) {
+        return Arrays.stream(values, 0, size).distinct().sorted().toArray();
+    }
+
+    private static AlsTrainer.SparseMatrix toMatrix(Interactions interactions, long[] userIds, long[] recordIds) {
+        int[] rowStart = new int[userIds.length + 1];
+        int[] rows = new int[interactions.size];
+        for (int i = 0; i < interactions.size; i++) {
+            rows[i] = Arrays.binarySearch(userIds, interactions.users[i]);
+            rowStart[rows[i] + 1]++;
+        }
+        for (int r = 0; r < userIds.length; r++) rowStart[r + 1] += rowStart[r];
+
+        int[] next = rowStart.clone();
+        int[] columns = new int[interactions.size];
+        float[] values = new float[interactions.size];
+        for (int i = 0; i < interactions.size; i++) {
+            int slot = next[rows[i]]++;
+            columns[slot] = Arrays.binarySearch(recordIds, interactions.records[i]);
+            values[slot] = interactions.quantities[i];
+        }
+        return new AlsTrainer.SparseMatrix(userIds.length, recordIds.length, rowStart, columns, values);
+    }
+}
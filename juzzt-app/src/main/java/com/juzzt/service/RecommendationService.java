@@ -1,5 +1,8 @@
 package com.juzzt.service;
 
+import com.juzzt.config.ReadWriteRoutingDataSource;
+import com.juzzt.config.ReplicaLagMonitor;
+import com.juzzt.dto.RankedRecordDTO;
 import com.juzzt.model.Order;
 import com.juzzt.model.OrderItem;
 import com.juzzt.model.Record;
@@ -8,6 +11,7 @@ import com.juzzt.repository.OrderRepository;
 import com.juzzt.repository.RecordRepository;
 import com.juzzt.repository.UserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -17,18 +21,35 @@ public class RecommendationService {
     private final OrderRepository orderRepository;
     private final RecordRepository recordRepository;
     private final UserRepository userRepository;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final SalesAggregator salesAggregator;
+    private final RecommendationModelService recommendationModelService;
 
-    public RecommendationService(OrderRepository orderRepository, RecordRepository recordRepository, UserRepository userRepository) {
+    public RecommendationService(OrderRepository orderRepository, RecordRepository recordRepository, UserRepository userRepository,
+                                 ReplicaLagMonitor replicaLagMonitor, SalesAggregator salesAggregator,
+                                 RecommendationModelService recommendationModelService) {
         this.orderRepository = orderRepository;
         this.recordRepository = recordRepository;
         this.userRepository = userRepository;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.salesAggregator = salesAggregator;
+        this.recommendationModelService = recommendationModelService;
     }
 
     /**
      * Generate hybrid recommendations for a user based on both
      * collaborative filtering and content-based filtering.
+     * Runs on the read replica unless the user has just placed an order.
      */
+    @Transactional(readOnly = true)
     public List<Record> getRecommendationsForUser(Long userId) {
+        if (replicaLagMonitor.mustReadFromPrimary(userId)) {
+            return ReadWriteRoutingDataSource.onPrimary(() -> computeRecommendations(userId));
+        }
+        return computeRecommendations(userId);
+    }
+
+    private List<Record> computeRecommendations(Long userId) {
         Optional<User> user = userRepository.findById(userId);
         if (user.isEmpty()) {
             throw new RuntimeException("User not found");
@@ -37,6 +58,26 @@ public class RecommendationService {
         // Get records the user has bought
         Set<Record> userPurchasedRecords = getUserPurchasedRecords(userId);
 
+        // Nothing to go on yet, fall back to what sells best
+        if (userPurchasedRecords.isEmpty()) {
+            return salesAggregator.toRecords(salesAggregator.getBestsellers(SalesAggregator.Window.WEEK, null, 10)).stream()
+                    .map(RankedRecordDTO::record)
+                    .collect(Collectors.toList());
+        }
+
+        // Trained model first: the user's vector plus an approximate top-K search over record vectors
+        Set<Long> purchasedIds = userPurchasedRecords.stream().map(Record::getId).collect(Collectors.toSet());
+        Optional<List<Long>> modelRecommendations = recommendationModelService.recommend(userId, 10, purchasedIds);
+        if (modelRecommendations.isPresent() && !modelRecommendations.get().isEmpty()) {
+            Map<Long, Record> records = recordRepository.findAllById(modelRecommendations.get()).stream()
+                    .collect(Collectors.toMap(Record::getId, record -> record));
+            return modelRecommendations.get().stream()
+                    .map(records::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+
+        // No model yet, or the user ordered after the last training run: use the heuristics below
         // 1️⃣ Collaborative Filtering: Find similar users and get their favorite records
         Set<Record> collaborativeRecommendations = getCollaborativeRecommendations(userId, userPurchasedRecords);
 
@@ -48,8 +89,12 @@ public class RecommendationService {
         combinedRecommendations.addAll(collaborativeRecommendations);
         combinedRecommendations.addAll(contentBasedRecommendations);
 
-        // Convert to list and return top 10 recommendations
-        return new ArrayList<>(combinedRecommendations).stream().limit(10).collect(Collectors.toList());
+        // Return the top 10, best selling first
+        return combinedRecommendations.stream()
+                .sorted(Comparator.comparingLong(
+                        (Record record) -> salesAggregator.getRecordSales(record.getId(), SalesAggregator.Window.WEEK)).reversed())
+                .limit(10)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -0,0 +1,130 @@
+package com.juzzt.service;
+
+import com.juzzt.config.RecordCacheKeys;
+import com.juzzt.config.ResilientCacheManager;
+import com.juzzt.model.Record;
+import com.juzzt.repository.RecordRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Many records by id with one round trip per tier instead of one per record: the in-memory catalog
+ * snapshot first, then a single MGET against the "records" cache, then one findAllById for what is
+ * left. Database results are written back to the cache in one pipeline, including "not found"
+ * markers, so later single lookups through RecordService hit them too. Both Redis calls go through
+ * {@link ResilientCacheManager}, so they share its circuit breaker and local copies.
+ */
+@Service
+public class RecordBatchService {
+    public static final int MAX_IDS = 200;
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final RecordRepository recordRepository;
+    private final ResilientCacheManager cacheManager;
+    private final RedisTemplate<String, Object> cacheTemplate;
+    private final Duration cacheTtl;
+
+    public RecordBatchService(CatalogSnapshotService catalogSnapshotService,
+                              RecordRepository recordRepository,
+                              ResilientCacheManager cacheManager,
+                              @Qualifier("recordCacheTemplate") RedisTemplate<String, Object> cacheTemplate,
+                              @Value("${spring.cache.redis.time-to-live:0}") Duration cacheTtl) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.recordRepository = recordRepository;
+        this.cacheManager = cacheManager;
+        this.cacheTemplate = cacheTemplate;
+        this.cacheTtl = cacheTtl;
+    }
+
+    /**
+     * Records in the order of the requested ids; duplicates are returned once, unknown ids are skipped.
+     */
+    @Transactional(readOnly = true)
+    public List<Record> getRecordsByIds(List<Long> ids) {
+        Set<Long> wanted = new LinkedHashSet<>(ids);
+        wanted.remove(null);
+        if (wanted.size() > MAX_IDS) {
+            throw new RuntimeException("At most " + MAX_IDS + " ids per request");
+        }
+
+        Map<Long, Record> found = new HashMap<>(catalogSnapshotService.findLoaded(wanted));
+        List<Long> missing = wanted.stream().filter(id -> !found.containsKey(id)).toList();
+
+        if (!missing.isEmpty()) {
+            List<Long> notCached = fromCache(missing, found);
+            if (!notCached.isEmpty()) {
+                fromDatabase(notCached, found);
+            }
+        }
+
+        List<Record> records = new ArrayList<>(wanted.size());
+        for (Long id : wanted) {
+            Record record = found.get(id);
+            if (record != null) records.add(record);
+        }
+        return records;
+    }
+
+    // One MGET through the resilient cache; returns the ids nothing is cached for. Cached "not found" markers count as answered.
+    private List<Long> fromCache(List<Long> ids, Map<Long, Record> found) {
+        Map<Long, Cache.ValueWrapper> cached = cacheManager.getAll(RecordCacheKeys.CACHE_NAME, ids,
+                keys -> cacheTemplate.opsForValue().multiGet(keys.stream().map(RecordCacheKeys::recordKey).toList()));
+
+        List<Long> notCached = new ArrayList<>();
+        for (Long id : ids) {
+            Cache.ValueWrapper value = cached.get(id);
+            if (value == null) {
+                notCached.add(id);
+            } else if (value.get() instanceof Record record) {
+                found.put(id, record);
+            }
+        }
+        return notCached;
+    }
+
+    private void fromDatabase(List<Long> ids, Map<Long, Record> found) {
+        Map<Long, Record> loaded = new HashMap<>();
+        recordRepository.findAllById(ids).forEach(record -> loaded.put(record.getId(), record));
+        found.putAll(loaded);
+
+        // Same entries @Cacheable would have written for each id, null for "not found"
+        Map<Long, Record> entries = new HashMap<>();
+        for (Long id : ids) {
+            entries.put(id, loaded.get(id));
+        }
+        cacheManager.putAll(RecordCacheKeys.CACHE_NAME, entries, this::writeThrough);
+    }
+
+    private void writeThrough(Map<Long, ?> entries) {
+        cacheTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redis = (RedisOperations<String, Object>) operations;
+                entries.forEach((id, record) -> {
+                    String key = RecordCacheKeys.recordKey(id);
+                    Object value = Objects.requireNonNullElse(record, NullValue.INSTANCE);
+                    if (cacheTtl.isZero()) redis.opsForValue().set(key, value);
+                    else redis.opsForValue().set(key, value, cacheTtl);
+                });
+                return null;
+            }
+        });
+    }
+}
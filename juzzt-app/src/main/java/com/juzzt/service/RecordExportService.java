@@ -0,0 +1,116 @@
+package com.juzzt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juzzt.model.Record;
+import com.juzzt.repository.RecordRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class RecordExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,title,artist,genre,price,imageUrl,musicbrainzId,updatedAt";
+
+    public enum ExportFormat {
+        NDJSON("ndjson"),
+        CSV("csv");
+
+        private final String extension;
+
+        ExportFormat(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final RecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public RecordExportService(RecordRepository recordRepository, ObjectMapper objectMapper) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Stream the catalog as gzip'd NDJSON or CSV straight from a database cursor.
+     * Each row is written and detached before the next one is read, so memory
+     * stays flat regardless of catalog size. Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, LocalDateTime updatedSince, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long count = 0;
+
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Record> records = updatedSince == null
+                ? recordRepository.streamAll()
+                : recordRepository.streamUpdatedSince(updatedSince)) {
+            Iterator<Record> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                Record record = iterator.next();
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, record);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(record));
+                }
+                writer.write('\n');
+                entityManager.detach(record); // Keep the persistence context from growing with the catalog
+                count++;
+            }
+        }
+
+        writer.flush();
+        gzip.finish();
+        return count;
+    }
+
+    private void writeCsvRow(Writer writer, Record record) throws IOException {
+        writer.write(String.valueOf(record.getId()));
+        writer.write(',');
+        writer.write(csv(record.getTitle()));
+        writer.write(',');
+        writer.write(csv(record.getArtist()));
+        writer.write(',');
+        writer.write(csv(record.getGenre()));
+        writer.write(',');
+        writer.write(record.getPrice() == null ? "" : record.getPrice().toString());
+        writer.write(',');
+        writer.write(csv(record.getImageUrl()));
+        writer.write(',');
+        writer.write(csv(record.getMusicbrainzId()));
+        writer.write(',');
+        writer.write(record.getUpdatedAt() == null ? "" : record.getUpdatedAt().toString());
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,42 +1,124 @@
 package com.juzzt.service;
 
+import com.juzzt.config.RecordCacheKeys;
+import com.juzzt.config.ReplicaLagMonitor;
+import com.juzzt.dto.RecordChangeDTO;
+import com.juzzt.dto.RecordChangeFeedDTO;
+import com.juzzt.event.ImageStagedEvent;
+import com.juzzt.event.RecordChangedEvent;
 import com.juzzt.model.Record;
+import com.juzzt.model.RecordChange;
+import com.juzzt.model.RecordChange.ChangeType;
+import com.juzzt.repository.RecordChangeRepository;
 import com.juzzt.repository.RecordRepository;
+import com.juzzt.util.BatchJobLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class RecordService {
+    private static final Logger log = LoggerFactory.getLogger(RecordService.class);
+
     private final RecordRepository recordRepository;
     private final MusicBrainzService musicBrainzService;
     private final AlbumCoverService albumCoverService;
-    private final ImageUploadService imageUploadService; // Cloudinary upload
+    private final ImageUploadService imageUploadService; // Stages uploads for background processing
+    private final RecordChangeRepository recordChangeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher; // Node-local events (staged image files)
+    private final EventOutbox eventOutbox;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final CacheManager cacheManager;
+
+    private static final int MAX_CHANGES_PER_PAGE = 1000;
+
+    @Value("${juzzt.logging.batch-sample-every:100}")
+    private int sampleEvery;
 
     public RecordService(RecordRepository recordRepository,
                          MusicBrainzService musicBrainzService,
                          AlbumCoverService albumCoverService,
-                         ImageUploadService imageUploadService) {
+                         ImageUploadService imageUploadService,
+                         RecordChangeRepository recordChangeRepository,
+                         TransactionTemplate transactionTemplate,
+                         ApplicationEventPublisher eventPublisher,
+                         EventOutbox eventOutbox,
+                         ReplicaLagMonitor replicaLagMonitor,
+                         CacheManager cacheManager) {
         this.recordRepository = recordRepository;
         this.musicBrainzService = musicBrainzService;
         this.albumCoverService = albumCoverService;
         this.imageUploadService = imageUploadService;
+        this.recordChangeRepository = recordChangeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.eventOutbox = eventOutbox;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.cacheManager = cacheManager;
     }
 
+    // Cache misses read from the replica; writes clear the cache again once it has caught up with them
+    @Transactional(readOnly = true)
     @Cacheable(value = "records")
     public List<Record> getAllRecords() {
         return recordRepository.findAllByImageUrlFirst();
     }
 
+    @Transactional(readOnly = true)
     @Cacheable(value = "records", key = "#id")
     public Optional<Record> getRecordById(Long id) {
         return recordRepository.findById(id);
     }
 
+    /**
+     * Return changes after the given cursor, oldest first, together with the
+     * current state of each changed record. Consumers store nextCursor and
+     * pass it back on the next call.
+     */
+    @Transactional(readOnly = true)
+    public RecordChangeFeedDTO getChangesSince(Long cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_CHANGES_PER_PAGE));
+        List<RecordChange> changes = recordChangeRepository.findByIdGreaterThanOrderByIdAsc(
+                cursor == null ? 0L : cursor, PageRequest.of(0, pageSize));
+
+        // One query for all touched records instead of one per change
+        Map<Long, Record> records = recordRepository.findAllById(
+                        changes.stream().map(RecordChange::getRecordId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Record::getId, Function.identity()));
+
+        List<RecordChangeDTO> dtos = changes.stream()
+                .map(change -> new RecordChangeDTO(change.getId(), change.getRecordId(),
+                        change.getChangeType().name(), change.getRecordVersion(), change.getChangedAt(),
+                        records.get(change.getRecordId())))
+                .toList();
+
+        Long nextCursor = changes.isEmpty() ? cursor : changes.get(changes.size() - 1).getId();
+        return new RecordChangeFeedDTO(dtos, nextCursor, changes.size() == pageSize);
+    }
+
+    // Not transactional: the lookups are slow external calls, only the insert runs in a (short) transaction
     @CacheEvict(value = "records", allEntries = true)
     public Record createRecord(Record record, MultipartFile file) throws IOException {
         // Fetch MusicBrainz ID if not provided
@@ -46,20 +128,30 @@ public class RecordService {
         }
 
         // Fetch album cover from Cover Art Archive
+        Path stagedImage = null;
         if (record.getImageUrl() == null || record.getImageUrl().isEmpty()) {
             String albumCover = albumCoverService.getAlbumCover(record.getMusicbrainzId());
             if (albumCover != null) {
                 record.setImageUrl(albumCover);
             } else if (file != null && !file.isEmpty()) {
-                // If no cover is found, allow manual upload to Cloudinary
-                String cloudinaryUrl = imageUploadService.uploadImage(file);
-                record.setImageUrl(cloudinaryUrl);
+                // If no cover is found, use the manual upload once it has been processed
+                stagedImage = imageUploadService.stage(file);
+                record.setImageStatus(Record.ImageStatus.PENDING);
             }
         }
 
-        return recordRepository.save(record);
+        Path staged = stagedImage;
+        return transactionTemplate.execute(status -> {
+            Record saved = saveAndLogChange(record, ChangeType.CREATED);
+            if (staged != null) {
+                // Picked up by ingestion after commit, deleted if the insert rolls back
+                eventPublisher.publishEvent(new ImageStagedEvent(saved.getId(), staged, file.getContentType()));
+            }
+            return saved;
+        });
     }
 
+    @Transactional
     @CacheEvict(value = "records", allEntries = true)
     public Record updateRecord(Long id, Record recordDetails, MultipartFile file) throws IOException {
         return recordRepository.findById(id)
@@ -69,19 +161,49 @@ public class RecordService {
                     record.setGenre(recordDetails.getGenre());
                     record.setPrice(recordDetails.getPrice());
 
+                    Path stagedImage = null;
                     if (file != null && !file.isEmpty()) {
                         try {
-                            String imageUrl = imageUploadService.uploadImage(file);
-                            record.setImageUrl(imageUrl);
+                            stagedImage = imageUploadService.stage(file);
+                            record.setImageStatus(Record.ImageStatus.PENDING);
                         } catch (IOException e) {
                             throw new RuntimeException("Failed to upload image", e);
                         }
                     }
-                    return recordRepository.save(record);
+
+                    Record saved = saveAndLogChange(record, ChangeType.UPDATED);
+                    if (stagedImage != null) {
+                        eventPublisher.publishEvent(new ImageStagedEvent(saved.getId(), stagedImage, file.getContentType()));
+                    }
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Record not found"));
     }
 
+    /**
+     * Called by the ingestion job once the uploaded cover has been processed and stored.
+     */
+    @Transactional
+    @CacheEvict(value = "records", allEntries = true)
+    public void completeImageIngestion(Long id, String imageUrl, String thumbnailUrl) {
+        recordRepository.findById(id).ifPresent(record -> {
+            record.setImageUrl(imageUrl);
+            record.setThumbnailUrl(thumbnailUrl);
+            record.setImageStatus(Record.ImageStatus.READY);
+            saveAndLogChange(record, ChangeType.UPDATED);
+        });
+    }
+
+    // Own transaction: also called from an after-commit listener, where REQUIRED would join the finished one
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @CacheEvict(value = "records", allEntries = true)
+    public void failImageIngestion(Long id) {
+        recordRepository.findById(id).ifPresent(record -> {
+            record.setImageStatus(Record.ImageStatus.FAILED);
+            saveAndLogChange(record, ChangeType.UPDATED);
+        });
+    }
+
     @CacheEvict(value = "records", allEntries = true)
     public void updateMissingMusicBrainzIds() {
         List<Record> recordsWithoutId = recordRepository.findByMusicbrainzIdIsNull();
@@ -100,7 +222,7 @@ public class RecordService {
                     }
                 }
 
-                recordRepository.save(record); // Save the updated record
+                saveInOwnTransaction(record); // Save the updated record
             }
         }
     }
@@ -108,33 +230,76 @@ public class RecordService {
     public void updateAllRecordsWithMusicBrainz() {
         List<Record> records = recordRepository.findAll();
 
-        for (Record record : records) {
-            boolean updated = false;
+        try (BatchJobLog job = BatchJobLog.start(log, "musicbrainz-refresh", sampleEvery)) {
+            for (Record record : records) {
+                job.count("checked");
+                boolean updated = false;
 
-            // Fetch and update MusicBrainz ID if missing
-            if (record.getMusicbrainzId() == null || record.getMusicbrainzId().isEmpty()) {
-                String musicbrainzId = musicBrainzService.getMusicBrainzId(record.getArtist(), record.getTitle());
-                if (musicbrainzId != null) {
-                    record.setMusicbrainzId(musicbrainzId);
-                    updated = true;
+                // Fetch and update MusicBrainz ID if missing
+                if (record.getMusicbrainzId() == null || record.getMusicbrainzId().isEmpty()) {
+                    String musicbrainzId = musicBrainzService.getMusicBrainzId(record.getArtist(), record.getTitle());
+                    if (musicbrainzId != null) {
+                        record.setMusicbrainzId(musicbrainzId);
+                        updated = true;
+                    } else {
+                        job.count("noMatch");
+                    }
                 }
-            }
 
-            // Fetch and update album cover if missing
-            if ((record.getImageUrl() == null || record.getImageUrl().isEmpty()) && record.getMusicbrainzId() != null) {
-                String albumCover = albumCoverService.getAlbumCover(record.getMusicbrainzId());
-                if (albumCover != null) {
-                    record.setImageUrl(albumCover);
-                    updated = true;
+                // Fetch and update album cover if missing
+                if ((record.getImageUrl() == null || record.getImageUrl().isEmpty()) && record.getMusicbrainzId() != null) {
+                    String albumCover = albumCoverService.getAlbumCover(record.getMusicbrainzId());
+                    if (albumCover != null) {
+                        record.setImageUrl(albumCover);
+                        updated = true;
+                    } else {
+                        job.count("noCover");
+                    }
                 }
-            }
 
-            // Save the record only if it was updated
-            if (updated) {
-                recordRepository.save(record);
-                System.out.println("Updated: " + record.getTitle() + " (" + record.getArtist() + ")");
+                // Save the record only if it was updated
+                if (updated) {
+                    saveInOwnTransaction(record);
+                    job.count("updated");
+                    if (job.sample()) log.info("Updated {} ({})", record.getTitle(), record.getArtist());
+                }
             }
         }
     }
 
+    /**
+     * Save the record and append to the change log in the caller's transaction.
+     * Flushing first makes the bumped version visible before it is logged.
+     */
+    private Record saveAndLogChange(Record record, ChangeType changeType) {
+        Record saved = recordRepository.saveAndFlush(record);
+        recordChangeRepository.save(RecordChange.of(saved, changeType));
+        eventOutbox.append(new RecordChangedEvent(saved.getId(), changeType, saved.getVersion()));
+        clearCacheOnceReplicated();
+        return saved;
+    }
+
+    // A miss between the write's eviction and the replica replaying it caches the old row from the replica;
+    // clearing again once the replica has the write drops it
+    private void clearCacheOnceReplicated() {
+        Runnable register = () -> replicaLagMonitor.afterReplicaCatchesUp(RecordCacheKeys.CACHE_NAME, () -> {
+            Cache cache = cacheManager.getCache(RecordCacheKeys.CACHE_NAME);
+            if (cache != null) cache.clear();
+        });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            register.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                register.run();
+            }
+        });
+    }
+
+    // Enrichment runs make slow external calls between saves, so each record gets its own short transaction
+    private void saveInOwnTransaction(Record record) {
+        transactionTemplate.executeWithoutResult(status -> saveAndLogChange(record, ChangeType.UPDATED));
+    }
 }
@@ -1,68 +1,88 @@
 package com.juzzt.service;
 
+import com.juzzt.event.RecordChangedEvent;
 import com.juzzt.model.Record;
+import com.juzzt.model.RecordChange;
+import com.juzzt.repository.RecordChangeRepository;
 import com.juzzt.repository.RecordRepository;
+import com.juzzt.util.BatchJobLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
-import java.util.Map;
 
 @Service
 public class RecordUpdaterService {
+    private static final Logger log = LoggerFactory.getLogger(RecordUpdaterService.class);
 
     @Autowired
     private RecordRepository recordRepository;
 
+    @Autowired
+    private RecordChangeRepository recordChangeRepository;
+
     @Autowired
     private MusicBrainzService musicBrainzService;  // Injecting the MusicBrainzService
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private AlbumCoverService albumCoverService;
+
+    @Autowired
+    private EventOutbox eventOutbox;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-    private final String COVER_ART_URL = "https://coverartarchive.org/release-group/%s";
+    @Value("${juzzt.logging.batch-sample-every:100}")
+    private int sampleEvery;
 
-    @Transactional
+    // No surrounding transaction: lookups call MusicBrainz and the Cover Art Archive, so each record is
+    // committed on its own and a connection is only held for the save
     public void updateMissingImagesAndIds() {
         List<Record> records = recordRepository.findAll();
 
-        System.out.println("Starting to update records...");
+        try (BatchJobLog job = BatchJobLog.start(log, "record-enrichment", sampleEvery)) {
+            for (Record record : records) {
+                job.count("checked");
+                if (record.getImageUrl() != null && record.getMusicbrainzId() != null) continue;
 
-        for (Record record : records) {
-            // Log each record that is being processed
-            System.out.println("Checking record: " + record.getTitle() + " - " + record.getArtist());
-
-            if (record.getImageUrl() == null || record.getMusicbrainzId() == null) {
-                System.out.println("Updating: " + record.getTitle() + " - " + record.getArtist());
+                boolean sampled = job.sample();
+                if (sampled) log.info("Updating {} - {}", record.getTitle(), record.getArtist());
 
                 // Fetch MusicBrainz ID
                 String mbId = musicBrainzService.getMusicBrainzId(record.getArtist(), record.getTitle());
+                if (mbId == null) {
+                    job.count("noMatch");
+                    continue;
+                }
+                record.setMusicbrainzId(mbId);
+
+                // Point at the local cover proxy instead of hotlinking the archive
+                String imageUrl = albumCoverService.getAlbumCover(mbId);
+                if (imageUrl != null) {
+                    record.setImageUrl(imageUrl);
+                } else {
+                    job.count("noCover");
+                    if (sampled) log.info("No cover art found for {}", mbId);
+                }
 
-                if (mbId != null) {
-                    record.setMusicbrainzId(mbId);
-
-                    try {
-                        String url = String.format(COVER_ART_URL, mbId);
-                        Map response = restTemplate.getForObject(url, Map.class);
-
-                        if (response != null && response.containsKey("images")) {
-                            List<Map<String, Object>> images = (List<Map<String, Object>>) response.get("images");
-                            if (!images.isEmpty()) {
-                                String imageUrl = (String) images.get(0).get("image");
-                                record.setImageUrl(imageUrl);
-                            }
-                        }
-
-                    } catch (Exception e) {
-                        System.out.println("No cover art found for " + mbId);
-                    }
-
-                    recordRepository.save(record);
-                    System.out.println("Updated record: " + record.getTitle() + " with image and MBID");
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        Record saved = recordRepository.saveAndFlush(record);
+                        recordChangeRepository.save(RecordChange.of(saved, RecordChange.ChangeType.UPDATED));
+                        eventOutbox.append(new RecordChangedEvent(saved.getId(), RecordChange.ChangeType.UPDATED, saved.getVersion()));
+                    });
+                    job.count("updated");
+                } catch (ObjectOptimisticLockingFailureException e) {
+                    // Edited while we were looking it up; the next run picks it up again if still incomplete
+                    job.count("conflict");
                 }
             }
         }
-        System.out.println("Finished updating records.");
     }
 }
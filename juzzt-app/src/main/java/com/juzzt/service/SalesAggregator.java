@@ -0,0 +1,323 @@
+package com.juzzt.service;
+
+import com.juzzt.dto.GenreSalesDTO;
+import com.juzzt.dto.RankedRecordDTO;
+import com.juzzt.event.DomainEvent;
+import com.juzzt.event.DomainEventConsumer;
+import com.juzzt.event.OrderPlacedEvent;
+import com.juzzt.model.Record;
+import com.juzzt.repository.RecordRepository;
+import com.juzzt.util.SlidingWindowCounter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory sales counts per record and per genre over the last hour, day and week.
+ * Orders update the counters as they are relayed from the outbox; rankings are recomputed on a schedule so reads
+ * only slice a precomputed top-K list. Each node only counts the orders relayed to it, so it adds
+ * what it counted since its last snapshot to record_sales_hourly; the table holds the cluster-wide
+ * totals that are reloaded on startup.
+ */
+@Service
+public class SalesAggregator implements DomainEventConsumer {
+    private static final Logger log = LoggerFactory.getLogger(SalesAggregator.class);
+
+    public enum Window {
+        HOUR("1h", Duration.ofHours(1)),
+        DAY("24h", Duration.ofDays(1)),
+        WEEK("7d", Duration.ofDays(7));
+
+        private final String param;
+        private final Duration length;
+
+        Window(String param, Duration length) {
+            this.param = param;
+            this.length = length;
+        }
+
+        public static Optional<Window> fromParam(String param) {
+            return Arrays.stream(values()).filter(window -> window.param.equalsIgnoreCase(param)).findFirst();
+        }
+    }
+
+    public record Ranked<K>(K key, long sales, double score) {}
+
+    private record WindowRanking(List<Ranked<Long>> bestsellers, Map<String, List<Ranked<Long>>> bestsellersByGenre,
+                                 List<Ranked<Long>> trending, Map<String, List<Ranked<Long>>> trendingByGenre,
+                                 List<Ranked<String>> genres) {
+        static final WindowRanking EMPTY = new WindowRanking(List.of(), Map.of(), List.of(), Map.of(), List.of());
+    }
+
+    static final int TOP_K = 100;
+
+    private static final String UPSERT_HOUR =
+            "INSERT INTO record_sales_hourly (record_id, hour_start, quantity) VALUES (?, ?, ?) " +
+            "ON CONFLICT (record_id, hour_start) DO UPDATE SET quantity = record_sales_hourly.quantity + EXCLUDED.quantity";
+    private static final String LOAD_HOURS =
+            "SELECT s.record_id, r.genre, s.hour_start, s.quantity FROM record_sales_hourly s " +
+            "JOIN records r ON r.id = s.record_id WHERE s.hour_start >= ? AND s.hour_start < ?";
+    private static final String LOAD_RECENT_ORDER_IDS =
+            "SELECT id, order_date FROM orders WHERE order_date >= ?";
+    private static final String LOAD_RECENT_ORDERS =
+            "SELECT oi.record_id, r.genre, date_trunc('minute', o.order_date) AS minute, SUM(oi.quantity) AS quantity " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id JOIN records r ON r.id = oi.record_id " +
+            "WHERE o.order_date >= ? GROUP BY oi.record_id, r.genre, date_trunc('minute', o.order_date)";
+
+    private final Map<Window, SlidingWindowCounter<Long>> recordCounters = new EnumMap<>(Map.of(
+            Window.HOUR, new SlidingWindowCounter<>(Duration.ofMinutes(1), 60),
+            Window.DAY, new SlidingWindowCounter<>(Duration.ofHours(1), 24),
+            Window.WEEK, new SlidingWindowCounter<>(Duration.ofHours(1), 168)));
+    private final Map<Window, SlidingWindowCounter<String>> genreCounters = new EnumMap<>(Map.of(
+            Window.HOUR, new SlidingWindowCounter<>(Duration.ofMinutes(1), 60),
+            Window.DAY, new SlidingWindowCounter<>(Duration.ofHours(1), 24),
+            Window.WEEK, new SlidingWindowCounter<>(Duration.ofHours(1), 168)));
+
+    private final Map<Long, String> recordGenres = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyHours = ConcurrentHashMap.newKeySet();
+    // Per hour, the counts record_sales_hourly already has from this node; snapshots write the difference
+    private final Map<Long, Map<Long, Long>> flushed = new ConcurrentHashMap<>();
+    // Orders already counted (id -> placed at), so events delivered twice are only counted once
+    private final Map<Long, Long> countedOrders = new ConcurrentHashMap<>();
+    private volatile Map<Window, WindowRanking> rankings = Map.of();
+
+    private final RecordRepository recordRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesAggregator(RecordRepository recordRepository, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.recordRepository = recordRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof OrderPlacedEvent order) onOrderPlaced(order);
+        }
+    }
+
+    private void onOrderPlaced(OrderPlacedEvent event) {
+        long placedAt = toMillis(event.placedAt());
+        if (countedOrders.putIfAbsent(event.orderId(), placedAt) != null) return;
+        for (OrderPlacedEvent.Line line : event.lines()) {
+            count(line.recordId(), line.genre(), line.quantity(), placedAt, true, true);
+        }
+    }
+
+    private void count(Long recordId, String genre, long quantity, long timestamp, boolean lastHour, boolean hourly) {
+        if (lastHour) {
+            recordCounters.get(Window.HOUR).add(recordId, quantity, timestamp);
+            if (genre != null) genreCounters.get(Window.HOUR).add(genre, quantity, timestamp);
+        }
+        if (hourly) {
+            for (Window window : List.of(Window.DAY, Window.WEEK)) {
+                recordCounters.get(window).add(recordId, quantity, timestamp);
+                if (genre != null) genreCounters.get(window).add(genre, quantity, timestamp);
+            }
+            dirtyHours.add(recordCounters.get(Window.WEEK).bucketStart(timestamp));
+        }
+        if (genre != null) recordGenres.put(recordId, genre);
+    }
+
+    public List<Ranked<Long>> getBestsellers(Window window, String genre, int limit) {
+        WindowRanking ranking = rankings.getOrDefault(window, WindowRanking.EMPTY);
+        return slice(genre == null ? ranking.bestsellers() : ranking.bestsellersByGenre().getOrDefault(genre.toLowerCase(), List.of()), limit);
+    }
+
+    /**
+     * Records selling faster than their weekly average would predict for the window.
+     */
+    public List<Ranked<Long>> getTrending(Window window, String genre, int limit) {
+        WindowRanking ranking = rankings.getOrDefault(window, WindowRanking.EMPTY);
+        return slice(genre == null ? ranking.trending() : ranking.trendingByGenre().getOrDefault(genre.toLowerCase(), List.of()), limit);
+    }
+
+    public List<GenreSalesDTO> getTopGenres(Window window, int limit) {
+        return slice(rankings.getOrDefault(window, WindowRanking.EMPTY).genres(), limit).stream()
+                .map(ranked -> new GenreSalesDTO(ranked.key(), ranked.sales()))
+                .toList();
+    }
+
+    public long getRecordSales(Long recordId, Window window) {
+        return recordCounters.get(window).total(recordId, System.currentTimeMillis());
+    }
+
+    /**
+     * Load the ranked records in one query, keeping rank order. Records deleted since are skipped.
+     */
+    public List<RankedRecordDTO> toRecords(List<Ranked<Long>> ranked) {
+        Map<Long, Record> records = recordRepository.findAllById(ranked.stream().map(Ranked::key).toList()).stream()
+                .collect(Collectors.toMap(Record::getId, Function.identity()));
+        return ranked.stream()
+                .filter(entry -> records.containsKey(entry.key()))
+                .map(entry -> new RankedRecordDTO(records.get(entry.key()), entry.sales(), entry.score()))
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${juzzt.sales.rank-interval-ms:30000}")
+    public void recomputeRankings() {
+        long now = System.currentTimeMillis();
+        Map<Long, Long> weekly = recordCounters.get(Window.WEEK).totals(now);
+        Map<Window, WindowRanking> computed = new EnumMap<>(Window.class);
+
+        for (Window window : Window.values()) {
+            Map<Long, Long> sales = window == Window.WEEK ? weekly : recordCounters.get(window).totals(now);
+            // Expected sales in this window at the weekly rate; only the excess counts as trending
+            double share = (double) window.length.toMillis() / Window.WEEK.length.toMillis();
+            ToDoubleFunction<Map.Entry<Long, Long>> momentum =
+                    entry -> entry.getValue() - weekly.getOrDefault(entry.getKey(), 0L) * share;
+
+            Map<String, Map<Long, Long>> salesByGenre = new HashMap<>();
+            sales.forEach((recordId, count) -> {
+                String genre = recordGenres.get(recordId);
+                if (genre != null) {
+                    salesByGenre.computeIfAbsent(genre.toLowerCase(), key -> new HashMap<>()).put(recordId, count);
+                }
+            });
+
+            Map<String, List<Ranked<Long>>> bestsellersByGenre = new HashMap<>();
+            Map<String, List<Ranked<Long>>> trendingByGenre = new HashMap<>();
+            salesByGenre.forEach((genre, genreSales) -> {
+                bestsellersByGenre.put(genre, topK(genreSales, entry -> entry.getValue()));
+                if (window != Window.WEEK) trendingByGenre.put(genre, topK(genreSales, momentum));
+            });
+
+            computed.put(window, new WindowRanking(
+                    topK(sales, entry -> entry.getValue()),
+                    bestsellersByGenre,
+                    window == Window.WEEK ? List.of() : topK(sales, momentum),
+                    trendingByGenre,
+                    topK(genreCounters.get(window).totals(now), entry -> entry.getValue())));
+        }
+        rankings = computed;
+    }
+
+    // Bounded min-heap: O(n log K) instead of sorting every record
+    private static <K> List<Ranked<K>> topK(Map<K, Long> sales, ToDoubleFunction<Map.Entry<K, Long>> score) {
+        PriorityQueue<Ranked<K>> heap = new PriorityQueue<>(Comparator.comparingDouble(Ranked::score));
+        for (Map.Entry<K, Long> entry : sales.entrySet()) {
+            double value = score.applyAsDouble(entry);
+            if (value <= 0) continue;
+            if (heap.size() < TOP_K) {
+                heap.add(new Ranked<>(entry.getKey(), entry.getValue(), value));
+            } else if (value > heap.peek().score()) {
+                heap.poll();
+                heap.add(new Ranked<>(entry.getKey(), entry.getValue(), value));
+            }
+        }
+        List<Ranked<K>> ranked = new ArrayList<>(heap);
+        ranked.sort(Comparator.comparingDouble((Ranked<K> entry) -> entry.score()).reversed());
+        return List.copyOf(ranked);
+    }
+
+    private static <T> List<T> slice(List<T> ranked, int limit) {
+        return ranked.subList(0, Math.max(0, Math.min(limit, ranked.size())));
+    }
+
+    /**
+     * Add what was counted since the last snapshot to the hours that changed. Each hour is written
+     * in one transaction, so a failed hour is retried whole and never added twice.
+     */
+    @Scheduled(fixedDelayString = "${juzzt.sales.snapshot-interval-ms:300000}",
+            initialDelayString = "${juzzt.sales.snapshot-interval-ms:300000}")
+    @PreDestroy
+    public void snapshot() {
+        SlidingWindowCounter<Long> hourly = recordCounters.get(Window.WEEK);
+        long now = System.currentTimeMillis();
+        // Redelivery only happens for recent events (within the outbox lease), older ids can go
+        long keepFrom = now - Duration.ofHours(2).toMillis();
+        countedOrders.values().removeIf(placedAt -> placedAt < keepFrom);
+        long weekStart = hourly.bucketStart(now) - Window.WEEK.length.toMillis();
+        flushed.keySet().removeIf(hourStart -> hourStart < weekStart);
+
+        for (Iterator<Long> hours = dirtyHours.iterator(); hours.hasNext(); ) {
+            Long hourStart = hours.next();
+            hours.remove(); // An order landing mid-write marks the hour dirty again
+            Timestamp hour = Timestamp.valueOf(toLocal(hourStart));
+            Map<Long, Long> counted = hourly.bucket(hourStart);
+            Map<Long, Long> written = flushed.getOrDefault(hourStart, Map.of());
+            List<Object[]> rows = new ArrayList<>();
+            counted.forEach((recordId, quantity) -> {
+                long delta = quantity - written.getOrDefault(recordId, 0L);
+                if (delta > 0) rows.add(new Object[]{recordId, hour, delta});
+            });
+            if (rows.isEmpty()) continue;
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_HOUR, rows));
+            } catch (RuntimeException e) {
+                dirtyHours.add(hourStart);
+                log.warn("Sales snapshot failed, retrying next run: {}", e.getMessage());
+                return;
+            }
+            flushed.put(hourStart, counted);
+        }
+    }
+
+    /**
+     * Rebuild the counters after a restart. Completed hours come from the snapshot table; the
+     * last two hours are recounted from orders since the previous run may not have flushed them.
+     * Everything restored counts as flushed: the recount includes other nodes' orders, which those
+     * nodes add themselves. A crash loses at most this node's last unflushed interval from the table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0) // Before the outbox relay starts delivering orders
+    public void restore() {
+        long now = System.currentTimeMillis();
+        SlidingWindowCounter<Long> hourly = recordCounters.get(Window.WEEK);
+        long recountFrom = hourly.bucketStart(now) - Duration.ofHours(1).toMillis();
+        long weekStart = hourly.bucketStart(now) - Window.WEEK.length.toMillis();
+        long hourStart = now - Window.HOUR.length.toMillis();
+
+        jdbcTemplate.query(LOAD_HOURS, rs -> {
+            count(rs.getLong("record_id"), rs.getString("genre"), rs.getLong("quantity"),
+                    toMillis(rs.getTimestamp("hour_start").toLocalDateTime()), false, true);
+        }, Timestamp.valueOf(toLocal(weekStart)), Timestamp.valueOf(toLocal(recountFrom)));
+
+        // Recounted here, so their outbox events (if still pending) must not count them again
+        jdbcTemplate.query(LOAD_RECENT_ORDER_IDS, rs -> {
+            countedOrders.put(rs.getLong("id"), toMillis(rs.getTimestamp("order_date").toLocalDateTime()));
+        }, Timestamp.valueOf(toLocal(recountFrom)));
+        jdbcTemplate.query(LOAD_RECENT_ORDERS, rs -> {
+            long minute = toMillis(rs.getTimestamp("minute").toLocalDateTime());
+            count(rs.getLong("record_id"), rs.getString("genre"), rs.getLong("quantity"), minute,
+                    minute >= hourStart, true);
+        }, Timestamp.valueOf(toLocal(recountFrom)));
+
+        for (Long restoredHour : dirtyHours) {
+            flushed.put(restoredHour, hourly.bucket(restoredHour));
+        }
+        dirtyHours.clear();
+        recomputeRankings();
+    }
+
+    // order_date is a local timestamp, so bucket boundaries use the same zone
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
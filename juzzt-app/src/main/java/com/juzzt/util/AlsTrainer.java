@@ -0,0 +1,160 @@
+package com.juzzt.util;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Implicit-feedback ALS (Hu, Koren and Volinsky) over a sparse user x item matrix of purchase counts.
+ * Factors live in flat float arrays (row-major, one row per user or item); each half-step solves every
+ * row independently, so rows are spread over a fork-join pool.
+ */
+public class AlsTrainer {
+    private final int factors;
+    private final int iterations;
+    private final float regularization;
+    private final float alpha;
+    private final int parallelism;
+    private final long seed;
+
+    public AlsTrainer(int factors, int iterations, float regularization, float alpha, int parallelism, long seed) {
+        this.factors = factors;
+        this.iterations = iterations;
+        this.regularization = regularization;
+        this.alpha = alpha;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.seed = seed;
+    }
+
+    /**
+     * Sparse matrix in compressed row form: row r holds columns[rowStart[r]..rowStart[r+1]) with values.
+     */
+    public record SparseMatrix(int rows, int columns, int[] rowStart, int[] columnIndex, float[] values) {
+        public SparseMatrix transpose() {
+            int[] counts = new int[columns + 1];
+            for (int column : columnIndex) counts[column + 1]++;
+            for (int c = 0; c < columns; c++) counts[c + 1] += counts[c];
+
+            int[] start = counts.clone();
+            int[] next = counts.clone();
+            int[] transposedIndex = new int[columnIndex.length];
+            float[] transposedValues = new float[values.length];
+            for (int r = 0; r < rows; r++) {
+                for (int p = rowStart[r]; p < rowStart[r + 1]; p++) {
+                    int slot = next[columnIndex[p]]++;
+                    transposedIndex[slot] = r;
+                    transposedValues[slot] = values[p];
+                }
+            }
+            return new SparseMatrix(columns, rows, start, transposedIndex, transposedValues);
+        }
+    }
+
+    public record Factors(int factors, float[] userFactors, float[] itemFactors) {}
+
+    public Factors train(SparseMatrix userItems) {
+        SparseMatrix itemUsers = userItems.transpose();
+        Random random = new Random(seed);
+        float[] users = new float[userItems.rows() * factors];
+        float[] items = new float[userItems.columns() * factors];
+        float scale = (float) (0.01 / Math.sqrt(factors));
+        for (int i = 0; i < items.length; i++) items[i] = (float) random.nextGaussian() * scale;
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                solve(pool, userItems, items, users);
+                solve(pool, itemUsers, users, items);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return new Factors(factors, users, items);
+    }
+
+    /**
+     * One half-step: recompute every row of target from the fixed factors, for rows of the given matrix.
+     * x_r = (YtY + Yt(C_r - I)Y + lambda*I)^-1 Yt C_r p_r
+     */
+    private void solve(ForkJoinPool pool, SparseMatrix matrix, float[] fixed, float[] target) {
+        double[] gram = gram(fixed);
+        ThreadLocal<double[]> system = ThreadLocal.withInitial(() -> new double[factors * factors]);
+        ThreadLocal<double[]> rhs = ThreadLocal.withInitial(() -> new double[factors]);
+        try {
+            pool.submit(() -> IntStream.range(0, matrix.rows()).parallel().forEach(row -> {
+                double[] a = system.get();
+                double[] b = rhs.get();
+                System.arraycopy(gram, 0, a, 0, a.length);
+                Arrays.fill(b, 0);
+                for (int k = 0; k < factors; k++) a[k * factors + k] += regularization;
+
+                for (int p = matrix.rowStart()[row]; p < matrix.rowStart()[row + 1]; p++) {
+                    int offset = matrix.columnIndex()[p] * factors;
+                    double confidence = 1 + alpha * matrix.values()[p];
+                    for (int i = 0; i < factors; i++) {
+                        double yi = fixed[offset + i];
+                        b[i] += confidence * yi;
+                        double weighted = (confidence - 1) * yi;
+                        for (int j = 0; j <= i; j++) {
+                            a[i * factors + j] += weighted * fixed[offset + j];
+                        }
+                    }
+                }
+                choleskySolve(a, b);
+                int out = row * factors;
+                for (int i = 0; i < factors; i++) target[out + i] = (float) b[i];
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("ALS training interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("ALS training failed", e.getCause());
+        }
+    }
+
+    // YtY, lower triangle only (the solver never reads the upper one)
+    private double[] gram(float[] fixed) {
+        double[] gram = new double[factors * factors];
+        int rows = fixed.length / factors;
+        for (int r = 0; r < rows; r++) {
+            int offset = r * factors;
+            for (int i = 0; i < factors; i++) {
+                double yi = fixed[offset + i];
+                for (int j = 0; j <= i; j++) {
+                    gram[i * factors + j] += yi * fixed[offset + j];
+                }
+            }
+        }
+        return gram;
+    }
+
+    /**
+     * Solve A x = b in place (b becomes x) for symmetric positive definite A, using its lower triangle.
+     */
+    private void choleskySolve(double[] a, double[] b) {
+        int n = factors;
+        for (int j = 0; j < n; j++) {
+            double diagonal = a[j * n + j];
+            for (int k = 0; k < j; k++) diagonal -= a[j * n + k] * a[j * n + k];
+            diagonal = Math.sqrt(Math.max(diagonal, 1e-12));
+            a[j * n + j] = diagonal;
+            for (int i = j + 1; i < n; i++) {
+                double value = a[i * n + j];
+                for (int k = 0; k < j; k++) value -= a[i * n + k] * a[j * n + k];
+                a[i * n + j] = value / diagonal;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            double value = b[i];
+            for (int k = 0; k < i; k++) value -= a[i * n + k] * b[k];
+            b[i] = value / a[i * n + i];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double value = b[i];
+            for (int k = i + 1; k < n; k++) value -= a[k * n + i] * b[k];
+            b[i] = value / a[i * n + i];
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.juzzt.util;
+
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logging for long batch jobs. Puts a jobId in the MDC so every line of one run can be
+ * correlated, lets per-record lines be sampled, and logs one summary with the counters at the end.
+ *
+ * <pre>
+ * try (BatchJobLog job = BatchJobLog.start(log, "record-enrichment", 100)) {
+ *     if (job.sample()) log.info("Updating {}", record.getTitle());
+ *     job.count("updated");
+ * }
+ * </pre>
+ */
+public final class BatchJobLog implements AutoCloseable {
+    public static final String JOB_ID = "jobId";
+    public static final String JOB_NAME = "job";
+
+    // Always log the first few records so a run's start is visible, then one in sampleEvery
+    private static final int ALWAYS_LOGGED = 10;
+
+    private final Logger log;
+    private final String jobName;
+    private final String jobId;
+    private final int sampleEvery;
+    private final long startedAt = System.nanoTime();
+    private final AtomicLong seen = new AtomicLong();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final String previousJobId = MDC.get(JOB_ID);
+    private final String previousJobName = MDC.get(JOB_NAME);
+
+    private BatchJobLog(Logger log, String jobName, int sampleEvery) {
+        this.log = log;
+        this.jobName = jobName;
+        this.jobId = UUID.randomUUID().toString().substring(0, 8);
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    public static BatchJobLog start(Logger log, String jobName, int sampleEvery) {
+        BatchJobLog job = new BatchJobLog(log, jobName, sampleEvery);
+        MDC.put(JOB_ID, job.jobId);
+        MDC.put(JOB_NAME, jobName);
+        log.info("Job {} started", jobName);
+        return job;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    /**
+     * Whether to log details for the next record. Call once per record.
+     */
+    public boolean sample() {
+        long n = seen.incrementAndGet();
+        return n <= ALWAYS_LOGGED || n % sampleEvery == 0;
+    }
+
+    public void count(String counter) {
+        counters.computeIfAbsent(counter, key -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void close() {
+        Map<String, Long> totals = new TreeMap<>();
+        counters.forEach((counter, adder) -> totals.put(counter, adder.sum()));
+        log.info("Job {} finished in {} ms: {}", jobName, (System.nanoTime() - startedAt) / 1_000_000, totals);
+        restore(JOB_ID, previousJobId);
+        restore(JOB_NAME, previousJobName);
+    }
+
+    private static void restore(String key, String previous) {
+        if (previous == null) {
+            MDC.remove(key);
+        } else {
+            MDC.put(key, previous);
+        }
+    }
+}
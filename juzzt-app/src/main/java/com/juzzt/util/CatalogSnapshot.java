@@ -0,0 +1,458 @@
+package com.juzzt.util;
+
+import com.juzzt.model.Record;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable, column-wise copy of the catalog. Each record is a row index into parallel
+ * primitive arrays sorted by id; artist and genre are stored once in a dictionary and
+ * referenced by int code. Changes never touch an existing snapshot, {@link #with} returns a
+ * new one per batch of changes, so readers can share an instance without locking. The snapshot also carries a
+ * fingerprint of its ids and versions, kept up to date by {@link #with}, which the catalog ETag is built from.
+ */
+public final class CatalogSnapshot {
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int NO_CODE = -1;
+    private static final Record.ImageStatus[] STATUSES = Record.ImageStatus.values();
+
+    private final long[] ids;
+    private final long[] versions;
+    private final double[] prices;          // NaN when unset
+    private final int[] artistCodes;
+    private final int[] genreCodes;
+    private final String[] titles;
+    private final String[] imageUrls;
+    private final String[] thumbnailUrls;
+    private final String[] musicbrainzIds;
+    private final byte[] imageStatuses;
+    private final byte[] hasImage;          // -1 unset, 0 false, 1 true
+    private final long[] createdAt;         // Epoch micros, Postgres timestamps carry no more precision
+    private final long[] updatedAt;
+
+    private final String[] artists;
+    private final String[] genres;
+    private final Map<String, Integer> genreCodeByName;
+
+    // Row numbers in catalog listing order (records with an image first, then by id) and per genre
+    private final int[] listingOrder;
+    private final int[][] rowsByGenre;
+    private final long changeCursor;
+    private final long fingerprint;
+
+    private CatalogSnapshot(long[] ids, long[] versions, double[] prices, int[] artistCodes, int[] genreCodes,
+                            String[] titles, String[] imageUrls, String[] thumbnailUrls, String[] musicbrainzIds,
+                            byte[] imageStatuses, byte[] hasImage, long[] createdAt, long[] updatedAt,
+                            String[] artists, String[] genres, long changeCursor, long fingerprint) {
+        this.ids = ids;
+        this.versions = versions;
+        this.prices = prices;
+        this.artistCodes = artistCodes;
+        this.genreCodes = genreCodes;
+        this.titles = titles;
+        this.imageUrls = imageUrls;
+        this.thumbnailUrls = thumbnailUrls;
+        this.musicbrainzIds = musicbrainzIds;
+        this.imageStatuses = imageStatuses;
+        this.hasImage = hasImage;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.artists = artists;
+        this.genres = genres;
+        this.changeCursor = changeCursor;
+        this.fingerprint = fingerprint;
+
+        this.genreCodeByName = new HashMap<>();
+        for (int code = 0; code < genres.length; code++) {
+            genreCodeByName.put(genres[code], code);
+        }
+        this.listingOrder = listingOrder(ids, hasImage);
+        this.rowsByGenre = rowsByGenre(listingOrder, genreCodes, genres.length);
+    }
+
+    // Shares every column and index, only the cursor differs
+    private CatalogSnapshot(CatalogSnapshot source, long changeCursor) {
+        this.ids = source.ids;
+        this.versions = source.versions;
+        this.prices = source.prices;
+        this.artistCodes = source.artistCodes;
+        this.genreCodes = source.genreCodes;
+        this.titles = source.titles;
+        this.imageUrls = source.imageUrls;
+        this.thumbnailUrls = source.thumbnailUrls;
+        this.musicbrainzIds = source.musicbrainzIds;
+        this.imageStatuses = source.imageStatuses;
+        this.hasImage = source.hasImage;
+        this.createdAt = source.createdAt;
+        this.updatedAt = source.updatedAt;
+        this.artists = source.artists;
+        this.genres = source.genres;
+        this.genreCodeByName = source.genreCodeByName;
+        this.listingOrder = source.listingOrder;
+        this.rowsByGenre = source.rowsByGenre;
+        this.changeCursor = changeCursor;
+        this.fingerprint = source.fingerprint;
+    }
+
+    public static CatalogSnapshot empty() {
+        return of(List.of(), 0L);
+    }
+
+    /**
+     * Build a snapshot from entities; changeCursor is the change log id the rows are current up to.
+     */
+    public static CatalogSnapshot of(Collection<Record> records, long changeCursor) {
+        List<Record> sorted = new ArrayList<>(records);
+        sorted.sort(Comparator.comparing(Record::getId));
+
+        Dictionary artistDictionary = new Dictionary(new String[0]);
+        Dictionary genreDictionary = new Dictionary(new String[0]);
+        Columns columns = new Columns(sorted.size());
+        long fingerprint = 0;
+        for (int row = 0; row < sorted.size(); row++) {
+            Record record = sorted.get(row);
+            columns.write(row, record, artistDictionary, genreDictionary);
+            fingerprint += fingerprint(record.getId(), record.getVersion());
+        }
+        return columns.build(artistDictionary, genreDictionary, changeCursor, fingerprint);
+    }
+
+    /**
+     * Copy of this snapshot with the record inserted or replaced. Rows that are already at the
+     * same or a newer version are kept, so replaying a change twice or out of order is harmless.
+     */
+    public CatalogSnapshot with(Record record, long changeCursor) {
+        return with(List.of(record), changeCursor);
+    }
+
+    /**
+     * Same as {@link #with(Record, long)} for a whole batch: the columns are copied and the
+     * indexes rebuilt once, however many records change.
+     */
+    public CatalogSnapshot with(Collection<Record> records, long changeCursor) {
+        long cursor = Math.max(this.changeCursor, changeCursor);
+        // Newest version per id, only where it is newer than the row we have
+        Map<Long, Record> changed = new HashMap<>();
+        for (Record record : records) {
+            if (version(record.getId()) >= record.getVersion()) continue;
+            changed.merge(record.getId(), record, (a, b) -> a.getVersion() >= b.getVersion() ? a : b);
+        }
+        if (changed.isEmpty()) {
+            return withCursor(cursor);
+        }
+
+        long[] added = changed.keySet().stream()
+                .filter(id -> Arrays.binarySearch(ids, id) < 0)
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        // Merge the new ids into the existing order; from[row] is the row it is copied from, -1 for new ones
+        int n = ids.length + added.length;
+        long[] nextIds = new long[n];
+        int[] from = new int[n];
+        for (int row = 0, existing = 0, next = 0; row < n; row++) {
+            if (next < added.length && (existing == ids.length || added[next] < ids[existing])) {
+                nextIds[row] = added[next++];
+                from[row] = -1;
+            } else {
+                nextIds[row] = ids[existing];
+                from[row] = existing++;
+            }
+        }
+
+        Columns columns = new Columns(this, nextIds, from);
+        Dictionary artistDictionary = new Dictionary(artists);
+        Dictionary genreDictionary = new Dictionary(genres);
+        long fingerprint = this.fingerprint;
+        for (Record record : changed.values()) {
+            int previous = Arrays.binarySearch(ids, record.getId());
+            if (previous >= 0) fingerprint -= fingerprint(ids[previous], versions[previous]);
+            fingerprint += fingerprint(record.getId(), record.getVersion());
+            columns.write(Arrays.binarySearch(nextIds, record.getId()), record, artistDictionary, genreDictionary);
+        }
+        // Derived indexes and the dictionaries depend on the new rows, rebuilt around the new columns
+        return columns.build(artistDictionary, genreDictionary, cursor, fingerprint);
+    }
+
+    /**
+     * Same rows, marked as current up to a later change log id.
+     */
+    public CatalogSnapshot withCursor(long changeCursor) {
+        return changeCursor <= this.changeCursor ? this : new CatalogSnapshot(this, changeCursor);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long changeCursor() {
+        return changeCursor;
+    }
+
+    /**
+     * Order-independent sum of {@link #fingerprint(long, long)} over every row. Any insert or
+     * update changes it, since every update bumps the record's version.
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Well-mixed hash of one row's id and version, summed into the snapshot fingerprint.
+     */
+    public static long fingerprint(long id, long version) {
+        long h = id * 0x9E3779B97F4A7C15L + version;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    public int artistCount() {
+        return artists.length;
+    }
+
+    public int genreCount() {
+        return genres.length;
+    }
+
+    /**
+     * Version of the record, or -1 if it is not in the snapshot.
+     */
+    public long version(long id) {
+        int row = Arrays.binarySearch(ids, id);
+        return row < 0 ? -1 : versions[row];
+    }
+
+    public Optional<Record> find(long id) {
+        int row = Arrays.binarySearch(ids, id);
+        return row < 0 ? Optional.empty() : Optional.of(toRecord(row));
+    }
+
+    /**
+     * All records in catalog listing order.
+     */
+    public List<Record> list() {
+        return toRecords(listingOrder);
+    }
+
+    public List<Record> listByGenre(String genre) {
+        Integer code = genreCodeByName.get(genre);
+        return code == null ? List.of() : toRecords(rowsByGenre[code]);
+    }
+
+    private List<Record> toRecords(int[] rows) {
+        List<Record> records = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            records.add(toRecord(row));
+        }
+        return records;
+    }
+
+    // Fresh, detached entity per call so callers may modify what they get back
+    private Record toRecord(int row) {
+        Record record = new Record(titles[row], decode(artists, artistCodes[row]), decode(genres, genreCodes[row]),
+                Double.isNaN(prices[row]) ? null : prices[row], imageUrls[row], musicbrainzIds[row]);
+        record.setId(ids[row]);
+        record.setVersion(versions[row]);
+        record.setThumbnailUrl(thumbnailUrls[row]);
+        record.setImageStatus(STATUSES[imageStatuses[row]]);
+        record.setHasImage(hasImage[row] < 0 ? null : hasImage[row] == 1);
+        record.setCreatedAt(fromMicros(createdAt[row]));
+        record.setUpdatedAt(fromMicros(updatedAt[row]));
+        return record;
+    }
+
+    // Values of the source rows in their new positions; rows with from[row] < 0 are left to be written
+    private static long[] gather(long[] source, int[] from) {
+        long[] target = new long[from.length];
+        for (int row = 0; row < from.length; row++) {
+            if (from[row] >= 0) target[row] = source[from[row]];
+        }
+        return target;
+    }
+
+    private static double[] gather(double[] source, int[] from) {
+        double[] target = new double[from.length];
+        for (int row = 0; row < from.length; row++) {
+            if (from[row] >= 0) target[row] = source[from[row]];
+        }
+        return target;
+    }
+
+    private static int[] gather(int[] source, int[] from) {
+        int[] target = new int[from.length];
+        for (int row = 0; row < from.length; row++) {
+            if (from[row] >= 0) target[row] = source[from[row]];
+        }
+        return target;
+    }
+
+    private static byte[] gather(byte[] source, int[] from) {
+        byte[] target = new byte[from.length];
+        for (int row = 0; row < from.length; row++) {
+            if (from[row] >= 0) target[row] = source[from[row]];
+        }
+        return target;
+    }
+
+    private static String[] gather(String[] source, int[] from) {
+        String[] target = new String[from.length];
+        for (int row = 0; row < from.length; row++) {
+            if (from[row] >= 0) target[row] = source[from[row]];
+        }
+        return target;
+    }
+
+    // Same order as RecordRepository.findAllByImageUrlFirst: hasImage DESC (nulls first, as in Postgres), then id
+    private static int[] listingOrder(long[] ids, byte[] hasImage) {
+        int[] order = new int[ids.length];
+        int next = 0;
+        for (byte pass : new byte[]{-1, 1, 0}) {
+            for (int row = 0; row < ids.length; row++) {
+                if (hasImage[row] == pass) order[next++] = row;
+            }
+        }
+        return order;
+    }
+
+    private static int[][] rowsByGenre(int[] listingOrder, int[] genreCodes, int genreCount) {
+        int[] counts = new int[genreCount];
+        for (int code : genreCodes) {
+            if (code != NO_CODE) counts[code]++;
+        }
+        int[][] rows = new int[genreCount][];
+        for (int code = 0; code < genreCount; code++) {
+            rows[code] = new int[counts[code]];
+        }
+        int[] filled = new int[genreCount];
+        for (int row : listingOrder) {
+            int code = genreCodes[row];
+            if (code != NO_CODE) rows[code][filled[code]++] = row;
+        }
+        return rows;
+    }
+
+    private static String decode(String[] dictionary, int code) {
+        return code == NO_CODE ? null : dictionary[code];
+    }
+
+    private static byte toByte(Boolean value) {
+        return value == null ? -1 : (byte) (value ? 1 : 0);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time == null ? NO_TIME : ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), time);
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NO_TIME) return null;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    // Column arrays of a snapshot being built, filled in place before the snapshot is published
+    private static final class Columns {
+        private final long[] ids;
+        private final long[] versions;
+        private final double[] prices;
+        private final int[] artistCodes;
+        private final int[] genreCodes;
+        private final String[] titles;
+        private final String[] imageUrls;
+        private final String[] thumbnailUrls;
+        private final String[] musicbrainzIds;
+        private final byte[] imageStatuses;
+        private final byte[] hasImage;
+        private final long[] createdAt;
+        private final long[] updatedAt;
+
+        Columns(int n) {
+            this(new long[n], new long[n], new double[n], new int[n], new int[n], new String[n], new String[n],
+                    new String[n], new String[n], new byte[n], new byte[n], new long[n], new long[n]);
+        }
+
+        // The source's rows moved to their new positions, ids already in place
+        Columns(CatalogSnapshot source, long[] ids, int[] from) {
+            this(ids, gather(source.versions, from), gather(source.prices, from), gather(source.artistCodes, from),
+                    gather(source.genreCodes, from), gather(source.titles, from), gather(source.imageUrls, from),
+                    gather(source.thumbnailUrls, from), gather(source.musicbrainzIds, from),
+                    gather(source.imageStatuses, from), gather(source.hasImage, from), gather(source.createdAt, from),
+                    gather(source.updatedAt, from));
+        }
+
+        private Columns(long[] ids, long[] versions, double[] prices, int[] artistCodes, int[] genreCodes,
+                        String[] titles, String[] imageUrls, String[] thumbnailUrls, String[] musicbrainzIds,
+                        byte[] imageStatuses, byte[] hasImage, long[] createdAt, long[] updatedAt) {
+            this.ids = ids;
+            this.versions = versions;
+            this.prices = prices;
+            this.artistCodes = artistCodes;
+            this.genreCodes = genreCodes;
+            this.titles = titles;
+            this.imageUrls = imageUrls;
+            this.thumbnailUrls = thumbnailUrls;
+            this.musicbrainzIds = musicbrainzIds;
+            this.imageStatuses = imageStatuses;
+            this.hasImage = hasImage;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+        }
+
+        void write(int row, Record record, Dictionary artistDictionary, Dictionary genreDictionary) {
+            ids[row] = record.getId();
+            versions[row] = record.getVersion();
+            prices[row] = record.getPrice() == null ? Double.NaN : record.getPrice();
+            artistCodes[row] = artistDictionary.code(record.getArtist());
+            genreCodes[row] = genreDictionary.code(record.getGenre());
+            titles[row] = record.getTitle();
+            imageUrls[row] = record.getImageUrl();
+            thumbnailUrls[row] = record.getThumbnailUrl();
+            musicbrainzIds[row] = record.getMusicbrainzId();
+            imageStatuses[row] = (byte) (record.getImageStatus() == null ? 0 : record.getImageStatus().ordinal());
+            hasImage[row] = toByte(record.getHasImage());
+            createdAt[row] = toMicros(record.getCreatedAt());
+            updatedAt[row] = toMicros(record.getUpdatedAt());
+        }
+
+        CatalogSnapshot build(Dictionary artistDictionary, Dictionary genreDictionary, long changeCursor, long fingerprint) {
+            return new CatalogSnapshot(ids, versions, prices, artistCodes, genreCodes, titles, imageUrls, thumbnailUrls,
+                    musicbrainzIds, imageStatuses, hasImage, createdAt, updatedAt, artistDictionary.values(),
+                    genreDictionary.values(), changeCursor, fingerprint);
+        }
+    }
+
+    // Append-only string table: codes never change, so a renamed artist leaves an unused entry until the next full build
+    private static final class Dictionary {
+        private final List<String> values;
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        Dictionary(String[] existing) {
+            this.values = new ArrayList<>(Arrays.asList(existing));
+            for (int code = 0; code < existing.length; code++) {
+                codes.put(existing[code], code);
+            }
+        }
+
+        int code(String value) {
+            if (value == null) return NO_CODE;
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        String[] values() {
+            return values.toArray(String[]::new);
+        }
+    }
+}
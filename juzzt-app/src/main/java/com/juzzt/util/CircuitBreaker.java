@@ -0,0 +1,76 @@
+package com.juzzt.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Opens after a run of consecutive failures and rejects calls for the open duration. After that a
+ * single probe call is let through: success closes the breaker, failure opens it for another period.
+ */
+public final class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @FunctionalInterface
+    public interface Listener {
+        void onStateChange(State from, State to);
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+    private final Listener listener;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Listener listener) {
+        this(failureThreshold, openDuration, System::nanoTime, listener);
+    }
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock, Listener listener) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+        this.listener = listener;
+    }
+
+    /**
+     * Whether the protected call should be attempted now.
+     */
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) return true;
+        if (current == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            return transition(State.OPEN, State.HALF_OPEN); // Only the caller that wins the switch probes
+        }
+        return false;
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        transition(State.HALF_OPEN, State.CLOSED);
+    }
+
+    public void recordFailure() {
+        if (state.get() == State.HALF_OPEN) {
+            openedAt = nanoClock.getAsLong();
+            transition(State.HALF_OPEN, State.OPEN);
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt = nanoClock.getAsLong();
+            transition(State.CLOSED, State.OPEN);
+        }
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    private boolean transition(State from, State to) {
+        if (!state.compareAndSet(from, to)) return false;
+        listener.onStateChange(from, to);
+        return true;
+    }
+}
@@ -2,7 +2,11 @@ package com.juzzt.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.juzzt.model.Record;
+import com.juzzt.model.RecordChange;
+import com.juzzt.repository.RecordChangeRepository;
 import com.juzzt.repository.RecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
@@ -16,7 +20,10 @@ import org.springframework.beans.factory.annotation.Value;
 
 @Component
 public class DataSeeder implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+
     private final RecordRepository recordRepository;
+    private final RecordChangeRepository recordChangeRepository;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -24,30 +31,34 @@ public class DataSeeder implements CommandLineRunner {
     @Value("${data.seeder.enabled}")
     private boolean seederEnabled;
 
-    public DataSeeder(RecordRepository recordRepository) {
+    public DataSeeder(RecordRepository recordRepository, RecordChangeRepository recordChangeRepository) {
         this.recordRepository = recordRepository;
+        this.recordChangeRepository = recordChangeRepository;
     }
 
     @Override
     @Transactional
     public void run(String... args) throws Exception {
         if (!seederEnabled) {
-            System.out.println("⚡ DataSeeder is disabled. Skipping seeding.");
+            log.info("DataSeeder is disabled, skipping seeding");
             return;
         }
 
-        System.out.println("⚠️ Deleting all records...");
+        log.warn("Deleting all records");
         recordRepository.deleteAll();
 
-        System.out.println("🔄 Resetting ID sequence...");
+        log.info("Resetting record id sequence");
         entityManager.createNativeQuery("ALTER SEQUENCE records_id_seq RESTART WITH 1").executeUpdate();
 
-        System.out.println("📂 Loading records from JSON...");
+        log.info("Loading records from JSON");
         ObjectMapper objectMapper = new ObjectMapper();
         File file = new ClassPathResource("records.json").getFile();
         List<Record> records = objectMapper.readValue(file, objectMapper.getTypeFactory().constructCollectionType(List.class, Record.class));
 
-        recordRepository.saveAll(records);
-        System.out.println("✅ Inserted 100 jazz records with correct IDs!");
+        List<Record> saved = recordRepository.saveAll(records);
+        recordChangeRepository.saveAll(saved.stream()
+                .map(record -> RecordChange.of(record, RecordChange.ChangeType.CREATED))
+                .toList());
+        log.info("Inserted {} jazz records", saved.size());
     }
 }
@@ -0,0 +1,210 @@
+package com.juzzt.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-size ring of events with one producer and any number of consumers, each on its own thread
+ * and each seeing every event in order. A consumer takes everything published since its last call
+ * (up to maxBatch) in one batch, so a slow consumer catches up with fewer, larger calls instead of
+ * falling further behind. The producer waits when the slowest consumer is a full ring behind.
+ * <p>
+ * A batch that throws is retried with a growing backoff. After maxAttempts the consumer is parked:
+ * it keeps retrying the same batch at the longest backoff and never moves past it, so the
+ * producer eventually waits instead of events being dropped. {@link #processedSequence()} tells
+ * the producer which events every consumer has handled.
+ */
+public final class EventRingBuffer<T> implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(EventRingBuffer.class);
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    @FunctionalInterface
+    public interface BatchHandler<T> {
+        void onBatch(List<T> batch) throws Exception;
+    }
+
+    private final String name;
+    private final Object[] slots;
+    private final int mask;
+    private final int maxBatch;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final List<Consumer> consumers = new ArrayList<>();
+
+    private volatile long cursor = -1; // Last published sequence, written only by the producer
+    private volatile boolean running;
+
+    public EventRingBuffer(String name, int capacity, int maxBatch, int maxAttempts, Duration retryBackoff) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.name = name;
+        this.slots = new Object[capacity];
+        this.mask = capacity - 1;
+        this.maxBatch = maxBatch;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+    }
+
+    /**
+     * Register a consumer; only allowed before {@link #start()}.
+     */
+    public void addConsumer(String consumerName, BatchHandler<T> handler) {
+        if (running) throw new IllegalStateException("Ring buffer " + name + " already started");
+        consumers.add(new Consumer(consumerName, handler));
+    }
+
+    public void start() {
+        running = true;
+        for (Consumer consumer : consumers) {
+            consumer.thread = Thread.ofPlatform().name(name + "-" + consumer.name).daemon().start(consumer);
+        }
+    }
+
+    /**
+     * Append events in order and return the sequence of the last one. Must only be called from one thread.
+     */
+    public long publishAll(List<T> events) throws InterruptedException {
+        for (T event : events) {
+            long next = cursor + 1;
+            while (next - slots.length > minimumConsumerSequence()) {
+                if (!running) throw new IllegalStateException("Ring buffer " + name + " is closed");
+                wakeConsumers();
+                LockSupport.parkNanos(PARK_NANOS);
+                if (Thread.interrupted()) throw new InterruptedException();
+            }
+            slots[(int) (next & mask)] = event;
+            cursor = next; // Volatile write makes the slot visible to consumers
+        }
+        wakeConsumers();
+        return cursor;
+    }
+
+    /**
+     * Highest sequence every consumer has handled.
+     */
+    public long processedSequence() {
+        return minimumConsumerSequence();
+    }
+
+    public long publishedSequence() {
+        return cursor;
+    }
+
+    /**
+     * Consumers stuck retrying a batch that failed maxAttempts times.
+     */
+    public int parkedConsumers() {
+        return (int) consumers.stream().filter(consumer -> consumer.parked).count();
+    }
+
+    /**
+     * Wait up to the timeout for consumers to finish what has been published, then stop them.
+     */
+    public void close(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (minimumConsumerSequence() < cursor && System.nanoTime() < deadline) {
+            wakeConsumers();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        running = false;
+        for (Consumer consumer : consumers) {
+            if (consumer.thread == null) continue;
+            LockSupport.unpark(consumer.thread);
+            try {
+                consumer.thread.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        close(Duration.ofSeconds(5));
+    }
+
+    private long minimumConsumerSequence() {
+        long minimum = cursor;
+        for (Consumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.sequence);
+        }
+        return minimum;
+    }
+
+    private void wakeConsumers() {
+        for (Consumer consumer : consumers) {
+            if (consumer.thread != null) LockSupport.unpark(consumer.thread);
+        }
+    }
+
+    private final class Consumer implements Runnable {
+        private final String name;
+        private final BatchHandler<T> handler;
+        private volatile long sequence = -1; // Last sequence this consumer has handled
+        private volatile boolean parked;
+        private Thread thread;
+
+        Consumer(String name, BatchHandler<T> handler) {
+            this.name = name;
+            this.handler = handler;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            int idle = 0;
+            while (running) {
+                long next = sequence + 1;
+                long available = cursor;
+                if (available < next) {
+                    // Spin briefly for bursts, then park until the producer wakes us
+                    if (++idle < SPIN_TRIES) Thread.onSpinWait();
+                    else LockSupport.parkNanos(PARK_NANOS * 10);
+                    continue;
+                }
+                idle = 0;
+                long end = Math.min(available, next + maxBatch - 1);
+                List<T> batch = new ArrayList<>((int) (end - next + 1));
+                for (long s = next; s <= end; s++) {
+                    batch.add((T) slots[(int) (s & mask)]);
+                }
+                if (!deliver(batch, next, end)) return; // Closed while retrying, the batch stays unhandled
+                sequence = end;
+            }
+        }
+
+        // False only if the ring was closed before the batch succeeded
+        private boolean deliver(List<T> batch, long from, long to) {
+            for (int attempt = 1; running; attempt++) {
+                try {
+                    handler.onBatch(batch);
+                    if (parked) {
+                        parked = false;
+                        log.info("Consumer {} recovered on events {}-{} after {} attempts", name, from, to, attempt);
+                    }
+                    return true;
+                } catch (Exception e) {
+                    if (attempt == maxAttempts) {
+                        parked = true;
+                        log.error("Consumer {} parked on events {}-{} after {} attempts, retrying every {} ms",
+                                name, from, to, attempt, retryBackoff.toMillis() * maxAttempts, e);
+                    } else if (attempt < maxAttempts) {
+                        log.warn("Consumer {} failed on events {}-{}, retrying: {}", name, from, to, e.getMessage());
+                    }
+                    LockSupport.parkNanos(retryBackoff.toNanos() * Math.min(attempt, maxAttempts));
+                }
+            }
+            return false;
+        }
+    }
+}
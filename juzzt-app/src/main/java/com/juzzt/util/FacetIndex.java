@@ -0,0 +1,217 @@
+package com.juzzt.util;
+
+import com.juzzt.model.Record;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Compressed bitmaps of record ids per genre, artist and price band. Filters are a union within
+ * a dimension and an intersection across dimensions; the count shown next to each value ignores
+ * the filter on its own dimension, so picking one genre still shows how many records the others have.
+ * Instances are immutable: {@link #with} clones only the bitmaps a change touches.
+ */
+public final class FacetIndex {
+    public enum Dimension { GENRE, ARTIST, PRICE }
+
+    public record Count(String value, int count) {}
+
+    public record Change(Record previous, Record current) {}
+
+    private final double[] priceBounds;
+    private final List<String> priceBands;
+    private final RoaringBitmap all;
+    private final Map<Dimension, Map<String, RoaringBitmap>> bitmaps;
+
+    private FacetIndex(double[] priceBounds, List<String> priceBands, RoaringBitmap all,
+                       Map<Dimension, Map<String, RoaringBitmap>> bitmaps) {
+        this.priceBounds = priceBounds;
+        this.priceBands = priceBands;
+        this.all = all;
+        this.bitmaps = bitmaps;
+    }
+
+    /**
+     * priceBounds are ascending band edges, e.g. {10, 20} gives the bands 0-10, 10-20 and 20+.
+     */
+    public static FacetIndex of(Collection<Record> records, double[] priceBounds) {
+        Map<Dimension, Map<String, RoaringBitmap>> bitmaps = new EnumMap<>(Dimension.class);
+        for (Dimension dimension : Dimension.values()) {
+            bitmaps.put(dimension, new HashMap<>());
+        }
+        RoaringBitmap all = new RoaringBitmap();
+        List<String> priceBands = priceBands(priceBounds);
+
+        for (Record record : records) {
+            int id = Math.toIntExact(record.getId());
+            all.add(id);
+            add(bitmaps, Dimension.GENRE, record.getGenre(), id);
+            add(bitmaps, Dimension.ARTIST, record.getArtist(), id);
+            add(bitmaps, Dimension.PRICE, priceBand(record.getPrice(), priceBounds, priceBands), id);
+        }
+        all.runOptimize();
+        bitmaps.values().forEach(values -> values.values().forEach(RoaringBitmap::runOptimize));
+        return new FacetIndex(priceBounds, priceBands, all, bitmaps);
+    }
+
+    /**
+     * Copy with the record moved from the values of its previous state (null if new) to its current ones.
+     */
+    public FacetIndex with(Record previous, Record current) {
+        return with(List.of(new Change(previous, current)));
+    }
+
+    /**
+     * Same as {@link #with(Record, Record)} for a whole batch, at most one record per id: each map
+     * and bitmap the batch touches is copied once.
+     */
+    public FacetIndex with(Collection<Change> changes) {
+        Map<Dimension, Map<String, RoaringBitmap>> next = new EnumMap<>(bitmaps); // Unchanged maps are shared
+        Map<Dimension, Set<String>> copied = new EnumMap<>(Dimension.class);
+        RoaringBitmap nextAll = all;
+        for (Change change : changes) {
+            int id = Math.toIntExact(change.current().getId());
+            for (Dimension dimension : Dimension.values()) {
+                String before = change.previous() == null ? null : value(dimension, change.previous());
+                String after = value(dimension, change.current());
+                if (Objects.equals(before, after)) continue;
+
+                Set<String> own = copied.computeIfAbsent(dimension, d -> {
+                    next.put(d, new HashMap<>(bitmaps.get(d)));
+                    return new HashSet<>();
+                });
+                Map<String, RoaringBitmap> values = next.get(dimension);
+                if (before != null) {
+                    RoaringBitmap ids = writable(values, own, before);
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        values.remove(before);
+                        own.remove(before);
+                    }
+                }
+                if (after != null) writable(values, own, after).add(id);
+            }
+            if (!nextAll.contains(id)) {
+                if (nextAll == all) nextAll = all.clone();
+                nextAll.add(id);
+            }
+        }
+        return new FacetIndex(priceBounds, priceBands, nextAll, next);
+    }
+
+    // Bitmap of the value that this batch may change, cloned from the shared one the first time
+    private static RoaringBitmap writable(Map<String, RoaringBitmap> values, Set<String> own, String value) {
+        RoaringBitmap ids = values.get(value);
+        if (own.add(value)) {
+            ids = ids == null ? new RoaringBitmap() : ids.clone();
+            values.put(value, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * Ids matching the filters; a dimension without selected values does not filter.
+     */
+    public RoaringBitmap select(Map<Dimension, Set<String>> filters) {
+        return select(filters, null);
+    }
+
+    /**
+     * Count per value of the dimension within the records matching the other dimensions' filters,
+     * largest first (price bands in band order), at most limit values.
+     */
+    public List<Count> counts(Dimension dimension, Map<Dimension, Set<String>> filters, int limit) {
+        RoaringBitmap base = select(filters, dimension);
+        List<Count> counts = new ArrayList<>();
+        bitmaps.get(dimension).forEach((value, ids) -> {
+            int count = RoaringBitmap.andCardinality(base, ids);
+            if (count > 0) counts.add(new Count(value, count));
+        });
+        if (dimension == Dimension.PRICE) {
+            counts.sort(Comparator.comparingInt(count -> priceBands.indexOf(count.value())));
+            return counts;
+        }
+        counts.sort(Comparator.comparingInt(Count::count).reversed().thenComparing(Count::value));
+        return counts.size() > limit ? counts.subList(0, limit) : counts;
+    }
+
+    /**
+     * Up to limit ids from the bitmap greater than afterId, ascending.
+     */
+    public static List<Long> page(RoaringBitmap ids, long afterId, int limit) {
+        List<Long> page = new ArrayList<>(limit);
+        if (afterId >= Integer.MAX_VALUE) return page;
+        PeekableIntIterator iterator = ids.getIntIterator();
+        iterator.advanceIfNeeded((int) Math.max(0, afterId + 1));
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add((long) iterator.next());
+        }
+        return page;
+    }
+
+    public List<String> priceBands() {
+        return priceBands;
+    }
+
+    private RoaringBitmap select(Map<Dimension, Set<String>> filters, Dimension skip) {
+        RoaringBitmap result = all;
+        for (Map.Entry<Dimension, Set<String>> filter : filters.entrySet()) {
+            if (filter.getKey() == skip || filter.getValue().isEmpty()) continue;
+            Map<String, RoaringBitmap> values = bitmaps.get(filter.getKey());
+            RoaringBitmap union = FastAggregation.or(filter.getValue().stream()
+                    .map(values::get)
+                    .filter(Objects::nonNull)
+                    .iterator());
+            result = RoaringBitmap.and(result, union);
+        }
+        return result;
+    }
+
+    private String value(Dimension dimension, Record record) {
+        return switch (dimension) {
+            case GENRE -> record.getGenre();
+            case ARTIST -> record.getArtist();
+            case PRICE -> priceBand(record.getPrice(), priceBounds, priceBands);
+        };
+    }
+
+    private static void add(Map<Dimension, Map<String, RoaringBitmap>> bitmaps, Dimension dimension, String value, int id) {
+        if (value != null) {
+            bitmaps.get(dimension).computeIfAbsent(value, v -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private static String priceBand(Double price, double[] bounds, List<String> bands) {
+        if (price == null) return null;
+        int band = 0;
+        while (band < bounds.length && price >= bounds[band]) band++;
+        return bands.get(band);
+    }
+
+    // Labels like "0-10", "10-20" and "20+"
+    private static List<String> priceBands(double[] bounds) {
+        List<String> bands = new ArrayList<>(bounds.length + 1);
+        double lower = 0;
+        for (double bound : bounds) {
+            bands.add(format(lower) + "-" + format(bound));
+            lower = bound;
+        }
+        bands.add(format(lower) + "+");
+        return List.copyOf(bands);
+    }
+
+    private static String format(double bound) {
+        return bound == Math.rint(bound) ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+}
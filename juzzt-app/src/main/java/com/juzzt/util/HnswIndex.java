@@ -0,0 +1,305 @@
+package com.juzzt.util;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Hierarchical navigable small world graph (Malkov and Yashunin) for maximum inner product search.
+ * Every structure is a flat int or float buffer so a built index can be written to a file and
+ * searched straight from a memory mapping without copying it onto the heap.
+ * <p>
+ * Neighbour lists are fixed-size slots: one int for the count followed by the neighbour ids.
+ * Level 0 has maxNeighbours0 per node; a node on level L also owns L slots of maxNeighbours
+ * in the upper array, starting at upperOffset[node].
+ */
+public class HnswIndex {
+    public record Hit(int node, float score) {}
+
+    private final int dimensions;
+    private final int maxNeighbours;
+    private final int maxNeighbours0;
+    private final int entryPoint;
+    private final int maxLevel;
+    private final FloatBuffer vectors;
+    private final IntBuffer nodeLevel;
+    private final IntBuffer upperOffset;
+    private final IntBuffer level0;
+    private final IntBuffer upper;
+
+    public HnswIndex(int dimensions, int maxNeighbours, int maxNeighbours0, int entryPoint, int maxLevel,
+                     FloatBuffer vectors, IntBuffer nodeLevel, IntBuffer upperOffset, IntBuffer level0, IntBuffer upper) {
+        this.dimensions = dimensions;
+        this.maxNeighbours = maxNeighbours;
+        this.maxNeighbours0 = maxNeighbours0;
+        this.entryPoint = entryPoint;
+        this.maxLevel = maxLevel;
+        this.vectors = vectors;
+        this.nodeLevel = nodeLevel;
+        this.upperOffset = upperOffset;
+        this.level0 = level0;
+        this.upper = upper;
+    }
+
+    public int size() {
+        return nodeLevel.limit();
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public int maxNeighbours() {
+        return maxNeighbours;
+    }
+
+    public int maxNeighbours0() {
+        return maxNeighbours0;
+    }
+
+    public int entryPoint() {
+        return entryPoint;
+    }
+
+    public int maxLevel() {
+        return maxLevel;
+    }
+
+    public FloatBuffer vectors() {
+        return vectors.duplicate();
+    }
+
+    public IntBuffer nodeLevel() {
+        return nodeLevel.duplicate();
+    }
+
+    public IntBuffer upperOffset() {
+        return upperOffset.duplicate();
+    }
+
+    public IntBuffer level0() {
+        return level0.duplicate();
+    }
+
+    public IntBuffer upper() {
+        return upper.duplicate();
+    }
+
+    /**
+     * Approximate top-k nodes by inner product with the query, best first.
+     */
+    public List<Hit> search(float[] query, int k, int ef) {
+        if (size() == 0) return List.of();
+        int node = entryPoint;
+        float best = score(query, node);
+        for (int level = maxLevel; level > 0; level--) {
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                int slot = slot(node, level);
+                IntBuffer links = links(level);
+                for (int i = 1; i <= links.get(slot); i++) {
+                    int candidate = links.get(slot + i);
+                    float candidateScore = score(query, candidate);
+                    if (candidateScore > best) {
+                        best = candidateScore;
+                        node = candidate;
+                        improved = true;
+                    }
+                }
+            }
+        }
+        List<Hit> hits = searchLayer(query, new Hit(node, best), Math.max(ef, k), 0);
+        return hits.size() > k ? hits.subList(0, k) : hits;
+    }
+
+    private List<Hit> searchLayer(float[] query, Hit start, int ef, int level) {
+        BitSet visited = new BitSet(size());
+        visited.set(start.node());
+        PriorityQueue<Hit> candidates = new PriorityQueue<>(Comparator.comparingDouble((Hit hit) -> hit.score()).reversed());
+        PriorityQueue<Hit> results = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+        candidates.add(start);
+        results.add(start);
+
+        IntBuffer links = links(level);
+        while (!candidates.isEmpty()) {
+            Hit current = candidates.poll();
+            if (results.size() >= ef && current.score() < results.peek().score()) break;
+            int slot = slot(current.node(), level);
+            for (int i = 1; i <= links.get(slot); i++) {
+                int neighbour = links.get(slot + i);
+                if (visited.get(neighbour)) continue;
+                visited.set(neighbour);
+                float score = score(query, neighbour);
+                if (results.size() < ef || score > results.peek().score()) {
+                    Hit hit = new Hit(neighbour, score);
+                    candidates.add(hit);
+                    results.add(hit);
+                    if (results.size() > ef) results.poll();
+                }
+            }
+        }
+        List<Hit> ordered = new ArrayList<>(results);
+        ordered.sort(Comparator.comparingDouble((Hit hit) -> hit.score()).reversed());
+        return ordered;
+    }
+
+    private IntBuffer links(int level) {
+        return level == 0 ? level0 : upper;
+    }
+
+    private int slot(int node, int level) {
+        return level == 0
+                ? node * (maxNeighbours0 + 1)
+                : (upperOffset.get(node) + level - 1) * (maxNeighbours + 1);
+    }
+
+    private float score(float[] query, int node) {
+        int offset = node * dimensions;
+        float sum = 0;
+        for (int i = 0; i < dimensions; i++) sum += query[i] * vectors.get(offset + i);
+        return sum;
+    }
+
+    /**
+     * Build an index over row-major item factors. Inner product isn't a metric, so each vector gets
+     * one extra component that brings every norm up to the largest one; ranking by inner product is
+     * then the same as ranking by cosine, which HNSW handles well. Queries pass 0 for that component.
+     */
+    public static HnswIndex build(float[] itemFactors, int factors, int maxNeighbours, int efConstruction, long seed) {
+        int count = itemFactors.length / factors;
+        int dimensions = factors + 1;
+        float[] vectors = new float[count * dimensions];
+        double maxNorm = 0;
+        double[] norms = new double[count];
+        for (int n = 0; n < count; n++) {
+            double norm = 0;
+            for (int i = 0; i < factors; i++) norm += itemFactors[n * factors + i] * itemFactors[n * factors + i];
+            norms[n] = norm;
+            maxNorm = Math.max(maxNorm, norm);
+        }
+        for (int n = 0; n < count; n++) {
+            System.arraycopy(itemFactors, n * factors, vectors, n * dimensions, factors);
+            vectors[n * dimensions + factors] = (float) Math.sqrt(Math.max(0, maxNorm - norms[n]));
+        }
+
+        // Levels are drawn up front so the upper slots can be laid out before any insert
+        Random random = new Random(seed);
+        double levelMultiplier = 1 / Math.log(maxNeighbours);
+        int[] levels = new int[count];
+        int[] offsets = new int[count];
+        int upperSlots = 0;
+        for (int n = 0; n < count; n++) {
+            levels[n] = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            offsets[n] = upperSlots;
+            upperSlots += levels[n];
+        }
+
+        int maxNeighbours0 = maxNeighbours * 2;
+        Builder builder = new Builder(new HnswIndex(dimensions, maxNeighbours, maxNeighbours0, 0, count == 0 ? 0 : levels[0],
+                FloatBuffer.wrap(vectors), IntBuffer.wrap(levels), IntBuffer.wrap(offsets),
+                IntBuffer.allocate(count * (maxNeighbours0 + 1)), IntBuffer.allocate(upperSlots * (maxNeighbours + 1))));
+        for (int n = 1; n < count; n++) {
+            builder.insert(n, efConstruction);
+        }
+        return builder.index;
+    }
+
+    private static final class Builder {
+        private HnswIndex index;
+
+        Builder(HnswIndex index) {
+            this.index = index;
+        }
+
+        void insert(int node, int efConstruction) {
+            HnswIndex current = index;
+            float[] query = vector(current, node);
+            int nodeLevel = current.nodeLevel.get(node);
+
+            int entry = current.entryPoint;
+            Hit nearest = new Hit(entry, current.score(query, entry));
+            for (int level = current.maxLevel; level > nodeLevel; level--) {
+                nearest = current.searchLayer(query, nearest, 1, level).get(0);
+            }
+            for (int level = Math.min(nodeLevel, current.maxLevel); level >= 0; level--) {
+                List<Hit> candidates = current.searchLayer(query, nearest, efConstruction, level);
+                int capacity = level == 0 ? current.maxNeighbours0 : current.maxNeighbours;
+                for (Hit neighbour : selectNeighbours(current, candidates, current.maxNeighbours)) {
+                    link(current, node, neighbour.node(), level, capacity);
+                    link(current, neighbour.node(), node, level, capacity);
+                }
+                nearest = candidates.get(0);
+            }
+            if (nodeLevel > current.maxLevel) {
+                index = new HnswIndex(current.dimensions, current.maxNeighbours, current.maxNeighbours0, node, nodeLevel,
+                        current.vectors, current.nodeLevel, current.upperOffset, current.level0, current.upper);
+            }
+        }
+
+        // Add target to from's list; when full, re-select the list with the same heuristic
+        private void link(HnswIndex current, int from, int target, int level, int capacity) {
+            IntBuffer links = current.links(level);
+            int slot = current.slot(from, level);
+            int size = links.get(slot);
+            for (int i = 1; i <= size; i++) {
+                if (links.get(slot + i) == target) return;
+            }
+            if (size < capacity) {
+                links.put(slot + size + 1, target);
+                links.put(slot, size + 1);
+                return;
+            }
+            float[] origin = vector(current, from);
+            List<Hit> candidates = new ArrayList<>(size + 1);
+            candidates.add(new Hit(target, current.score(origin, target)));
+            for (int i = 1; i <= size; i++) {
+                int neighbour = links.get(slot + i);
+                candidates.add(new Hit(neighbour, current.score(origin, neighbour)));
+            }
+            candidates.sort(Comparator.comparingDouble((Hit hit) -> hit.score()).reversed());
+            List<Hit> kept = selectNeighbours(current, candidates, capacity);
+            for (int i = 0; i < kept.size(); i++) {
+                links.put(slot + i + 1, kept.get(i).node());
+            }
+            links.put(slot, kept.size());
+        }
+
+        /**
+         * Neighbour selection heuristic from the HNSW paper: take a candidate only if it is closer to the
+         * base than to every neighbour already taken, so links spread in different directions instead of
+         * clustering. Remaining slots are filled with the best skipped candidates.
+         */
+        private List<Hit> selectNeighbours(HnswIndex current, List<Hit> candidates, int limit) {
+            List<Hit> selected = new ArrayList<>(limit);
+            List<Hit> skipped = new ArrayList<>();
+            for (Hit candidate : candidates) {
+                if (selected.size() == limit) break;
+                float[] vector = vector(current, candidate.node());
+                boolean diverse = true;
+                for (Hit chosen : selected) {
+                    if (current.score(vector, chosen.node()) > candidate.score()) {
+                        diverse = false;
+                        break;
+                    }
+                }
+                (diverse ? selected : skipped).add(candidate);
+            }
+            for (int i = 0; i < skipped.size() && selected.size() < limit; i++) {
+                selected.add(skipped.get(i));
+            }
+            return selected;
+        }
+
+        private static float[] vector(HnswIndex current, int node) {
+            float[] vector = new float[current.dimensions];
+            current.vectors.get(node * current.dimensions, vector);
+            return vector;
+        }
+    }
+}
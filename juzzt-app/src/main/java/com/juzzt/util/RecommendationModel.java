@@ -0,0 +1,203 @@
+package com.juzzt.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Trained recommendation model: user factors, record ids and the HNSW index over record factors.
+ * Stored as one little-endian file of flat sections that is memory-mapped for serving, so loading
+ * takes no heap and the OS page cache is shared between restarts.
+ * <p>
+ * Layout: header ints, sorted user ids, record ids, user factors, then the index sections.
+ * A single mapping is limited to 2 GB, which is far beyond the catalog's size.
+ */
+public class RecommendationModel {
+    private static final int MAGIC = 0x4A5A524D; // "JZRM"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 10;
+
+    private final LongBuffer userIds;
+    private final LongBuffer recordIds;
+    private final FloatBuffer userFactors;
+    private final int factors;
+    private final HnswIndex index;
+
+    private RecommendationModel(LongBuffer userIds, LongBuffer recordIds, FloatBuffer userFactors, int factors, HnswIndex index) {
+        this.userIds = userIds;
+        this.recordIds = recordIds;
+        this.userFactors = userFactors;
+        this.factors = factors;
+        this.index = index;
+    }
+
+    public int userCount() {
+        return userIds.limit();
+    }
+
+    public int recordCount() {
+        return recordIds.limit();
+    }
+
+    public boolean hasUser(Long userId) {
+        return userRow(userId) >= 0;
+    }
+
+    /**
+     * Record ids with the highest predicted preference for the user, skipping excluded ones.
+     * Empty if the user wasn't in the training data.
+     */
+    public Optional<List<Long>> recommend(Long userId, int limit, Set<Long> exclude, int ef) {
+        int row = userRow(userId);
+        if (row < 0) return Optional.empty();
+
+        float[] query = new float[factors + 1]; // Last component stays 0, see HnswIndex.build
+        userFactors.get(row * factors, query, 0, factors);
+
+        int wanted = limit + exclude.size();
+        List<Long> recommended = new ArrayList<>(limit);
+        for (HnswIndex.Hit hit : index.search(query, wanted, Math.max(ef, wanted))) {
+            long recordId = recordIds.get(hit.node());
+            if (!exclude.contains(recordId)) recommended.add(recordId);
+            if (recommended.size() == limit) break;
+        }
+        return Optional.of(recommended);
+    }
+
+    // User ids are written sorted, so lookup is a binary search over the mapped buffer
+    private int userRow(Long userId) {
+        int low = 0;
+        int high = userIds.limit() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = userIds.get(mid);
+            if (value < userId) low = mid + 1;
+            else if (value > userId) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Write the model atomically: readers mapping the old file keep working until they switch.
+     */
+    public static void write(Path file, long[] sortedUserIds, long[] recordIds, AlsTrainer.Factors trained, HnswIndex index)
+            throws IOException {
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "model-", ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = buffer(HEADER_INTS * Integer.BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(trained.factors()).putInt(sortedUserIds.length)
+                    .putInt(recordIds.length).putInt(index.maxNeighbours()).putInt(index.maxNeighbours0())
+                    .putInt(index.entryPoint()).putInt(index.maxLevel()).putInt(index.upper().limit());
+            writeFully(channel, header.flip());
+
+            ByteBuffer users = buffer(sortedUserIds.length * Long.BYTES);
+            users.asLongBuffer().put(sortedUserIds);
+            writeFully(channel, users);
+            ByteBuffer records = buffer(recordIds.length * Long.BYTES);
+            records.asLongBuffer().put(recordIds);
+            writeFully(channel, records);
+
+            ByteBuffer userFactors = buffer(trained.userFactors().length * Float.BYTES);
+            userFactors.asFloatBuffer().put(trained.userFactors());
+            writeFully(channel, userFactors);
+
+            FloatBuffer vectors = index.vectors();
+            ByteBuffer vectorBytes = buffer(vectors.limit() * Float.BYTES);
+            vectorBytes.asFloatBuffer().put(vectors);
+            writeFully(channel, vectorBytes);
+            for (IntBuffer section : List.of(index.nodeLevel(), index.upperOffset(), index.level0(), index.upper())) {
+                ByteBuffer bytes = buffer(section.limit() * Integer.BYTES);
+                bytes.asIntBuffer().put(section);
+                writeFully(channel, bytes);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static RecommendationModel map(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Stays valid after close
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        IntBuffer header = mapped.slice(0, HEADER_INTS * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        if (header.get(0) != MAGIC || header.get(1) != VERSION) {
+            throw new IOException("Not a recommendation model file: " + file);
+        }
+        int factors = header.get(2);
+        int users = header.get(3);
+        int records = header.get(4);
+        int maxNeighbours = header.get(5);
+        int maxNeighbours0 = header.get(6);
+        int entryPoint = header.get(7);
+        int maxLevel = header.get(8);
+        int upperInts = header.get(9);
+        int dimensions = factors + 1;
+
+        Sections sections = new Sections(mapped, HEADER_INTS * Integer.BYTES);
+        LongBuffer userIds = sections.longs(users);
+        LongBuffer recordIds = sections.longs(records);
+        FloatBuffer userFactors = sections.floats(users * factors);
+        FloatBuffer vectors = sections.floats(records * dimensions);
+        IntBuffer nodeLevel = sections.ints(records);
+        IntBuffer upperOffset = sections.ints(records);
+        IntBuffer level0 = sections.ints(records * (maxNeighbours0 + 1));
+        IntBuffer upper = sections.ints(upperInts);
+
+        HnswIndex index = new HnswIndex(dimensions, maxNeighbours, maxNeighbours0, entryPoint, maxLevel,
+                vectors, nodeLevel, upperOffset, level0, upper);
+        return new RecommendationModel(userIds, recordIds, userFactors, factors, index);
+    }
+
+    private static final class Sections {
+        private final ByteBuffer mapped;
+        private int position;
+
+        Sections(ByteBuffer mapped, int position) {
+            this.mapped = mapped;
+            this.position = position;
+        }
+
+        LongBuffer longs(int count) {
+            return next(count * Long.BYTES).asLongBuffer();
+        }
+
+        FloatBuffer floats(int count) {
+            return next(count * Float.BYTES).asFloatBuffer();
+        }
+
+        IntBuffer ints(int count) {
+            return next(count * Integer.BYTES).asIntBuffer();
+        }
+
+        private ByteBuffer next(int bytes) {
+            ByteBuffer section = mapped.slice(position, bytes).order(ByteOrder.LITTLE_ENDIAN);
+            position += bytes;
+            return section;
+        }
+    }
+
+    private static ByteBuffer buffer(int bytes) {
+        return ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+}
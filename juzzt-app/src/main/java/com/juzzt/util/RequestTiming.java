@@ -0,0 +1,95 @@
+package com.juzzt.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Time spent per kind of work (db, cache, http, ...) during the current request. The timing
+ * filter opens a context on the request thread; code elsewhere brackets its calls with
+ * {@link #begin()} and {@link #end(String, long)}, which cost a ThreadLocal read when no
+ * request is being timed (timing disabled, background jobs, other threads).
+ */
+public final class RequestTiming {
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    public static final class Span {
+        private long nanos;
+        private int count;
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public int count() {
+            return count;
+        }
+    }
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Span> spans = new LinkedHashMap<>();
+
+    private RequestTiming() {
+    }
+
+    public static RequestTiming open() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Start time to pass to {@link #end}, or 0 when nothing is being timed on this thread.
+     */
+    public static long begin() {
+        return CURRENT.get() == null ? 0 : System.nanoTime();
+    }
+
+    public static void end(String span, long begin) {
+        if (begin == 0) return;
+        record(span, System.nanoTime() - begin);
+    }
+
+    public static void record(String span, long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) timing.add(span, nanos);
+    }
+
+    public void add(String span, long nanos) {
+        Span total = spans.computeIfAbsent(span, name -> new Span());
+        total.nanos += nanos;
+        total.count++;
+    }
+
+    public Map<String, Span> spans() {
+        return spans;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Server-Timing header value, e.g. {@code db;dur=12.4;desc="3 calls", total;dur=20.1}.
+     */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+        spans.forEach((name, span) -> {
+            header.append(name).append(";dur=").append(millis(span.nanos));
+            if (span.count > 1) header.append(";desc=\"").append(span.count).append(" calls\"");
+            header.append(", ");
+        });
+        return header.append("total;dur=").append(millis(elapsedNanos())).toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(Math.round(nanos / 100_000.0) / 10.0);
+    }
+}
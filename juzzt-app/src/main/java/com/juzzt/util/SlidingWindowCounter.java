@@ -0,0 +1,91 @@
+package com.juzzt.util;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-key counts over a sliding window made of fixed-size time buckets. Window totals are
+ * adjusted on every add and when a bucket expires, so reading them never rescans the buckets.
+ */
+public class SlidingWindowCounter<K> {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long bucketMillis;
+    private final Map<K, Long>[] buckets;
+    private final long[] bucketStarts;
+    private final Map<K, Long> totals = new HashMap<>();
+    private long currentStart = EMPTY;
+
+    @SuppressWarnings("unchecked")
+    public SlidingWindowCounter(Duration bucket, int bucketCount) {
+        this.bucketMillis = bucket.toMillis();
+        this.buckets = new Map[bucketCount];
+        this.bucketStarts = new long[bucketCount];
+        Arrays.fill(bucketStarts, EMPTY);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new HashMap<>();
+        }
+    }
+
+    public long bucketStart(long timestampMillis) {
+        return Math.floorDiv(timestampMillis, bucketMillis) * bucketMillis;
+    }
+
+    /**
+     * Count an event. Events older than the window (relative to the newest one seen) are ignored.
+     */
+    public synchronized void add(K key, long amount, long timestampMillis) {
+        advance(timestampMillis);
+        long start = bucketStart(timestampMillis);
+        if (start < oldestStart()) return;
+
+        int slot = (int) Math.floorMod(start / bucketMillis, (long) buckets.length);
+        bucketStarts[slot] = start;
+        buckets[slot].merge(key, amount, Long::sum);
+        totals.merge(key, amount, Long::sum);
+    }
+
+    public synchronized long total(K key, long nowMillis) {
+        advance(nowMillis);
+        return totals.getOrDefault(key, 0L);
+    }
+
+    public synchronized Map<K, Long> totals(long nowMillis) {
+        advance(nowMillis);
+        return new HashMap<>(totals);
+    }
+
+    /**
+     * Counts in the single bucket containing the timestamp, empty once it has left the window.
+     */
+    public synchronized Map<K, Long> bucket(long timestampMillis) {
+        long start = bucketStart(timestampMillis);
+        int slot = (int) Math.floorMod(start / bucketMillis, (long) buckets.length);
+        return bucketStarts[slot] == start ? new HashMap<>(buckets[slot]) : Map.of();
+    }
+
+    private long oldestStart() {
+        return currentStart - (buckets.length - 1) * bucketMillis;
+    }
+
+    private void advance(long timestampMillis) {
+        long start = bucketStart(timestampMillis);
+        if (start <= currentStart) return;
+        currentStart = start;
+
+        // Only runs when a new bucket begins, at most once per bucket length
+        long oldest = oldestStart();
+        for (int slot = 0; slot < buckets.length; slot++) {
+            if (bucketStarts[slot] != EMPTY && bucketStarts[slot] < oldest) {
+                for (Map.Entry<K, Long> expired : buckets[slot].entrySet()) {
+                    totals.computeIfPresent(expired.getKey(),
+                            (key, total) -> total.equals(expired.getValue()) ? null : total - expired.getValue());
+                }
+                buckets[slot].clear();
+                bucketStarts[slot] = EMPTY;
+            }
+        }
+    }
+}
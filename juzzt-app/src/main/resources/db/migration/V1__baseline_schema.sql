@@ -0,0 +1,66 @@
+-- Baseline of the schema previously managed by hibernate ddl-auto=update.
+-- Everything is IF NOT EXISTS so the script is a no-op on databases that
+-- were created before migrations were introduced.
+
+CREATE TABLE IF NOT EXISTS users (
+    id       bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email    varchar(255) NOT NULL UNIQUE,
+    name     varchar(255),
+    password varchar(255),
+    role     varchar(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS records (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title          varchar(255),
+    artist         varchar(255),
+    genre          varchar(255),
+    price          float(53),
+    image_url      varchar(255),
+    musicbrainz_id varchar(255)
+);
+
+ALTER TABLE records ADD COLUMN IF NOT EXISTS created_at timestamp(6);
+ALTER TABLE records ADD COLUMN IF NOT EXISTS updated_at timestamp(6);
+ALTER TABLE records ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS record_changes (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    record_id      bigint       NOT NULL,
+    change_type    varchar(16)  NOT NULL,
+    record_version bigint       NOT NULL,
+    changed_at     timestamp(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     bigint NOT NULL REFERENCES users (id),
+    order_date  timestamp(6),
+    total_price float(53)
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id        bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id  bigint NOT NULL REFERENCES orders (id),
+    record_id bigint NOT NULL REFERENCES records (id),
+    quantity  integer,
+    price     float(53)
+);
+
+CREATE TABLE IF NOT EXISTS playlists (
+    id      bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name    varchar(255),
+    user_id bigint REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS playlist_records (
+    playlist_id bigint NOT NULL REFERENCES playlists (id),
+    record_id   bigint NOT NULL REFERENCES records (id)
+);
+
+CREATE TABLE IF NOT EXISTS recommendations (
+    id        bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id   bigint REFERENCES users (id),
+    record_id bigint REFERENCES records (id),
+    score     float(53)
+);
@@ -0,0 +1,20 @@
+-- Catalog listing orders records with a cover first. A stored generated
+-- column turns the old CASE expression into something an index can serve.
+ALTER TABLE records ADD COLUMN IF NOT EXISTS has_image boolean
+    GENERATED ALWAYS AS (image_url IS NOT NULL AND image_url <> '') STORED;
+
+CREATE INDEX IF NOT EXISTS idx_records_has_image_id ON records (has_image DESC, id ASC);
+
+-- Enrichment only ever looks for rows without a MusicBrainz id, which shrink over time
+CREATE INDEX IF NOT EXISTS idx_records_missing_mbid ON records (id) WHERE musicbrainz_id IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_records_genre ON records (genre);
+
+-- Incremental exports filter on updated_at
+CREATE INDEX IF NOT EXISTS idx_records_updated_at ON records (updated_at);
+
+-- Foreign keys are not indexed automatically in Postgres
+CREATE INDEX IF NOT EXISTS idx_orders_user_id ON orders (user_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+
+-- users.email needs nothing extra: its UNIQUE constraint is already backed by a btree index
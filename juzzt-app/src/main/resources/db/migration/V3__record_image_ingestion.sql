@@ -0,0 +1,3 @@
+-- Uploaded covers are processed in the background; image_status tracks where that stands
+ALTER TABLE records ADD COLUMN IF NOT EXISTS image_status varchar(16) NOT NULL DEFAULT 'NONE';
+ALTER TABLE records ADD COLUMN IF NOT EXISTS thumbnail_url varchar(255);
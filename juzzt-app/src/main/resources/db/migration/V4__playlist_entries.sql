@@ -0,0 +1,19 @@
+-- Ordered playlist membership. Positions are sparse (gaps of 1024) so an insert or move
+-- only touches the moved rows; the playlist is renumbered only when a gap runs out.
+CREATE TABLE IF NOT EXISTS playlist_entries (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    playlist_id bigint    NOT NULL REFERENCES playlists (id) ON DELETE CASCADE,
+    record_id   bigint    NOT NULL REFERENCES records (id) ON DELETE CASCADE,
+    position    bigint    NOT NULL,
+    added_at    timestamp NOT NULL DEFAULT now(),
+    -- Deferred so a renumbering UPDATE can pass through transient duplicates
+    CONSTRAINT uq_playlist_entries_position UNIQUE (playlist_id, position) DEFERRABLE INITIALLY DEFERRED
+);
+
+CREATE INDEX IF NOT EXISTS idx_playlist_entries_record_id ON playlist_entries (record_id);
+
+INSERT INTO playlist_entries (playlist_id, record_id, position)
+SELECT playlist_id, record_id, row_number() OVER (PARTITION BY playlist_id ORDER BY ctid) * 1024
+FROM playlist_records;
+
+DROP TABLE IF EXISTS playlist_records;
@@ -0,0 +1,12 @@
+-- Hourly sales per record, upserted from the in-memory aggregates and reloaded on startup
+CREATE TABLE IF NOT EXISTS record_sales_hourly (
+    record_id  bigint    NOT NULL REFERENCES records (id) ON DELETE CASCADE,
+    hour_start timestamp NOT NULL,
+    quantity   bigint    NOT NULL,
+    PRIMARY KEY (record_id, hour_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_record_sales_hourly_hour_start ON record_sales_hourly (hour_start);
+
+-- Startup recounts the most recent orders by date
+CREATE INDEX IF NOT EXISTS idx_orders_order_date ON orders (order_date);
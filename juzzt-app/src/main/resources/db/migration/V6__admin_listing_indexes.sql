@@ -0,0 +1,7 @@
+-- Admin listings filter users by signup date, role and email prefix, newest first
+ALTER TABLE users ADD COLUMN IF NOT EXISTS created_at timestamp NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON users (created_at);
+CREATE INDEX IF NOT EXISTS idx_users_role_id ON users (role, id);
+-- The unique index on email uses the default collation, which LIKE 'prefix%' can't use
+CREATE INDEX IF NOT EXISTS idx_users_email_prefix ON users (lower(email) text_pattern_ops);
@@ -0,0 +1,15 @@
+-- Domain events written in the same transaction as the change, relayed to in-process consumers.
+-- A relay claims pending rows for a lease (SKIP LOCKED, so nodes don't wait on each other) and
+-- sets published_at once every consumer has handled them; expired leases are claimed again.
+CREATE TABLE IF NOT EXISTS event_outbox (
+    id            bigserial   PRIMARY KEY,
+    event_type    varchar(64) NOT NULL,
+    payload       text        NOT NULL,
+    created_at    timestamp   NOT NULL DEFAULT now(),
+    claimed_by    varchar(128),
+    claimed_until timestamp,
+    published_at  timestamp
+);
+
+CREATE INDEX IF NOT EXISTS idx_event_outbox_pending ON event_outbox (id) WHERE published_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_event_outbox_published_at ON event_outbox (published_at) WHERE published_at IS NOT NULL;
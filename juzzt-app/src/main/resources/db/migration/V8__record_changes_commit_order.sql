@@ -0,0 +1,17 @@
+-- Change log ids are consumer cursors, so they must become visible in id order. Identity values are
+-- handed out at insert time, which lets a transaction holding id N+1 commit after one holding N+2,
+-- and a consumer that already read N+2 would never see N+1. Writers take a transaction-scoped
+-- advisory lock before drawing the id, so the next id is only handed out after the previous writer
+-- has committed or rolled back. Only the tail of record writes (change row to commit) is serialized.
+CREATE OR REPLACE FUNCTION record_changes_assign_id() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('record_changes'));
+    NEW.id := nextval(pg_get_serial_sequence('record_changes', 'id'));
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS record_changes_commit_order ON record_changes;
+CREATE TRIGGER record_changes_commit_order
+    BEFORE INSERT ON record_changes
+    FOR EACH ROW EXECUTE FUNCTION record_changes_assign_id();
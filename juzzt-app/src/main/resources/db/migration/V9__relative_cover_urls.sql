@@ -0,0 +1,4 @@
+-- Proxied Cover Art Archive covers used to be stored with the writing host's base URL; keep only the path
+UPDATE records
+SET image_url = substring(image_url FROM position('/api/covers/' IN image_url))
+WHERE image_url LIKE 'http%/api/covers/%';
@@ -0,0 +1,111 @@
+package com.juzzt.config;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two embedded Postgres instances on the same machine stand in for primary and replica.
+ */
+class ReadWriteRoutingDataSourceTest {
+    private static EmbeddedPostgres primary;
+    private static EmbeddedPostgres replica;
+    private static DataSourceTransactionManager transactionManager;
+    private static JdbcTemplate jdbc;
+    private static final AtomicBoolean replicaUsable = new AtomicBoolean(true);
+
+    @BeforeAll
+    static void start() throws Exception {
+        primary = EmbeddedPostgres.start();
+        replica = EmbeddedPostgres.start();
+        label(primary.getPostgresDatabase(), "primary");
+        label(replica.getPostgresDatabase(), "replica");
+
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+                primary.getPostgresDatabase(), replica.getPostgresDatabase(), replicaUsable::get));
+        transactionManager = new DataSourceTransactionManager(routing);
+        jdbc = new JdbcTemplate(routing);
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        primary.close();
+        replica.close();
+    }
+
+    @AfterEach
+    void reset() {
+        replicaUsable.set(true);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertEquals("replica", whoAmI(true));
+    }
+
+    @Test
+    void readWriteTransactionsGoToPrimary() {
+        assertEquals("primary", whoAmI(false));
+    }
+
+    @Test
+    void forcedPrimaryWinsInsideReadOnlyTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        String server = tx.execute(status -> ReadWriteRoutingDataSource.onPrimary(
+                () -> jdbc.queryForObject("SELECT name FROM whoami", String.class)));
+        assertEquals("primary", server);
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        replicaUsable.set(false);
+        assertEquals("primary", whoAmI(true));
+    }
+
+    @Test
+    void primaryReadSeesWriteTheReplicaHasNotReplayed() {
+        // The two instances don't replicate, so the replica lags behind every write made in the test
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> jdbc.update("UPDATE records SET title = 'after' WHERE id = 1"));
+
+        assertEquals("before", readTitle(false));
+        // What read-your-writes reads (a user's own orders right after placing one) do
+        assertEquals("after", readTitle(true));
+    }
+
+    private static String readTitle(boolean forcePrimary) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> {
+            if (!forcePrimary) return jdbc.queryForObject("SELECT title FROM records WHERE id = 1", String.class);
+            return ReadWriteRoutingDataSource.onPrimary(
+                    () -> jdbc.queryForObject("SELECT title FROM records WHERE id = 1", String.class));
+        });
+    }
+
+    private static String whoAmI(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> jdbc.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private static void label(DataSource dataSource, String name) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE whoami (name text)");
+        template.update("INSERT INTO whoami VALUES (?)", name);
+        template.execute("CREATE TABLE records (id bigint PRIMARY KEY, title text)");
+        template.update("INSERT INTO records VALUES (1, 'before')");
+    }
+}
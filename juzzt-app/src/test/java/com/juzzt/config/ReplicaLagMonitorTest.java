@@ -0,0 +1,81 @@
+package com.juzzt.config;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Refreshes after a write run once the replica has it. A standalone embedded Postgres is never in recovery,
+ * so it reports no lag, like a replica that has caught up.
+ */
+class ReplicaLagMonitorTest {
+    private static EmbeddedPostgres replica;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeAll
+    static void start() throws Exception {
+        replica = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        replica.close();
+    }
+
+    @Test
+    void refreshRunsOnceTheReplicaHasCaughtUp() {
+        ReplicaLagMonitor monitor = monitor(replica.getPostgresDatabase(), true, 60_000);
+        monitor.afterReplicaCatchesUp("records", runs::incrementAndGet);
+        monitor.afterReplicaCatchesUp("records", runs::incrementAndGet);
+
+        monitor.probeLag();
+        assertEquals(1, runs.get()); // Both writes covered by one run
+
+        monitor.probeLag();
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void unreachableReplicaWaitsOutTheReadYourWritesWindow() throws Exception {
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("replica down"));
+        ReplicaLagMonitor monitor = monitor(down, true, 200);
+        monitor.afterReplicaCatchesUp("records", runs::incrementAndGet);
+
+        monitor.probeLag();
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(0, runs.get());
+
+        Thread.sleep(250);
+        monitor.probeLag();
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void nothingToRefreshWithoutAReplica() {
+        ReplicaLagMonitor monitor = monitor(replica.getPostgresDatabase(), false, 0);
+        monitor.afterReplicaCatchesUp("records", runs::incrementAndGet);
+
+        monitor.probeLag();
+        assertEquals(0, runs.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ReplicaLagMonitor monitor(DataSource dataSource, boolean enabled, long readYourWritesMs) {
+        ObjectProvider<DataSource> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(dataSource);
+        return new ReplicaLagMonitor(provider, enabled, 10_000, readYourWritesMs);
+    }
+}
@@ -0,0 +1,107 @@
+package com.juzzt.config;
+
+import com.juzzt.util.RequestTiming;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The filter and the body advice both can set Server-Timing; exactly one of them must, whatever the response looks like.
+ */
+class RequestTimingFilterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestTimingFilter filter = new RequestTimingFilter(meterRegistry, true);
+    private final ServerTimingAdvice advice = new ServerTimingAdvice();
+
+    @Test
+    void bodyResponsesGetTheHeaderFromTheAdviceOnce() throws Exception {
+        MockHttpServletResponse response = run((request, servletResponse) -> {
+            RequestTiming.record("db", 2_000_000);
+            writeBody(request, servletResponse, "[]");
+        });
+
+        assertEquals(1, response.getHeaders(RequestTimingFilter.SERVER_TIMING).size());
+        assertTrue(response.getHeader(RequestTimingFilter.SERVER_TIMING).startsWith("db;dur=2.0, total;dur="));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void responsesWithoutABodyGetTheHeaderFromTheFilter() throws Exception {
+        MockHttpServletResponse response = run((request, servletResponse) -> {
+            RequestTiming.record("cache", 1_000_000);
+            ((HttpServletResponse) servletResponse).setStatus(HttpServletResponse.SC_NO_CONTENT);
+        });
+
+        assertEquals(1, response.getHeaders(RequestTimingFilter.SERVER_TIMING).size());
+        assertTrue(response.getHeader(RequestTimingFilter.SERVER_TIMING).startsWith("cache;dur=1.0, total;dur="));
+    }
+
+    @Test
+    void committedResponsesAreLeftAlone() throws Exception {
+        MockHttpServletResponse response = run((request, servletResponse) -> {
+            servletResponse.getOutputStream().write("streamed".getBytes(StandardCharsets.UTF_8));
+            servletResponse.flushBuffer();
+        });
+
+        assertNull(response.getHeader(RequestTimingFilter.SERVER_TIMING));
+    }
+
+    @Test
+    void disabledHeaderStillRecordsSpansAndClosesTheContext() throws Exception {
+        RequestTimingFilter quiet = new RequestTimingFilter(meterRegistry, false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/records/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/records/{id}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        quiet.doFilter(request, response, (req, res) -> RequestTiming.record("db", 3_000_000));
+
+        assertNull(response.getHeader(RequestTimingFilter.SERVER_TIMING));
+        assertNull(RequestTiming.current());
+        assertEquals(1, meterRegistry.get("juzzt.request.span")
+                .tag("uri", "/api/records/{id}").tag("method", "GET").tag("span", "db").timer().count());
+        assertEquals(1, meterRegistry.get("juzzt.request.span").tag("span", "total").timer().count());
+    }
+
+    @Test
+    void contextIsClosedWhenTheChainThrows() {
+        assertThrows(IllegalStateException.class, () -> run((request, response) -> {
+            throw new IllegalStateException("handler failed");
+        }));
+
+        assertNull(RequestTiming.current());
+        assertEquals(1, meterRegistry.get("juzzt.request.span").tag("uri", "UNMATCHED").tag("span", "total").timer().count());
+    }
+
+    private MockHttpServletResponse run(FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/records"), response, chain);
+        return response;
+    }
+
+    // What a message converter does after the advice: headers go out with the first body bytes
+    private void writeBody(ServletRequest request, ServletResponse response, String body) throws IOException {
+        ServletServerHttpResponse output = new ServletServerHttpResponse((HttpServletResponse) response);
+        advice.beforeBodyWrite(body, null, MediaType.APPLICATION_JSON, null,
+                new ServletServerHttpRequest((HttpServletRequest) request), output);
+        output.getBody().write(body.getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+}
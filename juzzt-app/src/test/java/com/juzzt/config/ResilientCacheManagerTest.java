@@ -0,0 +1,212 @@
+package com.juzzt.config;
+
+import com.juzzt.util.CircuitBreaker.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A map-backed cache that can be paused stands in for Redis: while paused every call fails
+ * the way Lettuce does when the server is down or the command times out.
+ */
+class ResilientCacheManagerTest {
+    private static final Duration OPEN = Duration.ofMillis(100);
+
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final AtomicInteger remoteCalls = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PausableCache remote;
+    private ResilientCacheManager cacheManager;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = new PausableCache("records");
+        SimpleCacheManager delegate = new SimpleCacheManager();
+        delegate.setCaches(List.of(remote));
+        delegate.afterPropertiesSet();
+        cacheManager = new ResilientCacheManager(delegate, meterRegistry, 3, OPEN, 100, Duration.ofMinutes(1));
+        cache = cacheManager.getCache("records");
+    }
+
+    @Test
+    void servesLocalCopyWhileRedisIsDown() {
+        cache.put(1L, "record 1");
+        paused.set(true);
+
+        assertEquals("record 1", cache.get(1L, String.class));
+        assertNull(cache.get(2L));
+        assertEquals(2, (int) meterRegistry.get("juzzt.cache.fallback.requests").counter().count());
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresAndStopsCallingRedis() {
+        paused.set(true);
+        for (int i = 0; i < 3; i++) cache.get(1L);
+        assertEquals(State.OPEN, cacheManager.circuitState());
+
+        int callsWhenOpened = remoteCalls.get();
+        for (int i = 0; i < 100; i++) cache.get(1L);
+        assertEquals(callsWhenOpened, remoteCalls.get());
+    }
+
+    @Test
+    void recoversAndReplaysEvictionsMissedDuringTheOutage() throws InterruptedException {
+        cache.put(1L, "old");
+        paused.set(true);
+        for (int i = 0; i < 3; i++) cache.get(2L);
+        cache.evict(1L); // Redis never sees this one
+        assertNull(cache.get(1L));
+
+        paused.set(false);
+        Thread.sleep(OPEN.toMillis() + 50);
+
+        assertNull(cache.get(1L)); // Probe replays the eviction before reading
+        assertEquals(State.CLOSED, cacheManager.circuitState());
+        assertNull(remote.get(1L));
+        assertEquals(1, meterRegistry.get("juzzt.cache.fallback.time").timer().count());
+    }
+
+    @Test
+    void evictionMissedWhileClosedIsReplayedByTheNextCall() {
+        cache.put(1L, "old");
+        paused.set(true);
+        cache.evict(1L); // One failure, the circuit stays closed
+        assertEquals(State.CLOSED, cacheManager.circuitState());
+
+        cache.get(2L); // Replay fails too, served locally
+        paused.set(false);
+
+        assertNull(cache.get(1L)); // Not the stale Redis entry
+        assertNull(remote.get(1L));
+    }
+
+    @Test
+    void missedClearAndLaterEvictionsAreAllReplayed() {
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        paused.set(true);
+        cache.evict(1L);
+        cache.clear();
+        paused.set(false);
+
+        assertNull(cache.get(2L));
+        assertNull(remote.get(1L));
+        // Replayed once: a later write isn't cleared again
+        remote.put(3L, "written by another node after the outage");
+        assertEquals("written by another node after the outage", cache.get(3L, String.class));
+    }
+
+    @Test
+    void failedProbeKeepsTheCircuitOpen() throws InterruptedException {
+        paused.set(true);
+        for (int i = 0; i < 3; i++) cache.get(1L);
+        Thread.sleep(OPEN.toMillis() + 50);
+
+        cache.put(1L, "written locally");
+        assertEquals(State.OPEN, cacheManager.circuitState());
+        assertEquals("written locally", cache.get(1L, String.class));
+    }
+
+    @Test
+    void bulkReadsFallBackToLocalCopiesAndShareTheBreaker() {
+        AtomicInteger bulkCalls = new AtomicInteger();
+        cacheManager.putAll("records", Map.of(1L, "record 1"), entries -> bulkCalls.incrementAndGet());
+        cache.put(2L, null);
+        paused.set(true);
+
+        for (int i = 0; i < 3; i++) {
+            Map<Long, Cache.ValueWrapper> found = cacheManager.getAll("records", List.of(1L, 2L, 3L), keys -> {
+                bulkCalls.incrementAndGet();
+                throw new RedisConnectionFailureException("Redis paused");
+            });
+            assertEquals("record 1", found.get(1L).get());
+            assertNull(found.get(2L).get()); // Cached "not found"
+            assertFalse(found.containsKey(3L));
+        }
+        assertEquals(State.OPEN, cacheManager.circuitState());
+
+        int callsWhenOpened = bulkCalls.get();
+        cacheManager.getAll("records", List.of(1L), keys -> {
+            bulkCalls.incrementAndGet();
+            return List.of();
+        });
+        assertEquals(callsWhenOpened, bulkCalls.get());
+    }
+
+    @Test
+    void bulkReadsKeepWhatRedisReturned() {
+        List<Object> stored = Arrays.asList("record 1", NullValue.INSTANCE, null);
+
+        Map<Long, Cache.ValueWrapper> found = cacheManager.getAll("records", List.of(1L, 2L, 3L), keys -> stored);
+        assertEquals("record 1", found.get(1L).get());
+        assertNull(found.get(2L).get());
+        assertFalse(found.containsKey(3L));
+
+        paused.set(true);
+        assertEquals("record 1", cache.get(1L, String.class)); // Local copy from the bulk read
+    }
+
+    @Test
+    void shortBulkReplyIsAMissNotAnOutage() {
+        for (int i = 0; i < 5; i++) {
+            Map<Long, Cache.ValueWrapper> found = cacheManager.getAll("records", List.of(1L, 2L, 3L),
+                    keys -> List.of("record 1"));
+            assertEquals(Map.of(), found);
+        }
+
+        assertEquals(State.CLOSED, cacheManager.circuitState());
+        assertEquals(0, (int) meterRegistry.get("juzzt.cache.fallback.requests").counter().count());
+    }
+
+    private class PausableCache extends ConcurrentMapCache {
+        PausableCache(String name) {
+            super(name);
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            call();
+            return super.get(key);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            call();
+            super.put(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            call();
+            super.evict(key);
+        }
+
+        @Override
+        public void clear() {
+            call();
+            super.clear();
+        }
+
+        private void call() {
+            remoteCalls.incrementAndGet();
+            if (paused.get()) throw new RedisConnectionFailureException("Redis paused");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.juzzt.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Side-by-side load of the servlet and reactive catalog reads against a running instance
+ * started with juzzt.reactive.enabled=true. Run with:
+ *   mvn test -Pload-test -Djuzzt.loadtest.base-url=http://localhost:8080
+ */
+@Tag("load")
+class CatalogPathLoadTest {
+    private static final String BASE_URL = System.getProperty("juzzt.loadtest.base-url", "http://localhost:8080");
+    private static final int CONCURRENCY = Integer.getInteger("juzzt.loadtest.concurrency", 200);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("juzzt.loadtest.seconds", 30));
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void servletVersusReactiveCatalog() throws Exception {
+        Result servlet = run("/api/records");
+        Result reactive = run("/api/reactive/records");
+
+        System.out.println("servlet  " + servlet);
+        System.out.println("reactive " + reactive);
+
+        assertEquals(0, servlet.errors);
+        assertEquals(0, reactive.errors);
+    }
+
+    @Test
+    void servletVersusReactiveRecordById() throws Exception {
+        Result servlet = run("/api/records/1");
+        Result reactive = run("/api/reactive/records/1");
+
+        System.out.println("servlet  " + servlet);
+        System.out.println("reactive " + reactive);
+
+        assertEquals(0, servlet.errors);
+        assertEquals(0, reactive.errors);
+    }
+
+    private Result run(String path) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + path)).GET().build();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+
+        // Closed model: CONCURRENCY clients each firing requests back to back until the deadline
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) errors.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+        return new Result(path, latencies, errors.get(), DURATION);
+    }
+
+    private record Result(String path, List<Long> latenciesNanos, int errors, Duration duration) {
+        long percentileMicros(double p) {
+            List<Long> sorted = new ArrayList<>(latenciesNanos);
+            Collections.sort(sorted);
+            if (sorted.isEmpty()) return 0;
+            int index = (int) Math.min(sorted.size() - 1, Math.ceil(p / 100.0 * sorted.size()) - 1);
+            return sorted.get(Math.max(0, index)) / 1000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %8.0f req/s  p50=%dus p95=%dus p99=%dus errors=%d",
+                    path, latenciesNanos.size() / (double) duration.toSeconds(),
+                    percentileMicros(50), percentileMicros(95), percentileMicros(99), errors);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.juzzt.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load generator: requests arrive at a fixed target rate whether or not earlier ones
+ * have finished, and latency is measured from the scheduled arrival time, so a stalled server shows
+ * up as queueing delay instead of silently lowering the offered load (coordinated omission).
+ */
+class LoadDriver {
+    /** One request to send, labelled with the endpoint template it is reported under. */
+    record Call(String endpoint, HttpRequest request) {}
+
+    /** A slice of the traffic mix: picked with probability weight / total weight. */
+    record Scenario(String name, int weight, Supplier<Call> next) {}
+
+    private final HttpClient client;
+    private final List<Scenario> scenarios;
+    private final int totalWeight;
+    private final int maxInFlight;
+
+    LoadDriver(HttpClient client, List<Scenario> scenarios, int maxInFlight) {
+        this.client = client;
+        this.scenarios = scenarios.stream().filter(scenario -> scenario.weight() > 0).toList();
+        this.totalWeight = this.scenarios.stream().mapToInt(Scenario::weight).sum();
+        this.maxInFlight = maxInFlight;
+        if (totalWeight == 0) throw new IllegalArgumentException("Traffic mix has no scenarios");
+    }
+
+    Report run(double requestsPerSecond, Duration duration) throws InterruptedException {
+        Map<String, Stats> stats = new ConcurrentHashMap<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicLong dropped = new AtomicLong();
+        long interval = (long) (1_000_000_000L / requestsPerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long arrival = start; arrival < end; arrival += interval) {
+                long wait = arrival - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+
+                Call call = pick().next().get();
+                Stats endpoint = stats.computeIfAbsent(call.endpoint(), key -> new Stats());
+                if (!inFlight.tryAcquire()) {
+                    // The client itself is saturated; count it rather than block and skew the schedule
+                    dropped.incrementAndGet();
+                    endpoint.error();
+                    continue;
+                }
+                long scheduled = arrival;
+                senders.submit(() -> {
+                    try {
+                        HttpResponse<Void> response = client.send(call.request(), HttpResponse.BodyHandlers.discarding());
+                        endpoint.record(System.nanoTime() - scheduled, response.statusCode() < 400);
+                    } catch (Exception e) {
+                        endpoint.record(System.nanoTime() - scheduled, false);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return new Report(requestsPerSecond, Duration.ofNanos(System.nanoTime() - start), new TreeMap<>(stats),
+                dropped.get());
+    }
+
+    private Scenario pick() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            roll -= scenario.weight();
+            if (roll < 0) return scenario;
+        }
+        return scenarios.getLast();
+    }
+
+    /** Latencies (nanos) and error count for one endpoint. */
+    static final class Stats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+            if (!ok) errors++;
+        }
+
+        synchronized void error() {
+            errors++;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+    }
+
+    record Report(double targetRate, Duration elapsed, Map<String, Stats> endpoints, long dropped) {
+        long requests() {
+            return endpoints.values().stream().mapToLong(stats -> stats.sorted().length).sum();
+        }
+
+        long errors() {
+            return endpoints.values().stream().mapToLong(Stats::errors).sum();
+        }
+
+        @Override
+        public String toString() {
+            List<String> lines = new ArrayList<>();
+            lines.add(String.format("target %.0f req/s for %ds, dropped by client: %d", targetRate,
+                    elapsed.toSeconds(), dropped));
+            lines.add(String.format("%-36s %8s %9s %8s %8s %8s %8s %8s %7s", "endpoint", "count", "req/s",
+                    "p50ms", "p90ms", "p99ms", "p99.9ms", "maxms", "errors"));
+            long[] all = new long[0];
+            for (Map.Entry<String, Stats> entry : endpoints.entrySet()) {
+                long[] sorted = entry.getValue().sorted();
+                lines.add(row(entry.getKey(), sorted, entry.getValue().errors()));
+                all = concat(all, sorted);
+            }
+            Arrays.sort(all);
+            lines.add(row("TOTAL", all, errors()));
+            return String.join(System.lineSeparator(), lines);
+        }
+
+        private String row(String endpoint, long[] sorted, long errors) {
+            return String.format("%-36s %8d %9.1f %8.1f %8.1f %8.1f %8.1f %8.1f %7d", endpoint, sorted.length,
+                    sorted.length / (elapsed.toNanos() / 1e9), millis(sorted, 50), millis(sorted, 90),
+                    millis(sorted, 99), millis(sorted, 99.9), millis(sorted, 100), errors);
+        }
+
+        private static double millis(long[] sorted, double percentile) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100.0 * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+
+        private static long[] concat(long[] a, long[] b) {
+            long[] joined = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, joined, a.length, b.length);
+            return joined;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.juzzt.load;
+
+import com.juzzt.JuzztApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Boots the app against local stand-ins for everything it talks to: an embedded Postgres, an
+ * embedded Redis and stub MusicBrainz, Cover Art Archive and Cloudinary servers. The catalog is
+ * seeded from records.json by DataSeeder. Stub latency is set with juzzt.loadtest.stub-latency-ms
+ * and juzzt.loadtest.stub-jitter-ms; any other -Dspring.* or -Djuzzt.* property reaches the app as usual.
+ */
+class LoadTestEnvironment implements AutoCloseable {
+    private final EmbeddedPostgres postgres;
+    private final RedisServer redis;
+    private final StubHttpServer musicBrainz;
+    private final StubHttpServer coverArt;
+    private final StubHttpServer cloudinary;
+    private final ConfigurableApplicationContext app;
+
+    private LoadTestEnvironment(EmbeddedPostgres postgres, RedisServer redis, StubHttpServer musicBrainz,
+                                StubHttpServer coverArt, StubHttpServer cloudinary, ConfigurableApplicationContext app) {
+        this.postgres = postgres;
+        this.redis = redis;
+        this.musicBrainz = musicBrainz;
+        this.coverArt = coverArt;
+        this.cloudinary = cloudinary;
+        this.app = app;
+    }
+
+    static LoadTestEnvironment start() throws Exception {
+        Duration latency = Duration.ofMillis(Long.getLong("juzzt.loadtest.stub-latency-ms", 80));
+        Duration jitter = Duration.ofMillis(Long.getLong("juzzt.loadtest.stub-jitter-ms", 40));
+
+        EmbeddedPostgres postgres = EmbeddedPostgres.start();
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+        StubHttpServer musicBrainz = StubHttpServer.musicBrainz(latency, jitter);
+        StubHttpServer coverArt = StubHttpServer.coverArt(latency, jitter);
+        StubHttpServer cloudinary = StubHttpServer.cloudinary(latency, jitter);
+
+        Path work = Files.createTempDirectory("juzzt-load");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.data.redis.host", "127.0.0.1");
+        properties.put("spring.data.redis.port", redisPort);
+        properties.put("juzzt.musicbrainz.base-url", musicBrainz.baseUrl());
+        properties.put("juzzt.coverart.base-url", coverArt.baseUrl());
+        properties.put("juzzt.cloudinary.upload-prefix", cloudinary.baseUrl());
+        properties.put("data.seeder.enabled", true);
+        properties.put("juzzt.covers.dir", work.resolve("covers").toString());
+        properties.put("juzzt.images.staging-dir", work.resolve("staging").toString());
+        properties.put("juzzt.recommendations.model-file", work.resolve("recommendations.model").toString());
+        properties.put("juzzt.profiling.dir", work.resolve("jfr").toString());
+        // Every virtual user comes from one address; keep per-client budgets out of the measurement unless asked for
+        properties.put("juzzt.rate-limit.enabled", Boolean.getBoolean("juzzt.loadtest.rate-limit"));
+
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(JuzztApplication.class)
+                .properties(properties)
+                .run();
+        return new LoadTestEnvironment(postgres, redis, musicBrainz, coverArt, cloudinary, app);
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+    }
+
+    EmbeddedPostgres postgres() {
+        return postgres;
+    }
+
+    @Override
+    public void close() throws Exception {
+        app.close();
+        cloudinary.close();
+        coverArt.close();
+        musicBrainz.close();
+        redis.stop();
+        postgres.close();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
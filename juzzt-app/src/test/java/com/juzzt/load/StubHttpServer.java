@@ -0,0 +1,134 @@
+package com.juzzt.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for an external HTTP API. Every response is delayed by a base latency plus
+ * uniform jitter so the app's HTTP clients, timeouts and thread pools see realistic waits.
+ */
+class StubHttpServer implements AutoCloseable {
+    interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private final HttpServer server;
+    private final Duration latency;
+    private final Duration jitter;
+
+    private StubHttpServer(Duration latency, Duration jitter) throws IOException {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * /ws/2/release-group search: always finds one release group, with an id derived from the query.
+     */
+    static StubHttpServer musicBrainz(Duration latency, Duration jitter) throws IOException {
+        StubHttpServer stub = new StubHttpServer(latency, jitter);
+        stub.route("/ws/2/release-group", exchange -> {
+            String query = String.valueOf(exchange.getRequestURI().getQuery());
+            String id = UUID.nameUUIDFromBytes(query.getBytes(StandardCharsets.UTF_8)).toString();
+            respond(exchange, 200, "application/json", "{\"release-groups\":[{\"id\":\"" + id + "\"}]}");
+        });
+        return stub.start();
+    }
+
+    /**
+     * /release-group/{mbid}/front: the same small JPEG for every release group.
+     */
+    static StubHttpServer coverArt(Duration latency, Duration jitter) throws IOException {
+        byte[] cover = jpeg(600);
+        StubHttpServer stub = new StubHttpServer(latency, jitter);
+        stub.route("/release-group/", exchange -> respond(exchange, 200, "image/jpeg", cover));
+        return stub.start();
+    }
+
+    /**
+     * /v1_1/{cloud}/image/upload: accepts the upload and answers with a made-up delivery URL.
+     */
+    static StubHttpServer cloudinary(Duration latency, Duration jitter) throws IOException {
+        StubHttpServer stub = new StubHttpServer(latency, jitter);
+        stub.route("/v1_1/", exchange -> {
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            String publicId = UUID.randomUUID().toString();
+            respond(exchange, 200, "application/json", "{\"public_id\":\"" + publicId
+                    + "\",\"secure_url\":\"https://res.cloudinary.test/" + publicId + ".jpg\"}");
+        });
+        return stub.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void route(String path, Handler handler) {
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                delay();
+                handler.handle(exchange);
+            }
+        });
+    }
+
+    private StubHttpServer start() {
+        server.start();
+        return this;
+    }
+
+    private void delay() {
+        long nanos = latency.toNanos();
+        if (!jitter.isZero()) nanos += ThreadLocalRandom.current().nextLong(jitter.toNanos());
+        if (nanos <= 0) return;
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        respond(exchange, status, contentType, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        boolean head = exchange.getRequestMethod().equals("HEAD");
+        exchange.sendResponseHeaders(status, head ? -1 : body.length);
+        if (!head) exchange.getResponseBody().write(body);
+    }
+
+    private static byte[] jpeg(int size) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) image.setRGB(x, y, (x * 255 / size) << 16 | (y * 255 / size) << 8);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
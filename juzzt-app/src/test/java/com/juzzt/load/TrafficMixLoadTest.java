@@ -0,0 +1,192 @@
+package com.juzzt.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the app on local stand-ins (see LoadTestEnvironment) and drives a weighted mix of browse,
+ * login, recommendation and checkout traffic at a fixed arrival rate. Run with:
+ *   mvn test -Pload-test -Dtest=TrafficMixLoadTest -Djuzzt.loadtest.rate=300 -Djuzzt.loadtest.seconds=120
+ *   -Djuzzt.loadtest.mix=browse=70,login=5,recommend=15,checkout=10
+ */
+@Tag("load")
+class TrafficMixLoadTest {
+    private static final double RATE = Double.parseDouble(System.getProperty("juzzt.loadtest.rate", "200"));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("juzzt.loadtest.warmup-seconds", 15));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("juzzt.loadtest.seconds", 60));
+    private static final int USERS = Integer.getInteger("juzzt.loadtest.users", 50);
+    private static final String MIX = System.getProperty("juzzt.loadtest.mix", "browse=70,login=5,recommend=15,checkout=10");
+    private static final double MAX_ERROR_RATE = 0.01;
+    private static final String PASSWORD = "load-test-password";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private static LoadTestEnvironment environment;
+    private static String baseUrl;
+    private static final List<VirtualUser> users = new ArrayList<>();
+    private static final List<Long> recordIds = new ArrayList<>();
+    private static final List<String> genres = new ArrayList<>();
+
+    private record VirtualUser(long id, String email, String token) {}
+
+    @BeforeAll
+    static void startEnvironment() throws Exception {
+        environment = LoadTestEnvironment.start();
+        baseUrl = environment.baseUrl();
+
+        JsonNode catalog = objectMapper.readTree(send(get("/api/records").build()));
+        catalog.forEach(record -> recordIds.add(record.get("id").asLong()));
+        catalog.findValuesAsText("genre").stream().distinct().forEach(genres::add);
+        assertTrue(!recordIds.isEmpty(), "Catalog was not seeded");
+
+        for (int i = 0; i < USERS; i++) {
+            String email = "load-" + i + "@juzzt.test";
+            send(post("/api/auth/register", Map.of("email", email, "name", "Load " + i, "password", PASSWORD)).build());
+            String token = objectMapper.readTree(send(login(email).build())).get("token").asText();
+            users.add(new VirtualUser(userId(email), email, token));
+        }
+    }
+
+    @AfterAll
+    static void stopEnvironment() throws Exception {
+        if (environment != null) environment.close();
+    }
+
+    @Test
+    void trafficMix() throws Exception {
+        LoadDriver driver = new LoadDriver(client, scenarios(), Integer.getInteger("juzzt.loadtest.max-in-flight", 10_000));
+
+        System.out.println("warm-up: " + driver.run(RATE, WARMUP).requests() + " requests");
+        LoadDriver.Report report = driver.run(RATE, DURATION);
+        System.out.println(report);
+
+        assertEquals(0, report.dropped(), "Load generator could not keep up with the target rate");
+        assertTrue(report.errors() <= report.requests() * MAX_ERROR_RATE,
+                "Error rate above " + MAX_ERROR_RATE + ": " + report.errors() + " of " + report.requests());
+    }
+
+    private static List<LoadDriver.Scenario> scenarios() {
+        Map<String, Integer> weights = parseMix(MIX);
+        return List.of(
+                new LoadDriver.Scenario("browse", weights.getOrDefault("browse", 0), TrafficMixLoadTest::browse),
+                new LoadDriver.Scenario("login", weights.getOrDefault("login", 0), () -> {
+                    VirtualUser user = randomUser();
+                    return new LoadDriver.Call("POST /api/auth/login", login(user.email()).build());
+                }),
+                new LoadDriver.Scenario("recommend", weights.getOrDefault("recommend", 0), () -> {
+                    VirtualUser user = randomUser();
+                    return new LoadDriver.Call("GET /api/recommendations/{userId}",
+                            authorized(get("/api/recommendations/" + user.id()), user).build());
+                }),
+                new LoadDriver.Scenario("checkout", weights.getOrDefault("checkout", 0), () -> {
+                    VirtualUser user = randomUser();
+                    List<Long> basket = randomRecords(1 + ThreadLocalRandom.current().nextInt(3));
+                    return new LoadDriver.Call("POST /api/orders/place/{userId}",
+                            authorized(post("/api/orders/place/" + user.id(), basket), user).build());
+                }));
+    }
+
+    /** Catalog reads as the storefront issues them: listings, product pages, facet filters and batch lookups. */
+    private static LoadDriver.Call browse() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        if (roll < 25) {
+            return new LoadDriver.Call("GET /api/records", get("/api/records").build());
+        } else if (roll < 70) {
+            return new LoadDriver.Call("GET /api/records/{id}", get("/api/records/" + randomRecords(1).getFirst()).build());
+        } else if (roll < 90) {
+            String genre = URLEncoder.encode(genres.get(random.nextInt(genres.size())), StandardCharsets.UTF_8);
+            return new LoadDriver.Call("GET /api/records/facets", get("/api/records/facets?genre=" + genre).build());
+        }
+        String ids = randomRecords(20).stream().map(String::valueOf).collect(Collectors.joining(","));
+        return new LoadDriver.Call("GET /api/records/batch", get("/api/records/batch?ids=" + ids).build());
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split("=");
+            weights.put(entry[0], Integer.parseInt(entry[1]));
+        }
+        return weights;
+    }
+
+    private static VirtualUser randomUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    private static List<Long> randomRecords(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> picked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) picked.add(recordIds.get(random.nextInt(recordIds.size())));
+        return picked;
+    }
+
+    private static HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private static HttpRequest.Builder post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        } catch (Exception e) {
+            throw new RuntimeException("Cannot serialize request body", e);
+        }
+    }
+
+    private static HttpRequest.Builder login(String email) {
+        return post("/api/auth/login", Map.of("email", email, "password", PASSWORD));
+    }
+
+    private static HttpRequest.Builder authorized(HttpRequest.Builder request, VirtualUser user) {
+        return request.header("Authorization", "Bearer " + user.token());
+    }
+
+    private static String send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static long userId(String email) throws Exception {
+        try (Connection connection = environment.postgres().getPostgresDatabase().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT id FROM users WHERE email = ?")) {
+            statement.setString(1, email);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.juzzt.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The renumbering statement behind PlaylistEntryRepository.renumber, run as written against Postgres.
+ */
+class PlaylistEntryRenumberTest {
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO records (title) SELECT 'record ' || n FROM generate_series(1, 10) n");
+        }
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        postgres.close();
+    }
+
+    @Test
+    void respreadsEntriesInTheirCurrentOrder() throws Exception {
+        long playlist = playlist();
+        // Inserted out of order, with one row already sitting on a position the renumbering hands to another
+        insertEntry(playlist, 3, 1024);
+        insertEntry(playlist, 1, 1);
+        insertEntry(playlist, 4, 2048);
+        insertEntry(playlist, 2, 2);
+
+        assertEquals(4, renumber(playlist, 1024));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), recordOrder(playlist));
+        assertEquals(List.of(1024L, 2048L, 3072L, 4096L), positions(playlist));
+    }
+
+    @Test
+    void widerGapForLargeInsertsKeepsOrder() throws Exception {
+        long playlist = playlist();
+        insertEntry(playlist, 5, 10);
+        insertEntry(playlist, 6, 11);
+        insertEntry(playlist, 7, 12);
+
+        renumber(playlist, 5001);
+
+        assertEquals(List.of(5L, 6L, 7L), recordOrder(playlist));
+        assertEquals(List.of(5001L, 10002L, 15003L), positions(playlist));
+    }
+
+    @Test
+    void leavesOtherPlaylistsAlone() throws Exception {
+        long renumbered = playlist();
+        long other = playlist();
+        insertEntry(renumbered, 1, 1);
+        insertEntry(other, 8, 1);
+        insertEntry(other, 9, 2);
+
+        renumber(renumbered, 1024);
+
+        assertEquals(List.of(1L, 2L), positions(other));
+        assertEquals(List.of(1024L), positions(renumbered));
+    }
+
+    private static long playlist() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO playlists (name) VALUES ('mix') RETURNING id")) {
+            try (ResultSet rows = insert.executeQuery()) {
+                rows.next();
+                return rows.getLong(1);
+            }
+        }
+    }
+
+    private static void insertEntry(long playlist, long record, long position) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO playlist_entries (playlist_id, record_id, position) VALUES (?, ?, ?)")) {
+            insert.setLong(1, playlist);
+            insert.setLong(2, record);
+            insert.setLong(3, position);
+            insert.executeUpdate();
+        }
+    }
+
+    // The repository's native query with its named parameters bound positionally (gap, then playlist)
+    private static int renumber(long playlist, long gap) throws Exception {
+        String sql = PlaylistEntryRepository.class.getMethod("renumber", Long.class, long.class)
+                .getAnnotation(Query.class).value()
+                .replace(":gap", "?").replace(":playlistId", "?");
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement update = connection.prepareStatement(sql)) {
+            update.setLong(1, gap);
+            update.setLong(2, playlist);
+            return update.executeUpdate();
+        }
+    }
+
+    private static List<Long> recordOrder(long playlist) throws Exception {
+        return column(playlist, "record_id");
+    }
+
+    private static List<Long> positions(long playlist) throws Exception {
+        return column(playlist, "position");
+    }
+
+    private static List<Long> column(long playlist, String column) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                     "SELECT " + column + " FROM playlist_entries WHERE playlist_id = ? ORDER BY position")) {
+            select.setLong(1, playlist);
+            List<Long> values = new ArrayList<>();
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    values.add(rows.getLong(1));
+                }
+            }
+            return values;
+        }
+    }
+}
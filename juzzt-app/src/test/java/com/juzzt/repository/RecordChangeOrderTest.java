@@ -0,0 +1,108 @@
+package com.juzzt.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Change log ids are consumer cursors: a reader that has seen id N must never later find a
+ * committed change with an id below N.
+ */
+class RecordChangeOrderTest {
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        postgres.close();
+    }
+
+    @Test
+    void laterWriterWaitsForEarlierCommitBeforeTakingAnId() throws Exception {
+        try (Connection first = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            long firstId = insertChange(first, 1);
+
+            // A second writer cannot draw an id (and so cannot commit a higher one) while the first is open
+            CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    return insertChange(connection, 2);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            assertThrows(TimeoutException.class, () -> second.get(500, TimeUnit.MILLISECONDS));
+            assertFalse(visibleIdsAfter(firstId - 1).contains(firstId));
+
+            first.commit();
+            long secondId = second.get(5, TimeUnit.SECONDS);
+            assertTrue(secondId > firstId);
+            assertEquals(List.of(firstId, secondId), visibleIdsAfter(firstId - 1));
+        }
+    }
+
+    @Test
+    void rolledBackWriterLeavesAGapButDoesNotBlockOthers() throws Exception {
+        long before;
+        try (Connection connection = dataSource.getConnection()) {
+            before = insertChange(connection, 3);
+        }
+        try (Connection aborted = dataSource.getConnection()) {
+            aborted.setAutoCommit(false);
+            insertChange(aborted, 4);
+            aborted.rollback();
+        }
+        long after;
+        try (Connection connection = dataSource.getConnection()) {
+            after = insertChange(connection, 5);
+        }
+        assertEquals(List.of(before, after), visibleIdsAfter(before - 1));
+    }
+
+    private static long insertChange(Connection connection, long recordId) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement("""
+                INSERT INTO record_changes (record_id, change_type, record_version, changed_at)
+                VALUES (?, 'UPDATED', 1, now()) RETURNING id
+                """)) {
+            statement.setLong(1, recordId);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static List<Long> visibleIdsAfter(long cursor) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id FROM record_changes WHERE id > " + cursor + " ORDER BY id")) {
+            while (rs.next()) ids.add(rs.getLong(1));
+        }
+        return ids;
+    }
+}
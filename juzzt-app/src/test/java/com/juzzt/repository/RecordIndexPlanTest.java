@@ -0,0 +1,87 @@
+package com.juzzt.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Flyway migrations against an embedded Postgres and checks that the
+ * hot repository queries are planned on the indexes the migrations create.
+ */
+class RecordIndexPlanTest {
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO records (title, artist, genre, price, image_url, musicbrainz_id)
+                    SELECT 'Title ' || i, 'Artist ' || (i % 50), 'Genre ' || (i % 10), 19.99,
+                           CASE WHEN i % 3 = 0 THEN NULL ELSE 'https://img/' || i END,
+                           CASE WHEN i % 7 = 0 THEN NULL ELSE 'mbid-' || i END
+                    FROM generate_series(1, 2000) AS i
+                    """);
+            statement.execute("INSERT INTO users (email, role) VALUES ('a@juzzt.com', 'USER')");
+            statement.execute("INSERT INTO orders (user_id, total_price) SELECT 1, 10 FROM generate_series(1, 500)");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        postgres.close();
+    }
+
+    @Test
+    void catalogListingUsesHasImageIndex() throws Exception {
+        assertPlanUses("SELECT * FROM records ORDER BY has_image DESC, id ASC", "idx_records_has_image_id");
+    }
+
+    @Test
+    void missingMusicBrainzIdsUsePartialIndex() throws Exception {
+        assertPlanUses("SELECT * FROM records WHERE musicbrainz_id IS NULL", "idx_records_missing_mbid");
+    }
+
+    @Test
+    void genreLookupUsesGenreIndex() throws Exception {
+        assertPlanUses("SELECT * FROM records WHERE genre = 'Genre 3'", "idx_records_genre");
+    }
+
+    @Test
+    void ordersByUserUseUserIdIndex() throws Exception {
+        assertPlanUses("SELECT * FROM orders WHERE user_id = 1", "idx_orders_user_id");
+    }
+
+    @Test
+    void loginLookupUsesEmailUniqueIndex() throws Exception {
+        assertPlanUses("SELECT * FROM users WHERE email = 'a@juzzt.com'", "users_email_key");
+    }
+
+    private static void assertPlanUses(String sql, String indexName) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            // Small test tables would otherwise be seq-scanned regardless of available indexes
+            statement.execute("SET enable_seqscan = off");
+            try (ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        assertTrue(plan.toString().contains(indexName), () -> "Expected " + indexName + " in plan:\n" + plan);
+    }
+}
@@ -0,0 +1,72 @@
+package com.juzzt.security;
+
+import com.juzzt.util.JwtUtil;
+import com.juzzt.util.RequestTiming;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The user lookup is the "auth" span of Server-Timing, including lookups that fail.
+ */
+class JwtAuthFilterTimingTest {
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final JwtAuthFilter filter = new JwtAuthFilter();
+
+    JwtAuthFilterTimingTest() {
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        when(jwtUtil.extractEmail("token")).thenReturn("user@example.com");
+    }
+
+    @AfterEach
+    void clear() {
+        RequestTiming.close();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void successfulLookupIsTimed() throws Exception {
+        when(userDetailsService.loadUserByUsername("user@example.com"))
+                .thenReturn(new User("user@example.com", "secret", List.of()));
+        when(jwtUtil.validateToken("token", "user@example.com")).thenReturn(true);
+        RequestTiming timing = RequestTiming.open();
+
+        filter.doFilter(bearer(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(1, timing.spans().get("auth").count());
+    }
+
+    @Test
+    void failedLookupIsTimedToo() {
+        when(userDetailsService.loadUserByUsername("user@example.com"))
+                .thenThrow(new UsernameNotFoundException("gone"));
+        RequestTiming timing = RequestTiming.open();
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> filter.doFilter(bearer(), new MockHttpServletResponse(), new MockFilterChain()));
+
+        assertEquals(1, timing.spans().get("auth").count());
+    }
+
+    private static MockHttpServletRequest bearer() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        request.addHeader("Authorization", "Bearer token");
+        return request;
+    }
+}
@@ -0,0 +1,77 @@
+package com.juzzt.security;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoadShedderTest {
+    private static final RoutePolicy SHEDDABLE = new RoutePolicy("recommendations", HttpMethod.GET,
+            List.of("/api/recommendations/**"), 10, 1, 0, true);
+    private static final RoutePolicy ESSENTIAL = new RoutePolicy("auth", HttpMethod.POST,
+            List.of("/api/auth/login"), 10, 1, 0, false);
+
+    @Test
+    void nothingShedWhileUnderThresholds() {
+        LoadShedder shedder = new LoadShedder(pools(0.5), true, 2000, 1.0);
+        shedder.recordLatency(SHEDDABLE, 100);
+        assertEquals(0, shedRatio(shedder, SHEDDABLE));
+    }
+
+    @Test
+    void shedsMostSheddableRequestsWhenPoolIsSaturated() {
+        LoadShedder shedder = new LoadShedder(pools(3.0), true, 2000, 1.0);
+        double ratio = shedRatio(shedder, SHEDDABLE);
+        // Capped below 1 so some requests still get through and the averages can recover
+        assertTrue(ratio > 0.8 && ratio < 0.97, "shed ratio " + ratio);
+        assertEquals(0, shedRatio(shedder, ESSENTIAL));
+    }
+
+    @Test
+    void shedsWhenRouteLatencyAverageIsAboveThreshold() {
+        LoadShedder shedder = new LoadShedder(pools(0), true, 1000, 1.0);
+        for (int i = 0; i < 20; i++) shedder.recordLatency(SHEDDABLE, 1500);
+
+        double ratio = shedRatio(shedder, SHEDDABLE);
+        assertTrue(ratio > 0.35 && ratio < 0.65, "shed ratio " + ratio); // ~50% over the threshold
+
+        for (int i = 0; i < 50; i++) shedder.recordLatency(SHEDDABLE, 100);
+        assertEquals(0, shedRatio(shedder, SHEDDABLE));
+    }
+
+    @Test
+    void disabledNeverSheds() {
+        LoadShedder shedder = new LoadShedder(pools(5.0), false, 2000, 1.0);
+        assertFalse(shedder.shouldShed(SHEDDABLE));
+    }
+
+    private static double shedRatio(LoadShedder shedder, RoutePolicy policy) {
+        int shed = 0;
+        for (int i = 0; i < 2000; i++) {
+            if (shedder.shouldShed(policy)) shed++;
+        }
+        return shed / 2000.0;
+    }
+
+    // A 10-connection pool at the given (active + waiting) / max ratio
+    private static ObjectProvider<HikariDataSource> pools(double saturation) {
+        HikariPoolMXBean mxBean = mock(HikariPoolMXBean.class);
+        when(mxBean.getActiveConnections()).thenReturn((int) Math.min(10, saturation * 10));
+        when(mxBean.getThreadsAwaitingConnection()).thenReturn((int) Math.max(0, saturation * 10 - 10));
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.getHikariPoolMXBean()).thenReturn(mxBean);
+        when(pool.getMaximumPoolSize()).thenReturn(10);
+        return new StaticListableBeanFactory(Map.of("pool", pool)).getBeanProvider(HikariDataSource.class);
+    }
+}
@@ -0,0 +1,129 @@
+package com.juzzt.security;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTest {
+    // Two requests per client, then one more per minute
+    private static final RoutePolicy AUTH = new RoutePolicy("auth", HttpMethod.POST, List.of("/api/auth/login"),
+            2, 1 / 60d, 0, false);
+    private static final RoutePolicy EXPORT = new RoutePolicy("export", HttpMethod.GET, List.of("/api/admin/records/export"),
+            100, 100, 1, true);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rejectsOverBudgetClientWith429AndRetryAfter() throws Exception {
+        RateLimitFilter filter = filter(true);
+        assertEquals(200, send(filter, post("10.0.0.1")).getStatus());
+        assertEquals(200, send(filter, post("10.0.0.1")).getStatus());
+
+        MockHttpServletResponse rejected = send(filter, post("10.0.0.1"));
+        assertEquals(429, rejected.getStatus());
+        assertEquals("60", rejected.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("juzzt.ratelimit.rejected").tag("reason", "rate_limited").counter().count());
+
+        // Budgets are per client
+        assertEquals(200, send(filter, post("10.0.0.2")).getStatus());
+    }
+
+    @Test
+    void authenticatedClientsAreKeyedByUserNotAddress() throws Exception {
+        RateLimitFilter filter = filter(true);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "a@juzzt.com", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        send(filter, post("10.0.0.1"));
+        send(filter, post("10.0.0.2"));
+        assertEquals(429, send(filter, post("10.0.0.3")).getStatus());
+    }
+
+    @Test
+    void concurrencyCapAnswers503WhileARequestIsInFlight() throws Exception {
+        RateLimitFilter filter = filter(true);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<?> first = executor.submit(() -> {
+                filter.doFilter(export(), new MockHttpServletResponse(), slow);
+                return null;
+            });
+            entered.await();
+
+            MockHttpServletResponse second = send(filter, export());
+            assertEquals(503, second.getStatus());
+            assertEquals("1", second.getHeader("Retry-After"));
+
+            release.countDown();
+            first.get();
+        }
+        assertEquals(200, send(filter, export()).getStatus()); // Permit was released
+    }
+
+    @Test
+    void unmatchedRoutesAndDisabledFilterPassThrough() throws Exception {
+        RateLimitFilter filter = filter(true);
+        MockHttpServletRequest other = new MockHttpServletRequest("GET", "/actuator/health");
+        for (int i = 0; i < 5; i++) assertEquals(200, send(filter, other).getStatus());
+
+        RateLimitFilter disabled = filter(false);
+        for (int i = 0; i < 5; i++) assertEquals(200, send(disabled, post("10.0.0.1")).getStatus());
+    }
+
+    private RateLimitFilter filter(boolean enabled) {
+        LoadShedder loadShedder = new LoadShedder(
+                new StaticListableBeanFactory().getBeanProvider(HikariDataSource.class), true, 2000, 1.0);
+        return new RateLimitFilter(List.of(AUTH, EXPORT), new LocalRateLimitStore(), loadShedder, meterRegistry, enabled);
+    }
+
+    private static MockHttpServletResponse send(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        assertTrue(response.getStatus() != 200 || chain.getRequest() != null, "Allowed request must reach the chain");
+        return response;
+    }
+
+    private static MockHttpServletRequest post(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private static MockHttpServletRequest export() {
+        return new MockHttpServletRequest("GET", "/api/admin/records/export");
+    }
+}
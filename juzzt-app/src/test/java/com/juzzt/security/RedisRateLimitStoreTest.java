@@ -0,0 +1,65 @@
+package com.juzzt.security;
+
+import com.juzzt.util.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A template that can be paused stands in for Redis: while paused every script call fails the way
+ * Lettuce does when the server is down or the command times out.
+ */
+class RedisRateLimitStoreTest {
+    private static final Duration OPEN = Duration.ofMillis(100);
+    // Two requests per client, then one more per minute
+    private static final RoutePolicy AUTH = new RoutePolicy("auth", HttpMethod.POST, List.of("/api/auth/login"),
+            2, 1 / 60d, 0, false);
+
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final AtomicInteger redisCalls = new AtomicInteger();
+    private final RedisRateLimitStore store = new RedisRateLimitStore(new PausableTemplate(), new LocalRateLimitStore(),
+            3, OPEN);
+
+    @Test
+    void opensAfterConsecutiveFailuresAndLimitsLocallyWithoutCallingRedis() {
+        paused.set(true);
+        for (int i = 0; i < 3; i++) store.tryAcquire(AUTH, "client");
+        assertEquals(State.OPEN, store.circuitState());
+
+        int callsWhenOpened = redisCalls.get();
+        assertTrue(store.tryAcquire(AUTH, "client") > 0); // Local bucket already spent by the failed calls
+        assertEquals(0, store.tryAcquire(AUTH, "other"));
+        assertEquals(callsWhenOpened, redisCalls.get());
+    }
+
+    @Test
+    void probesRedisAgainOnceTheBreakerHasBeenOpenLongEnough() throws InterruptedException {
+        paused.set(true);
+        for (int i = 0; i < 3; i++) store.tryAcquire(AUTH, "client");
+        paused.set(false);
+        Thread.sleep(OPEN.toMillis() + 50);
+
+        assertEquals(0, store.tryAcquire(AUTH, "client")); // Shared bucket is still full
+        assertEquals(State.CLOSED, store.circuitState());
+        assertEquals(4, redisCalls.get());
+    }
+
+    private class PausableTemplate extends StringRedisTemplate {
+        @Override
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            redisCalls.incrementAndGet();
+            if (paused.get()) throw new RedisConnectionFailureException("Redis paused");
+            return script.getResultType().cast(0L);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.juzzt.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstUpToCapacityThenReportsWaitForNextToken() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+        for (int i = 0; i < 3; i++) assertEquals(0, bucket.tryConsume(0));
+
+        assertEquals(SECOND, bucket.tryConsume(0));
+        assertEquals(SECOND / 2, bucket.tryConsume(SECOND / 2));
+    }
+
+    @Test
+    void refillsAtTheSustainedRate() {
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        assertTrue(bucket.tryConsume(SECOND / 4) > 0);
+        assertEquals(0, bucket.tryConsume(SECOND / 2));
+        assertTrue(bucket.tryConsume(SECOND / 2) > 0);
+    }
+
+    @Test
+    void neverRefillsBeyondCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 10, 0);
+        long later = 60 * SECOND;
+        assertEquals(0, bucket.tryConsume(later));
+        assertEquals(0, bucket.tryConsume(later));
+        assertTrue(bucket.tryConsume(later) > 0);
+    }
+
+    @Test
+    void idleOnlyOnceFullAndUntouched() {
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+        bucket.tryConsume(0);
+        assertFalse(bucket.isIdle(SECOND / 2, SECOND / 4)); // Not refilled yet
+        assertFalse(bucket.isIdle(2 * SECOND, 10 * SECOND)); // Refilled but touched recently
+        assertTrue(bucket.isIdle(20 * SECOND, 10 * SECOND));
+    }
+}
@@ -0,0 +1,94 @@
+package com.juzzt.service;
+
+import com.juzzt.dto.FacetSearchDTO;
+import com.juzzt.model.Record;
+import com.juzzt.repository.RecordChangeRepository;
+import com.juzzt.repository.RecordRepository;
+import com.juzzt.util.FacetIndex.Dimension;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * With the snapshot disabled, listings, lookups and facet queries use RecordService's catalog,
+ * loaded and indexed once per change log position.
+ */
+class CatalogFacetFallbackTest {
+    private final RecordRepository recordRepository = mock(RecordRepository.class);
+    private final RecordChangeRepository recordChangeRepository = mock(RecordChangeRepository.class);
+    private final RecordService recordService = mock(RecordService.class);
+    private final CatalogSnapshotService service = new CatalogSnapshotService(
+            recordRepository, recordChangeRepository, recordService, false, new double[]{10, 20});
+
+    @Test
+    void indexIsBuiltOnceAndReusedWhileTheChangeLogStandsStill() {
+        when(recordChangeRepository.findLatestChangeId()).thenReturn(5L);
+        when(recordService.getAllRecords()).thenReturn(List.of(record(1, "Rock"), record(2, "Jazz")));
+
+        for (int i = 0; i < 3; i++) {
+            FacetSearchDTO result = service.getFacets(Map.of(Dimension.GENRE, Set.of("Rock")), null, 10, 10);
+            assertEquals(List.of(1L), result.results().items().stream().map(Record::getId).toList());
+        }
+
+        verify(recordService, times(1)).getAllRecords();
+        verifyNoInteractions(recordRepository);
+    }
+
+    @Test
+    void indexIsRebuiltAfterAChange() {
+        when(recordChangeRepository.findLatestChangeId()).thenReturn(5L, 5L, 6L);
+        when(recordService.getAllRecords())
+                .thenReturn(List.of(record(1, "Rock")))
+                .thenReturn(List.of(record(1, "Rock"), record(2, "Rock")));
+
+        service.getFacets(Map.of(), null, 10, 10);
+        service.getFacets(Map.of(), null, 10, 10);
+        FacetSearchDTO result = service.getFacets(Map.of(Dimension.GENRE, Set.of("Rock")), null, 10, 10);
+
+        assertEquals(2, result.results().estimatedTotal());
+        verify(recordService, times(2)).getAllRecords();
+    }
+
+    @Test
+    void listingsAndLookupsOnlyReachRecordServiceWhenTheChangeLogMoves() {
+        when(recordChangeRepository.findLatestChangeId()).thenReturn(5L, 5L, 5L, 6L);
+        when(recordService.getAllRecords())
+                .thenReturn(List.of(record(1, "Rock"), record(2, "Jazz")))
+                .thenReturn(List.of(record(1, "Rock"), record(2, "Rock")));
+
+        assertEquals(2, service.getServingSnapshot().list().size());
+        assertEquals(List.of(2L), service.getServingSnapshot().listByGenre("Jazz").stream().map(Record::getId).toList());
+        assertEquals("Rock", service.getServingSnapshot().find(1).orElseThrow().getGenre());
+        verify(recordService, times(1)).getAllRecords();
+
+        assertEquals(2, service.getServingSnapshot().listByGenre("Rock").size());
+        verify(recordService, times(2)).getAllRecords();
+        verifyNoInteractions(recordRepository);
+    }
+
+    @Test
+    void emptyChangeLogStillCaches() {
+        when(recordChangeRepository.findLatestChangeId()).thenReturn(null);
+        when(recordService.getAllRecords()).thenReturn(List.of());
+
+        service.getFacets(Map.of(), null, 10, 10);
+        service.getFacets(Map.of(), null, 10, 10);
+
+        verify(recordService, times(1)).getAllRecords();
+    }
+
+    private static Record record(long id, String genre) {
+        Record record = new Record("title " + id, "artist " + id, genre, 15.0, null, null);
+        record.setId(id);
+        return record;
+    }
+}
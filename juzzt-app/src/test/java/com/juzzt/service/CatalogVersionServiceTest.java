@@ -0,0 +1,51 @@
+package com.juzzt.service;
+
+import com.juzzt.model.Record;
+import com.juzzt.util.CatalogSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CatalogVersionServiceTest {
+    private final CatalogVersionService versions = new CatalogVersionService();
+
+    @Test
+    void snapshotTagMatchesTheTagOfTheRecordsItLists() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(record(1, 0), record(2, 3)), 0L)
+                .with(record(3, 1), 1L)
+                .with(record(1, 2), 2L);
+
+        assertEquals(versions.getCatalogEtag(snapshot.list()), versions.getCatalogEtag(snapshot));
+    }
+
+    @Test
+    void tagChangesWithAnyVersionButNotWithOrder() {
+        List<Record> records = List.of(record(1, 0), record(2, 0));
+
+        assertEquals(versions.getCatalogEtag(records), versions.getCatalogEtag(List.of(record(2, 0), record(1, 0))));
+        assertNotEquals(versions.getCatalogEtag(records), versions.getCatalogEtag(List.of(record(1, 0), record(2, 1))));
+        assertNotEquals(versions.getCatalogEtag(records), versions.getCatalogEtag(List.of(record(1, 0))));
+    }
+
+    @Test
+    void genreTagFollowsTheCatalogAndDiffersPerGenre() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(record(1, 0), record(2, 0)), 0L);
+        CatalogSnapshot updated = snapshot.with(record(2, 1), 1L);
+
+        assertNotEquals(versions.getCatalogEtag(snapshot), versions.getGenreEtag(snapshot, "Rock"));
+        assertNotEquals(versions.getGenreEtag(snapshot, "Rock"), versions.getGenreEtag(snapshot, "Jazz"));
+        assertNotEquals(versions.getGenreEtag(snapshot, "Rock"), versions.getGenreEtag(updated, "Rock"));
+        assertEquals(versions.getGenreEtag(snapshot, "Rock"),
+                versions.getGenreEtag(CatalogSnapshot.of(List.of(record(2, 0), record(1, 0)), 3L), "Rock"));
+    }
+
+    private static Record record(long id, long version) {
+        Record record = new Record("title " + id, "artist", "Rock", 10.0, null, null);
+        record.setId(id);
+        record.setVersion(version);
+        return record;
+    }
+}
@@ -0,0 +1,172 @@
+package com.juzzt.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Disk budget and eviction of proxied covers, against a stubbed Cover Art Archive.
+ */
+class CoverImageCacheTest {
+    private static final String FIRST = "11111111-1111-1111-1111-111111111111";
+    private static final String SECOND = "22222222-2222-2222-2222-222222222222";
+    private static final String MISSING = "33333333-3333-3333-3333-333333333333";
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path scratch;
+
+    private byte[] cover;
+    private long oneCoverBytes;
+    private final AtomicInteger downloads = new AtomicInteger();
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1400, 1400, BufferedImage.TYPE_INT_RGB), "jpg", jpeg);
+        cover = jpeg.toByteArray();
+
+        restTemplate = new RestTemplate((uri, method) -> {
+            downloads.incrementAndGet();
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            request.setResponse(uri.getPath().contains(MISSING)
+                    ? new MockClientHttpResponse(new byte[0], HttpStatus.NOT_FOUND)
+                    : new MockClientHttpResponse(cover, HttpStatus.OK));
+            return request;
+        });
+
+        // All three variants of one cover; every stub cover is the same image
+        CoverImageCache sizing = new CoverImageCache(scratch, Long.MAX_VALUE, "http://archive.test", restTemplate);
+        path(sizing.openCover(FIRST, 500));
+        oneCoverBytes = sizing.diskBytes();
+        downloads.set(0);
+    }
+
+    @Test
+    void fetchesEachCoverOnceAndServesTheVariantsFromDisk() throws IOException {
+        CoverImageCache cache = cache(Long.MAX_VALUE);
+
+        try (CoverImageCache.Lease lease = cache.openCover(FIRST, 250).orElseThrow()) {
+            assertEquals(250, ImageIO.read(lease.path().toFile()).getWidth());
+        }
+        try (CoverImageCache.Lease lease = cache.openCover(FIRST, 1200).orElseThrow()) {
+            assertEquals(1200, ImageIO.read(lease.path().toFile()).getWidth());
+        }
+        assertEquals(1, downloads.get());
+    }
+
+    @Test
+    void remembersCoversTheArchiveDoesNotHave() throws IOException {
+        CoverImageCache cache = cache(Long.MAX_VALUE);
+
+        assertTrue(cache.openCover(MISSING, 500).isEmpty());
+        assertTrue(cache.openCover(MISSING, 500).isEmpty());
+        assertEquals(1, downloads.get());
+        assertTrue(cache.openCover("not-an-mbid", 500).isEmpty());
+        assertTrue(cache.openCover(FIRST, 333).isEmpty());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyServedCoverOverQuota() throws IOException {
+        CoverImageCache cache = cache(oneCoverBytes);
+
+        Path first = path(cache.openCover(FIRST, 500));
+        path(cache.openCover(SECOND, 500));
+
+        assertFalse(Files.exists(first));
+        assertTrue(cache.diskBytes() <= oneCoverBytes);
+    }
+
+    @Test
+    void keepsFilesThatAreBeingServed() throws IOException {
+        CoverImageCache cache = cache(oneCoverBytes);
+
+        CoverImageCache.Lease reading = cache.openCover(FIRST, 500).orElseThrow();
+        path(cache.openCover(SECOND, 500));
+
+        // The rest of the first cover goes, the file being served stays until released
+        assertTrue(Files.exists(reading.path()));
+        assertFalse(Files.exists(reading.path().resolveSibling(FIRST + "-250.jpg")));
+
+        reading.close();
+        assertFalse(Files.exists(reading.path()));
+        assertTrue(cache.diskBytes() <= oneCoverBytes);
+    }
+
+    @Test
+    void freshDownloadIsServedWhilePinnedFilesKeepTheCacheOverQuota() throws IOException {
+        CoverImageCache cache = cache(1);
+
+        try (CoverImageCache.Lease reading = cache.openCover(FIRST, 500).orElseThrow()) {
+            for (int size : CoverImageCache.SIZES) {
+                try (CoverImageCache.Lease lease = cache.openCover(SECOND, size).orElseThrow()) {
+                    assertTrue(Files.exists(lease.path()));
+                }
+            }
+            assertTrue(Files.exists(reading.path()));
+        }
+    }
+
+    @Test
+    void keepsFilesHeldForSendfileUntilTheHoldExpires()throws IOException, InterruptedException {
+        CoverImageCache cache = cache(oneCoverBytes);
+
+        CoverImageCache.Lease sent = cache.openCover(FIRST, 500).orElseThrow();
+        sent.closeAfter(Duration.ofSeconds(2)); // Outlasts resizing the second cover
+        path(cache.openCover(SECOND, 500));
+        assertTrue(Files.exists(sent.path()));
+
+        Thread.sleep(2100);
+        path(cache.openCover(SECOND, 250)); // Any later release re-runs eviction
+        assertFalse(Files.exists(sent.path()));
+    }
+
+    @Test
+    void rebuildsTheIndexFromDiskOnStartup() throws IOException {
+        path(cache(Long.MAX_VALUE).openCover(FIRST, 500));
+
+        CoverImageCache restarted = cache(Long.MAX_VALUE);
+        assertEquals(oneCoverBytes, restarted.diskBytes());
+        path(restarted.openCover(FIRST, 500));
+        assertEquals(1, downloads.get());
+    }
+
+    @Test
+    void storesCoverUrlsRelativeToTheApi() {
+        AlbumCoverService albumCoverService = new AlbumCoverService("http://archive.test", restTemplate);
+
+        assertEquals("/api/covers/" + FIRST, albumCoverService.getAlbumCover(FIRST));
+        assertEquals(null, albumCoverService.getAlbumCover(MISSING));
+    }
+
+    private CoverImageCache cache(long maxDiskBytes) throws IOException {
+        return new CoverImageCache(root, maxDiskBytes, "http://archive.test", restTemplate);
+    }
+
+    private static Path path(Optional<CoverImageCache.Lease> cover) {
+        CoverImageCache.Lease lease = cover.orElseThrow();
+        lease.close();
+        return lease.path();
+    }
+}
@@ -0,0 +1,107 @@
+package com.juzzt.service;
+
+import com.juzzt.event.ImageStagedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Staged upload to stored variants, against the local image store.
+ */
+class ImageIngestionServiceTest {
+    @TempDir
+    Path media;
+
+    @TempDir
+    Path staging;
+
+    private RecordService recordService;
+    private LocalImageStore imageStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        recordService = mock(RecordService.class);
+        imageStore = new LocalImageStore(media, "/media");
+    }
+
+    @Test
+    void storesFullSizeAndThumbnailAndMarksRecordReady() throws IOException {
+        Path staged = staging.resolve("upload-1.png");
+        ImageIO.write(new BufferedImage(2400, 1600, BufferedImage.TYPE_INT_ARGB), "png", staged.toFile());
+
+        service(new SyncTaskExecutor()).onImageStaged(new ImageStagedEvent(7L, staged, "image/png"));
+
+        verify(recordService).completeImageIngestion(7L, "/media/records/7/upload-1-1200.jpg",
+                "/media/records/7/upload-1-300.jpg");
+        BufferedImage full = ImageIO.read(media.resolve("records/7/upload-1-1200.jpg").toFile());
+        BufferedImage thumbnail = ImageIO.read(media.resolve("records/7/upload-1-300.jpg").toFile());
+        assertEquals(1200, full.getWidth());
+        assertEquals(800, full.getHeight());
+        assertEquals(300, thumbnail.getWidth());
+        assertFalse(Files.exists(staged));
+    }
+
+    @Test
+    void publishesUndecodableFileUnchanged() throws IOException {
+        Path staged = Files.writeString(staging.resolve("upload-2.heic"), "not something ImageIO reads");
+
+        service(new SyncTaskExecutor()).onImageStaged(new ImageStagedEvent(8L, staged, "image/heic"));
+
+        verify(recordService).completeImageIngestion(8L, "/media/records/8/upload-2-original",
+                "/media/records/8/upload-2-original");
+        assertEquals("not something ImageIO reads", Files.readString(media.resolve("records/8/upload-2-original")));
+        assertFalse(Files.exists(staged));
+    }
+
+    @Test
+    void rejectedTaskFailsRecordAndDeletesStagedFile() throws IOException {
+        Path staged = Files.writeString(staging.resolve("upload-3.png"), "x");
+        TaskExecutor full = task -> {
+            throw new TaskRejectedException("queue full");
+        };
+
+        service(full).onImageStaged(new ImageStagedEvent(9L, staged, "image/png"));
+
+        verify(recordService).failImageIngestion(9L);
+        verify(recordService, never()).completeImageIngestion(anyLong(), anyString(), anyString());
+        assertFalse(Files.exists(staged));
+    }
+
+    @Test
+    void storeFailureMarksRecordFailed() throws IOException {
+        Path staged = staging.resolve("upload-4.png");
+        ImageIO.write(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "png", staged.toFile());
+        ImageStore broken = (key, file, contentType) -> {
+            throw new IOException("store down");
+        };
+
+        new ImageIngestionService(broken, recordService, new SyncTaskExecutor())
+                .onImageStaged(new ImageStagedEvent(10L, staged, "image/png"));
+
+        verify(recordService).failImageIngestion(10L);
+        assertFalse(Files.exists(staged));
+        assertTrue(Files.isDirectory(staging));
+    }
+
+    private ImageIngestionService service(TaskExecutor executor) {
+        return new ImageIngestionService(imageStore, recordService, executor);
+    }
+}
@@ -0,0 +1,50 @@
+package com.juzzt.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalImageStoreTest {
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path source;
+
+    @Test
+    void copiesFileUnderKeyAndReturnsPublicUrl() throws IOException {
+        LocalImageStore store = new LocalImageStore(root, "/media");
+        Path file = Files.writeString(source.resolve("cover.jpg"), "image bytes");
+
+        String url = store.store("records/7/cover-1200.jpg", file, "image/jpeg");
+
+        assertEquals("/media/records/7/cover-1200.jpg", url);
+        assertEquals("image bytes", Files.readString(root.resolve("records/7/cover-1200.jpg")));
+        assertTrue(Files.exists(file)); // The caller owns and deletes its temp file
+    }
+
+    @Test
+    void replacesExistingFile() throws IOException {
+        LocalImageStore store = new LocalImageStore(root, "/media");
+        store.store("records/7/cover.jpg", Files.writeString(source.resolve("a.jpg"), "old"), "image/jpeg");
+        store.store("records/7/cover.jpg", Files.writeString(source.resolve("b.jpg"), "new"), "image/jpeg");
+        assertEquals("new", Files.readString(root.resolve("records/7/cover.jpg")));
+    }
+
+    @Test
+    void rejectsKeysEscapingTheRoot() throws IOException {
+        LocalImageStore store = new LocalImageStore(root.resolve("media"), "/media");
+        Path file = Files.writeString(source.resolve("cover.jpg"), "x");
+
+        assertThrows(IOException.class, () -> store.store("../outside.jpg", file, "image/jpeg"));
+        assertFalse(Files.exists(root.resolve("outside.jpg")));
+    }
+}
@@ -0,0 +1,147 @@
+package com.juzzt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juzzt.event.DomainEvent;
+import com.juzzt.event.DomainEventConsumer;
+import com.juzzt.event.RecordChangedEvent;
+import com.juzzt.model.RecordChange.ChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Claiming, leases and redelivery against the real event_outbox table. Each relay stands in for a node.
+ */
+class OutboxRelayTest {
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<OutboxRelay> relays = new ArrayList<>();
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM event_outbox");
+    }
+
+    @AfterEach
+    void stopRelays() {
+        relays.forEach(OutboxRelay::stop);
+    }
+
+    @Test
+    void deliversPendingRowsInOrderAndMarksThemPublished() throws Exception {
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        OutboxRelay relay = relay(Duration.ofMinutes(1), new SimpleMeterRegistry(), recordIds(received));
+        EventOutbox outbox = new EventOutbox(jdbcTemplate, objectMapper, relay);
+        for (long id = 1; id <= 3; id++) outbox.append(changed(id));
+
+        relay.start();
+        await(() -> relay.countPending() == 0);
+
+        assertEquals(List.of(1L, 2L, 3L), received);
+        assertEquals(3, (int) jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM event_outbox WHERE claimed_by IS NOT NULL AND published_at IS NOT NULL", Integer.class));
+    }
+
+    @Test
+    void rowsLeasedByAnotherNodeWaitForTheLeaseToRunOut() throws Exception {
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        OutboxRelay relay = relay(Duration.ofMinutes(1), new SimpleMeterRegistry(), recordIds(received));
+        new EventOutbox(jdbcTemplate, objectMapper, relay).append(changed(7));
+        jdbcTemplate.update("UPDATE event_outbox SET claimed_by = 'other-node', claimed_until = now() + interval '1 hour'");
+
+        relay.start();
+        Thread.sleep(300);
+        assertTrue(received.isEmpty());
+        assertEquals(1, relay.countPending());
+
+        // The other node died without publishing
+        jdbcTemplate.update("UPDATE event_outbox SET claimed_until = now() - interval '1 second'");
+        relay.wakeUp();
+        await(() -> relay.countPending() == 0);
+        assertEquals(List.of(7L), received);
+    }
+
+    @Test
+    void rowsOfAParkedConsumerStayPendingAndAreRedeliveredAfterTheLease() throws Exception {
+        SimpleMeterRegistry failingRegistry = new SimpleMeterRegistry();
+        OutboxRelay failing = relay(Duration.ofMillis(500), failingRegistry, events -> {
+            throw new IllegalStateException("consumer down");
+        });
+        new EventOutbox(jdbcTemplate, objectMapper, failing).append(changed(9));
+        failing.start();
+
+        await(() -> failingRegistry.get("juzzt.events.bus.parked").gauge().value() == 1);
+        assertEquals(1, failing.countPending());
+
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        OutboxRelay healthy = relay(Duration.ofMillis(500), new SimpleMeterRegistry(), recordIds(received));
+        healthy.start();
+
+        await(() -> healthy.countPending() == 0);
+        assertEquals(List.of(9L), received);
+    }
+
+    @SuppressWarnings("unchecked")
+    private OutboxRelay relay(Duration lease, SimpleMeterRegistry meterRegistry, DomainEventConsumer consumer) {
+        ObjectProvider<DomainEventConsumer> consumers = mock(ObjectProvider.class);
+        when(consumers.orderedStream()).thenAnswer(call -> Stream.of(consumer));
+        OutboxRelay relay = new OutboxRelay(jdbcTemplate, objectMapper, consumers, meterRegistry,
+                100, Duration.ofMillis(50), lease, Duration.ofDays(7), 64, 16, 1);
+        relays.add(relay);
+        return relay;
+    }
+
+    private static DomainEventConsumer recordIds(List<Long> received) {
+        return events -> {
+            for (DomainEvent event : events) {
+                if (event instanceof RecordChangedEvent change) received.add(change.recordId());
+            }
+        };
+    }
+
+    private static RecordChangedEvent changed(long recordId) {
+        return new RecordChangedEvent(recordId, ChangeType.UPDATED, 1);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("Timed out");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.juzzt.service;
+
+import com.juzzt.model.Playlist;
+import com.juzzt.model.PlaylistEntry;
+import com.juzzt.model.Record;
+import com.juzzt.model.User;
+import com.juzzt.repository.PlaylistEntryRepository;
+import com.juzzt.repository.PlaylistRepository;
+import com.juzzt.repository.RecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sparse position allocation, against an in-memory playlist standing in for playlist_entries.
+ * The renumbering statement itself is covered by PlaylistEntryRenumberTest.
+ */
+class PlaylistPositionTest {
+    private static final long PLAYLIST = 1L;
+    private static final String OWNER = "owner@juzzt.test";
+
+    private final Map<Long, PlaylistEntry> entries = new HashMap<>();
+    private long nextId = 1;
+
+    private PlaylistEntryRepository entryRepository;
+    private PlaylistService service;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setEmail(OWNER);
+        Playlist playlist = new Playlist();
+        playlist.setId(PLAYLIST);
+        playlist.setUser(owner);
+        PlaylistRepository playlistRepository = mock(PlaylistRepository.class);
+        when(playlistRepository.findById(PLAYLIST)).thenReturn(Optional.of(playlist));
+        when(playlistRepository.findByIdForUpdate(PLAYLIST)).thenReturn(Optional.of(playlist));
+        signIn(OWNER, "USER");
+
+        RecordRepository recordRepository = mock(RecordRepository.class);
+        when(recordRepository.findExistingIds(any())).thenAnswer(call -> new ArrayList<>(call.<Collection<Long>>getArgument(0)));
+
+        entryRepository = mock(PlaylistEntryRepository.class);
+        when(entryRepository.findByIdAndPlaylistId(anyLong(), eq(PLAYLIST)))
+                .thenAnswer(call -> Optional.ofNullable(entries.get(call.<Long>getArgument(0))));
+        when(entryRepository.findPositionById(anyLong()))
+                .thenAnswer(call -> entries.get(call.<Long>getArgument(0)).getPosition());
+        when(entryRepository.findMaxPosition(PLAYLIST))
+                .thenAnswer(call -> positions().stream().max(Long::compare).orElse(null));
+        when(entryRepository.findMinPosition(PLAYLIST))
+                .thenAnswer(call -> positions().stream().min(Long::compare).orElse(null));
+        when(entryRepository.findNextPosition(eq(PLAYLIST), anyLong()))
+                .thenAnswer(call -> positions().stream().filter(p -> p > call.<Long>getArgument(1)).min(Long::compare).orElse(null));
+        when(entryRepository.renumber(eq(PLAYLIST), anyLong())).thenAnswer(call -> {
+            long gap = call.getArgument(1);
+            List<PlaylistEntry> ordered = ordered();
+            for (int i = 0; i < ordered.size(); i++) {
+                ordered.get(i).setPosition((i + 1) * gap);
+            }
+            return ordered.size();
+        });
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), any(List.class))).thenAnswer(call -> {
+            List<Object[]> rows = call.getArgument(1);
+            for (Object[] row : rows) {
+                add((Long) row[1], (Long) row[2]);
+            }
+            return new int[rows.size()];
+        });
+
+        service = new PlaylistService(playlistRepository, entryRepository, recordRepository, null, jdbcTemplate);
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void appendsAtTheEndWithFullGaps() {
+        service.addRecords(PLAYLIST, List.of(10L, 11L), null);
+        service.addRecords(PLAYLIST, List.of(12L), null);
+
+        assertEquals(List.of(1024L, 2048L, 3072L), positions());
+        assertEquals(List.of(10L, 11L, 12L), recordOrder());
+    }
+
+    @Test
+    void insertsIntoTheGapWithoutTouchingOtherRows() {
+        long first = add(10L, 1024);
+        add(11L, 2048);
+
+        service.addRecords(PLAYLIST, List.of(20L, 21L, 22L), first);
+
+        assertEquals(List.of(10L, 20L, 21L, 22L, 11L), recordOrder());
+        assertEquals(List.of(1024L, 1280L, 1536L, 1792L, 2048L), positions());
+        verify(entryRepository, never()).renumber(anyLong(), anyLong());
+    }
+
+    @Test
+    void renumbersOnceTheGapIsExhaustedAndKeepsTheOrder() {
+        long first = add(10L, 1024);
+        add(11L, 1025);
+        add(12L, 1026);
+
+        service.addRecords(PLAYLIST, List.of(20L), first);
+
+        verify(entryRepository).renumber(PLAYLIST, PlaylistService.POSITION_GAP);
+        assertEquals(List.of(10L, 20L, 11L, 12L), recordOrder());
+        assertEquals(List.of(1024L, 1536L, 2048L, 3072L), positions());
+    }
+
+    @Test
+    void bulkInsertLargerThanTheGapWidensTheRenumbering() {
+        long first = add(10L, 1024);
+        add(11L, 2048);
+        List<Long> records = new ArrayList<>();
+        for (long id = 100; id < 100 + 2000; id++) {
+            records.add(id);
+        }
+
+        service.addRecords(PLAYLIST, records, first);
+
+        verify(entryRepository).renumber(PLAYLIST, 2001L);
+        List<Long> expected = new ArrayList<>(List.of(10L));
+        expected.addAll(records);
+        expected.add(11L);
+        assertEquals(expected, recordOrder());
+        assertUniqueAndIncreasing(positions());
+    }
+
+    @Test
+    void moveIntoAnExhaustedGapRenumbersThenPlacesTheEntry() {
+        long first = add(10L, 1024);
+        add(11L, 1025);
+        long moved = add(12L, 4096);
+
+        service.moveEntry(PLAYLIST, moved, first);
+
+        assertEquals(List.of(10L, 12L, 11L), recordOrder());
+        assertUniqueAndIncreasing(positions());
+    }
+
+    @Test
+    void moveToTheFrontGoesBelowTheCurrentMinimum() {
+        add(10L, 1024);
+        add(11L, 2048);
+        long moved = add(12L, 3072);
+
+        service.moveEntry(PLAYLIST, moved, null);
+
+        assertEquals(List.of(12L, 10L, 11L), recordOrder());
+        assertEquals(0L, entries.get(moved).getPosition());
+        verify(entryRepository, never()).renumber(anyLong(), anyLong());
+    }
+
+    @Test
+    void repeatedInsertsAtTheSamePointStayOrdered() {
+        long anchor = add(1L, 1024);
+        add(2L, 2048);
+
+        // Each insert lands right after the anchor, halving the gap until it runs out
+        for (long record = 100; record < 120; record++) {
+            service.addRecords(PLAYLIST, List.of(record), anchor);
+        }
+
+        List<Long> expected = new ArrayList<>(List.of(1L));
+        for (long record = 119; record >= 100; record--) {
+            expected.add(record);
+        }
+        expected.add(2L);
+        assertEquals(expected, recordOrder());
+        assertUniqueAndIncreasing(positions());
+    }
+
+    @Test
+    void otherUsersCannotReadOrChangeThePlaylist() {
+        long entry = add(10L, 1024);
+        signIn("someone-else@juzzt.test", "USER");
+
+        List<Runnable> calls = List.of(
+                () -> service.getEntries(PLAYLIST, null, 100),
+                () -> service.addRecords(PLAYLIST, List.of(11L), null),
+                () -> service.moveEntry(PLAYLIST, entry, null),
+                () -> service.removeEntry(PLAYLIST, entry));
+        for (Runnable call : calls) {
+            ResponseStatusException rejected = assertThrows(ResponseStatusException.class, call::run);
+            assertEquals(HttpStatus.FORBIDDEN, rejected.getStatusCode());
+        }
+        assertEquals(List.of(10L), recordOrder());
+        assertEquals(1024L, entries.get(entry).getPosition());
+    }
+
+    @Test
+    void adminsCanChangeAnyPlaylist() {
+        signIn("admin@juzzt.test", "ADMIN");
+
+        service.addRecords(PLAYLIST, List.of(10L), null);
+
+        assertEquals(List.of(10L), recordOrder());
+    }
+
+    private static void signIn(String email, String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                email, null, List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+    }
+
+    private long add(Long recordId, long position) {
+        Record record = new Record();
+        record.setId(recordId);
+        PlaylistEntry entry = new PlaylistEntry();
+        entry.setId(nextId++);
+        entry.setRecord(record);
+        entry.setPosition(position);
+        entries.put(entry.getId(), entry);
+        return entry.getId();
+    }
+
+    private List<PlaylistEntry> ordered() {
+        return entries.values().stream().sorted(Comparator.comparingLong(PlaylistEntry::getPosition)).toList();
+    }
+
+    private List<Long> positions() {
+        return ordered().stream().map(PlaylistEntry::getPosition).toList();
+    }
+
+    private List<Long> recordOrder() {
+        return ordered().stream().map(entry -> entry.getRecord().getId()).toList();
+    }
+
+    private static void assertUniqueAndIncreasing(List<Long> positions) {
+        for (int i = 1; i < positions.size(); i++) {
+            assertTrue(positions.get(i) > positions.get(i - 1), "positions " + positions);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.juzzt.service;
+
+import com.juzzt.dto.ProfilingSummaryDTO.GcPauses;
+import com.juzzt.dto.RecordingDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfilingServiceTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @TempDir
+    Path directory;
+
+    private ProfilingService service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    void badSettingsOrDurationAreRejectedWith400() throws IOException {
+        service = service(5);
+
+        for (Duration duration : List.of(Duration.ZERO, Duration.ofSeconds(-1))) {
+            ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                    () -> service.start("default", duration, Map.of()));
+            assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+        }
+        ResponseStatusException unknown = assertThrows(ResponseStatusException.class,
+                () -> service.start("no-such-settings", Duration.ofSeconds(1), Map.of()));
+        assertEquals(HttpStatus.BAD_REQUEST, unknown.getStatusCode());
+    }
+
+    @Test
+    void autoStoppedRecordingIsClosedAndTheNextGetsItsOwnFile() throws Exception {
+        service = service(5);
+        RecordingDTO first = service.start("default", Duration.ofMillis(200), Map.of()).orElseThrow();
+        assertTrue(service.start("default", Duration.ofSeconds(1), Map.of()).isEmpty()); // Still running
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.listRecordings().stream().anyMatch(recording -> recording.state().equals("RUNNING"))) {
+            assertTrue(System.nanoTime() < deadline, "recording did not stop by itself");
+            Thread.sleep(50);
+        }
+
+        // Started within the same second as the first one, still a different file
+        RecordingDTO second = service.start("default", Duration.ofSeconds(10), Map.of()).orElseThrow();
+        assertNotEquals(first.name(), second.name());
+        service.stop().orElseThrow();
+
+        List<String> files = service.listRecordings().stream().map(RecordingDTO::name).toList();
+        assertEquals(2, files.size());
+        assertTrue(files.containsAll(List.of(first.name(), second.name())));
+        assertTrue(service.getRecordingFile(first.name()).isPresent());
+    }
+
+    @Test
+    void onlyTheNewestRecordingsAreKept() throws Exception {
+        service = service(2);
+        Path oldest = oldRecording("juzzt-20240101-000000.jfr", 3);
+        Path older = oldRecording("juzzt-20240102-000000-7.jfr", 2);
+        Path old = oldRecording("juzzt-20240103-000000-8.jfr", 1);
+
+        service.start("default", Duration.ofSeconds(10), Map.of()).orElseThrow();
+        RecordingDTO stopped = service.stop().orElseThrow();
+
+        assertTrue(Files.exists(directory.resolve(stopped.name())));
+        assertTrue(Files.exists(old));
+        assertTrue(Files.notExists(older));
+        assertTrue(Files.notExists(oldest));
+    }
+
+    @Test
+    void onlyRecordingNamesCanBeDownloaded() throws IOException {
+        service = service(5);
+        Files.writeString(directory.resolve("juzzt-20240101-000000.jfr"), "legacy");
+        Files.writeString(directory.resolve("other.txt"), "not a recording");
+
+        assertTrue(service.getRecordingFile("juzzt-20240101-000000.jfr").isPresent());
+        assertEquals(Optional.empty(), service.getRecordingFile("other.txt"));
+        assertEquals(Optional.empty(), service.getRecordingFile("../juzzt-20240101-000000.jfr"));
+        assertEquals(Optional.empty(), service.getRecordingFile("juzzt-20240101-000000-1.jfr"));
+    }
+
+    @Test
+    void gcPauseSummaryUsesNearestRankP99() throws IOException {
+        service = service(5);
+        long now = System.currentTimeMillis();
+        assertEquals(new GcPauses(0, 0, 0, 0), service.gcPauseSummary(now));
+
+        for (int pause = 100; pause >= 1; pause--) {
+            service.recordGcPause(now, pause * MS);
+        }
+        GcPauses summary = service.gcPauseSummary(now);
+        assertEquals(100, summary.count());
+        assertEquals(5050.0, summary.totalMs(), 1e-9);
+        assertEquals(100.0, summary.maxMs(), 1e-9);
+        assertEquals(99.0, summary.p99Ms(), 1e-9); // 99th of 100 sorted pauses
+    }
+
+    @Test
+    void gcPauseSummaryForFewPausesAndOutsideTheWindow() throws IOException {
+        service = service(5);
+        long now = System.currentTimeMillis();
+        service.recordGcPause(now - Duration.ofSeconds(61).toMillis(), 500 * MS); // Older than the 60s window
+        service.recordGcPause(now, 3 * MS);
+        service.recordGcPause(now, 7 * MS);
+
+        GcPauses summary = service.gcPauseSummary(now);
+        assertEquals(2, summary.count());
+        assertEquals(10.0, summary.totalMs(), 1e-9);
+        assertEquals(7.0, summary.maxMs(), 1e-9);
+        assertEquals(7.0, summary.p99Ms(), 1e-9);
+    }
+
+    private ProfilingService service(int maxFiles) throws IOException {
+        return new ProfilingService(directory, Duration.ofMinutes(1), 64L * 1024 * 1024, maxFiles, false, 60);
+    }
+
+    private Path oldRecording(String name, int daysAgo) throws IOException {
+        Path file = Files.writeString(directory.resolve(name), "old");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(daysAgo))));
+        return file;
+    }
+}
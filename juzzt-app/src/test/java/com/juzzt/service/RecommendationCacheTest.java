@@ -0,0 +1,280 @@
+package com.juzzt.service;
+
+import com.juzzt.event.DomainEvent;
+import com.juzzt.event.RecordChangedEvent;
+import com.juzzt.model.Record;
+import com.juzzt.model.RecordChange.ChangeType;
+import com.juzzt.service.RecommendationCache.CachedRecommendations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stale-while-refresh, eviction and single-flight interleavings. Background refreshes are queued
+ * and run by the test, so each interleaving is reproduced deterministically.
+ */
+class RecommendationCacheTest {
+    private static final Long USER = 7L;
+
+    private final List<Runnable> queued = new ArrayList<>();
+    private final AtomicInteger computations = new AtomicInteger();
+    private volatile Supplier<List<Record>> recommender;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private RecommendationService recommendationService;
+    private StringRedisTemplate redis;
+    private SetOperations<String, String> sets;
+    private TaskExecutor executor = queued::add;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        sets = mock(SetOperations.class);
+        when(redis.opsForSet()).thenReturn(sets);
+        cacheManager = new ConcurrentMapCacheManager(RecommendationCache.CACHE_NAME);
+        recommendationService = mock(RecommendationService.class);
+        when(recommendationService.getRecommendationsForUser(USER)).thenAnswer(call -> {
+            computations.incrementAndGet();
+            return recommender.get();
+        });
+    }
+
+    @Test
+    void coldMissComputesAndCachesInBothTiers() {
+        RecommendationCache cache = cache();
+        recommender = () -> records(1, 2);
+
+        assertEquals(ids(1, 2), ids(cache.getRecommendationsForUser(USER)));
+        assertEquals(ids(1, 2), ids(cache.getRecommendationsForUser(USER)));
+        assertEquals(1, computations.get());
+        assertEquals(ids(1, 2), ids(shared().records()));
+    }
+
+    @Test
+    void staleEntryIsServedWhileOneRefreshRunsInTheBackground() {
+        RecommendationCache cache = cache();
+        sharedCache().put(USER, new CachedRecommendations(records(1), System.currentTimeMillis() - Duration.ofHours(1).toMillis()));
+        recommender = () -> records(2);
+
+        assertEquals(ids(1), ids(cache.getRecommendationsForUser(USER)));
+        assertEquals(ids(1), ids(cache.getRecommendationsForUser(USER)));
+        assertEquals(1, queued.size());
+        assertEquals(0, computations.get());
+
+        runQueued();
+        assertEquals(ids(2), ids(cache.getRecommendationsForUser(USER)));
+        assertEquals(ids(2), ids(shared().records()));
+    }
+
+    @Test
+    void refreshThatStartedBeforeAnEvictionIsDropped() {
+        RecommendationCache cache = cache();
+        sharedCache().put(USER, new CachedRecommendations(records(1), System.currentTimeMillis() - Duration.ofHours(1).toMillis()));
+        cache.getRecommendationsForUser(USER);
+
+        // The order commits (and evicts) while the refresh is still reading pre-order data
+        recommender = () -> {
+            cache.evict(USER);
+            return records(1);
+        };
+        runQueued();
+
+        assertNull(sharedCache().get(USER));
+        recommender = () -> records(3);
+        assertEquals(ids(3), ids(cache.getRecommendationsForUser(USER)));
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    void evictionFromAnotherNodeAlsoDropsTheRefresh() {
+        RecommendationCache cache = cache();
+        sharedCache().put(USER, new CachedRecommendations(records(1), System.currentTimeMillis() - Duration.ofHours(1).toMillis()));
+        cache.getRecommendationsForUser(USER);
+
+        recommender = () -> {
+            sharedCache().evict(USER); // The other node's eviction...
+            cache.onMessage(new DefaultMessage("juzzt:recommendations:invalidate".getBytes(),
+                    USER.toString().getBytes()), null); // ...and its broadcast
+            return records(1);
+        };
+        runQueued();
+
+        assertNull(sharedCache().get(USER));
+    }
+
+    @Test
+    void coldMissEvictedWhileComputingIsReturnedButNotCached() {
+        RecommendationCache cache = cache();
+        recommender = () -> {
+            cache.evict(USER);
+            return records(1);
+        };
+
+        assertEquals(ids(1), ids(cache.getRecommendationsForUser(USER)));
+        assertNull(sharedCache().get(USER));
+
+        recommender = () -> records(2);
+        assertEquals(ids(2), ids(cache.getRecommendationsForUser(USER)));
+    }
+
+    @Test
+    void concurrentColdMissesShareOneComputation() throws Exception {
+        RecommendationCache cache = cache();
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        recommender = () -> {
+            computing.countDown();
+            await(release);
+            return records(4);
+        };
+
+        CompletableFuture<List<Record>> first = CompletableFuture.supplyAsync(() -> cache.getRecommendationsForUser(USER));
+        assertTrue(computing.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<List<Record>>> others = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            others.add(CompletableFuture.supplyAsync(() -> cache.getRecommendationsForUser(USER)));
+        }
+        Thread.sleep(100); // Let the other misses find the computation in flight
+        release.countDown();
+
+        assertEquals(ids(4), ids(first.get(5, TimeUnit.SECONDS)));
+        for (CompletableFuture<List<Record>> other : others) {
+            assertEquals(ids(4), ids(other.get(5, TimeUnit.SECONDS)));
+        }
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    void missAfterAnEvictionDoesNotJoinTheComputationItInvalidated() throws Exception {
+        RecommendationCache cache = cache();
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        recommender = () -> {
+            computing.countDown();
+            await(release);
+            return records(1);
+        };
+        CompletableFuture<List<Record>> before = CompletableFuture.supplyAsync(() -> cache.getRecommendationsForUser(USER));
+        assertTrue(computing.await(5, TimeUnit.SECONDS));
+
+        cache.evict(USER);
+        recommender = () -> records(2);
+        assertEquals(ids(2), ids(cache.getRecommendationsForUser(USER)));
+
+        release.countDown();
+        assertEquals(ids(1), ids(before.get(5, TimeUnit.SECONDS)));
+        // The pre-eviction computation finished last but didn't overwrite the newer list
+        assertEquals(ids(2), ids(shared().records()));
+        assertEquals(ids(2), ids(cache.getRecommendationsForUser(USER)));
+    }
+
+    @Test
+    void rejectedRefreshIsRetriedByALaterRequest() {
+        executor = task -> {
+            throw new TaskRejectedException("queue full");
+        };
+        RecommendationCache cache = cache();
+        sharedCache().put(USER, new CachedRecommendations(records(1), System.currentTimeMillis() - Duration.ofHours(1).toMillis()));
+
+        assertEquals(ids(1), ids(cache.getRecommendationsForUser(USER)));
+
+        executor = queued::add;
+        assertEquals(ids(1), ids(cache.getRecommendationsForUser(USER)));
+        assertEquals(1, queued.size());
+    }
+
+    @Test
+    void failedEvictionIsThrownAndTheIndexKeptForTheRetry() {
+        RecommendationCache cache = cache();
+        String key = "juzzt:recommendations:users-by-record:3";
+        when(sets.members(key)).thenReturn(Set.of(USER.toString()));
+        doThrow(new RedisConnectionFailureException("Redis down")).when(redis).convertAndSend(anyString(), anyString());
+
+        List<DomainEvent> events = List.of(new RecordChangedEvent(3L, ChangeType.UPDATED, 2));
+        assertThrows(RedisConnectionFailureException.class, () -> cache.onEvents(events));
+        verify(redis, never()).delete(anyCollection());
+
+        doReturn(1L).when(redis).convertAndSend(anyString(), anyString());
+        cache.onEvents(events);
+        verify(redis).delete(List.of(key));
+    }
+
+    private RecommendationCache cache() {
+        return new RecommendationCache(recommendationService, cacheManager, redis, mock(RedisMessageListenerContainer.class),
+                task -> executor.execute(task), Duration.ofMinutes(5), Duration.ofHours(1), 100);
+    }
+
+    private void runQueued() {
+        List<Runnable> tasks = new ArrayList<>(queued);
+        queued.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private Cache sharedCache() {
+        return cacheManager.getCache(RecommendationCache.CACHE_NAME);
+    }
+
+    private CachedRecommendations shared() {
+        return sharedCache().get(USER, CachedRecommendations.class);
+    }
+
+    private static List<Record> records(long... ids) {
+        List<Record> records = new ArrayList<>();
+        for (long id : ids) {
+            Record record = new Record();
+            record.setId(id);
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static List<Long> ids(long... ids) {
+        List<Long> list = new ArrayList<>();
+        for (long id : ids) list.add(id);
+        return list;
+    }
+
+    private static List<Long> ids(List<Record> records) {
+        return records.stream().map(Record::getId).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.juzzt.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * The nightly cron runs on the shared scheduler thread, so it must only queue training.
+ */
+class RecommendationTrainingScheduleTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Test
+    void scheduledRunIsHandedToTheTrainingExecutor() {
+        List<Runnable> queued = new ArrayList<>();
+        RecommendationModelService service = service(queued::add);
+
+        service.scheduledTraining();
+
+        assertEquals(1, queued.size());
+        // Nothing was loaded or trained on the calling thread
+        verifyNoInteractions(jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void scheduledRunIsSkippedWhileOneIsQueued() {
+        RecommendationModelService service = service(task -> {
+            throw new TaskRejectedException("queue full");
+        });
+
+        assertDoesNotThrow(service::scheduledTraining);
+    }
+
+    private RecommendationModelService service(TaskExecutor executor) {
+        return new RecommendationModelService(jdbcTemplate, transactionManager, executor,
+                Path.of("unused.model"), 4, 1, 0.1f, 40, 1, 8, 50, 50);
+    }
+}
@@ -0,0 +1,106 @@
+package com.juzzt.service;
+
+import com.juzzt.config.RecordCacheKeys;
+import com.juzzt.config.ResilientCacheManager;
+import com.juzzt.model.Record;
+import com.juzzt.repository.RecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis is a mocked template; the batch path must go through the resilient cache manager
+ * the same way @Cacheable lookups do.
+ */
+class RecordBatchServiceTest {
+    private final CatalogSnapshotService catalogSnapshotService = mock(CatalogSnapshotService.class);
+    private final RecordRepository recordRepository = mock(RecordRepository.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> cacheTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+    private RecordBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleCacheManager delegate = new SimpleCacheManager();
+        delegate.setCaches(List.of(new ConcurrentMapCache(RecordCacheKeys.CACHE_NAME)));
+        delegate.afterPropertiesSet();
+        ResilientCacheManager cacheManager = new ResilientCacheManager(delegate, new SimpleMeterRegistry(), 3,
+                Duration.ofMinutes(1), 100, Duration.ofMinutes(1));
+        when(cacheTemplate.opsForValue()).thenReturn(valueOperations);
+        when(catalogSnapshotService.findLoaded(any())).thenReturn(Map.of());
+        service = new RecordBatchService(catalogSnapshotService, recordRepository, cacheManager, cacheTemplate, Duration.ZERO);
+    }
+
+    @Test
+    void cachedRecordsAndNotFoundMarkersSkipTheDatabase() {
+        when(valueOperations.multiGet(List.of("records::3", "records::1", "records::2")))
+                .thenReturn(Arrays.asList(null, record(1), NullValue.INSTANCE));
+        when(recordRepository.findAllById(List.of(3L))).thenReturn(List.of(record(3)));
+
+        List<Record> records = service.getRecordsByIds(List.of(3L, 1L, 2L, 1L));
+
+        assertEquals(List.of(3L, 1L), records.stream().map(Record::getId).toList());
+        verify(recordRepository).findAllById(List.of(3L));
+        verify(cacheTemplate).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    void failingRedisFallsBackToLocalCopiesAndOpensTheBreaker() {
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(null, null));
+        when(recordRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(record(1)));
+        service.getRecordsByIds(List.of(1L, 2L)); // Back-fill leaves local copies, including "not found" for 2
+
+        when(valueOperations.multiGet(anyList())).thenThrow(new RedisConnectionFailureException("Redis down"));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(List.of(1L), service.getRecordsByIds(List.of(1L, 2L)).stream().map(Record::getId).toList());
+        }
+
+        // Only the first batch hit the database; the breaker opened after three failed MGETs
+        verify(recordRepository, times(1)).findAllById(any());
+        verify(valueOperations, times(4)).multiGet(anyList());
+    }
+
+    @Test
+    void redisIsNotCalledWhileTheBreakerIsOpen() {
+        when(valueOperations.multiGet(anyList())).thenThrow(new RedisConnectionFailureException("Redis down"));
+        when(cacheTemplate.executePipelined(any(SessionCallback.class))).thenThrow(new RedisConnectionFailureException("Redis down"));
+        when(recordRepository.findAllById(any())).thenReturn(List.of());
+
+        // MGET and back-fill fail on the first call, the second MGET opens the breaker
+        for (long id = 1; id <= 5; id++) {
+            service.getRecordsByIds(List.of(id));
+        }
+
+        verify(valueOperations, times(2)).multiGet(anyList());
+        verify(cacheTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(recordRepository, times(5)).findAllById(any());
+    }
+
+    private static Record record(long id) {
+        Record record = new Record("title " + id, "artist", "Rock", 10.0, null, null);
+        record.setId(id);
+        return record;
+    }
+}
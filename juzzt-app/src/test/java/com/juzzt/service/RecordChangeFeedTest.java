@@ -0,0 +1,102 @@
+package com.juzzt.service;
+
+import com.juzzt.dto.RecordChangeDTO;
+import com.juzzt.dto.RecordChangeFeedDTO;
+import com.juzzt.model.Record;
+import com.juzzt.model.RecordChange;
+import com.juzzt.model.RecordChange.ChangeType;
+import com.juzzt.repository.RecordChangeRepository;
+import com.juzzt.repository.RecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Paging through getChangesSince over an in-memory change log that behaves like the table:
+ * ids only ever become visible in increasing order (see RecordChangeOrderTest).
+ */
+class RecordChangeFeedTest {
+    private final List<RecordChange> log = new ArrayList<>();
+    private RecordService recordService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RecordChangeRepository changes = mock(RecordChangeRepository.class);
+        when(changes.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenAnswer(call -> {
+            long cursor = call.getArgument(0);
+            Pageable page = call.getArgument(1);
+            return log.stream().filter(change -> change.getId() > cursor).limit(page.getPageSize()).toList();
+        });
+        RecordRepository records = mock(RecordRepository.class);
+        when(records.findAllById(any())).thenAnswer(call -> ((Collection<Long>) call.getArgument(0)).stream()
+                .map(id -> {
+                    Record record = new Record("Title " + id, "Artist", "Jazz", 10.0, null, null);
+                    record.setId(id);
+                    return record;
+                })
+                .toList());
+        recordService = new RecordService(records, null, null, null, changes, null, null, null, null, null);
+    }
+
+    @Test
+    void pagesInCursorOrderUntilCaughtUp() {
+        for (long id = 1; id <= 5; id++) append(id, id % 2 + 100);
+
+        RecordChangeFeedDTO first = recordService.getChangesSince(0L, 2);
+        assertEquals(List.of(1L, 2L), cursors(first));
+        assertEquals(2L, first.nextCursor());
+        assertTrue(first.hasMore());
+        assertEquals(101L, first.changes().get(0).record().getId());
+
+        RecordChangeFeedDTO second = recordService.getChangesSince(first.nextCursor(), 2);
+        assertEquals(List.of(3L, 4L), cursors(second));
+
+        RecordChangeFeedDTO last = recordService.getChangesSince(second.nextCursor(), 2);
+        assertEquals(List.of(5L), cursors(last));
+        assertFalse(last.hasMore());
+
+        RecordChangeFeedDTO empty = recordService.getChangesSince(last.nextCursor(), 2);
+        assertTrue(empty.changes().isEmpty());
+        assertEquals(5L, empty.nextCursor()); // Caught up: the cursor stays put
+    }
+
+    @Test
+    void changeCommittedAfterAReadIsPickedUpFromTheSameCursor() {
+        append(1, 100);
+        RecordChangeFeedDTO read = recordService.getChangesSince(0L, 10);
+        assertEquals(1L, read.nextCursor());
+
+        // Id 2 was rolled back and left a gap; the next writer could only draw an id after id 1 committed
+        append(3, 101);
+        assertEquals(List.of(3L), cursors(recordService.getChangesSince(read.nextCursor(), 10)));
+    }
+
+    @Test
+    void limitIsClampedToOneAndPageMaximum() {
+        for (long id = 1; id <= 3; id++) append(id, 100);
+        assertEquals(1, recordService.getChangesSince(0L, 0).changes().size());
+        assertEquals(3, recordService.getChangesSince(null, 100_000).changes().size());
+    }
+
+    private void append(long id, long recordId) {
+        log.add(new RecordChange(id, recordId, ChangeType.UPDATED, 1, LocalDateTime.now()));
+    }
+
+    private static List<Long> cursors(RecordChangeFeedDTO feed) {
+        return feed.changes().stream().map(RecordChangeDTO::cursor).toList();
+    }
+}
@@ -0,0 +1,78 @@
+package com.juzzt.service;
+
+import com.juzzt.config.ReplicaLagMonitor;
+import com.juzzt.model.Record;
+import com.juzzt.repository.RecordChangeRepository;
+import com.juzzt.repository.RecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * createRecord calls MusicBrainz and the Cover Art Archive before its transaction starts,
+ * so no connection or lock is held during the outbound I/O.
+ */
+class RecordCreateTest {
+    private final List<String> calls = new ArrayList<>();
+    private boolean inTransaction;
+
+    @Test
+    void lookupsRunBeforeTheTransactionAndOnlyTheInsertInsideIt() throws IOException {
+        MusicBrainzService musicBrainzService = mock(MusicBrainzService.class);
+        when(musicBrainzService.getMusicBrainzId("Artist", "Title")).thenAnswer(call -> called("musicbrainz", "mbid"));
+        AlbumCoverService albumCoverService = mock(AlbumCoverService.class);
+        when(albumCoverService.getAlbumCover("mbid")).thenAnswer(call -> called("cover", "/api/covers/mbid"));
+        RecordRepository recordRepository = mock(RecordRepository.class);
+        when(recordRepository.saveAndFlush(any())).thenAnswer(call -> {
+            Record record = call.getArgument(0);
+            record.setId(1L);
+            return called("insert", record);
+        });
+
+        RecordService service = new RecordService(recordRepository, musicBrainzService, albumCoverService, null,
+                mock(RecordChangeRepository.class), new TransactionTemplate(new FlagTransactionManager()), null,
+                mock(EventOutbox.class), mock(ReplicaLagMonitor.class), null);
+        Record created = service.createRecord(new Record("Title", "Artist", "Jazz", 10.0, null, null), null);
+
+        assertEquals("/api/covers/mbid", created.getImageUrl());
+        assertEquals(List.of("musicbrainz outside", "cover outside", "insert inside"), calls);
+    }
+
+    private <T> T called(String name, T result) {
+        calls.add(name + (inTransaction ? " inside" : " outside"));
+        return result;
+    }
+
+    private class FlagTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            inTransaction = true;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            inTransaction = false;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            inTransaction = false;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.juzzt.service;
+
+import com.juzzt.dto.GenreSalesDTO;
+import com.juzzt.event.OrderPlacedEvent;
+import com.juzzt.repository.RecordRepository;
+import com.juzzt.service.SalesAggregator.Ranked;
+import com.juzzt.service.SalesAggregator.Window;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Top-K rankings built from relayed orders.
+ */
+class SalesRankingTest {
+    private final AtomicLong orderIds = new AtomicLong();
+    private SalesAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new SalesAggregator(mock(RecordRepository.class), mock(JdbcTemplate.class),
+                mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void bestsellersAreOrderedBySalesAndCappedAtK() {
+        LocalDateTime now = LocalDateTime.now();
+        int records = SalesAggregator.TOP_K + 50;
+        for (long record = 1; record <= records; record++) {
+            order(now, new OrderPlacedEvent.Line(record, "Rock", (int) record));
+        }
+        aggregator.recomputeRankings();
+
+        List<Ranked<Long>> top = aggregator.getBestsellers(Window.HOUR, null, Integer.MAX_VALUE);
+        assertEquals(SalesAggregator.TOP_K, top.size());
+        assertEquals(records, top.get(0).key());
+        assertEquals(records, top.get(0).sales());
+        // The 50 smallest sellers fell out of the bounded heap
+        assertEquals(51L, top.get(top.size() - 1).key());
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).sales() >= top.get(i).sales());
+        }
+        assertEquals(List.of(records + 0L, records - 1L, records - 2L),
+                aggregator.getBestsellers(Window.HOUR, null, 3).stream().map(Ranked::key).toList());
+    }
+
+    @Test
+    void rankingsArePerWindowAndPerGenre() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime threeDaysAgo = now.minusDays(3);
+        order(threeDaysAgo, new OrderPlacedEvent.Line(1L, "Jazz", 100));
+        order(threeDaysAgo, new OrderPlacedEvent.Line(3L, "Rock", 50));
+        order(now, new OrderPlacedEvent.Line(1L, "Jazz", 10), new OrderPlacedEvent.Line(2L, "Rock", 20));
+        aggregator.recomputeRankings();
+
+        assertEquals(List.of(2L, 1L), keys(aggregator.getBestsellers(Window.HOUR, null, 10)));
+        assertEquals(List.of(1L, 3L, 2L), keys(aggregator.getBestsellers(Window.WEEK, null, 10)));
+        assertEquals(List.of(3L, 2L), keys(aggregator.getBestsellers(Window.WEEK, "rock", 10)));
+        assertEquals(List.of(new GenreSalesDTO("Jazz", 110), new GenreSalesDTO("Rock", 70)),
+                aggregator.getTopGenres(Window.WEEK, 10));
+    }
+
+    @Test
+    void trendingDiscountsTheWeeklyBaseline() {
+        LocalDateTime now = LocalDateTime.now();
+        // Record 1 sells more this hour, but most of its weekly volume is older; record 2 only sells now
+        order(now.minusDays(3), new OrderPlacedEvent.Line(1L, "Jazz", 1680));
+        order(now, new OrderPlacedEvent.Line(1L, "Jazz", 12), new OrderPlacedEvent.Line(2L, "Jazz", 8));
+        aggregator.recomputeRankings();
+
+        List<Ranked<Long>> trending = aggregator.getTrending(Window.HOUR, null, 10);
+        assertEquals(List.of(2L, 1L), keys(trending));
+        assertEquals(8 - 8.0 / 168, trending.get(0).score(), 1e-9);
+        assertEquals(12 - 1692.0 / 168, trending.get(1).score(), 1e-9);
+        assertTrue(aggregator.getTrending(Window.WEEK, null, 10).isEmpty());
+    }
+
+    @Test
+    void redeliveredOrdersAreCountedOnce() {
+        OrderPlacedEvent event = new OrderPlacedEvent(42L, 1L, LocalDateTime.now(),
+                List.of(new OrderPlacedEvent.Line(7L, "Soul", 3)));
+        aggregator.onEvents(List.of(event));
+        aggregator.onEvents(List.of(event));
+
+        assertEquals(3, aggregator.getRecordSales(7L, Window.HOUR));
+    }
+
+    private void order(LocalDateTime placedAt, OrderPlacedEvent.Line... lines) {
+        aggregator.onEvents(List.of(new OrderPlacedEvent(orderIds.incrementAndGet(), 1L, placedAt, List.of(lines))));
+    }
+
+    private static List<Long> keys(List<Ranked<Long>> ranked) {
+        return ranked.stream().map(Ranked::key).toList();
+    }
+}
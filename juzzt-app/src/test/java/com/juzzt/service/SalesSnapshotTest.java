@@ -0,0 +1,82 @@
+package com.juzzt.service;
+
+import com.juzzt.event.OrderPlacedEvent;
+import com.juzzt.repository.RecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Snapshots add to record_sales_hourly, so each node may only write what it counted since its last one.
+ */
+class SalesSnapshotTest {
+    private final AtomicLong orderIds = new AtomicLong();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Map<Long, Long>> writes = new ArrayList<>();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private SalesAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new SalesAggregator(mock(RecordRepository.class), jdbcTemplate, mock(PlatformTransactionManager.class));
+        doAnswer(call -> {
+            if (failing.get()) throw new DataAccessResourceFailureException("database down");
+            List<Object[]> rows = call.getArgument(1);
+            assertTrue(call.<String>getArgument(0).contains("record_sales_hourly.quantity + EXCLUDED.quantity"));
+            Map<Long, Long> written = new TreeMap<>();
+            rows.forEach(row -> written.put((Long) row[0], (Long) row[2]));
+            writes.add(written);
+            return new int[rows.size()];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void writesOnlyWhatWasCountedSinceTheLastSnapshot() {
+        LocalDateTime now = LocalDateTime.now();
+        order(now, new OrderPlacedEvent.Line(1L, "Rock", 3), new OrderPlacedEvent.Line(2L, "Jazz", 1));
+        aggregator.snapshot();
+
+        order(now, new OrderPlacedEvent.Line(1L, "Rock", 2));
+        aggregator.snapshot();
+        aggregator.snapshot(); // Nothing new
+
+        assertEquals(List.of(Map.of(1L, 3L, 2L, 1L), Map.of(1L, 2L)), writes);
+    }
+
+    @Test
+    void failedHourIsWrittenOnceOnTheNextRun() {
+        LocalDateTime now = LocalDateTime.now();
+        order(now, new OrderPlacedEvent.Line(1L, "Rock", 4));
+        failing.set(true);
+        aggregator.snapshot();
+        assertTrue(writes.isEmpty());
+
+        failing.set(false);
+        order(now, new OrderPlacedEvent.Line(1L, "Rock", 1));
+        aggregator.snapshot();
+        aggregator.snapshot();
+
+        assertEquals(List.of(Map.of(1L, 5L)), writes);
+    }
+
+    private void order(LocalDateTime placedAt, OrderPlacedEvent.Line... lines) {
+        aggregator.onEvents(List.of(new OrderPlacedEvent(orderIds.incrementAndGet(), 1L, placedAt, List.of(lines))));
+    }
+}
@@ -0,0 +1,111 @@
+package com.juzzt.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlsTrainerTest {
+    private static final int FACTORS = 4;
+    private static final float REGULARIZATION = 0.1f;
+    private static final float ALPHA = 10;
+
+    // Two taste groups: users 0-2 buy records 0-2, users 3-5 buy records 3-5; user 2 also bought record 3 once
+    private static final int[][] PURCHASES = {
+            {0, 0, 2}, {0, 1, 1}, {1, 1, 3}, {1, 2, 1}, {2, 0, 1}, {2, 2, 2}, {2, 3, 1},
+            {3, 3, 1}, {3, 4, 2}, {4, 4, 1}, {4, 5, 1}, {5, 3, 2}, {5, 5, 1}};
+
+    @Test
+    void eachIterationLowersTheObjective() {
+        AlsTrainer.SparseMatrix matrix = matrix();
+
+        double previous = Double.MAX_VALUE;
+        for (int iterations = 1; iterations <= 6; iterations++) {
+            // Same seed, so a run with n iterations continues exactly where the run with n - 1 stopped
+            double loss = loss(matrix, new AlsTrainer(FACTORS, iterations, REGULARIZATION, ALPHA, 2, 7L).train(matrix));
+            assertTrue(loss <= previous + 1e-6, "iteration " + iterations + ": " + loss + " > " + previous);
+            previous = loss;
+        }
+        double first = loss(matrix, new AlsTrainer(FACTORS, 1, REGULARIZATION, ALPHA, 2, 7L).train(matrix));
+        assertTrue(previous < first, "no progress after the first iteration");
+    }
+
+    @Test
+    void scoresPurchasedRecordsAboveTheOtherGroup() {
+        AlsTrainer.SparseMatrix matrix = matrix();
+        AlsTrainer.Factors trained = new AlsTrainer(FACTORS, 10, REGULARIZATION, ALPHA, 2, 7L).train(matrix);
+
+        for (int user = 0; user < 6; user++) {
+            int ownGroup = user < 3 ? 0 : 3;
+            int otherGroup = user < 3 ? 3 : 0;
+            double own = 0;
+            double other = 0;
+            for (int offset = 0; offset < 3; offset++) {
+                own += predict(trained, user, ownGroup + offset);
+                other += predict(trained, user, otherGroup + offset);
+            }
+            assertTrue(own > other, "user " + user);
+        }
+    }
+
+    @Test
+    void transposeSwapsRowsAndColumns() {
+        AlsTrainer.SparseMatrix matrix = matrix();
+        AlsTrainer.SparseMatrix transposed = matrix.transpose();
+
+        assertEquals(6, transposed.rows());
+        assertEquals(PURCHASES.length, transposed.values().length);
+        for (int[] purchase : PURCHASES) {
+            assertEquals(purchase[2], value(transposed, purchase[1], purchase[0]));
+        }
+        assertEquals(0, value(transposed, 0, 3));
+    }
+
+    /**
+     * The implicit-feedback objective ALS minimizes: confidence-weighted squared error over every cell
+     * (preference 1 where bought, 0 elsewhere) plus L2 on both factor matrices.
+     */
+    private static double loss(AlsTrainer.SparseMatrix matrix, AlsTrainer.Factors factors) {
+        double loss = 0;
+        for (int user = 0; user < matrix.rows(); user++) {
+            for (int record = 0; record < matrix.columns(); record++) {
+                float bought = value(matrix, user, record);
+                double confidence = 1 + ALPHA * bought;
+                double error = (bought > 0 ? 1 : 0) - predict(factors, user, record);
+                loss += confidence * error * error;
+            }
+        }
+        for (float x : factors.userFactors()) loss += REGULARIZATION * x * x;
+        for (float y : factors.itemFactors()) loss += REGULARIZATION * y * y;
+        return loss;
+    }
+
+    private static double predict(AlsTrainer.Factors factors, int user, int record) {
+        double dot = 0;
+        for (int k = 0; k < factors.factors(); k++) {
+            dot += factors.userFactors()[user * factors.factors() + k] * factors.itemFactors()[record * factors.factors() + k];
+        }
+        return dot;
+    }
+
+    private static float value(AlsTrainer.SparseMatrix matrix, int row, int column) {
+        for (int p = matrix.rowStart()[row]; p < matrix.rowStart()[row + 1]; p++) {
+            if (matrix.columnIndex()[p] == column) return matrix.values()[p];
+        }
+        return 0;
+    }
+
+    // PURCHASES is sorted by user, so it is already in row order
+    private static AlsTrainer.SparseMatrix matrix() {
+        int[] rowStart = new int[7];
+        int[] columns = new int[PURCHASES.length];
+        float[] values = new float[PURCHASES.length];
+        for (int i = 0; i < PURCHASES.length; i++) {
+            rowStart[PURCHASES[i][0] + 1]++;
+            columns[i] = PURCHASES[i][1];
+            values[i] = PURCHASES[i][2];
+        }
+        for (int r = 0; r < 6; r++) rowStart[r + 1] += rowStart[r];
+        return new AlsTrainer.SparseMatrix(6, 6, rowStart, columns, values);
+    }
+}
@@ -0,0 +1,78 @@
+package com.juzzt.util;
+
+import com.juzzt.model.Record;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Retained heap per record for the entity list the catalog cache holds versus the column-wise
+ * snapshot. Heap deltas are only meaningful on a quiet JVM, so this is kept out of the default
+ * build. Run with:
+ *   mvn test -Pbenchmark -Djuzzt.benchmark.records=200000
+ */
+@Tag("benchmark")
+class CatalogSnapshotMemoryTest {
+    private static final int RECORDS = Integer.getInteger("juzzt.benchmark.records", 100_000);
+    private static final int ARTISTS = RECORDS / 20;
+    private static final String[] GENRES = {"Rock", "Jazz", "Electronic", "Hip-Hop", "Classical", "Pop", "Folk", "Soul"};
+
+    @Test
+    void bytesPerRecord() {
+        long baseline = usedHeap();
+        List<Record> entities = records();
+        long entityBytes = usedHeap() - baseline;
+
+        CatalogSnapshot snapshot = CatalogSnapshot.of(entities, 0L);
+        long withSnapshot = usedHeap();
+        // Keep the snapshot, drop the entities it was built from
+        entities.clear();
+        long snapshotBytes = usedHeap() - baseline;
+
+        System.out.printf("records=%d entities=%d B/record snapshot=%d B/record (%d artists, %d genres)%n",
+                RECORDS, entityBytes / RECORDS, snapshotBytes / RECORDS, snapshot.artistCount(), snapshot.genreCount());
+
+        assertEquals(RECORDS, snapshot.size());
+        assertTrue(withSnapshot > baseline);
+        assertTrue(snapshotBytes < entityBytes, "snapshot should be smaller than the entities");
+    }
+
+    // Each row gets its own String instances, the way they come out of a JDBC result set
+    private static List<Record> records() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Record> records = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            Record record = new Record("Album " + i, new String("Artist " + (i % ARTISTS)),
+                    new String(GENRES[i % GENRES.length]), 9.99 + (i % 40),
+                    i % 3 == 0 ? null : "https://covers.example/api/covers/" + i, "mbid-" + i);
+            record.setId((long) i + 1);
+            record.setVersion(i % 5);
+            record.setHasImage(i % 3 != 0);
+            record.setCreatedAt(now.minusMinutes(i));
+            record.setUpdatedAt(now);
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
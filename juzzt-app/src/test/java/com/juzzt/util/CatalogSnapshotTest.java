@@ -0,0 +1,196 @@
+package com.juzzt.util;
+
+import com.juzzt.model.Record;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSnapshotTest {
+
+    @Test
+    void listsRecordsWithUnknownImageFirstThenWithImageThenWithoutByIdWithin() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+                record(5, "Rock", true), record(1, "Jazz", false), record(4, "Rock", null),
+                record(2, "Rock", true), record(3, "Jazz", false), record(6, "Jazz", null)), 0L);
+
+        assertEquals(List.of(4L, 6L, 2L, 5L, 1L, 3L), ids(snapshot.list()));
+        assertEquals(List.of(4L, 2L, 5L), ids(snapshot.listByGenre("Rock")));
+        assertEquals(List.of(6L, 1L, 3L), ids(snapshot.listByGenre("Jazz")));
+        assertEquals(List.of(), snapshot.listByGenre("Polka"));
+    }
+
+    @Test
+    void findRoundTripsEveryColumn() {
+        Record original = record(7, "Soul", true);
+        original.setPrice(24.5);
+        original.setThumbnailUrl("/media/7-300.jpg");
+        original.setMusicbrainzId("11111111-1111-1111-1111-111111111111");
+        original.setImageStatus(Record.ImageStatus.READY);
+        original.setCreatedAt(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000));
+        original.setUpdatedAt(LocalDateTime.of(2024, 3, 2, 8, 0));
+        original.setVersion(3);
+        Record unset = new Record(null, null, null, null, null, null);
+        unset.setId(8L);
+
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(original, unset), 0L);
+
+        Record found = snapshot.find(7).orElseThrow();
+        assertEquals("title 7", found.getTitle());
+        assertEquals("artist 7", found.getArtist());
+        assertEquals("Soul", found.getGenre());
+        assertEquals(Double.valueOf(24.5), found.getPrice());
+        assertEquals("/img/7.jpg", found.getImageUrl());
+        assertEquals("/media/7-300.jpg", found.getThumbnailUrl());
+        assertEquals("11111111-1111-1111-1111-111111111111", found.getMusicbrainzId());
+        assertEquals(Record.ImageStatus.READY, found.getImageStatus());
+        assertEquals(true, found.getHasImage());
+        assertEquals(original.getCreatedAt(), found.getCreatedAt());
+        assertEquals(original.getUpdatedAt(), found.getUpdatedAt());
+        assertEquals(3, found.getVersion());
+
+        Record empty = snapshot.find(8).orElseThrow();
+        assertNull(empty.getPrice());
+        assertNull(empty.getArtist());
+        assertNull(empty.getGenre());
+        assertNull(empty.getHasImage());
+        assertNull(empty.getCreatedAt());
+        assertTrue(snapshot.find(9).isEmpty());
+    }
+
+    @Test
+    void foundRecordsAreDetachedCopies() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(record(1, "Rock", true)), 0L);
+
+        snapshot.find(1).orElseThrow().setTitle("changed");
+
+        assertEquals("title 1", snapshot.find(1).orElseThrow().getTitle());
+    }
+
+    @Test
+    void withInsertsInIdOrderAndLeavesTheOriginalUntouched() {
+        CatalogSnapshot original = CatalogSnapshot.of(List.of(record(1, "Rock", false), record(5, "Rock", false)), 10L);
+
+        CatalogSnapshot next = original.with(record(3, "Blues", true), 11L);
+
+        assertEquals(List.of(3L, 1L, 5L), ids(next.list()));
+        assertEquals(List.of(3L), ids(next.listByGenre("Blues")));
+        assertEquals(11L, next.changeCursor());
+        assertEquals(3, next.size());
+        assertEquals(List.of(1L, 5L), ids(original.list()));
+        assertEquals(10L, original.changeCursor());
+        assertTrue(original.listByGenre("Blues").isEmpty());
+    }
+
+    @Test
+    void withReplacesANewerVersionAndMovesItBetweenGenres() {
+        CatalogSnapshot original = CatalogSnapshot.of(List.of(record(1, "Rock", false), record(2, "Rock", false)), 0L);
+        Record updated = record(1, "Jazz", true);
+        updated.setVersion(1);
+
+        CatalogSnapshot next = original.with(updated, 1L);
+
+        assertEquals(List.of(1L, 2L), ids(next.list()));
+        assertEquals(List.of(2L), ids(next.listByGenre("Rock")));
+        assertEquals(List.of(1L), ids(next.listByGenre("Jazz")));
+        assertEquals(1, next.version(1));
+        assertEquals(2, next.size());
+    }
+
+    @Test
+    void withIgnoresSameOrOlderVersionsButAdvancesTheCursor() {
+        Record current = record(1, "Rock", true);
+        current.setVersion(4);
+        CatalogSnapshot original = CatalogSnapshot.of(List.of(current), 5L);
+        Record older = record(1, "Jazz", false);
+        older.setVersion(3);
+
+        CatalogSnapshot replayed = original.with(older, 7L);
+
+        assertEquals("Rock", replayed.find(1).orElseThrow().getGenre());
+        assertEquals(4, replayed.version(1));
+        assertEquals(7L, replayed.changeCursor());
+        assertSame(original, original.with(older, 5L));
+        assertSame(original, original.withCursor(4L));
+    }
+
+    @Test
+    void fingerprintFollowsIncrementalChangesLikeAFullBuild() {
+        List<Record> records = new ArrayList<>(List.of(record(1, "Rock", true), record(2, "Jazz", false)));
+        CatalogSnapshot snapshot = CatalogSnapshot.of(records, 0L);
+        long initial = snapshot.fingerprint();
+
+        Record updated = record(2, "Jazz", true);
+        updated.setVersion(1);
+        snapshot = snapshot.with(updated, 1L).with(record(3, "Soul", false), 2L);
+        records.set(1, updated);
+        records.add(record(3, "Soul", false));
+
+        assertNotEquals(initial, snapshot.fingerprint());
+        assertEquals(CatalogSnapshot.of(records, 2L).fingerprint(), snapshot.fingerprint());
+        assertEquals(snapshot.fingerprint(), snapshot.withCursor(9L).fingerprint());
+        // Replaying an applied change leaves it alone
+        assertEquals(snapshot.fingerprint(), snapshot.with(updated, 3L).fingerprint());
+    }
+
+    @Test
+    void batchMatchesTheSameChangesAppliedOneByOne() {
+        CatalogSnapshot original = CatalogSnapshot.of(
+                List.of(record(2, "Rock", true), record(4, "Jazz", false), record(6, "Rock", null)), 3L);
+        Record moved = record(4, "Soul", true);
+        moved.setVersion(1);
+        Record movedAgain = record(4, "Funk", true);
+        movedAgain.setVersion(2);
+        Record stale = record(2, "Jazz", false);
+        List<Record> batch = List.of(record(7, "Soul", false), moved, record(1, "Blues", true), movedAgain,
+                stale, record(5, "Rock", false));
+
+        CatalogSnapshot oneByOne = original;
+        for (Record record : batch) oneByOne = oneByOne.with(record, 4L);
+        CatalogSnapshot batched = original.with(batch, 4L);
+
+        CatalogSnapshot rebuilt = CatalogSnapshot.of(List.of(record(1, "Blues", true), record(2, "Rock", true),
+                movedAgain, record(5, "Rock", false), record(6, "Rock", null), record(7, "Soul", false)), 4L);
+        assertEquals(ids(rebuilt.list()), ids(batched.list()));
+        assertEquals(ids(oneByOne.list()), ids(batched.list()));
+        assertEquals(rebuilt.fingerprint(), batched.fingerprint());
+        assertEquals(oneByOne.fingerprint(), batched.fingerprint());
+        assertEquals(oneByOne.genreCount(), batched.genreCount());
+        for (String genre : List.of("Rock", "Soul", "Funk", "Blues", "Jazz")) {
+            assertEquals(ids(oneByOne.listByGenre(genre)), ids(batched.listByGenre(genre)));
+        }
+        assertEquals("Funk", batched.find(4).orElseThrow().getGenre());
+        assertEquals("Rock", batched.find(2).orElseThrow().getGenre());
+        assertEquals(4L, batched.changeCursor());
+        assertEquals(3, original.size());
+    }
+
+    @Test
+    void emptySnapshotHasNoRows() {
+        CatalogSnapshot empty = CatalogSnapshot.empty();
+
+        assertEquals(0, empty.size());
+        assertEquals(List.of(), empty.list());
+        assertEquals(-1, empty.version(1));
+        assertEquals(0, empty.fingerprint());
+    }
+
+    private static Record record(long id, String genre, Boolean hasImage) {
+        Record record = new Record("title " + id, "artist " + id, genre, null,
+                Boolean.TRUE.equals(hasImage) ? "/img/" + id + ".jpg" : null, null);
+        record.setId(id);
+        record.setHasImage(hasImage);
+        return record;
+    }
+
+    private static List<Long> ids(List<Record> records) {
+        return records.stream().map(Record::getId).toList();
+    }
+}
@@ -0,0 +1,144 @@
+package com.juzzt.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventRingBufferTest {
+    private EventRingBuffer<Long> ring;
+
+    @AfterEach
+    void close() {
+        if (ring != null) ring.close(Duration.ofMillis(100));
+    }
+
+    @Test
+    void capacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new EventRingBuffer<Long>("test", 6, 4, 3, Duration.ZERO));
+    }
+
+    @Test
+    void everyConsumerSeesEveryEventInOrderAcrossWraparounds() throws Exception {
+        ring = new EventRingBuffer<>("test", 8, 3, 3, Duration.ZERO);
+        List<Long> first = Collections.synchronizedList(new ArrayList<>());
+        List<Long> second = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger largestBatch = new AtomicInteger();
+        ring.addConsumer("first", batch -> {
+            largestBatch.accumulateAndGet(batch.size(), Math::max);
+            first.addAll(batch);
+        });
+        ring.addConsumer("second", second::addAll);
+        ring.start();
+
+        List<Long> events = LongStream.range(0, 1000).boxed().toList();
+        for (int i = 0; i < events.size(); i += 7) {
+            ring.publishAll(events.subList(i, Math.min(i + 7, events.size())));
+        }
+        awaitProcessed(999);
+
+        assertEquals(events, first);
+        assertEquals(events, second);
+        assertTrue(largestBatch.get() <= 3);
+        assertThrows(IllegalStateException.class, () -> ring.addConsumer("late", batch -> {}));
+    }
+
+    @Test
+    void producerWaitsForTheSlowestConsumer() throws Exception {
+        ring = new EventRingBuffer<>("test", 4, 1, 3, Duration.ZERO);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> handled = Collections.synchronizedList(new ArrayList<>());
+        ring.addConsumer("fast", batch -> {});
+        ring.addConsumer("slow", batch -> {
+            release.await();
+            handled.addAll(batch);
+        });
+        ring.start();
+
+        AtomicLong published = new AtomicLong(-1);
+        Thread producer = Thread.ofPlatform().start(() -> {
+            try {
+                published.set(ring.publishAll(LongStream.range(0, 10).boxed().toList()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // The slow consumer hasn't finished event 0, so the producer stops once events 0-3 fill the ring
+        Thread.sleep(200);
+        assertTrue(producer.isAlive());
+        assertEquals(3, ring.publishedSequence());
+        assertEquals(-1, ring.processedSequence());
+
+        release.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        assertEquals(9, published.get());
+        awaitProcessed(9);
+        assertEquals(LongStream.range(0, 10).boxed().toList(), handled);
+    }
+
+    @Test
+    void failingBatchIsRetriedAndNeverSkipped() throws Exception {
+        ring = new EventRingBuffer<>("test", 8, 8, 2, Duration.ofMillis(5));
+        AtomicInteger failuresLeft = new AtomicInteger(5);
+        List<List<Long>> attempts = Collections.synchronizedList(new ArrayList<>());
+        List<Long> handled = Collections.synchronizedList(new ArrayList<>());
+        ring.addConsumer("flaky", batch -> {
+            attempts.add(List.copyOf(batch));
+            if (failuresLeft.getAndDecrement() > 0) throw new IllegalStateException("down");
+            handled.addAll(batch);
+        });
+        ring.start();
+
+        ring.publishAll(List.of(1L, 2L));
+        awaitCondition(() -> ring.parkedConsumers() == 1);
+        assertEquals(-1, ring.processedSequence());
+
+        awaitProcessed(1);
+        assertEquals(0, ring.parkedConsumers());
+        assertEquals(List.of(1L, 2L), handled);
+        // The same first batch was offered until it succeeded
+        for (int i = 1; i < 6; i++) assertEquals(attempts.get(0), attempts.get(i));
+    }
+
+    @Test
+    void closingWhileParkedLeavesTheBatchUnprocessed() throws Exception {
+        ring = new EventRingBuffer<>("test", 8, 8, 1, Duration.ofMillis(5));
+        ring.addConsumer("broken", batch -> {
+            throw new IllegalStateException("down");
+        });
+        ring.start();
+
+        ring.publishAll(List.of(1L));
+        awaitCondition(() -> ring.parkedConsumers() == 1);
+        ring.close(Duration.ofMillis(50));
+
+        assertEquals(0, ring.publishedSequence());
+        assertEquals(-1, ring.processedSequence());
+    }
+
+    private void awaitProcessed(long sequence) throws InterruptedException {
+        awaitCondition(() -> ring.processedSequence() >= sequence);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("Timed out");
+            Thread.sleep(5);
+        }
+    }
+}
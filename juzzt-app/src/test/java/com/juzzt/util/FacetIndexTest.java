@@ -0,0 +1,144 @@
+package com.juzzt.util;
+
+import com.juzzt.model.Record;
+import com.juzzt.util.FacetIndex.Count;
+import com.juzzt.util.FacetIndex.Dimension;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FacetIndexTest {
+    private static final double[] BANDS = {10, 20};
+
+    private final FacetIndex index = FacetIndex.of(List.of(
+            record(1, "Rock", "Queen", 9.0),
+            record(2, "Rock", "Queen", 15.0),
+            record(3, "Rock", "Rush", 25.0),
+            record(4, "Jazz", "Davis", 15.0),
+            record(5, "Jazz", "Coltrane", 30.0),
+            record(6, "Soul", "Queen", 12.5),
+            record(7, null, null, null)), BANDS);
+
+    @Test
+    void noFiltersSelectsEverything() {
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7), ids(index.select(Map.of())));
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7), ids(index.select(filters(Dimension.GENRE, Set.of()))));
+    }
+
+    @Test
+    void valuesWithinADimensionAreUnioned() {
+        assertEquals(List.of(1, 2, 3, 6), ids(index.select(filters(Dimension.GENRE, Set.of("Rock", "Soul")))));
+        assertEquals(List.of(), ids(index.select(filters(Dimension.GENRE, Set.of("Polka")))));
+    }
+
+    @Test
+    void dimensionsAreIntersected() {
+        Map<Dimension, Set<String>> filters = filters(Dimension.GENRE, Set.of("Rock", "Jazz"));
+        filters.put(Dimension.PRICE, Set.of("10-20"));
+
+        assertEquals(List.of(2, 4), ids(index.select(filters)));
+
+        filters.put(Dimension.ARTIST, Set.of("Queen"));
+        assertEquals(List.of(2), ids(index.select(filters)));
+    }
+
+    @Test
+    void countsIgnoreTheFilterOnTheirOwnDimension() {
+        Map<Dimension, Set<String>> filters = filters(Dimension.GENRE, Set.of("Rock"));
+        filters.put(Dimension.ARTIST, Set.of("Queen"));
+
+        // Genres within Queen's records, whichever genre is picked
+        assertEquals(List.of(new Count("Rock", 2), new Count("Soul", 1)), index.counts(Dimension.GENRE, filters, 10));
+        // Artists within Rock, whichever artist is picked
+        assertEquals(List.of(new Count("Queen", 2), new Count("Rush", 1)), index.counts(Dimension.ARTIST, filters, 10));
+        // Prices within Rock by Queen
+        assertEquals(List.of(new Count("0-10", 1), new Count("10-20", 1)), index.counts(Dimension.PRICE, filters, 10));
+    }
+
+    @Test
+    void countsAreLargestFirstAndLimitedButPriceBandsKeepBandOrder() {
+        assertEquals(List.of(new Count("Queen", 3)), index.counts(Dimension.ARTIST, Map.of(), 1));
+        assertEquals(List.of(new Count("Rock", 3), new Count("Jazz", 2), new Count("Soul", 1)),
+                index.counts(Dimension.GENRE, Map.of(), 10));
+        assertEquals(List.of(new Count("0-10", 1), new Count("10-20", 3), new Count("20+", 2)),
+                index.counts(Dimension.PRICE, Map.of(), 1));
+        assertEquals(List.of("0-10", "10-20", "20+"), index.priceBands());
+    }
+
+    @Test
+    void withMovesARecordBetweenValuesAndLeavesTheOriginalAlone() {
+        FacetIndex next = index.with(record(3, "Rock", "Rush", 25.0), record(3, "Jazz", "Rush", 5.0))
+                .with(null, record(8, "Blues", "King", 40.0));
+
+        assertEquals(List.of(3, 4, 5), ids(next.select(filters(Dimension.GENRE, Set.of("Jazz")))));
+        assertEquals(List.of(1, 2), ids(next.select(filters(Dimension.GENRE, Set.of("Rock")))));
+        assertEquals(List.of(1, 3), ids(next.select(filters(Dimension.PRICE, Set.of("0-10")))));
+        assertEquals(List.of(8), ids(next.select(filters(Dimension.GENRE, Set.of("Blues")))));
+        assertEquals(8, next.select(Map.of()).getCardinality());
+
+        assertEquals(List.of(1, 2, 3), ids(index.select(filters(Dimension.GENRE, Set.of("Rock")))));
+        assertEquals(7, index.select(Map.of()).getCardinality());
+    }
+
+    @Test
+    void emptiedValuesDisappearFromCounts() {
+        FacetIndex next = index.with(record(6, "Soul", "Queen", 12.5), record(6, "Rock", "Queen", 12.5));
+
+        assertEquals(List.of(new Count("Rock", 4), new Count("Jazz", 2)), next.counts(Dimension.GENRE, Map.of(), 10));
+    }
+
+    @Test
+    void batchMatchesTheSameChangesAppliedOneByOne() {
+        // Two records leave Soul in one batch, and one takes another record's old genre
+        List<FacetIndex.Change> changes = List.of(
+                new FacetIndex.Change(record(6, "Soul", "Queen", 12.5), record(6, "Rock", "Queen", 12.5)),
+                new FacetIndex.Change(record(4, "Jazz", "Davis", 15.0), record(4, "Soul", "Davis", 15.0)),
+                new FacetIndex.Change(record(5, "Jazz", "Coltrane", 30.0), record(5, "Funk", "Coltrane", 30.0)),
+                new FacetIndex.Change(null, record(8, "Soul", "King", 40.0)));
+        FacetIndex oneByOne = index;
+        for (FacetIndex.Change change : changes) oneByOne = oneByOne.with(change.previous(), change.current());
+
+        FacetIndex batch = index.with(changes);
+
+        for (Dimension dimension : Dimension.values()) {
+            assertEquals(oneByOne.counts(dimension, Map.of(), 10), batch.counts(dimension, Map.of(), 10));
+        }
+        assertEquals(List.of(4, 8), ids(batch.select(filters(Dimension.GENRE, Set.of("Soul")))));
+        assertEquals(List.of(), ids(batch.select(filters(Dimension.GENRE, Set.of("Jazz")))));
+        assertEquals(List.of(4, 5), ids(index.select(filters(Dimension.GENRE, Set.of("Jazz")))));
+        assertEquals(List.of(6), ids(index.select(filters(Dimension.GENRE, Set.of("Soul")))));
+    }
+
+    @Test
+    void pagesAfterTheCursor() {
+        RoaringBitmap all = index.select(Map.of());
+
+        assertEquals(List.of(1L, 2L, 3L), FacetIndex.page(all, 0, 3));
+        assertEquals(List.of(4L, 5L, 6L), FacetIndex.page(all, 3, 3));
+        assertEquals(List.of(7L), FacetIndex.page(all, 6, 3));
+        assertEquals(List.of(), FacetIndex.page(all, 7, 3));
+        assertEquals(List.of(), FacetIndex.page(all, Long.MAX_VALUE, 3));
+    }
+
+    private static Map<Dimension, Set<String>> filters(Dimension dimension, Set<String> values) {
+        Map<Dimension, Set<String>> filters = new EnumMap<>(Dimension.class);
+        filters.put(dimension, values);
+        return filters;
+    }
+
+    private static List<Integer> ids(RoaringBitmap bitmap) {
+        return bitmap.stream().boxed().toList();
+    }
+
+    private static Record record(long id, String genre, String artist, Double price) {
+        Record record = new Record("title " + id, artist, genre, price, null, null);
+        record.setId(id);
+        return record;
+    }
+}
@@ -0,0 +1,89 @@
+package com.juzzt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+    private static final int FACTORS = 16;
+    private static final int ITEMS = 3000;
+    private static final int K = 10;
+
+    @Test
+    void recallAgainstBruteForceInnerProduct() {
+        Random random = new Random(11);
+        float[] items = vectors(random, ITEMS);
+        HnswIndex index = HnswIndex.build(items, FACTORS, 16, 200, 5L);
+
+        int queries = 100;
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            float[] query = new float[FACTORS + 1]; // Augmented component stays 0, as RecommendationModel does
+            for (int i = 0; i < FACTORS; i++) query[i] = (float) random.nextGaussian();
+
+            Set<Integer> exact = bruteForce(items, query);
+            List<HnswIndex.Hit> hits = index.search(query, K, 100);
+            assertEquals(K, hits.size());
+            for (int i = 1; i < hits.size(); i++) {
+                assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+            }
+            found += (int) hits.stream().filter(hit -> exact.contains(hit.node())).count();
+        }
+        double recall = (double) found / (queries * K);
+        assertTrue(recall >= 0.9, "recall@" + K + " = " + recall);
+    }
+
+    @Test
+    void scoresAreTheInnerProductWithTheOriginalFactors() {
+        Random random = new Random(3);
+        float[] items = vectors(random, 200);
+        HnswIndex index = HnswIndex.build(items, FACTORS, 8, 50, 1L);
+        float[] query = new float[FACTORS + 1];
+        for (int i = 0; i < FACTORS; i++) query[i] = (float) random.nextGaussian();
+
+        for (HnswIndex.Hit hit : index.search(query, 5, 50)) {
+            assertEquals(dot(items, hit.node(), query), hit.score(), 1e-4);
+        }
+    }
+
+    @Test
+    void smallIndexesReturnEverythingWhenAskedForMore() {
+        float[] items = vectors(new Random(1), 3);
+        HnswIndex index = HnswIndex.build(items, FACTORS, 8, 50, 1L);
+
+        assertEquals(Set.of(0, 1, 2), index.search(new float[FACTORS + 1], 10, 10).stream()
+                .map(HnswIndex.Hit::node).collect(Collectors.toSet()));
+        assertTrue(HnswIndex.build(new float[0], FACTORS, 8, 50, 1L).search(new float[FACTORS + 1], 5, 5).isEmpty());
+    }
+
+    // Varying norms, as trained item factors have: popular records end up with longer vectors
+    private static float[] vectors(Random random, int count) {
+        float[] vectors = new float[count * FACTORS];
+        for (int n = 0; n < count; n++) {
+            double norm = 0.2 + random.nextDouble() * 2;
+            for (int i = 0; i < FACTORS; i++) vectors[n * FACTORS + i] = (float) (random.nextGaussian() * norm);
+        }
+        return vectors;
+    }
+
+    private static Set<Integer> bruteForce(float[] items, float[] query) {
+        return IntStream.range(0, items.length / FACTORS).boxed()
+                .sorted((a, b) -> Float.compare(dot(items, b, query), dot(items, a, query)))
+                .limit(K)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static float dot(float[] items, int node, float[] query) {
+        float sum = 0;
+        for (int i = 0; i < FACTORS; i++) sum += items[node * FACTORS + i] * query[i];
+        return sum;
+    }
+}
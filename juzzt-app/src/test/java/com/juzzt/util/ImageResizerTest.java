@@ -0,0 +1,56 @@
+package com.juzzt.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageResizerTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void scalesLongestSideWithoutUpscaling() {
+        BufferedImage wide = ImageResizer.scaleToFit(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB), 300);
+        assertEquals(300, wide.getWidth());
+        assertEquals(150, wide.getHeight());
+
+        BufferedImage small = ImageResizer.scaleToFit(new BufferedImage(100, 80, BufferedImage.TYPE_INT_RGB), 300);
+        assertEquals(100, small.getWidth());
+        assertEquals(80, small.getHeight());
+    }
+
+    @Test
+    void transparentPixelsBecomeWhite() {
+        BufferedImage transparent = new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB); // All alpha 0
+        BufferedImage scaled = ImageResizer.scaleToFit(transparent, 20);
+        assertEquals(0xFFFFFF, scaled.getRGB(10, 10) & 0xFFFFFF);
+    }
+
+    @Test
+    void writingJpegsDoesNotLeakFileDescriptors() throws IOException {
+        Path fds = Path.of("/proc/self/fd");
+        if (!Files.isDirectory(fds)) return; // Linux only
+
+        BufferedImage image = new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB);
+        ImageResizer.writeJpeg(image, dir.resolve("warmup.jpg"));
+        long before = count(fds);
+        for (int i = 0; i < 200; i++) {
+            ImageResizer.writeJpeg(image, dir.resolve(i + ".jpg"));
+        }
+        assertTrue(count(fds) - before < 20, "file descriptors left open");
+    }
+
+    private static long count(Path fds) throws IOException {
+        try (Stream<Path> open = Files.list(fds)) {
+            return open.count();
+        }
+    }
+}
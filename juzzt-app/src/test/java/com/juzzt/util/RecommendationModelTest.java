@@ -0,0 +1,111 @@
+package com.juzzt.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Model file write and memory-mapped read back.
+ */
+class RecommendationModelTest {
+    private static final int FACTORS = 8;
+    private static final long[] USER_IDS = {3, 10, 11, 250};
+    private static final long[] RECORD_IDS = {900, 17, 42, 5, 63, 8, 1000, 77, 12, 31, 44, 2};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void mappedModelRecommendsLikeTheTrainedOne() throws IOException {
+        AlsTrainer.Factors trained = factors(1);
+        HnswIndex index = HnswIndex.build(trained.itemFactors(), FACTORS, 4, 50, 1L);
+        Path file = dir.resolve("model.bin");
+
+        RecommendationModel.write(file, USER_IDS, RECORD_IDS, trained, index);
+        RecommendationModel model = RecommendationModel.map(file);
+
+        assertEquals(USER_IDS.length, model.userCount());
+        assertEquals(RECORD_IDS.length, model.recordCount());
+        for (int row = 0; row < USER_IDS.length; row++) {
+            assertTrue(model.hasUser(USER_IDS[row]));
+            assertEquals(expected(trained, index, row, 5, Set.of()), model.recommend(USER_IDS[row], 5, Set.of(), 50).orElseThrow());
+        }
+    }
+
+    @Test
+    void excludedRecordsAreSkippedAndTheListIsStillFilled() throws IOException {
+        AlsTrainer.Factors trained = factors(2);
+        HnswIndex index = HnswIndex.build(trained.itemFactors(), FACTORS, 4, 50, 1L);
+        Path file = dir.resolve("model.bin");
+        RecommendationModel.write(file, USER_IDS, RECORD_IDS, trained, index);
+        RecommendationModel model = RecommendationModel.map(file);
+
+        List<Long> top = model.recommend(USER_IDS[1], 3, Set.of(), 50).orElseThrow();
+        Set<Long> exclude = Set.of(top.get(0), top.get(2));
+        List<Long> filtered = model.recommend(USER_IDS[1], 3, exclude, 50).orElseThrow();
+
+        assertEquals(3, filtered.size());
+        assertEquals(top.get(1), filtered.get(0));
+        assertTrue(filtered.stream().noneMatch(exclude::contains));
+    }
+
+    @Test
+    void unknownUsersHaveNoRecommendations() throws IOException {
+        AlsTrainer.Factors trained = factors(3);
+        Path file = dir.resolve("model.bin");
+        RecommendationModel.write(file, USER_IDS, RECORD_IDS, trained, HnswIndex.build(trained.itemFactors(), FACTORS, 4, 50, 1L));
+        RecommendationModel model = RecommendationModel.map(file);
+
+        assertFalse(model.hasUser(4L));
+        assertEquals(Optional.empty(), model.recommend(4L, 5, Set.of(), 50));
+        assertEquals(Optional.empty(), model.recommend(251L, 5, Set.of(), 50));
+    }
+
+    @Test
+    void replacingTheFileLeavesAnAlreadyMappedModelReadable() throws IOException {
+        Path file = dir.resolve("model.bin");
+        AlsTrainer.Factors first = factors(4);
+        HnswIndex firstIndex = HnswIndex.build(first.itemFactors(), FACTORS, 4, 50, 1L);
+        RecommendationModel.write(file, USER_IDS, RECORD_IDS, first, firstIndex);
+        RecommendationModel mapped = RecommendationModel.map(file);
+
+        AlsTrainer.Factors second = factors(5);
+        RecommendationModel.write(file, new long[]{99}, RECORD_IDS, new AlsTrainer.Factors(FACTORS,
+                new float[FACTORS], second.itemFactors()), HnswIndex.build(second.itemFactors(), FACTORS, 4, 50, 1L));
+
+        assertEquals(expected(first, firstIndex, 0, 5, Set.of()), mapped.recommend(USER_IDS[0], 5, Set.of(), 50).orElseThrow());
+        assertEquals(1, RecommendationModel.map(file).userCount());
+    }
+
+    private static AlsTrainer.Factors factors(long seed) {
+        Random random = new Random(seed);
+        float[] users = new float[USER_IDS.length * FACTORS];
+        float[] items = new float[RECORD_IDS.length * FACTORS];
+        for (int i = 0; i < users.length; i++) users[i] = (float) random.nextGaussian();
+        for (int i = 0; i < items.length; i++) items[i] = (float) random.nextGaussian();
+        return new AlsTrainer.Factors(FACTORS, users, items);
+    }
+
+    // The same search against the in-memory index the file was written from
+    private static List<Long> expected(AlsTrainer.Factors trained, HnswIndex index, int row, int limit, Set<Long> exclude) {
+        float[] query = new float[FACTORS + 1];
+        System.arraycopy(trained.userFactors(), row * FACTORS, query, 0, FACTORS);
+        List<Long> ids = new ArrayList<>();
+        for (HnswIndex.Hit hit : index.search(query, limit + exclude.size(), 50)) {
+            if (!exclude.contains(RECORD_IDS[hit.node()])) ids.add(RECORD_IDS[hit.node()]);
+            if (ids.size() == limit) break;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,69 @@
+package com.juzzt.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestTimingTest {
+    @AfterEach
+    void close() {
+        RequestTiming.close();
+    }
+
+    @Test
+    void nothingIsRecordedWithoutAContext() {
+        assertEquals(0, RequestTiming.begin());
+        RequestTiming.end("db", 0);
+        RequestTiming.record("db", 1_000_000);
+        assertNull(RequestTiming.current());
+    }
+
+    @Test
+    void spansAddUpPerKindInFirstSeenOrder() throws InterruptedException {
+        RequestTiming timing = RequestTiming.open();
+        assertSame(timing, RequestTiming.current());
+
+        RequestTiming.record("db", 1_000_000);
+        RequestTiming.record("cache", 250_000);
+        RequestTiming.record("db", 500_000);
+        long begin = RequestTiming.begin();
+        assertTrue(begin != 0);
+        Thread.sleep(2);
+        RequestTiming.end("http", begin);
+
+        assertEquals(List.of("db", "cache", "http"), List.copyOf(timing.spans().keySet()));
+        assertEquals(1_500_000, timing.spans().get("db").nanos());
+        assertEquals(2, timing.spans().get("db").count());
+        assertTrue(timing.spans().get("http").nanos() >= 2_000_000);
+    }
+
+    @Test
+    void serverTimingHeaderFormat() {
+        RequestTiming timing = RequestTiming.open();
+        timing.add("db", 12_340_000);
+        timing.add("db", 10_000);
+        timing.add("cache", 250_000);
+
+        String header = timing.toServerTiming();
+        assertTrue(header.startsWith("db;dur=12.4;desc=\"2 calls\", cache;dur=0.3, total;dur="), header);
+        assertTrue(header.matches(".*, total;dur=\\d+\\.\\d$"), header);
+    }
+
+    @Test
+    void withoutSpansOnlyTheTotalIsReported() {
+        assertTrue(RequestTiming.open().toServerTiming().matches("total;dur=\\d+\\.\\d"));
+    }
+
+    @Test
+    void closeEndsTheContext() {
+        RequestTiming.open();
+        RequestTiming.close();
+        assertEquals(0, RequestTiming.begin());
+    }
+}
@@ -0,0 +1,82 @@
+package com.juzzt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SlidingWindowCounterTest {
+    private static final long SECOND = 1000;
+
+    // Three one-second buckets: the window at time t covers [bucketStart(t) - 2s, bucketStart(t) + 1s)
+    private final SlidingWindowCounter<String> counter = new SlidingWindowCounter<>(Duration.ofSeconds(1), 3);
+
+    @Test
+    void sumsEveryBucketInTheWindow() {
+        counter.add("a", 5, 0);
+        counter.add("a", 2, SECOND + 10);
+        counter.add("b", 1, 2 * SECOND + 999);
+
+        assertEquals(7, counter.total("a", 2 * SECOND + 999));
+        assertEquals(Map.of("a", 7L, "b", 1L), counter.totals(2 * SECOND + 999));
+    }
+
+    @Test
+    void dropsBucketsAsTheyLeaveTheWindow() {
+        counter.add("a", 5, 0);
+        counter.add("a", 2, SECOND);
+
+        assertEquals(2, counter.total("a", 3 * SECOND));
+        assertEquals(0, counter.total("a", 4 * SECOND));
+        // Fully expired keys are removed rather than kept at zero
+        assertFalse(counter.totals(4 * SECOND).containsKey("a"));
+    }
+
+    @Test
+    void reusedSlotStartsFromZero() {
+        counter.add("a", 5, 0);
+        // Same slot as the first bucket, one full window later
+        counter.add("a", 1, 3 * SECOND);
+
+        assertEquals(1, counter.total("a", 3 * SECOND));
+        assertEquals(Map.of("a", 1L), counter.bucket(3 * SECOND));
+        assertEquals(Map.of(), counter.bucket(0));
+    }
+
+    @Test
+    void ignoresEventsOlderThanTheWindow() {
+        counter.add("a", 1, 10 * SECOND);
+        counter.add("a", 100, 7 * SECOND + 500);
+        counter.add("a", 10, 8 * SECOND);
+
+        assertEquals(11, counter.total("a", 10 * SECOND));
+        assertEquals(Map.of("a", 10L), counter.bucket(8 * SECOND));
+    }
+
+    @Test
+    void lateEventsInsideTheWindowCountInTheirOwnBucket() {
+        counter.add("a", 1, 2 * SECOND);
+        counter.add("a", 4, SECOND);
+
+        assertEquals(Map.of("a", 4L), counter.bucket(SECOND));
+        assertEquals(5, counter.total("a", 2 * SECOND));
+        assertEquals(1, counter.total("a", 4 * SECOND));
+    }
+
+    @Test
+    void readsDoNotMoveTheWindowBackwards() {
+        counter.add("a", 3, 5 * SECOND);
+
+        assertEquals(3, counter.total("a", 0));
+        assertEquals(3, counter.total("a", 5 * SECOND));
+    }
+
+    @Test
+    void bucketStartsAlignToTheBucketLength() {
+        assertEquals(2 * SECOND, counter.bucketStart(2 * SECOND + 999));
+        assertEquals(-SECOND, counter.bucketStart(-1));
+    }
+}